@@ -0,0 +1,83 @@
+package songs.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AggregateBenchmark class that measures SongAggregator group-by passes on pools of 1 to 16 threads, to check that
+ * the time falls in step with the thread count (up to the machine's cores) on the 10M row catalog.
+ * The groupings are the analysts' usual ones: streams by release year and month, audio features by key and mode, and
+ * song counts by playlist-count bucket.
+ *
+ * @author Bennett Fife
+ * @version 10/17/26
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+public class AggregateBenchmark {
+
+    @Param({"10000000"})
+    public int rows;
+
+    @Param({"1", "2", "4", "8", "16"})
+    public int threads;
+
+    @Param({"yearMonth", "keyMode", "playlistBucket"})
+    public String grouping;
+
+    private ForkJoinPool pool;
+    private Object aggregator;
+    private Object catalog;
+    private Object groupBy;
+    private Object measures;
+
+    @Setup
+    public void setUp() {
+        catalog = Songs.getCatalog(Songs.newManager(Songs.standardFile(rows), true));
+        pool = new ForkJoinPool(threads);
+        aggregator = Songs.newAggregator(pool);
+        switch (grouping) {
+            case "yearMonth":
+                groupBy = Songs.groupBy("RELEASED_YEAR", "RELEASED_MONTH");
+                measures = Songs.columns("STREAMS");
+                break;
+            case "keyMode":
+                groupBy = Songs.groupBy("KEY", "MODE");
+                measures = Songs.columns("DANCEABILITY", "ENERGY", "VALENCE");
+                break;
+            case "playlistBucket":
+                groupBy = Songs.groupBy("IN_SPOTIFY_PLAYLISTS/1000");
+                measures = Songs.columns();
+                break;
+            default:
+                throw new IllegalArgumentException("unknown grouping " + grouping);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public Object aggregate() {
+        return Songs.aggregate(aggregator, catalog, groupBy, measures);
+    }
+}
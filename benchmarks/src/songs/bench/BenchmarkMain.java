@@ -0,0 +1,28 @@
+package songs.bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * BenchmarkMain class that runs the song benchmarks with the GC profiler, so every result reports the allocation rate
+ * (bytes per operation and MB/sec) next to its throughput or latency.  Arguments are the usual JMH command line, e.g.
+ * {@code LookupBenchmark -p rows=1000,100000} to run the lookups on the two smaller files only.
+ *
+ * @author Bennett Fife
+ * @version 10/17/26
+ */
+public class BenchmarkMain {
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        OptionsBuilder options = new OptionsBuilder();
+        if (commandLine.getIncludes().isEmpty()) {
+            options.include(BenchmarkMain.class.getPackageName() + ".*");
+        }
+        new Runner(options.parent(commandLine).addProfiler(GCProfiler.class).build()).run();
+    }
+}
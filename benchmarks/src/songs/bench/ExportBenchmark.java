@@ -0,0 +1,50 @@
+package songs.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ExportBenchmark class that measures SongExporter writing every song of a catalog as formatted CSV to a stream that
+ * drops the bytes, so only the formatting and encoding are timed.  With the GC profiler the allocation per export
+ * should stay near zero at every size.
+ *
+ * @author Bennett Fife
+ * @version 10/17/26
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+public class ExportBenchmark {
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int rows;
+
+    private Object catalog;
+    private Object exporter;
+
+    @Setup
+    public void setUp() {
+        catalog = Songs.getCatalog(Songs.newManager(Songs.standardFile(rows), true));
+        exporter = Songs.newExporter(OutputStream.nullOutputStream());
+    }
+
+    @Benchmark
+    public int export() {
+        return Songs.export(exporter, catalog);
+    }
+}
@@ -0,0 +1,64 @@
+package songs.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * FilterBenchmark class that measures audio feature filters: the feature index against checking every song.
+ * The filters go from a narrow tempo range to broad mood ranges, so both the candidate row and the bitmap plans
+ * are measured.  The index is built during setup, so only the queries are measured.
+ *
+ * @author Bennett Fife
+ * @version 10/17/26
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+public class FilterBenchmark {
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int rows;
+
+    /**
+     * ANDed column ranges; MODE 1 is Minor and KEY 7 is G
+     */
+    @Param({"BPM=120..130,ENERGY=81..,MODE=1..1", "BPM=128..128,KEY=7..7",
+            "DANCEABILITY=60..,VALENCE=60..,MODE=0..0"})
+    public String ranges;
+
+    private Object catalog;
+    private Object filter;
+
+    @Setup
+    public void setUp() {
+        Object manager = Songs.newManager(Songs.standardFile(rows), true);
+        catalog = Songs.getCatalog(manager);
+        filter = Songs.filter(ranges.split(","));
+        //build the index now rather than in the first measured call
+        Songs.filter(catalog, filter);
+    }
+
+    @Benchmark
+    public Object[] indexFilter() {
+        return Songs.filter(catalog, filter);
+    }
+
+    @Benchmark
+    public Object[] linearScan() {
+        return Songs.filterLinear(catalog, filter);
+    }
+}
@@ -0,0 +1,68 @@
+package songs.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.text.NumberFormat;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * FormatBenchmark class that measures grouping a stream count with a comma every three digits: the way
+ * SongViewer.numberCommas used to (a new NumberFormat for every count), with one shared NumberFormat, with
+ * SongViewer.numberCommas (SongFormat into a new string) and with SongFormat into a reused StringBuilder, which
+ * allocates nothing.  Run with the GC profiler to compare the allocation of each.
+ *
+ * @author Bennett Fife
+ * @version 10/17/26
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FormatBenchmark {
+
+    @Param({"0", "1234", "987654321", "2147483647", "3703895074"})
+    public String streams;
+
+    private long value;
+    private final NumberFormat shared = NumberFormat.getNumberInstance(Locale.US);
+    private final StringBuilder out = new StringBuilder(32);
+
+    @Setup
+    public void setUp() {
+        value = Long.parseLong(streams);
+    }
+
+    @Benchmark
+    public String newNumberFormat() {
+        return NumberFormat.getNumberInstance(Locale.US).format(value);
+    }
+
+    @Benchmark
+    public String sharedNumberFormat() {
+        return shared.format(value);
+    }
+
+    @Benchmark
+    public String numberCommas() {
+        return Songs.numberCommas(streams);
+    }
+
+    @Benchmark
+    public StringBuilder appendGrouped() {
+        out.setLength(0);
+        return Songs.appendGrouped(out, value);
+    }
+}
@@ -0,0 +1,54 @@
+package songs.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * LoadBenchmark class that measures SongManager construction: parsing, bucketing and sorting a song file, and
+ * opening the CatalogSnapshot written for it.  Each construction is timed on its own (single shot) because one load
+ * of the larger files takes seconds.
+ *
+ * @author Bennett Fife
+ * @version 10/17/26
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+public class LoadBenchmark {
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int rows;
+
+    private String path;
+
+    @Setup
+    public void setUp() {
+        path = Songs.standardFile(rows);
+        //writes the snapshot that openSnapshot reads
+        Songs.newManager(path, true);
+    }
+
+    @Benchmark
+    public Object parse() {
+        return Songs.newManager(path, false);
+    }
+
+    @Benchmark
+    public Object openSnapshot() {
+        return Songs.newManager(path, true);
+    }
+}
@@ -0,0 +1,113 @@
+package songs.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * LookupBenchmark class that measures the SongManager read paths: findSongYear, getSongNum, getSong and getSongs,
+ * and the same lookups answered by a SongQueryCache (which holds every prepared lookup after the warmup).
+ * The looked up names and positions are drawn once per trial from a fixed seed (with one name in eight missing from
+ * the catalog), and each thread walks through them in turn so no call is answered from a warm cache line every time.
+ *
+ * @author Bennett Fife
+ * @version 10/17/26
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+public class LookupBenchmark {
+
+    /**
+     * number of prepared lookups; a power of two so the next one is picked with a mask
+     */
+    private static final int LOOKUPS = 4096;
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int rows;
+
+    private Object manager;
+    private Object cache;
+    private final String[] trackNames = new String[LOOKUPS];
+    private final int[] yearIndexes = new int[LOOKUPS];
+    private final int[] songIndexes = new int[LOOKUPS];
+
+    @Setup
+    public void setUp() {
+        manager = Songs.newManager(Songs.standardFile(rows), true);
+        cache = Songs.newQueryCache(manager);
+        SplittableRandom random = new SplittableRandom(LOOKUPS);
+        int yearCount = Songs.getYearCount(manager);
+        for (int i = 0; i < LOOKUPS; i++) {
+            int yearIndex = random.nextInt(yearCount);
+            int songIndex = random.nextInt(Songs.getSongCount(manager, yearIndex));
+            yearIndexes[i] = yearIndex;
+            songIndexes[i] = songIndex;
+            trackNames[i] = i % 8 == 7 ? "Missing Track " + i
+                    : Songs.trackName(Songs.getSong(manager, yearIndex, songIndex));
+        }
+    }
+
+    /**
+     * Position of a thread in the prepared lookups
+     */
+    @State(Scope.Thread)
+    public static class Position {
+        private int next;
+
+        int next() {
+            return next++ & (LOOKUPS - 1);
+        }
+    }
+
+    @Benchmark
+    public int findSongYear(Position position) {
+        return Songs.findSongYear(manager, trackNames[position.next()]);
+    }
+
+    @Benchmark
+    public int getSongNum(Position position) {
+        return Songs.getSongNum(manager, trackNames[position.next()]);
+    }
+
+    @Benchmark
+    public Object getSong(Position position) {
+        int i = position.next();
+        return Songs.getSong(manager, yearIndexes[i], songIndexes[i]);
+    }
+
+    @Benchmark
+    public Object[] getSongs(Position position) {
+        return Songs.getSongs(manager, yearIndexes[position.next()]);
+    }
+
+    @Benchmark
+    public int cachedFindSongYear(Position position) {
+        return Songs.cachedFindSongYear(cache, trackNames[position.next()]);
+    }
+
+    @Benchmark
+    public Object cachedGetSong(Position position) {
+        int i = position.next();
+        return Songs.cachedGetSong(cache, yearIndexes[i], songIndexes[i]);
+    }
+
+    @Benchmark
+    public Object[] cachedGetSongs(Position position) {
+        return Songs.cachedGetSongs(cache, yearIndexes[position.next()]);
+    }
+}
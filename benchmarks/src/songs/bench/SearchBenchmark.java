@@ -0,0 +1,92 @@
+package songs.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SearchBenchmark class that measures type-ahead search latency: the search index against the linear scan it
+ * replaces.  The queries are every prefix of some track and artist names as they would be typed, plus some
+ * substrings from the middle of names, drawn once per trial from a fixed seed.  The index is built during setup,
+ * so only the queries are measured.
+ *
+ * @author Bennett Fife
+ * @version 10/17/26
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+public class SearchBenchmark {
+
+    /**
+     * results shown under the search field
+     */
+    private static final int LIMIT = 10;
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int rows;
+
+    private Object catalog;
+    private String[] queries;
+
+    @Setup
+    public void setUp() {
+        Object manager = Songs.newManager(Songs.standardFile(rows), true);
+        catalog = Songs.getCatalog(manager);
+        SplittableRandom random = new SplittableRandom(LIMIT);
+        int yearCount = Songs.getYearCount(manager);
+        List<String> typed = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            int yearIndex = random.nextInt(yearCount);
+            Object song = Songs.getSong(manager, yearIndex, random.nextInt(Songs.getSongCount(manager, yearIndex)));
+            String name = i % 3 == 0 ? Songs.artistName(song) : Songs.trackName(song);
+            int from = i % 4 == 0 ? name.length() / 2 : 0;
+            for (int end = from + 1; end <= name.length(); end++) {
+                typed.add(name.substring(from, end));
+            }
+        }
+        queries = typed.toArray(new String[0]);
+        //build the index now rather than in the first measured call
+        Songs.search(catalog, queries[0], LIMIT);
+    }
+
+    /**
+     * Position of a thread in the prepared queries
+     */
+    @State(Scope.Thread)
+    public static class Position {
+        private int next;
+
+        String next(String[] queries) {
+            String query = queries[next];
+            next = next + 1 == queries.length ? 0 : next + 1;
+            return query;
+        }
+    }
+
+    @Benchmark
+    public Object[] indexSearch(Position position) {
+        return Songs.search(catalog, position.next(queries), LIMIT);
+    }
+
+    @Benchmark
+    public Object[] linearScan(Position position) {
+        return Songs.searchLinear(catalog, position.next(queries), LIMIT);
+    }
+}
@@ -0,0 +1,95 @@
+package songs.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SimilarityBenchmark class that measures "songs like this" searches: an exact scan of every feature vector against
+ * the approximate inverted file search.  Setup builds both indexes and prints the recall of the approximate search
+ * (the share of the exact k nearest songs it also returns) over the prepared songs, so the latency of each mode can
+ * be read next to what it gives up.
+ * The forks run with jdk.incubator.vector resolved, so blocks of rows are compared with the vector module's kernel
+ * when vector is true and with SimilarityIndex's plain loop when it is false.
+ *
+ * @author Bennett Fife
+ * @version 10/17/26
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g", "--add-modules", "jdk.incubator.vector"})
+public class SimilarityBenchmark {
+
+    /**
+     * number of prepared songs; a power of two so the next one is picked with a mask
+     */
+    private static final int QUERIES = 256;
+
+    @Param({"1000", "100000", "1000000"})
+    public int rows;
+
+    @Param({"10"})
+    public int k;
+
+    @Param({"true", "false"})
+    public String vector;
+
+    private Object catalog;
+    private final int[] yearIndexes = new int[QUERIES];
+    private final int[] songIndexes = new int[QUERIES];
+    private int next;
+
+    @Setup
+    public void setUp() {
+        //read when SimilarityIndex is loaded, which is not before the first index is built in this fork
+        System.setProperty("songs.vector", vector);
+        Object manager = Songs.newManager(Songs.standardFile(rows), true);
+        catalog = Songs.getCatalog(manager);
+        SplittableRandom random = new SplittableRandom(QUERIES);
+        int yearCount = Songs.getYearCount(manager);
+        for (int i = 0; i < QUERIES; i++) {
+            yearIndexes[i] = random.nextInt(yearCount);
+            songIndexes[i] = random.nextInt(Songs.getSongCount(manager, yearIndexes[i]));
+        }
+        //builds both indexes, so only the searches are measured
+        int found = 0;
+        for (int i = 0; i < QUERIES; i++) {
+            Set<Object> exact = new HashSet<>(Arrays.asList(Songs.similar(catalog, yearIndexes[i], songIndexes[i], k,
+                    null)));
+            for (Object location : Songs.similarApproximate(catalog, yearIndexes[i], songIndexes[i], k, null)) {
+                found += exact.contains(location) ? 1 : 0;
+            }
+        }
+        System.out.printf("%n%,d rows (vector kernel %s): approximate recall@%d %.1f%%%n", rows, vector, k,
+                found * 100.0 / (QUERIES * k));
+    }
+
+    @Benchmark
+    public Object[] exact() {
+        int i = next++ & (QUERIES - 1);
+        return Songs.similar(catalog, yearIndexes[i], songIndexes[i], k, null);
+    }
+
+    @Benchmark
+    public Object[] approximate() {
+        int i = next++ & (QUERIES - 1);
+        return Songs.similarApproximate(catalog, yearIndexes[i], songIndexes[i], k, null);
+    }
+}
@@ -0,0 +1,468 @@
+package songs.bench;
+
+import java.io.OutputStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Songs class that lets the benchmarks call the SongsProject classes.
+ * JMH will not generate benchmarks in the default package and a named package cannot refer to default package
+ * classes, so every call goes through a static final MethodHandle.  The JIT treats those handles as constants and
+ * inlines through them, so the measured cost is the cost of the call itself.
+ *
+ * @author Bennett Fife
+ * @version 10/17/26
+ */
+final class Songs {
+
+    private static final MethodHandle NEW_MANAGER;
+    private static final MethodHandle FIND_SONG_YEAR;
+    private static final MethodHandle GET_SONG_NUM;
+    private static final MethodHandle GET_SONG;
+    private static final MethodHandle GET_SONGS;
+    private static final MethodHandle GET_YEAR_COUNT;
+    private static final MethodHandle GET_SONG_COUNT;
+    private static final MethodHandle GET_TRACK_NAME;
+    private static final MethodHandle SORT_SONGS;
+    private static final MethodHandle SORT_KEY;
+    private static final MethodHandle GET_CATALOG;
+    private static final MethodHandle SEARCH;
+    private static final MethodHandle SEARCH_LINEAR;
+    private static final MethodHandle GET_ARTIST_NAME;
+    private static final MethodHandle NEW_AGGREGATOR;
+    private static final MethodHandle AGGREGATE;
+    private static final MethodHandle GROUP_KEY;
+    private static final MethodHandle SONG_COLUMN;
+    private static final Class<?> GROUP_KEY_CLASS;
+    private static final Class<?> SONG_COLUMN_CLASS;
+    private static final MethodHandle RANGE;
+    private static final MethodHandle AND;
+    private static final Class<?> SONG_FILTER_CLASS;
+    private static final MethodHandle FILTER;
+    private static final MethodHandle FILTER_LINEAR;
+    private static final MethodHandle SIMILAR;
+    private static final MethodHandle SIMILAR_APPROXIMATE;
+    private static final MethodHandle NUMBER_COMMAS;
+    private static final MethodHandle APPEND_GROUPED;
+    private static final MethodHandle NEW_EXPORTER;
+    private static final MethodHandle EXPORT;
+    private static final MethodHandle NEW_QUERY_CACHE;
+    private static final MethodHandle CACHED_FIND_SONG_YEAR;
+    private static final MethodHandle CACHED_GET_SONG;
+    private static final MethodHandle CACHED_GET_SONGS;
+    private static final MethodHandle STANDARD_FILE;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            Class<?> manager = Class.forName("SongManager");
+            Class<?> song = Class.forName("Song");
+            Class<?> sortKey = Class.forName("SortKey");
+            NEW_MANAGER = lookup.findConstructor(manager, MethodType.methodType(void.class, String.class,
+                    boolean.class)).asType(MethodType.methodType(Object.class, String.class, boolean.class));
+            FIND_SONG_YEAR = lookup.findVirtual(manager, "findSongYear", MethodType.methodType(int.class,
+                    String.class)).asType(MethodType.methodType(int.class, Object.class, String.class));
+            GET_SONG_NUM = lookup.findVirtual(manager, "getSongNum", MethodType.methodType(int.class,
+                    String.class)).asType(MethodType.methodType(int.class, Object.class, String.class));
+            GET_SONG = lookup.findVirtual(manager, "getSong", MethodType.methodType(song, int.class, int.class))
+                    .asType(MethodType.methodType(Object.class, Object.class, int.class, int.class));
+            GET_SONGS = lookup.findVirtual(manager, "getSongs", MethodType.methodType(song.arrayType(), int.class))
+                    .asType(MethodType.methodType(Object[].class, Object.class, int.class));
+            GET_YEAR_COUNT = lookup.findVirtual(manager, "getYearCount", MethodType.methodType(int.class))
+                    .asType(MethodType.methodType(int.class, Object.class));
+            GET_SONG_COUNT = lookup.findVirtual(manager, "getSongCount", MethodType.methodType(int.class,
+                    int.class)).asType(MethodType.methodType(int.class, Object.class, int.class));
+            GET_TRACK_NAME = lookup.findVirtual(song, "trackName", MethodType.methodType(String.class))
+                    .asType(MethodType.methodType(String.class, Object.class));
+            SORT_SONGS = lookup.findVirtual(manager, "sortSongs", MethodType.methodType(void.class, sortKey))
+                    .asType(MethodType.methodType(void.class, Object.class, Object.class));
+            SORT_KEY = lookup.findStatic(sortKey, "valueOf", MethodType.methodType(sortKey, String.class))
+                    .asType(MethodType.methodType(Object.class, String.class));
+            Class<?> catalog = Class.forName("SongCatalog");
+            Class<?> locations = Class.forName("SongLocation").arrayType();
+            GET_CATALOG = lookup.findVirtual(manager, "getCatalog", MethodType.methodType(catalog))
+                    .asType(MethodType.methodType(Object.class, Object.class));
+            SEARCH = lookup.findVirtual(catalog, "search", MethodType.methodType(locations, String.class, int.class))
+                    .asType(MethodType.methodType(Object[].class, Object.class, String.class, int.class));
+            SEARCH_LINEAR = lookup.findVirtual(catalog, "searchLinear", MethodType.methodType(locations,
+                    String.class, int.class)).asType(MethodType.methodType(Object[].class, Object.class,
+                    String.class, int.class));
+            GET_ARTIST_NAME = lookup.findVirtual(song, "artistName", MethodType.methodType(String.class))
+                    .asType(MethodType.methodType(String.class, Object.class));
+            Class<?> aggregator = Class.forName("SongAggregator");
+            GROUP_KEY_CLASS = Class.forName("GroupKey");
+            SONG_COLUMN_CLASS = Class.forName("SongColumn");
+            NEW_AGGREGATOR = lookup.findConstructor(aggregator, MethodType.methodType(void.class, ForkJoinPool.class))
+                    .asType(MethodType.methodType(Object.class, ForkJoinPool.class));
+            AGGREGATE = lookup.findVirtual(aggregator, "aggregate", MethodType.methodType(
+                    Class.forName("Aggregation"), catalog, GROUP_KEY_CLASS.arrayType(), SONG_COLUMN_CLASS.arrayType()))
+                    .asType(MethodType.methodType(Object.class, Object.class, Object.class, Object.class,
+                            Object.class));
+            GROUP_KEY = lookup.findStatic(GROUP_KEY_CLASS, "bucketed", MethodType.methodType(GROUP_KEY_CLASS,
+                    SONG_COLUMN_CLASS, long.class)).asType(MethodType.methodType(Object.class, Object.class,
+                    long.class));
+            SONG_COLUMN = lookup.findStatic(SONG_COLUMN_CLASS, "valueOf", MethodType.methodType(SONG_COLUMN_CLASS,
+                    String.class)).asType(MethodType.methodType(Object.class, String.class));
+            SONG_FILTER_CLASS = Class.forName("SongFilter");
+            RANGE = lookup.findStatic(SONG_FILTER_CLASS, "range", MethodType.methodType(SONG_FILTER_CLASS,
+                    SONG_COLUMN_CLASS, long.class, long.class)).asType(MethodType.methodType(Object.class,
+                    Object.class, long.class, long.class));
+            AND = lookup.findStatic(SONG_FILTER_CLASS, "and", MethodType.methodType(SONG_FILTER_CLASS,
+                    SONG_FILTER_CLASS.arrayType())).asType(MethodType.methodType(Object.class, Object.class));
+            FILTER = lookup.findVirtual(catalog, "filter", MethodType.methodType(locations, SONG_FILTER_CLASS))
+                    .asType(MethodType.methodType(Object[].class, Object.class, Object.class));
+            FILTER_LINEAR = lookup.findVirtual(catalog, "filterLinear", MethodType.methodType(locations,
+                    SONG_FILTER_CLASS)).asType(MethodType.methodType(Object[].class, Object.class, Object.class));
+            SIMILAR = lookup.findVirtual(catalog, "similar", MethodType.methodType(locations, int.class, int.class,
+                    int.class, SONG_FILTER_CLASS)).asType(MethodType.methodType(Object[].class, Object.class,
+                    int.class, int.class, int.class, Object.class));
+            SIMILAR_APPROXIMATE = lookup.findVirtual(catalog, "similarApproximate", MethodType.methodType(locations,
+                    int.class, int.class, int.class, SONG_FILTER_CLASS)).asType(MethodType.methodType(Object[].class,
+                    Object.class, int.class, int.class, int.class, Object.class));
+            NUMBER_COMMAS = lookup.findStatic(Class.forName("SongViewer"), "numberCommas",
+                    MethodType.methodType(String.class, String.class));
+            APPEND_GROUPED = lookup.findStatic(Class.forName("SongFormat"), "appendGrouped",
+                    MethodType.methodType(StringBuilder.class, StringBuilder.class, long.class));
+            Class<?> exporter = Class.forName("SongExporter");
+            NEW_EXPORTER = lookup.findConstructor(exporter, MethodType.methodType(void.class, OutputStream.class))
+                    .asType(MethodType.methodType(Object.class, OutputStream.class));
+            EXPORT = lookup.findVirtual(exporter, "export", MethodType.methodType(int.class, catalog))
+                    .asType(MethodType.methodType(int.class, Object.class, Object.class));
+            Class<?> cache = Class.forName("SongQueryCache");
+            NEW_QUERY_CACHE = lookup.findConstructor(cache, MethodType.methodType(void.class, manager))
+                    .asType(MethodType.methodType(Object.class, Object.class));
+            CACHED_FIND_SONG_YEAR = lookup.findVirtual(cache, "findSongYear", MethodType.methodType(int.class,
+                    String.class)).asType(MethodType.methodType(int.class, Object.class, String.class));
+            CACHED_GET_SONG = lookup.findVirtual(cache, "getSong", MethodType.methodType(song, int.class, int.class))
+                    .asType(MethodType.methodType(Object.class, Object.class, int.class, int.class));
+            CACHED_GET_SONGS = lookup.findVirtual(cache, "getSongs", MethodType.methodType(song.arrayType(),
+                    int.class)).asType(MethodType.methodType(Object[].class, Object.class, int.class));
+            STANDARD_FILE = lookup.findStatic(Class.forName("SongCsvGenerator"), "standardFile",
+                    MethodType.methodType(Path.class, Path.class, int.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private Songs() {
+    }
+
+    /**
+     * Retrieves the standard generated song file with a number of rows, writing it first if needed
+     *
+     * @param rows number of song rows
+     * @return path of the song file in 'benchmarks/data' (or the directory in -Dsongs.bench.data)
+     */
+    static String standardFile(int rows) {
+        Path directory = Path.of(System.getProperty("songs.bench.data", "benchmarks/data"));
+        try {
+            return ((Path) STANDARD_FILE.invokeExact(directory, rows)).toString();
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static Object newManager(String path, boolean useSnapshot) {
+        try {
+            return NEW_MANAGER.invokeExact(path, useSnapshot);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static int findSongYear(Object manager, String trackName) {
+        try {
+            return (int) FIND_SONG_YEAR.invokeExact(manager, trackName);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static int getSongNum(Object manager, String trackName) {
+        try {
+            return (int) GET_SONG_NUM.invokeExact(manager, trackName);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static Object getSong(Object manager, int yearIndex, int songIndex) {
+        try {
+            return GET_SONG.invokeExact(manager, yearIndex, songIndex);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static Object[] getSongs(Object manager, int yearIndex) {
+        try {
+            return (Object[]) GET_SONGS.invokeExact(manager, yearIndex);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static int getYearCount(Object manager) {
+        try {
+            return (int) GET_YEAR_COUNT.invokeExact(manager);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static int getSongCount(Object manager, int yearIndex) {
+        try {
+            return (int) GET_SONG_COUNT.invokeExact(manager, yearIndex);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static String trackName(Object song) {
+        try {
+            return (String) GET_TRACK_NAME.invokeExact(song);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static String artistName(Object song) {
+        try {
+            return (String) GET_ARTIST_NAME.invokeExact(song);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static Object getCatalog(Object manager) {
+        try {
+            return GET_CATALOG.invokeExact(manager);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static Object[] search(Object catalog, String query, int limit) {
+        try {
+            return (Object[]) SEARCH.invokeExact(catalog, query, limit);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static Object[] searchLinear(Object catalog, String query, int limit) {
+        try {
+            return (Object[]) SEARCH_LINEAR.invokeExact(catalog, query, limit);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static Object newAggregator(ForkJoinPool pool) {
+        try {
+            return NEW_AGGREGATOR.invokeExact(pool);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static Object aggregate(Object aggregator, Object catalog, Object groupBy, Object measures) {
+        try {
+            return AGGREGATE.invokeExact(aggregator, catalog, groupBy, measures);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    /**
+     * Creates a GroupKey array from column names, each optionally followed by '/' and a bucket width
+     * (e.g. "IN_SPOTIFY_PLAYLISTS/1000")
+     *
+     * @param keys column names
+     * @return GroupKey[]
+     */
+    static Object groupBy(String... keys) {
+        Object groupBy = Array.newInstance(GROUP_KEY_CLASS, keys.length);
+        try {
+            for (int i = 0; i < keys.length; i++) {
+                String[] parts = keys[i].split("/");
+                Object column = SONG_COLUMN.invokeExact(parts[0]);
+                Array.set(groupBy, i, (Object) GROUP_KEY.invokeExact(column,
+                        parts.length > 1 ? Long.parseLong(parts[1]) : 1L));
+            }
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+        return groupBy;
+    }
+
+    /**
+     * Creates a SongColumn array from column names
+     *
+     * @param names column names
+     * @return SongColumn[]
+     */
+    static Object columns(String... names) {
+        Object columns = Array.newInstance(SONG_COLUMN_CLASS, names.length);
+        try {
+            for (int i = 0; i < names.length; i++) {
+                Array.set(columns, i, (Object) SONG_COLUMN.invokeExact(names[i]));
+            }
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+        return columns;
+    }
+
+    /**
+     * Creates a SongFilter that ANDs column ranges written as "COLUMN=min..max" (e.g. "BPM=120..130"); either end
+     * may be left out
+     *
+     * @param ranges column ranges
+     * @return SongFilter
+     */
+    static Object filter(String... ranges) {
+        Object filters = Array.newInstance(SONG_FILTER_CLASS, ranges.length);
+        try {
+            for (int i = 0; i < ranges.length; i++) {
+                String[] parts = ranges[i].split("=|\\.\\.", -1);
+                Object column = SONG_COLUMN.invokeExact(parts[0]);
+                Array.set(filters, i, (Object) RANGE.invokeExact(column,
+                        parts[1].isEmpty() ? Long.MIN_VALUE : Long.parseLong(parts[1]),
+                        parts[2].isEmpty() ? Long.MAX_VALUE : Long.parseLong(parts[2])));
+            }
+            return AND.invokeExact(filters);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static Object[] filter(Object catalog, Object filter) {
+        try {
+            return (Object[]) FILTER.invokeExact(catalog, filter);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static Object[] filterLinear(Object catalog, Object filter) {
+        try {
+            return (Object[]) FILTER_LINEAR.invokeExact(catalog, filter);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static Object[] similar(Object catalog, int yearIndex, int songIndex, int k, Object filter) {
+        try {
+            return (Object[]) SIMILAR.invokeExact(catalog, yearIndex, songIndex, k, filter);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static Object[] similarApproximate(Object catalog, int yearIndex, int songIndex, int k, Object filter) {
+        try {
+            return (Object[]) SIMILAR_APPROXIMATE.invokeExact(catalog, yearIndex, songIndex, k, filter);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static void sortSongs(Object manager, Object sortKey) {
+        try {
+            SORT_SONGS.invokeExact(manager, sortKey);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static Object sortKey(String name) {
+        try {
+            return SORT_KEY.invokeExact(name);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static Object newQueryCache(Object manager) {
+        try {
+            return NEW_QUERY_CACHE.invokeExact(manager);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static int cachedFindSongYear(Object cache, String trackName) {
+        try {
+            return (int) CACHED_FIND_SONG_YEAR.invokeExact(cache, trackName);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static Object cachedGetSong(Object cache, int yearIndex, int songIndex) {
+        try {
+            return CACHED_GET_SONG.invokeExact(cache, yearIndex, songIndex);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static Object[] cachedGetSongs(Object cache, int yearIndex) {
+        try {
+            return (Object[]) CACHED_GET_SONGS.invokeExact(cache, yearIndex);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static String numberCommas(String streams) {
+        try {
+            return (String) NUMBER_COMMAS.invokeExact(streams);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static StringBuilder appendGrouped(StringBuilder out, long value) {
+        try {
+            return (StringBuilder) APPEND_GROUPED.invokeExact(out, value);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static Object newExporter(OutputStream out) {
+        try {
+            return NEW_EXPORTER.invokeExact(out);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static int export(Object exporter, Object catalog) {
+        try {
+            return (int) EXPORT.invokeExact(exporter, catalog);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    /**
+     * Helper method to rethrow what a handle throws; runtime exceptions and errors are not wrapped
+     */
+    private static RuntimeException rethrow(Throwable e) {
+        if (e instanceof RuntimeException runtime) {
+            throw runtime;
+        }
+        if (e instanceof Error error) {
+            throw error;
+        }
+        return new IllegalStateException(e);
+    }
+}
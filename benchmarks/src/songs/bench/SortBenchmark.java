@@ -0,0 +1,61 @@
+package songs.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SortBenchmark class that measures sortSongs for every sort key.  Before each call the songs are put back in a
+ * different order (untimed), so every measured sort starts from unsorted data.  COLLATED_TRACK_NAME builds its
+ * collation keys on the first sort, so the measured sorts compare the keys already built.
+ *
+ * @author Bennett Fife
+ * @version 10/17/26
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+public class SortBenchmark {
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int rows;
+
+    @Param({"TRACK_NAME", "COLLATED_TRACK_NAME", "STREAMS", "RELEASE_DATE"})
+    public String key;
+
+    private Object manager;
+    private Object sortKey;
+    private Object otherKey;
+
+    @Setup
+    public void setUp() {
+        manager = Songs.newManager(Songs.standardFile(rows), true);
+        sortKey = Songs.sortKey(key);
+        otherKey = Songs.sortKey(key.equals("STREAMS") ? "TRACK_NAME" : "STREAMS");
+    }
+
+    @Setup(Level.Invocation)
+    public void shuffle() {
+        Songs.sortSongs(manager, otherKey);
+    }
+
+    @Benchmark
+    public Object sortSongs() {
+        Songs.sortSongs(manager, sortKey);
+        return manager;
+    }
+}
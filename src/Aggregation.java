@@ -0,0 +1,218 @@
+import java.util.Arrays;
+
+/**
+ * Aggregation class that holds the result of a group-by over the songs: for every group, its key values, its song
+ * count, and the sum, minimum, maximum and average of each aggregated column.
+ * Groups are numbered from 0 in ascending key order (by the first key, then the second, and so on).
+ *
+ * @author Bennett Fife
+ * @version 10/17/26
+ * @see SongAggregator
+ */
+public final class Aggregation {
+
+    /**
+     * keys the songs were grouped by
+     */
+    private final GroupKey[] groupBy;
+    /**
+     * columns aggregated
+     */
+    private final SongColumn[] measures;
+    /**
+     * key values of group g are keys[g * groupBy.length ...]; aggregates of group g are at g * measures.length
+     */
+    private final long[] keys;
+    /**
+     * song count of every group
+     */
+    private final long[] counts;
+    /**
+     * sum of every measure of every group, measures.length per group
+     */
+    private final long[] sums;
+    /**
+     * minimum of every measure of every group, measures.length per group
+     */
+    private final long[] mins;
+    /**
+     * maximum of every measure of every group, measures.length per group
+     */
+    private final long[] maxs;
+
+    /**
+     * Aggregation constructor; SongAggregator fills the arrays
+     *
+     * @param groupBy  keys the songs were grouped by
+     * @param measures columns aggregated
+     * @param keys     key values of every group, groupBy.length per group
+     * @param counts   song count of every group
+     * @param sums     sum of every measure of every group, measures.length per group
+     * @param mins     minimum of every measure of every group, measures.length per group
+     * @param maxs     maximum of every measure of every group, measures.length per group
+     */
+    Aggregation(GroupKey[] groupBy, SongColumn[] measures, long[] keys, long[] counts, long[] sums, long[] mins,
+                long[] maxs) {
+        this.groupBy = groupBy;
+        this.measures = measures;
+        this.keys = keys;
+        this.counts = counts;
+        this.sums = sums;
+        this.mins = mins;
+        this.maxs = maxs;
+    }
+
+    /**
+     * Retrieves the keys the songs were grouped by
+     *
+     * @return new array of group keys
+     */
+    public GroupKey[] getGroupBy() {
+        return groupBy.clone();
+    }
+
+    /**
+     * Retrieves the aggregated columns
+     *
+     * @return new array of columns
+     */
+    public SongColumn[] getMeasures() {
+        return measures.clone();
+    }
+
+    /**
+     * Retrieves the number of groups
+     *
+     * @return group count
+     */
+    public int getGroupCount() {
+        return counts.length;
+    }
+
+    /**
+     * Retrieves a key value of a group
+     *
+     * @param group    group number
+     * @param keyIndex position of the key in the group-by keys
+     * @return key value (the smallest value of the bucket for a bucketed key)
+     */
+    public long getKey(int group, int keyIndex) {
+        checkGroup(group);
+        if (keyIndex < 0 || keyIndex > groupBy.length - 1) {
+            throw new IllegalArgumentException("key must be a valid index in the range 0 to count - 1");
+        }
+        return keys[group * groupBy.length + keyIndex];
+    }
+
+    /**
+     * Finds the group with the specified key values
+     *
+     * @param keyValues one value per group-by key (bucket values for bucketed keys)
+     * @return group number, or -1 if no song has those key values
+     */
+    public int findGroup(long... keyValues) {
+        if (keyValues.length != groupBy.length) {
+            throw new IllegalArgumentException("expected " + groupBy.length + " key values");
+        }
+        int low = 0;
+        int high = counts.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int compare = Arrays.compare(keys, mid * groupBy.length, (mid + 1) * groupBy.length,
+                    keyValues, 0, keyValues.length);
+            if (compare < 0) {
+                low = mid + 1;
+            } else if (compare > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Retrieves the number of songs in a group
+     *
+     * @param group group number
+     * @return song count
+     */
+    public long getCount(int group) {
+        checkGroup(group);
+        return counts[group];
+    }
+
+    /**
+     * Retrieves the sum of a column over the songs of a group
+     *
+     * @param group   group number
+     * @param measure aggregated column
+     * @return sum
+     */
+    public long getSum(int group, SongColumn measure) {
+        return sums[at(group, measure)];
+    }
+
+    /**
+     * Retrieves the smallest value of a column among the songs of a group
+     *
+     * @param group   group number
+     * @param measure aggregated column
+     * @return minimum
+     */
+    public long getMin(int group, SongColumn measure) {
+        return mins[at(group, measure)];
+    }
+
+    /**
+     * Retrieves the largest value of a column among the songs of a group
+     *
+     * @param group   group number
+     * @param measure aggregated column
+     * @return maximum
+     */
+    public long getMax(int group, SongColumn measure) {
+        return maxs[at(group, measure)];
+    }
+
+    /**
+     * Retrieves the average of a column over the songs of a group
+     *
+     * @param group   group number
+     * @param measure aggregated column
+     * @return average
+     */
+    public double getAverage(int group, SongColumn measure) {
+        return (double) sums[at(group, measure)] / counts[group];
+    }
+
+    /**
+     * Helper method to find where a group's aggregate of a column is stored
+     *
+     * @param group   group number
+     * @param measure column aggregated
+     * @return index of the aggregate in sums, mins and maxs
+     * @throws IllegalArgumentException if the column was not aggregated
+     */
+    private int at(int group, SongColumn measure) {
+        checkGroup(group);
+        for (int m = 0; m < measures.length; m++) {
+            if (measures[m] == measure) {
+                return group * measures.length + m;
+            }
+        }
+        throw new IllegalArgumentException(measure + " was not aggregated");
+    }
+
+    /**
+     * Helper method to check that a group number is in range
+     *
+     * @param group group number
+     * @throws IllegalArgumentException if the group number is out of range
+     */
+    private void checkGroup(int group) {
+        if (group < 0 || group > counts.length - 1) {
+            throw new IllegalArgumentException("group must be a valid index in the range 0 to count - 1");
+        }
+    }
+}
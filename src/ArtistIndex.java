@@ -0,0 +1,366 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ArtistIndex class that maps each artist to the rows of their songs.
+ * Each distinct artist(s) name is split into single artists once, when the index is built (rows by the same
+ * artist(s) share an artist code in the columns, so they share the split too); every artist gets an id
+ * from a dictionary, and each id maps to a sorted list of rows (a posting list) packed into one int array.
+ * Finding an artist's songs is one hash probe per layer, and songs shared by several artists are found by
+ * intersecting their posting lists, so neither needs a scan of the songs or any string splitting.
+ * Like TrackNameIndex, it stores row numbers (which never change when the songs are re-sorted) and is never changed
+ * after it is built: appended rows go into a new layer on top of the existing index.
+ *
+ * @author Bennett Fife
+ * @version 10/17/26
+ */
+public final class ArtistIndex {
+
+    /**
+     * most layers kept before the index is rebuilt as a single layer
+     */
+    private static final int MAX_LAYERS = 8;
+    /**
+     * empty result, shared by every lookup that finds no rows
+     */
+    private static final int[] NO_ROWS = new int[0];
+
+    /**
+     * index of the rows before fromRow, or null for the bottom layer
+     */
+    private final ArtistIndex parent;
+    /**
+     * number of layers, this one included
+     */
+    private final int layers;
+    /**
+     * row after the last row of this layer
+     */
+    private final int toRow;
+    /**
+     * artist ids, shared by every layer: a layer adds the artists that are new to it after its parent's
+     */
+    private final Map<String, Integer> ids;
+    /**
+     * artist name of each id, this layer's new artists included
+     */
+    private final String[] names;
+    /**
+     * the rows of this layer by artist id are rows[starts[id], starts[id + 1]), in ascending order
+     */
+    private final int[] starts;
+    /**
+     * rows of this layer grouped by artist id
+     */
+    private final int[] rows;
+
+    /**
+     * ArtistIndex constructor indexes the first rows of the columns
+     *
+     * @param columns  song columns to index
+     * @param rowCount number of rows to index
+     */
+    public ArtistIndex(SongColumns columns, int rowCount) {
+        this(null, columns, 0, rowCount);
+    }
+
+    /**
+     * ArtistIndex constructor indexes the rows [fromRow, toRow) as a layer on top of a parent (null for the first
+     * layer)
+     *
+     * @param parent  index of the rows before fromRow, or null
+     * @param columns song columns to index
+     * @param fromRow first row of the layer
+     * @param toRow   row after the last row of the layer
+     */
+    private ArtistIndex(ArtistIndex parent, SongColumns columns, int fromRow, int toRow) {
+        this.parent = parent;
+        this.layers = parent == null ? 1 : parent.layers + 1;
+        this.toRow = toRow;
+        ids = parent == null ? new HashMap<>() : new HashMap<>(parent.ids);
+        List<String> newNames = new ArrayList<>();
+        //first pass: give every artist an id and list the (row, id) entries in row order
+        int[] entryIds = new int[Math.max(16, toRow - fromRow)];
+        int entries = 0;
+        int[] artistStarts = new int[8];
+        //artist ids of each artist code, filled in the first time a row with the code is seen
+        int[][] codeIds = new int[columns.getArtistPool().size()][];
+        for (int row = fromRow; row < toRow; row++) {
+            int code = columns.artistCode(row);
+            int[] rowIds = codeIds[code];
+            if (rowIds == null) {
+                String artistName = columns.artistName(row);
+                int artistCount = split(artistName, artistStarts);
+                if (artistCount > artistStarts.length / 2) {
+                    artistStarts = new int[artistCount * 2];
+                    split(artistName, artistStarts);
+                }
+                rowIds = new int[artistCount];
+                for (int a = 0; a < artistCount; a++) {
+                    String artist = artistName.substring(artistStarts[2 * a], artistStarts[2 * a + 1]);
+                    Integer id = ids.get(artist);
+                    if (id == null) {
+                        id = ids.size();
+                        ids.put(artist, id);
+                        newNames.add(artist);
+                    }
+                    rowIds[a] = id;
+                }
+                codeIds[code] = rowIds;
+            }
+            if (entries + rowIds.length + 1 > entryIds.length) {
+                entryIds = Arrays.copyOf(entryIds, Math.max(entries + rowIds.length + 1, entryIds.length * 2));
+            }
+            //each row is closed with -1 so the second pass knows where the next row starts
+            System.arraycopy(rowIds, 0, entryIds, entries, rowIds.length);
+            entries += rowIds.length;
+            entryIds[entries++] = -1;
+        }
+        int parentArtists = parent == null ? 0 : parent.names.length;
+        names = Arrays.copyOf(parent == null ? new String[0] : parent.names, parentArtists + newNames.size());
+        for (int i = 0; i < newNames.size(); i++) {
+            names[parentArtists + i] = newNames.get(i);
+        }
+
+        //second pass: count each row once per artist, then fill the posting lists in row order
+        starts = new int[names.length + 1];
+        int[] lastRow = new int[names.length];
+        Arrays.fill(lastRow, -1);
+        for (int i = 0, row = fromRow; i < entries; i++) {
+            int id = entryIds[i];
+            if (id < 0) {
+                row++;
+            } else if (lastRow[id] != row) {
+                lastRow[id] = row;
+                starts[id + 1]++;
+            }
+        }
+        for (int id = 0; id < names.length; id++) {
+            starts[id + 1] += starts[id];
+        }
+        rows = new int[starts[names.length]];
+        int[] next = Arrays.copyOf(starts, names.length);
+        Arrays.fill(lastRow, -1);
+        for (int i = 0, row = fromRow; i < entries; i++) {
+            int id = entryIds[i];
+            if (id < 0) {
+                row++;
+            } else if (lastRow[id] != row) {
+                lastRow[id] = row;
+                rows[next[id]++] = row;
+            }
+        }
+    }
+
+    /**
+     * Creates an index that also covers rows appended to the columns.  The rows are indexed in a new layer, or the
+     * whole index is rebuilt once the layers on top of the bottom one hold too many rows.
+     *
+     * @param columns  song columns holding the rows
+     * @param rowCount new number of rows to index (rows from getRowCount() up to it are added)
+     * @return new index; this index is unchanged
+     */
+    public ArtistIndex withRows(SongColumns columns, int rowCount) {
+        if (rowCount == toRow) {
+            return this;
+        }
+        ArtistIndex bottom = this;
+        while (bottom.parent != null) {
+            bottom = bottom.parent;
+        }
+        int layeredRows = rowCount - bottom.toRow;
+        if (layers >= MAX_LAYERS || layeredRows > bottom.toRow / 4) {
+            return new ArtistIndex(columns, rowCount);
+        }
+        return new ArtistIndex(this, columns, toRow, rowCount);
+    }
+
+    /**
+     * Retrieves the number of rows indexed
+     *
+     * @return row count
+     */
+    public int getRowCount() {
+        return toRow;
+    }
+
+    /**
+     * Retrieves the number of different artists
+     *
+     * @return artist count
+     */
+    public int getArtistCount() {
+        return names.length;
+    }
+
+    /**
+     * Retrieves the id of an artist
+     *
+     * @param artist exact name of a single artist
+     * @return artist id, or -1 if the artist has no songs
+     */
+    public int id(String artist) {
+        Integer id = ids.get(artist);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * Retrieves the name of an artist
+     *
+     * @param id artist id, from 0 to getArtistCount() - 1
+     * @return artist name
+     */
+    public String name(int id) {
+        return names[id];
+    }
+
+    /**
+     * Retrieves the number of songs of an artist
+     *
+     * @param id artist id
+     * @return song count
+     */
+    public int songCount(int id) {
+        int count = parent == null || id >= parent.names.length ? 0 : parent.songCount(id);
+        return count + starts[id + 1] - starts[id];
+    }
+
+    /**
+     * Retrieves every row with a song by (or featuring) an artist
+     *
+     * @param artist exact name of a single artist
+     * @return row numbers in ascending order (empty if the artist has no songs)
+     */
+    public int[] rows(String artist) {
+        int id = id(artist);
+        if (id < 0) {
+            return NO_ROWS;
+        }
+        int[] result = new int[songCount(id)];
+        fill(id, result);
+        return result;
+    }
+
+    /**
+     * Retrieves every row with a song by (or featuring) all of the specified artists, by intersecting their posting
+     * lists shortest first
+     *
+     * @param artists exact names of single artists
+     * @return row numbers in ascending order (empty if no song has all of them, or if no artist is specified)
+     */
+    public int[] rowsWithAll(String... artists) {
+        if (artists.length == 0) {
+            return NO_ROWS;
+        }
+        int[][] lists = new int[artists.length][];
+        for (int i = 0; i < artists.length; i++) {
+            lists[i] = rows(artists[i]);
+        }
+        Arrays.sort(lists, (a, b) -> Integer.compare(a.length, b.length));
+        int[] result = lists[0];
+        int size = result.length;
+        for (int i = 1; i < lists.length && size > 0; i++) {
+            size = intersect(result, size, lists[i]);
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    /**
+     * Splits an artist(s) name into single artists: names are separated by commas, and spaces around them and empty
+     * names are dropped
+     *
+     * @param artistName artist(s) name as written in the file
+     * @return single artist names in file order
+     */
+    public static String[] split(String artistName) {
+        int[] bounds = new int[2 * artistName.length() + 2];
+        int count = split(artistName, bounds);
+        String[] artists = new String[count];
+        for (int a = 0; a < count; a++) {
+            artists[a] = artistName.substring(bounds[2 * a], bounds[2 * a + 1]);
+        }
+        return artists;
+    }
+
+    /**
+     * Helper method to find the start and end of each single artist of an artist(s) name
+     *
+     * @param artistName artist(s) name of a song
+     * @param bounds     array the start and end offsets are written to (in pairs) while they fit
+     * @return number of artists
+     */
+    private static int split(String artistName, int[] bounds) {
+        int count = 0;
+        int from = 0;
+        while (from <= artistName.length()) {
+            int comma = artistName.indexOf(',', from);
+            int to = comma < 0 ? artistName.length() : comma;
+            int start = from;
+            int end = to;
+            while (start < end && Character.isWhitespace(artistName.charAt(start))) {
+                start++;
+            }
+            while (end > start && Character.isWhitespace(artistName.charAt(end - 1))) {
+                end--;
+            }
+            if (start < end) {
+                if (2 * count + 1 < bounds.length) {
+                    bounds[2 * count] = start;
+                    bounds[2 * count + 1] = end;
+                }
+                count++;
+            }
+            from = to + 1;
+        }
+        return count;
+    }
+
+    /**
+     * Helper method to copy the rows of an artist, oldest layer first
+     *
+     * @param id     artist id
+     * @param result array the rows are copied to, from index 0
+     * @return position after the copied rows
+     */
+    private int fill(int id, int[] result) {
+        int next = parent == null || id >= parent.names.length ? 0 : parent.fill(id, result);
+        int count = starts[id + 1] - starts[id];
+        System.arraycopy(rows, starts[id], result, next, count);
+        return next + count;
+    }
+
+    /**
+     * Helper method to keep the rows of a sorted list that are also in another sorted list
+     *
+     * @param kept  sorted rows; the rows kept are moved to its front
+     * @param size  number of rows in kept
+     * @param other sorted rows to intersect with
+     * @return number of rows kept
+     */
+    private static int intersect(int[] kept, int size, int[] other) {
+        int result = 0;
+        int j = 0;
+        for (int i = 0; i < size && j < other.length; i++) {
+            //gallop through the longer list, then binary search the last step
+            int step = 1;
+            int low = j;
+            int high = j;
+            while (high < other.length && other[high] < kept[i]) {
+                low = high + 1;
+                high += step;
+                step <<= 1;
+            }
+            j = Arrays.binarySearch(other, low, Math.min(high + 1, other.length), kept[i]);
+            if (j >= 0) {
+                kept[result++] = kept[i];
+                j++;
+            } else {
+                j = -j - 1;
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,119 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArtistIndexTest {
+
+    @org.junit.jupiter.api.Test
+    void splitArtists() {
+
+        assertArrayEquals(new String[]{"Bing Crosby", "John Scott Trotter & His Orchestra", "Ken Darby Singers"},
+                ArtistIndex.split("Bing Crosby, John Scott Trotter & His Orchestra, Ken Darby Singers"));
+        //spaces around names and empty names (like the trailing comma of some rows) are dropped
+        assertArrayEquals(new String[]{"Matu\u00ea", "Wiu"}, ArtistIndex.split("Matu\u00ea, Wiu, "));
+        assertArrayEquals(new String[]{"SZA"}, ArtistIndex.split(" SZA "));
+        assertArrayEquals(new String[0], ArtistIndex.split(" , "));
+    }
+
+    @org.junit.jupiter.api.Test
+    void matchesLinearScan() throws Exception {
+
+        SongColumns columns = SongCsvGenerator.columns(7, 20_000);
+        ArtistIndex index = new ArtistIndex(columns, columns.getRowCount());
+        assertScan(columns, columns.getRowCount(), index);
+    }
+
+    @org.junit.jupiter.api.Test
+    void layersMatchRebuild() throws Exception {
+
+        SongColumns columns = SongCsvGenerator.columns(7, 20_000);
+        ArtistIndex index = new ArtistIndex(columns, 16_000);
+        for (int rowCount = 17_000; rowCount <= 20_000; rowCount += 1_000) {
+            index = index.withRows(columns, rowCount);
+            assertScan(columns, rowCount, index);
+        }
+        assertEquals(20_000, index.getRowCount());
+    }
+
+    @org.junit.jupiter.api.Test
+    void realCatalog() {
+
+        SongManager manager = new SongManager();
+        SongLocation[] songs = manager.findArtistSongs("Bad Bunny");
+        assertEquals(40, songs.length);
+        assertEquals(40, manager.getArtistSongCount("Bad Bunny"));
+        for (int i = 0; i < songs.length; i++) {
+            Song song = manager.getSong(songs[i].yearIndex(), songs[i].songIndex());
+            assertTrue(Arrays.asList(ArtistIndex.split(song.artistName())).contains("Bad Bunny"), song.artistName());
+            assertTrue(i == 0 || songs[i - 1].ordinal() < songs[i].ordinal());
+        }
+        SongLocation[] together = manager.findSongsWithArtists("Bad Bunny", "Tainy");
+        assertTrue(together.length > 0);
+        for (SongLocation location : together) {
+            String artistName = manager.getSong(location.yearIndex(), location.songIndex()).artistName();
+            assertTrue(artistName.contains("Bad Bunny") && artistName.contains("Tainy"), artistName);
+        }
+        assertEquals(0, manager.findSongsWithArtists("Bad Bunny", "Frank Sinatra").length);
+        assertEquals(0, manager.findArtistSongs("not an artist").length);
+        assertEquals(0, manager.getArtistSongCount("not an artist"));
+
+        //counts cover every artist of every song (once each, even if listed twice), and locations follow a re-sort
+        Map<String, Integer> counts = manager.getArtistSongCounts();
+        int entries = 0;
+        for (int yearIndex = 0; yearIndex < manager.getYearCount(); yearIndex++) {
+            for (Song song : manager.getSongs(yearIndex)) {
+                entries += (int) Arrays.stream(ArtistIndex.split(song.artistName())).distinct().count();
+            }
+        }
+        assertEquals(entries, counts.values().stream().mapToInt(Integer::intValue).sum());
+        manager.sortSongs(SortKey.STREAMS);
+        assertEquals(40, manager.findArtistSongs("Bad Bunny").length);
+        for (SongLocation location : manager.findArtistSongs("Bad Bunny")) {
+            assertTrue(manager.getSong(location.yearIndex(), location.songIndex()).artistName().contains("Bad Bunny"));
+        }
+    }
+
+    /**
+     * Helper method to check every artist, and pairs of artists, against a scan of the rows
+     */
+    private static void assertScan(SongColumns columns, int rowCount, ArtistIndex index) {
+        List<String> artists = new ArrayList<>();
+        for (int id = 0; id < index.getArtistCount(); id++) {
+            assertEquals(id, index.id(index.name(id)));
+            artists.add(index.name(id));
+        }
+        for (String artist : artists) {
+            int[] expected = scan(columns, rowCount, artist);
+            assertArrayEquals(expected, index.rows(artist), artist);
+            assertEquals(expected.length, index.songCount(index.id(artist)), artist);
+        }
+        for (int a = 0; a < artists.size(); a += 3) {
+            for (int b = a + 1; b < artists.size(); b += 2) {
+                int[] second = scan(columns, rowCount, artists.get(b));
+                int[] both = Arrays.stream(scan(columns, rowCount, artists.get(a)))
+                        .filter(row -> Arrays.binarySearch(second, row) >= 0)
+                        .toArray();
+                assertArrayEquals(both, index.rowsWithAll(artists.get(a), artists.get(b)), artists.get(a) + " & "
+                        + artists.get(b));
+            }
+        }
+        assertEquals(0, index.rows("not an artist").length);
+        assertEquals(0, index.rowsWithAll().length);
+    }
+
+    /**
+     * Helper method to list the rows an artist is credited on by checking every row
+     */
+    private static int[] scan(SongColumns columns, int rowCount, String artist) {
+        List<Integer> rows = new ArrayList<>();
+        for (int row = 0; row < rowCount; row++) {
+            if (Arrays.asList(ArtistIndex.split(columns.artistName(row))).contains(artist)) {
+                rows.add(row);
+            }
+        }
+        return rows.stream().mapToInt(Integer::intValue).toArray();
+    }
+}
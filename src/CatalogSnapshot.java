@@ -0,0 +1,242 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * CatalogSnapshot class that saves a parsed and sorted catalog to a binary file and memory-maps it back.
+ * The file starts with a stamp of the song file it was built from (size, modification time and CRC32), then holds
+ * the release years, each year's rows in sorted order, and the song columns laid out as contiguous blocks,
+ * so opening it is bulk copies out of the mapped file instead of CSV parsing and sorting.
+ *
+ * @author Bennett Fife
+ * @version 10/17/26
+ */
+public class CatalogSnapshot {
+
+    /**
+     * "SONG" in ASCII
+     */
+    private static final int MAGIC = 0x534F4E47;
+    /**
+     * bumped whenever the layout changes so older snapshots are rebuilt
+     */
+    private static final int VERSION = 2;
+
+    /**
+     * columns of every song, sorted by year
+     */
+    private final SongColumns columns;
+    /**
+     * release years in ascending order
+     */
+    private final String[] releaseYears;
+    /**
+     * rows of each release year
+     */
+    private final int[][] yearRows;
+
+    /**
+     * The state of a song file that a snapshot records: its size, modification time and CRC32
+     *
+     * @param size     size in bytes
+     * @param modified modification time in milliseconds since the epoch
+     * @param checksum CRC32 of the contents
+     */
+    public record Stamp(long size, long modified, long checksum) {
+    }
+
+    /**
+     * CatalogSnapshot constructor holds the catalog read from a snapshot file
+     *
+     * @param columns      columns of every song
+     * @param releaseYears release years in ascending order
+     * @param yearRows     rows of each release year
+     */
+    private CatalogSnapshot(SongColumns columns, String[] releaseYears, int[][] yearRows) {
+        this.columns = columns;
+        this.releaseYears = releaseYears;
+        this.yearRows = yearRows;
+    }
+
+    /**
+     * Retrieves the snapshot path used for a song file
+     *
+     * @param source song file
+     * @return path of the snapshot next to the song file
+     */
+    public static Path snapshotPath(Path source) {
+        return source.resolveSibling(source.getFileName() + ".snapshot");
+    }
+
+    /**
+     * Opens the snapshot of a song file if it was built from the file's current contents.  A snapshot whose
+     * modification time no longer matches is still used if the file's size and CRC32 are unchanged.
+     *
+     * @param source song file
+     * @return snapshot, or null if there is no usable snapshot
+     */
+    public static CatalogSnapshot open(Path source) {
+        Path snapshotPath = snapshotPath(source);
+        if (!Files.isRegularFile(snapshotPath) || !Files.isRegularFile(source)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(snapshotPath, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                return null; //one mapping is limited to 2 GB
+            }
+            MappedByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (in.getInt() != MAGIC || in.getInt() != VERSION) {
+                return null;
+            }
+            long size = in.getLong();
+            long modified = in.getLong();
+            long checksum = in.getLong();
+            if (size != Files.size(source)) {
+                return null;
+            }
+            if (modified != Files.getLastModifiedTime(source).toMillis() && checksum != checksum(source)) {
+                return null;
+            }
+            return read(in);
+        } catch (IOException | RuntimeException e) {
+            //a missing, truncated or corrupt snapshot just means the song file is parsed again
+            return null;
+        }
+    }
+
+    /**
+     * Takes the stamp of a song file.  It must be taken before the file is parsed, so that a change made while the
+     * file is read shows up as a stamp that no longer matches.
+     *
+     * @param source song file
+     * @return current stamp of the file
+     * @throws IOException if the file cannot be read
+     */
+    public static Stamp stamp(Path source) throws IOException {
+        long size = Files.size(source);
+        long modified = Files.getLastModifiedTime(source).toMillis();
+        return new Stamp(size, modified, checksum(source));
+    }
+
+    /**
+     * Writes the snapshot of a song file.  The snapshot is written to a temporary file and moved into place,
+     * so a reader never sees a partly written snapshot.  It is only moved into place if the song file still has the
+     * size and modification time of the stamp taken before it was parsed; otherwise the catalog may hold rows of both
+     * the old and the new contents, and no snapshot is written.  The file is not read again for its CRC32, so a change
+     * that keeps both the size and the modification time is not noticed.
+     *
+     * @param source       song file the catalog was loaded from
+     * @param stamp        stamp of the song file taken before it was parsed
+     * @param columns      song columns
+     * @param releaseYears release years in ascending order
+     * @param yearRows     row numbers of each release year, in sorted order
+     * @return true if the snapshot was written, false if the song file changed since the stamp was taken
+     * @throws IOException if the snapshot cannot be written
+     */
+    public static boolean write(Path source, Stamp stamp, SongColumns columns, String[] releaseYears,
+                                int[][] yearRows) throws IOException {
+        Path snapshotPath = snapshotPath(source);
+        Path temp = Files.createTempFile(snapshotPath.toAbsolutePath().getParent(), "catalog", ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    Files.newOutputStream(temp), 1 << 16))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeLong(stamp.size());
+                out.writeLong(stamp.modified());
+                out.writeLong(stamp.checksum());
+                out.writeInt(releaseYears.length);
+                for (int i = 0; i < releaseYears.length; i++) {
+                    out.writeInt(Integer.parseInt(releaseYears[i]));
+                    out.writeInt(yearRows[i].length);
+                    for (int row : yearRows[i]) {
+                        out.writeInt(row);
+                    }
+                }
+                columns.writeTo(out);
+            }
+            if (stamp.size() != Files.size(source)
+                    || stamp.modified() != Files.getLastModifiedTime(source).toMillis()) {
+                return false;
+            }
+            Files.move(temp, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return true;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Retrieves the song columns
+     *
+     * @return song columns
+     */
+    public SongColumns getColumns() {
+        return columns;
+    }
+
+    /**
+     * Retrieves the release years in ascending order
+     *
+     * @return release years
+     */
+    public String[] getReleaseYears() {
+        return releaseYears;
+    }
+
+    /**
+     * Retrieves the row numbers of every release year, in the order they were sorted in
+     *
+     * @return jagged array of row numbers into getColumns()
+     */
+    public int[][] getYearRows() {
+        return yearRows;
+    }
+
+    /**
+     * Helper method to read the years and columns that follow the header
+     *
+     * @param in snapshot contents, positioned after the header
+     * @return snapshot read
+     */
+    private static CatalogSnapshot read(ByteBuffer in) {
+        int yearCount = in.getInt();
+        String[] releaseYears = new String[yearCount];
+        int[][] yearRows = new int[yearCount][];
+        for (int i = 0; i < yearCount; i++) {
+            releaseYears[i] = SongColumns.numberName(in.getInt());
+            yearRows[i] = new int[in.getInt()];
+            in.asIntBuffer().get(yearRows[i]);
+            in.position(in.position() + yearRows[i].length * Integer.BYTES);
+        }
+        return new CatalogSnapshot(HeapSongColumns.readFrom(in), releaseYears, yearRows);
+    }
+
+    /**
+     * Helper method to compute the CRC32 of a file
+     *
+     * @param file file read
+     * @return CRC32 of its contents
+     * @throws IOException if the file cannot be read
+     */
+    private static long checksum(Path file) throws IOException {
+        CRC32 crc = new CRC32();
+        byte[] buffer = new byte[1 << 16];
+        try (InputStream in = Files.newInputStream(file)) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                crc.update(buffer, 0, read);
+            }
+        }
+        return crc.getValue();
+    }
+}
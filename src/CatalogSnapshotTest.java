@@ -0,0 +1,156 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CatalogSnapshotTest {
+
+    @org.junit.jupiter.api.Test
+    void snapshotMatchesCsv() throws Exception {
+
+        Path dir = Files.createTempDirectory("songs-snapshot");
+        Path source = Files.copy(Path.of("spotify-2023.csv"), dir.resolve("spotify-2023.csv"));
+        try {
+            SongManager parsed = new SongManager(source.toString());
+            assertTrue(Files.isRegularFile(CatalogSnapshot.snapshotPath(source)));
+            assertNotNull(CatalogSnapshot.open(source));
+
+            SongManager mapped = new SongManager(source.toString());
+            assertSameCatalog(parsed, mapped);
+            for (SongColumn column : SongColumn.values()) {
+                assertEquals(parsed.getValue(column, 0, 0), mapped.getValue(column, 0, 0), column.name());
+            }
+        } finally {
+            deleteAll(dir, source);
+        }
+    }
+
+    @org.junit.jupiter.api.Test
+    void staleSnapshotIsIgnored() throws Exception {
+
+        Path dir = Files.createTempDirectory("songs-snapshot");
+        Path source = Files.copy(Path.of("spotify-2023.csv"), dir.resolve("spotify-2023.csv"));
+        try {
+            new SongManager(source.toString());
+            Files.writeString(source, "New Song,New Artist,1,2024,1,1,0,0,10\n", StandardOpenOption.APPEND);
+            assertNull(CatalogSnapshot.open(source));
+
+            SongManager reloaded = new SongManager(source.toString());
+            assertEquals(954, reloaded.getSongCount());
+            assertEquals("2024", reloaded.getYearName(reloaded.getYearCount() - 1));
+        } finally {
+            deleteAll(dir, source);
+        }
+    }
+
+    @org.junit.jupiter.api.Test
+    void fileChangedDuringLoad() throws Exception {
+
+        Path dir = Files.createTempDirectory("songs-snapshot");
+        Path source = dir.resolve("spotify-2023.csv");
+        try {
+            //appended to, and changed in place with the same size but a new modification time
+            for (boolean sameSize : new boolean[]{false, true}) {
+                Files.copy(Path.of("spotify-2023.csv"), source, StandardCopyOption.REPLACE_EXISTING);
+                CatalogSnapshot.Stamp before = CatalogSnapshot.stamp(source);
+                boolean[] changed = new boolean[1];
+                //the first report after 0 comes once the file is parsed, before the snapshot is written
+                new SongManager(source.toString(), true, percent -> {
+                    if (percent > 0 && !changed[0]) {
+                        changed[0] = true;
+                        change(source, sameSize, before.modified());
+                    }
+                });
+                assertTrue(changed[0]);
+                assertEquals(sameSize, before.size() == CatalogSnapshot.stamp(source).size());
+                assertFalse(Files.exists(CatalogSnapshot.snapshotPath(source)), "sameSize " + sameSize);
+                assertNull(CatalogSnapshot.open(source));
+            }
+            //unchanged while it loads, so the snapshot is written and used
+            new SongManager(source.toString());
+            assertNotNull(CatalogSnapshot.open(source));
+            //after the load only a new modification time reads the file for its CRC32: touched is still usable,
+            //changed in place with the same size is not
+            long modified = Files.getLastModifiedTime(source).toMillis();
+            Files.setLastModifiedTime(source, FileTime.fromMillis(modified + 1000));
+            assertNotNull(CatalogSnapshot.open(source));
+            change(source, true, modified);
+            assertNull(CatalogSnapshot.open(source));
+        } finally {
+            deleteAll(dir, source);
+        }
+    }
+
+    @org.junit.jupiter.api.Test
+    @org.junit.jupiter.api.condition.EnabledIfSystemProperty(named = "songs.benchmarks", matches = "true")
+    void startupBenchmark() throws Exception {
+
+        int rows = SongCsvGenerator.benchmarkRows("snapshot", 1_000_000);
+        Path source = SongCsvGenerator.tempFile(42, rows);
+        try {
+            long start = System.nanoTime();
+            SongManager parsed = new SongManager(source.toString());
+            double csvSeconds = (System.nanoTime() - start) / 1e9;
+
+            start = System.nanoTime();
+            SongManager mapped = new SongManager(source.toString());
+            double snapshotSeconds = (System.nanoTime() - start) / 1e9;
+
+            assertEquals(parsed.getSongCount(), mapped.getSongCount());
+            System.out.printf("%,d rows: CSV parse + sort + snapshot write %.2f s, snapshot open %.2f s (%.1fx)%n",
+                    rows, csvSeconds, snapshotSeconds, csvSeconds / snapshotSeconds);
+        } finally {
+            Files.deleteIfExists(CatalogSnapshot.snapshotPath(source));
+            Files.deleteIfExists(source);
+        }
+    }
+
+    private static void assertSameCatalog(SongManager expected, SongManager actual) {
+        assertEquals(expected.getYearCount(), actual.getYearCount());
+        for (int yearIndex = 0; yearIndex < expected.getYearCount(); yearIndex++) {
+            assertEquals(expected.getYearName(yearIndex), actual.getYearName(yearIndex));
+            assertArrayEquals(expected.getSongs(yearIndex), actual.getSongs(yearIndex));
+        }
+    }
+
+    /**
+     * Helper method to append a row to a song file, or to change the case of its first track name's first letter and
+     * move its modification time a second past the one it had
+     */
+    private static void change(Path source, boolean sameSize, long modified) {
+        try {
+            if (sameSize) {
+                byte[] bytes = Files.readAllBytes(source);
+                int first = indexOf(bytes, (byte) '\n') + 1;
+                assertTrue(Character.isLetter(bytes[first]));
+                bytes[first] ^= 0x20;
+                Files.write(source, bytes);
+                Files.setLastModifiedTime(source, FileTime.fromMillis(modified + 1000));
+            } else {
+                Files.writeString(source, "New Song,New Artist,1,2024,1,1,0,0,10\n", StandardOpenOption.APPEND);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static int indexOf(byte[] bytes, byte value) {
+        for (int i = 0; i < bytes.length; i++) {
+            if (bytes[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static void deleteAll(Path dir, Path source) throws Exception {
+        Files.deleteIfExists(CatalogSnapshot.snapshotPath(source));
+        Files.deleteIfExists(source);
+        Files.deleteIfExists(dir);
+    }
+}
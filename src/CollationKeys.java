@@ -0,0 +1,683 @@
+import java.text.Collator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.IntFunction;
+
+/**
+ * CollationKeys class that holds a binary sort key for the track name of every row, so track names can be put in a
+ * locale-correct order (see TrackNameCollation) by comparing bytes instead of asking a Collator on every comparison.
+ * A key is the Collator's CollationKey with each of its 16-bit elements written in one byte when it is below 0xFF
+ * (and as 0xFF and two bytes otherwise), which keeps the order of the keys and roughly halves their size.  The first
+ * eight bytes of every key are also kept in a long, so most comparisons are one unsigned long comparison.
+ * The Collator builds keys slowly, so the keys of names of printable ASCII characters are put together from the
+ * keys of their characters instead; that is checked once per collation against the Collator for every pair of such
+ * characters, and every name goes to the Collator if it does not hold (as in locales where two letters sort as one).
+ * Keys are built in parallel.  An instance is never changed: appended rows get a new instance, which writes their
+ * keys past the rows of this one when it can, the same way SongColumns grows.
+ *
+ * @author Bennett Fife
+ * @version 10/17/26
+ */
+public final class CollationKeys {
+
+    /**
+     * ranges of rows at or below this size are keyed on one task
+     */
+    private static final int MIN_PARTITION = 1 << 14;
+    /**
+     * the characters whose keys are put together without the Collator: ' ' to '~'
+     */
+    private static final char FIRST_ASCII = 0x20;
+    /**
+     * last character keyed without the Collator
+     */
+    private static final char LAST_ASCII = 0x7E;
+    /**
+     * the character keys of each collation, built the first time the collation is used
+     */
+    private static final ConcurrentHashMap<TrackNameCollation, AsciiKeys> ASCII_KEYS = new ConcurrentHashMap<>();
+
+    /**
+     * order the keys sort in
+     */
+    private final TrackNameCollation collation;
+    /**
+     * number of rows keyed
+     */
+    private final int rowCount;
+    /**
+     * buffers the keys are read from, shared with the instances that appended to them
+     */
+    private final Buffers buffers;
+    /**
+     * the key of row r is keys[offsets[r], offsets[r + 1])
+     */
+    private final byte[] keys;
+    /**
+     * start of the key of each row, and the end of the last key
+     */
+    private final int[] offsets;
+    /**
+     * the first eight bytes of each row's key, big-endian and padded with zeros
+     */
+    private final long[] heads;
+
+    /**
+     * CollationKeys constructor builds the keys of the first rows of the columns
+     *
+     * @param columns   song columns whose track names are keyed
+     * @param rowCount  number of rows to key
+     * @param collation order the keys sort in
+     */
+    public CollationKeys(SongColumns columns, int rowCount, TrackNameCollation collation) {
+        this(collation, rowCount, build(columns::trackName, 0, rowCount, collation, null));
+    }
+
+    /**
+     * CollationKeys constructor shares buffers that may be appended to by a later instance
+     *
+     * @param collation order the keys sort in
+     * @param rowCount  number of rows keyed
+     * @param buffers   buffers holding the keys of rows [0, rowCount)
+     */
+    private CollationKeys(TrackNameCollation collation, int rowCount, Buffers buffers) {
+        this.collation = collation;
+        this.rowCount = rowCount;
+        this.buffers = buffers;
+        keys = buffers.keys;
+        offsets = buffers.offsets;
+        heads = buffers.heads;
+    }
+
+    /**
+     * Builds the keys of an array of track names, row i being trackNames[i]
+     *
+     * @param trackNames track names to key
+     * @param collation  order the keys sort in
+     * @return new keys
+     */
+    public static CollationKeys of(String[] trackNames, TrackNameCollation collation) {
+        return new CollationKeys(collation, trackNames.length, build(row -> trackNames[row], 0, trackNames.length,
+                collation, null));
+    }
+
+    /**
+     * Creates keys that also cover rows appended to the columns.  Only the new rows are keyed.
+     *
+     * @param columns  song columns holding the rows
+     * @param rowCount new number of rows to key (rows from getRowCount() up to it are added)
+     * @return new keys; these keys are unchanged
+     */
+    public CollationKeys withRows(SongColumns columns, int rowCount) {
+        if (rowCount == this.rowCount) {
+            return this;
+        }
+        return new CollationKeys(collation, rowCount, build(columns::trackName, this.rowCount, rowCount, collation,
+                this));
+    }
+
+    /**
+     * Retrieves the order the keys sort in
+     *
+     * @return collation
+     */
+    public TrackNameCollation getCollation() {
+        return collation;
+    }
+
+    /**
+     * Retrieves the number of rows keyed
+     *
+     * @return row count
+     */
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Retrieves the size of the keys of every row
+     *
+     * @return total key length in bytes
+     */
+    public long getKeyBytes() {
+        return offsets[rowCount];
+    }
+
+    /**
+     * Compares the track names of two rows in the collation's order
+     *
+     * @param a first row number
+     * @param b second row number
+     * @return a negative integer, zero, or a positive integer as row a's name sorts before, with, or after row b's
+     */
+    public int compare(int a, int b) {
+        int order = Long.compareUnsigned(heads[a], heads[b]);
+        if (order != 0) {
+            return order;
+        }
+        return Arrays.compareUnsigned(keys, offsets[a], offsets[a + 1], keys, offsets[b], offsets[b + 1]);
+    }
+
+    /**
+     * Builds the key a track name would have, for comparing names that are not in the rows
+     *
+     * @param trackName track name
+     * @return new key
+     */
+    public byte[] key(String trackName) {
+        KeyBuilder builder = new KeyBuilder(collation);
+        builder.build(trackName);
+        return Arrays.copyOf(builder.key, builder.length);
+    }
+
+    /**
+     * Builds the prefix key of the start of a track name: the part of its key that tells its letters apart, ignoring
+     * case, accents and the characters the collation ignores (such as spaces and hyphens), whatever the folding
+     *
+     * @param prefix start of a track name
+     * @return new prefix key, for comparePrefix()
+     */
+    public byte[] prefix(String prefix) {
+        byte[] key = key(prefix);
+        return Arrays.copyOf(key, primaryLength(key));
+    }
+
+    /**
+     * Compares the start of a row's key with a prefix key.  The rows whose names start with the prefix are the
+     * ones that compare equal, and they sit together in collation order.
+     *
+     * @param row    row number
+     * @param prefix prefix key from prefix()
+     * @return a negative integer, zero, or a positive integer as row's name sorts before the names starting with the
+     * prefix, starts with it, or sorts after them
+     */
+    public int comparePrefix(int row, byte[] prefix) {
+        int from = offsets[row];
+        int to = Math.min(offsets[row + 1], from + prefix.length);
+        return Arrays.compareUnsigned(keys, from, to, prefix, 0, prefix.length);
+    }
+
+    /**
+     * Helper method to find the length of the first section of a key: the bytes before the first element 0
+     *
+     * @param key key bytes
+     * @return number of bytes before the first element 0
+     */
+    private static int primaryLength(byte[] key) {
+        int position = 0;
+        while (position < key.length && key[position] != 0) {
+            position += (key[position] & 0xFF) == 0xFF ? 3 : 1;
+        }
+        return position;
+    }
+
+    /**
+     * Helper method to key rows [from, to) on the common pool, writing them after the rows of 'previous' (or from
+     * the first row if it is null)
+     *
+     * @param trackNames track name of each row
+     * @param from       first row keyed
+     * @param to         row after the last row keyed
+     * @param collation  order the keys sort in
+     * @param previous   keys of the rows before from, or null
+     * @return buffers holding the keys of rows [0, to)
+     */
+    private static Buffers build(IntFunction<String> trackNames, int from, int to, TrackNameCollation collation,
+                                 CollationKeys previous) {
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        int partition = Math.max(MIN_PARTITION, (to - from) / (pool.getParallelism() * 4) + 1);
+        List<KeyTask> tasks = new ArrayList<>();
+        for (int start = from; start < to; start += partition) {
+            tasks.add(new KeyTask(trackNames, collation, start, Math.min(to, start + partition)));
+        }
+        if (tasks.size() > 1) {
+            pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(tasks)));
+        } else {
+            tasks.forEach(KeyTask::invoke);
+        }
+        int bytes = 0;
+        for (KeyTask task : tasks) {
+            bytes += task.join().length;
+        }
+        if (previous == null) {
+            Buffers buffers = new Buffers(to, bytes);
+            write(buffers, from, tasks);
+            return buffers;
+        }
+        synchronized (previous.buffers) {
+            //the new keys go after the previous instance's rows, unless a newer instance already wrote there or they
+            //do not fit
+            Buffers buffers = previous.buffers;
+            int previousBytes = previous.offsets[previous.rowCount];
+            if (buffers.rows != previous.rowCount || to > buffers.heads.length
+                    || previousBytes + bytes > buffers.keys.length) {
+                buffers = new Buffers(Math.max(to, previous.rowCount + previous.rowCount / 2),
+                        Math.max(previousBytes + bytes, previousBytes + previousBytes / 2));
+                System.arraycopy(previous.keys, 0, buffers.keys, 0, previousBytes);
+                System.arraycopy(previous.offsets, 0, buffers.offsets, 0, previous.rowCount + 1);
+                System.arraycopy(previous.heads, 0, buffers.heads, 0, previous.rowCount);
+            }
+            write(buffers, from, tasks);
+            return buffers;
+        }
+    }
+
+    /**
+     * Helper method to copy the keys of finished tasks into the buffers from row 'from' on
+     *
+     * @param buffers buffers written to
+     * @param from    first row written
+     * @param tasks   finished tasks, in row order
+     */
+    private static void write(Buffers buffers, int from, List<KeyTask> tasks) {
+        synchronized (buffers) {
+            int row = from;
+            int position = buffers.offsets[from];
+            for (KeyTask task : tasks) {
+                Chunk chunk = task.join();
+                System.arraycopy(chunk.keys, 0, buffers.keys, position, chunk.length);
+                for (int i = 0; i < chunk.ends.length; i++) {
+                    int start = position + (i == 0 ? 0 : chunk.ends[i - 1]);
+                    buffers.heads[row] = head(buffers.keys, start, position + chunk.ends[i]);
+                    buffers.offsets[++row] = position + chunk.ends[i];
+                }
+                position += chunk.length;
+            }
+            buffers.rows = row;
+        }
+    }
+
+    /**
+     * Helper method to read up to the first eight bytes of a key as a big-endian long padded with zeros
+     *
+     * @param keys key bytes
+     * @param from start of the key
+     * @param to   end of the key
+     * @return first eight bytes of the key
+     */
+    private static long head(byte[] keys, int from, int to) {
+        long head = 0;
+        for (int i = 0; i < 8; i++) {
+            head = head << 8 | (from + i < to ? keys[from + i] & 0xFF : 0);
+        }
+        return head;
+    }
+
+    /**
+     * Helper method to write one 16-bit key element: in one byte below 0xFF, as 0xFF and two bytes otherwise
+     *
+     * @param out      array written to
+     * @param position position of the element
+     * @param element  16-bit element
+     * @return position after the element
+     */
+    private static int writeElement(byte[] out, int position, int element) {
+        if (element < 0xFF) {
+            out[position] = (byte) element;
+            return position + 1;
+        }
+        out[position] = (byte) 0xFF;
+        out[position + 1] = (byte) (element >>> 8);
+        out[position + 2] = (byte) element;
+        return position + 3;
+    }
+
+    /**
+     * the arrays shared by an instance and the instances that appended rows in place after it
+     */
+    private static final class Buffers {
+        /**
+         * key bytes of every row, one after another
+         */
+        private final byte[] keys;
+        /**
+         * start of the key of each row, and the end of the last key
+         */
+        private final int[] offsets;
+        /**
+         * first eight bytes of each row's key, big-endian and padded with zeros
+         */
+        private final long[] heads;
+        /**
+         * number of rows written; only changed while holding the lock of this object
+         */
+        private int rows;
+
+        /**
+         * Buffers constructor allocates room for rowCapacity keys of byteCapacity bytes in all
+         *
+         * @param rowCapacity  most rows held
+         * @param byteCapacity most key bytes held
+         */
+        private Buffers(int rowCapacity, int byteCapacity) {
+            keys = new byte[byteCapacity];
+            offsets = new int[rowCapacity + 1];
+            heads = new long[rowCapacity];
+        }
+    }
+
+    /**
+     * the keys of a range of rows, one after another
+     *
+     * @param keys   key bytes of the rows, one after another
+     * @param length number of bytes of keys in use
+     * @param ends   end of the key of each row
+     */
+    private record Chunk(byte[] keys, int length, int[] ends) {
+    }
+
+    /**
+     * Keys a range of rows
+     */
+    private static final class KeyTask extends RecursiveTask<Chunk> {
+        /**
+         * track name of each row
+         */
+        private final IntFunction<String> trackNames;
+        /**
+         * order the keys sort in
+         */
+        private final TrackNameCollation collation;
+        /**
+         * first row keyed
+         */
+        private final int from;
+        /**
+         * row after the last row keyed
+         */
+        private final int to;
+
+        /**
+         * KeyTask constructor keys the track names of rows [from, to)
+         *
+         * @param trackNames track name of each row
+         * @param collation  order the keys sort in
+         * @param from       first row keyed
+         * @param to         row after the last row keyed
+         */
+        private KeyTask(IntFunction<String> trackNames, TrackNameCollation collation, int from, int to) {
+            this.trackNames = trackNames;
+            this.collation = collation;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Chunk compute() {
+            KeyBuilder builder = new KeyBuilder(collation);
+            byte[] keys = new byte[(to - from) * 32];
+            int[] ends = new int[to - from];
+            int length = 0;
+            for (int row = from; row < to; row++) {
+                builder.build(trackNames.apply(row));
+                if (length + builder.length > keys.length) {
+                    keys = Arrays.copyOf(keys, Math.max(length + builder.length, keys.length * 2));
+                }
+                System.arraycopy(builder.key, 0, keys, length, builder.length);
+                length += builder.length;
+                ends[row - from] = length;
+            }
+            return new Chunk(keys, length, ends);
+        }
+    }
+
+    /**
+     * the three sections of the key of each printable ASCII character, already written as key bytes
+     */
+    private static final class AsciiKeys {
+        /**
+         * primary section of each character, from FIRST_ASCII
+         */
+        private final byte[][] primary = new byte[LAST_ASCII - FIRST_ASCII + 1][];
+        /**
+         * secondary section of each character, from FIRST_ASCII
+         */
+        private final byte[][] secondary = new byte[primary.length][];
+        /**
+         * tertiary section of each character, from FIRST_ASCII
+         */
+        private final byte[][] tertiary = new byte[primary.length][];
+        /**
+         * length of the longest section
+         */
+        private final int longest;
+        /**
+         * true if the key of every name of these characters is the keys of its characters put together
+         */
+        private final boolean usable;
+
+        /**
+         * AsciiKeys constructor works out the key sections of every printable ASCII character, and whether they can be
+         * put together into the key of a name
+         *
+         * @param collation collation keyed
+         */
+        private AsciiKeys(TrackNameCollation collation) {
+            Collator collator = collation.collator();
+            boolean split = true;
+            int longestSection = 0;
+            for (char c = FIRST_ASCII; c <= LAST_ASCII && split; c++) {
+                byte[][] sections = sections(collator, String.valueOf(c));
+                split = sections != null;
+                if (split) {
+                    primary[c - FIRST_ASCII] = sections[0];
+                    secondary[c - FIRST_ASCII] = sections[1];
+                    tertiary[c - FIRST_ASCII] = sections[2];
+                    for (byte[] section : sections) {
+                        longestSection = Math.max(longestSection, section.length);
+                    }
+                }
+            }
+            longest = longestSection;
+            usable = split && pairsMatch(collation, collator);
+        }
+
+        /**
+         * Helper method to check that every two-character name gets the same key from its characters as from the
+         * Collator
+         *
+         * @param collation collation keyed
+         * @param collator  Collator of the collation
+         * @return true if the keys are the same for every pair
+         */
+        private boolean pairsMatch(TrackNameCollation collation, Collator collator) {
+            KeyBuilder fromCharacters = new KeyBuilder(collation, this);
+            KeyBuilder fromCollator = new KeyBuilder(collation, null);
+            char[] pair = new char[2];
+            for (pair[0] = FIRST_ASCII; pair[0] <= LAST_ASCII; pair[0]++) {
+                for (pair[1] = FIRST_ASCII; pair[1] <= LAST_ASCII; pair[1]++) {
+                    String name = new String(pair);
+                    fromCharacters.build(name);
+                    fromCollator.build(name);
+                    if (!Arrays.equals(fromCharacters.key, 0, fromCharacters.length, fromCollator.key, 0,
+                            fromCollator.length)) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Helper method to split a Collator key into its three sections (separated by elements 0) as key bytes
+         *
+         * @param collator Collator of the collation
+         * @param name     name keyed
+         * @return primary, secondary and tertiary section, or null if the key does not have three sections
+         */
+        private static byte[][] sections(Collator collator, String name) {
+            byte[] collated = collator.getCollationKey(name).toByteArray();
+            byte[][] sections = new byte[3][];
+            byte[] section = new byte[collated.length / 2 * 3];
+            int length = 0;
+            int next = 0;
+            for (int i = 0; i + 1 < collated.length; i += 2) {
+                int element = (collated[i] & 0xFF) << 8 | collated[i + 1] & 0xFF;
+                if (element != 0) {
+                    length = writeElement(section, length, element);
+                } else if (next < 2) {
+                    sections[next++] = Arrays.copyOf(section, length);
+                    length = 0;
+                } else {
+                    return null;
+                }
+            }
+            if (next != 2) {
+                return null;
+            }
+            sections[2] = Arrays.copyOf(section, length);
+            return sections;
+        }
+    }
+
+    /**
+     * Builds keys one name at a time, reusing its buffers; one per thread
+     */
+    private static final class KeyBuilder {
+        /**
+         * character keys of the collation, or null to key every name with the Collator
+         */
+        private final AsciiKeys ascii;
+        /**
+         * order the keys sort in
+         */
+        private final TrackNameCollation collation;
+        /**
+         * created for the first name that is not put together from character keys
+         */
+        private Collator collator;
+        /**
+         * key built, in key[0, length)
+         */
+        private byte[] key = new byte[64];
+        /**
+         * length of the key built
+         */
+        private int length;
+        /**
+         * secondary section of the key being put together
+         */
+        private byte[] secondary = new byte[64];
+        /**
+         * tertiary section of the key being put together
+         */
+        private byte[] tertiary = new byte[64];
+
+        /**
+         * KeyBuilder constructor, using the shared ASCII character keys of the collation when they are usable
+         *
+         * @param collation order the keys sort in
+         */
+        private KeyBuilder(TrackNameCollation collation) {
+            this(collation, usableAsciiKeys(collation));
+        }
+
+        /**
+         * KeyBuilder constructor that puts keys together from the specified character keys
+         *
+         * @param collation order the keys sort in
+         * @param ascii     character keys to put the keys of printable ASCII names together from, or null to key every
+         *                  name with the Collator
+         */
+        private KeyBuilder(TrackNameCollation collation, AsciiKeys ascii) {
+            this.collation = collation;
+            this.ascii = ascii;
+        }
+
+        /**
+         * Helper method to retrieve the shared ASCII character keys of a collation, or null if names cannot be keyed
+         * from them
+         *
+         * @param collation collation keyed
+         * @return character keys, or null
+         */
+        private static AsciiKeys usableAsciiKeys(TrackNameCollation collation) {
+            AsciiKeys ascii = ASCII_KEYS.computeIfAbsent(collation, AsciiKeys::new);
+            return ascii.usable ? ascii : null;
+        }
+
+        /**
+         * Builds the key of a name into key[0, length)
+         *
+         * @param name track name keyed
+         */
+        private void build(String name) {
+            if (ascii == null || !buildFromCharacters(name)) {
+                buildFromCollator(name);
+            }
+        }
+
+        /**
+         * Helper method to put a key together from the keys of the name's characters
+         *
+         * @param name track name keyed
+         * @return false (with nothing built) if the name has a character that is not printable ASCII
+         */
+        private boolean buildFromCharacters(String name) {
+            int most = name.length() * ascii.longest;
+            ensure(3 * most + 2);
+            if (most > secondary.length) {
+                secondary = new byte[most * 2];
+                tertiary = new byte[most * 2];
+            }
+            int primaryLength = 0;
+            int secondaryLength = 0;
+            int tertiaryLength = 0;
+            for (int i = 0; i < name.length(); i++) {
+                int c = name.charAt(i) - FIRST_ASCII;
+                if (c < 0 || c > LAST_ASCII - FIRST_ASCII) {
+                    return false;
+                }
+                //the sections are a few bytes each, too short for System.arraycopy to pay off
+                for (byte b : ascii.primary[c]) {
+                    key[primaryLength++] = b;
+                }
+                for (byte b : ascii.secondary[c]) {
+                    secondary[secondaryLength++] = b;
+                }
+                for (byte b : ascii.tertiary[c]) {
+                    tertiary[tertiaryLength++] = b;
+                }
+            }
+            key[primaryLength] = 0;
+            System.arraycopy(secondary, 0, key, primaryLength + 1, secondaryLength);
+            key[primaryLength + 1 + secondaryLength] = 0;
+            System.arraycopy(tertiary, 0, key, primaryLength + 2 + secondaryLength, tertiaryLength);
+            length = primaryLength + secondaryLength + tertiaryLength + 2;
+            return true;
+        }
+
+        /**
+         * Helper method to key a name with the Collator and rewrite its 16-bit elements as key bytes
+         *
+         * @param name track name keyed
+         */
+        private void buildFromCollator(String name) {
+            if (collator == null) {
+                collator = collation.collator();
+            }
+            byte[] collated = collator.getCollationKey(name).toByteArray();
+            ensure(collated.length / 2 * 3);
+            length = 0;
+            for (int i = 0; i + 1 < collated.length; i += 2) {
+                length = writeElement(key, length, (collated[i] & 0xFF) << 8 | collated[i + 1] & 0xFF);
+            }
+        }
+
+        /**
+         * Helper method to grow the key buffer to hold at least capacity bytes
+         *
+         * @param capacity bytes needed
+         */
+        private void ensure(int capacity) {
+            if (capacity > key.length) {
+                key = Arrays.copyOf(key, Math.max(capacity, key.length * 2));
+            }
+        }
+    }
+}
@@ -0,0 +1,194 @@
+import java.text.Collator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CollationKeysTest {
+
+    private static final String[] NAMES = {"apple", "Apple", "APPLE", "\u00c4pfel", "banana", "\u00e9clair", "Eclair",
+            "eclair", "e\u0301clair", "\u00f1u", "nu", "Nu", "zebra", "Zebra", "\u0152uvre", "oeuvre", "a-b", "a b",
+            "ab", "", " ", "D\u00e9j\u00e0 Vu", "deja vu", "DEJA VU", "\u6771\u4eac",
+            "\u041c\u043e\u0441\u043a\u0432\u0430", "stra\u00dfe", "strasse", "\u00c7a va", "cach\u00e9", "cache",
+            "1999", "99 Problems", "(It Goes Like) Nanana", "Cupid - Twin Ver.", "cupid", "\u00c5ngstr\u00f6m",
+            "Angstrom"};
+
+    @org.junit.jupiter.api.Test
+    void matchesCollator() {
+
+        for (TrackNameCollation.Folding folding : TrackNameCollation.Folding.values()) {
+            for (Locale locale : new Locale[]{Locale.ROOT, Locale.FRENCH, new Locale("es"), new Locale("sv")}) {
+                TrackNameCollation collation = new TrackNameCollation(locale, folding);
+                Collator collator = collation.collator();
+                CollationKeys keys = CollationKeys.of(NAMES, collation);
+                for (int a = 0; a < NAMES.length; a++) {
+                    for (int b = 0; b < NAMES.length; b++) {
+                        assertEquals(Integer.signum(collator.compare(NAMES[a], NAMES[b])),
+                                Integer.signum(keys.compare(a, b)), locale + " " + folding + ": " + NAMES[a] + " / "
+                                        + NAMES[b]);
+                    }
+                }
+            }
+        }
+        //canonically equivalent names (precomposed and combining accent) are always equal
+        CollationKeys keys = CollationKeys.of(NAMES, TrackNameCollation.DEFAULT);
+        assertEquals(0, keys.compare(5, 8));
+        assertTrue(keys.compare(0, 1) < 0 && keys.compare(1, 4) < 0, "apple, Apple, banana");
+        assertEquals(NAMES.length, keys.getRowCount());
+    }
+
+    @org.junit.jupiter.api.Test
+    void asciiNamesMatchCollator() {
+
+        //printable ASCII names are keyed from their characters; every order must be the Collator's
+        SplittableRandom random = new SplittableRandom(11);
+        String[] names = new String[3000];
+        for (int i = 0; i < names.length; i++) {
+            char[] name = new char[random.nextInt(12)];
+            for (int c = 0; c < name.length; c++) {
+                name[c] = (char) (random.nextInt(4) == 0 ? ' ' + random.nextInt(95) : 'a' + random.nextInt(3)
+                        - (random.nextBoolean() ? 32 : 0));
+            }
+            names[i] = new String(name);
+        }
+        for (TrackNameCollation.Folding folding : TrackNameCollation.Folding.values()) {
+            TrackNameCollation collation = new TrackNameCollation(Locale.ROOT, folding);
+            Collator collator = collation.collator();
+            CollationKeys keys = CollationKeys.of(names, collation);
+            for (int i = 0; i < 30_000; i++) {
+                int a = random.nextInt(names.length);
+                int b = random.nextInt(names.length);
+                assertEquals(Integer.signum(collator.compare(names[a], names[b])), Integer.signum(keys.compare(a, b)),
+                        folding + ": '" + names[a] + "' / '" + names[b] + "'");
+            }
+        }
+    }
+
+    @org.junit.jupiter.api.Test
+    void prefixes() {
+
+        CollationKeys keys = CollationKeys.of(NAMES, TrackNameCollation.DEFAULT);
+        Set<String> deja = new HashSet<>();
+        Set<String> all = new HashSet<>();
+        byte[] prefix = keys.prefix("DEJA");
+        byte[] empty = keys.prefix("");
+        for (int row = 0; row < NAMES.length; row++) {
+            if (keys.comparePrefix(row, prefix) == 0) {
+                deja.add(NAMES[row]);
+            }
+            if (keys.comparePrefix(row, empty) == 0) {
+                all.add(NAMES[row]);
+            }
+        }
+        assertEquals(Set.of("D\u00e9j\u00e0 Vu", "deja vu", "DEJA VU"), deja);
+        assertEquals(Set.of(NAMES), all);
+    }
+
+    @org.junit.jupiter.api.Test
+    void catalogOrderAndSeeks() {
+
+        SongManager manager = new SongManager();
+        Collator collator = TrackNameCollation.DEFAULT.collator();
+        Set<Song> scanned = songs(manager, manager.startingWith("the"));
+        assertFalse(scanned.isEmpty());
+
+        manager.sortSongs(SortKey.COLLATED_TRACK_NAME);
+        assertSorted(manager, collator);
+        //the same songs found by binary search once the songs are in collation order
+        assertEquals(scanned, songs(manager, manager.startingWith("the")));
+        for (Song song : scanned) {
+            assertTrue(song.trackName().toLowerCase().replace(" ", "").startsWith("the"), song.trackName());
+        }
+
+        //appended rows are keyed and merged into collation order
+        manager.appendSongs(List.of(new String[]{"\u00e9clair", "Someone", "1", "2022", "1", "1", "0", "0", "1"},
+                new String[]{"Eclair", "Someone", "1", "2022", "1", "1", "0", "0", "2"},
+                new String[]{"Caf\u00e9 Society", "Someone", "1", "2022", "1", "1", "0", "0", "3"},
+                new String[]{"CAFE del Mar", "Someone", "1", "2031", "1", "1", "0", "0", "4"}));
+        assertSorted(manager, collator);
+        Set<String> cafe = new HashSet<>();
+        for (Song song : songs(manager, manager.startingWith("cafe"))) {
+            cafe.add(song.trackName());
+        }
+        assertTrue(cafe.containsAll(Set.of("Caf\u00e9 Society", "CAFE del Mar")), cafe.toString());
+        SongLocation eclair = manager.findSongLocation("\u00e9clair");
+        assertEquals("\u00e9clair", manager.getSong(eclair.yearIndex(), eclair.songIndex()).trackName());
+
+        //a new collation re-sorts, and is kept on reload
+        TrackNameCollation folded = new TrackNameCollation(Locale.ROOT, TrackNameCollation.Folding.CASE_AND_ACCENTS);
+        manager.setCollation(folded);
+        assertSorted(manager, folded.collator());
+        manager.reload();
+        assertEquals(folded, manager.getCatalog().getCollation());
+        assertEquals(SortKey.COLLATED_TRACK_NAME, manager.getCatalog().getSortKey());
+        assertSorted(manager, folded.collator());
+        manager.sortSongs(SortKey.TRACK_NAME);
+        assertEquals(scanned, songs(manager, manager.startingWith("the")));
+    }
+
+    /**
+     * Compares sorting track names with a Collator on every comparison, with precomputed keys, and with
+     * String.compareTo
+     */
+    @org.junit.jupiter.api.Test
+    @org.junit.jupiter.api.condition.EnabledIfSystemProperty(named = "songs.benchmarks", matches = "true")
+    void sortSpeed() throws Exception {
+
+        //the Collator is slow enough that 50,000 rows is the default
+        int rows = SongCsvGenerator.benchmarkRows("collation", 50_000);
+        SongColumns columns = SongCsvGenerator.catalog(5, rows).columns();
+        int[] original = IntStream.range(0, rows).toArray();
+        double[] millis = new double[4];
+        int[] byCollator = null;
+        int[] byKeys = null;
+        //measured twice, and the second (warmed up) measurement is kept
+        for (int round = 0; round < 2; round++) {
+            Collator collator = TrackNameCollation.DEFAULT.collator();
+            byCollator = original.clone();
+            long start = System.nanoTime();
+            SongSorter.sortSequential(byCollator, (a, b) -> {
+                int order = collator.compare(columns.trackName(a), columns.trackName(b));
+                return order != 0 ? order : Integer.compare(a, b);
+            });
+            millis[0] = (System.nanoTime() - start) / 1e6;
+
+            start = System.nanoTime();
+            CollationKeys keys = new CollationKeys(columns, rows, TrackNameCollation.DEFAULT);
+            millis[1] = (System.nanoTime() - start) / 1e6;
+            byKeys = original.clone();
+            start = System.nanoTime();
+            SongSorter.sortSequential(byKeys, SongSorter.comparator(columns, SortKey.COLLATED_TRACK_NAME, keys));
+            millis[2] = (System.nanoTime() - start) / 1e6;
+
+            int[] raw = original.clone();
+            start = System.nanoTime();
+            SongSorter.sortSequential(raw, SongSorter.comparator(columns, SortKey.TRACK_NAME));
+            millis[3] = (System.nanoTime() - start) / 1e6;
+        }
+        assertArrayEquals(byCollator, byKeys);
+        System.out.printf("sort %,d track names: Collator per comparison %.0f ms, keys %.0f ms (+ %.0f ms to build"
+                + " them), String.compareTo %.0f ms%n", rows, millis[0], millis[2], millis[1], millis[3]);
+    }
+
+    private static Set<Song> songs(SongManager manager, SongLocation[] locations) {
+        Set<Song> songs = new HashSet<>();
+        for (SongLocation location : locations) {
+            songs.add(manager.getSong(location.yearIndex(), location.songIndex()));
+        }
+        return songs;
+    }
+
+    private static void assertSorted(SongManager manager, Collator collator) {
+        for (int yearIndex = 0; yearIndex < manager.getYearCount(); yearIndex++) {
+            Song[] songs = manager.getSongs(yearIndex);
+            for (int i = 1; i < songs.length; i++) {
+                assertTrue(collator.compare(songs[i - 1].trackName(), songs[i].trackName()) <= 0,
+                        songs[i - 1].trackName() + " / " + songs[i].trackName());
+            }
+        }
+    }
+}
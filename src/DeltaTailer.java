@@ -0,0 +1,132 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DeltaTailer class that follows a 'spotify-2023.csv' shaped delta file as rows are added to it and appends every new
+ * complete row to a SongManager.  Only the part of the file written since the last poll is read, and a row that is
+ * still being written (no line break yet) is left for the next poll.  A row that is not a valid song row is skipped
+ * and reported on System.err, and a file that is truncated or replaced (by log rotation, say) is read again from its
+ * header.
+ *
+ * @author Bennett Fife
+ * @version 10/17/26
+ */
+public class DeltaTailer implements AutoCloseable {
+
+    /**
+     * SongManager the new rows are appended to
+     */
+    private final SongManager manager;
+    /**
+     * delta file followed
+     */
+    private final Path deltaFile;
+    /**
+     * parser of the delta file's records
+     */
+    private final MappedCsvParser parser;
+    /**
+     * file position of the next unread record, or -1 until the header line has been read
+     */
+    private long position = -1;
+    /**
+     * identity of the file position belongs to, so a replaced file is noticed even if it is as long; null if the file
+     * system has none
+     */
+    private Object fileKey;
+    /**
+     * thread that polls the delta file; null until started
+     */
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * DeltaTailer constructor
+     *
+     * @param manager   SongManager the new rows are appended to
+     * @param deltaFile delta file to follow; it may not exist yet
+     */
+    public DeltaTailer(SongManager manager, Path deltaFile) {
+        this.manager = manager;
+        this.deltaFile = deltaFile;
+        this.parser = new MappedCsvParser(deltaFile);
+    }
+
+    /**
+     * Appends the complete rows written to the delta file since the last poll
+     *
+     * @return number of songs appended
+     */
+    public synchronized int poll() {
+        if (!Files.isRegularFile(deltaFile)) {
+            return 0;
+        }
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(deltaFile, BasicFileAttributes.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (position >= 0 && (attributes.size() < position
+                || (fileKey != null && !fileKey.equals(attributes.fileKey())))) {
+            System.err.println(deltaFile + " was truncated or replaced; reading it again from the header");
+            position = -1;
+        }
+        if (position < 0) {
+            fileKey = attributes.fileKey();
+            position = parser.headerEnd();
+            if (position < 0) {
+                return 0; //the header line is not complete yet
+            }
+        }
+        long end = parser.lastRecordEnd(position);
+        if (end == position) {
+            return 0;
+        }
+        long start = position;
+        //moved past the records before they are parsed, so a bad row is never read again
+        position = end;
+        SongColumns delta = parser.parseRecords(start, end, (reason, offset) ->
+                System.err.println("Skipped the row at byte " + offset + " of " + deltaFile + ": " + reason));
+        return manager.append(delta);
+    }
+
+    /**
+     * Starts polling the delta file on a background thread
+     *
+     * @param intervalMillis time between polls in milliseconds
+     */
+    public synchronized void start(long intervalMillis) {
+        if (scheduler != null) {
+            throw new IllegalStateException("the tailer is already running");
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "delta-tailer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                poll();
+            } catch (RuntimeException e) {
+                System.err.println("Could not read the delta file: " + e.getMessage());
+            }
+        }, 0, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops polling
+     */
+    @Override
+    public synchronized void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+}
@@ -0,0 +1,614 @@
+import java.util.Arrays;
+
+/**
+ * FeatureIndex class that answers SongFilter queries on the audio features of the songs without reading every row.
+ * The bpm and percentage columns have a sorted index each: the rows ordered by value (then row), built with a
+ * counting sort since the values are small, so the rows of a range are one contiguous slice found in constant time.
+ * The key and mode columns have only a few values, so each value has a bitmap of the rows that have it instead.
+ * A filter is answered from the most selective condition first: a small enough slice is taken as the candidate rows
+ * and the other conditions are checked on those rows only; otherwise the conditions become bitmaps that are ANDed
+ * and ORed a word (64 rows) at a time, and conditions on columns without an index are checked row by row on what
+ * is left.
+ * Like ArtistIndex, it stores row numbers and is never changed after it is built: appended rows go into a new layer.
+ *
+ * @author Bennett Fife
+ * @version 10/17/26
+ * @see SongFilter
+ */
+public final class FeatureIndex {
+
+    /**
+     * columns with a sorted index
+     */
+    static final SongColumn[] SORTED_COLUMNS = {SongColumn.BPM, SongColumn.DANCEABILITY, SongColumn.VALENCE,
+            SongColumn.ENERGY, SongColumn.ACOUSTICNESS, SongColumn.INSTRUMENTALNESS, SongColumn.LIVENESS,
+            SongColumn.SPEECHINESS};
+    /**
+     * columns with a bitmap per value
+     */
+    static final SongColumn[] BITMAP_COLUMNS = {SongColumn.KEY, SongColumn.MODE};
+
+    /**
+     * most layers kept before the index is rebuilt as a single layer
+     */
+    private static final int MAX_LAYERS = 8;
+    /**
+     * a condition matching at most 1 / SELECTIVE of the rows is used as the candidate rows
+     */
+    private static final int SELECTIVE = 64;
+    /**
+     * a condition is checked row by row instead of as a bitmap once it would match PROBE times more rows than are
+     * left
+     */
+    private static final int PROBE = 4;
+    /**
+     * position of each column in SORTED_COLUMNS or BITMAP_COLUMNS, or -1
+     */
+    private static final int[] SORTED_POSITIONS = positions(SORTED_COLUMNS);
+    /**
+     * position of each column in BITMAP_COLUMNS, or -1
+     */
+    private static final int[] BITMAP_POSITIONS = positions(BITMAP_COLUMNS);
+
+    /**
+     * index of the rows before fromRow, or null for the bottom layer
+     */
+    private final FeatureIndex parent;
+    /**
+     * number of layers, this one included
+     */
+    private final int layers;
+    /**
+     * song columns the values are read from
+     */
+    private final SongColumns columns;
+    /**
+     * first row of this layer
+     */
+    private final int fromRow;
+    /**
+     * row after the last row of this layer
+     */
+    private final int toRow;
+    /**
+     * the rows of this layer with value v in sorted column c are sortedRows[c][sortedStarts[c][v - sortedMins[c]]
+     * up to sortedStarts[c][v - sortedMins[c] + 1]), in ascending row order
+     */
+    private final int[] sortedMins;
+    /**
+     * slice starts of each sorted column, one per value from sortedMins[c] plus an end
+     */
+    private final int[][] sortedStarts;
+    /**
+     * rows of this layer of each sorted column, in value order
+     */
+    private final int[][] sortedRows;
+    /**
+     * bit {@code row & 63} of word {@code (row >>> 6) - (fromRow >>> 6)} of bitmaps[c][v - bitmapMins[c]] is set if
+     * the row has value v in bitmap column c
+     */
+    private final int[] bitmapMins;
+    /**
+     * row bitmap of each value of each bitmap column, covering this layer's words
+     */
+    private final long[][][] bitmaps;
+    /**
+     * number of rows of this layer in each bitmap of each bitmap column
+     */
+    private final int[][] bitmapCounts;
+
+    /**
+     * FeatureIndex constructor indexes the first rows of the columns
+     *
+     * @param columns  song columns to index
+     * @param rowCount number of rows to index
+     */
+    public FeatureIndex(SongColumns columns, int rowCount) {
+        this(null, columns, 0, rowCount);
+    }
+
+    /**
+     * FeatureIndex constructor indexes the rows [fromRow, toRow) as a layer on top of a parent (null for the first
+     * layer)
+     *
+     * @param parent  index of the rows before fromRow, or null
+     * @param columns song columns to index
+     * @param fromRow first row of the layer
+     * @param toRow   row after the last row of the layer
+     */
+    private FeatureIndex(FeatureIndex parent, SongColumns columns, int fromRow, int toRow) {
+        this.parent = parent;
+        this.layers = parent == null ? 1 : parent.layers + 1;
+        this.columns = columns;
+        this.fromRow = fromRow;
+        this.toRow = toRow;
+        int size = toRow - fromRow;
+        int[] values = new int[size];
+
+        sortedMins = new int[SORTED_COLUMNS.length];
+        sortedStarts = new int[SORTED_COLUMNS.length][];
+        sortedRows = new int[SORTED_COLUMNS.length][];
+        for (int c = 0; c < SORTED_COLUMNS.length; c++) {
+            int min = read(SORTED_COLUMNS[c], values);
+            int[] starts = counts(values, min);
+            //counting sort: the counts become starts, then each row goes after the earlier rows with its value
+            for (int v = 1; v < starts.length; v++) {
+                starts[v] += starts[v - 1];
+            }
+            int[] next = Arrays.copyOf(starts, starts.length - 1);
+            int[] rows = new int[size];
+            for (int i = 0; i < size; i++) {
+                rows[next[values[i] - min]++] = fromRow + i;
+            }
+            sortedMins[c] = min;
+            sortedStarts[c] = starts;
+            sortedRows[c] = rows;
+        }
+
+        bitmapMins = new int[BITMAP_COLUMNS.length];
+        bitmaps = new long[BITMAP_COLUMNS.length][][];
+        bitmapCounts = new int[BITMAP_COLUMNS.length][];
+        int firstWord = fromRow >>> 6;
+        int words = size == 0 ? 0 : ((toRow - 1) >>> 6) - firstWord + 1;
+        for (int c = 0; c < BITMAP_COLUMNS.length; c++) {
+            int min = read(BITMAP_COLUMNS[c], values);
+            int[] counts = counts(values, min);
+            long[][] valueBits = new long[counts.length - 1][words];
+            for (int i = 0; i < size; i++) {
+                int row = fromRow + i;
+                valueBits[values[i] - min][(row >>> 6) - firstWord] |= 1L << row;
+            }
+            bitmapMins[c] = min;
+            bitmaps[c] = valueBits;
+            bitmapCounts[c] = Arrays.copyOfRange(counts, 1, counts.length);
+        }
+    }
+
+    /**
+     * Creates an index that also covers rows appended to the columns.  The rows are indexed in a new layer, or the
+     * whole index is rebuilt once the layers on top of the bottom one hold too many rows.
+     *
+     * @param columns  song columns holding the rows
+     * @param rowCount new number of rows to index (rows from getRowCount() up to it are added)
+     * @return new index; this index is unchanged
+     */
+    public FeatureIndex withRows(SongColumns columns, int rowCount) {
+        if (rowCount == toRow) {
+            return this;
+        }
+        FeatureIndex bottom = this;
+        while (bottom.parent != null) {
+            bottom = bottom.parent;
+        }
+        int layeredRows = rowCount - bottom.toRow;
+        if (layers >= MAX_LAYERS || layeredRows > bottom.toRow / 4) {
+            return new FeatureIndex(columns, rowCount);
+        }
+        return new FeatureIndex(this, columns, toRow, rowCount);
+    }
+
+    /**
+     * Retrieves the number of rows indexed
+     *
+     * @return row count
+     */
+    public int getRowCount() {
+        return toRow;
+    }
+
+    /**
+     * Checks whether a column has a sorted or bitmap index
+     *
+     * @param column numeric column
+     * @return true if conditions on the column are answered from the index
+     */
+    public static boolean isIndexed(SongColumn column) {
+        return SORTED_POSITIONS[column.ordinal()] >= 0 || BITMAP_POSITIONS[column.ordinal()] >= 0;
+    }
+
+    /**
+     * Retrieves every row that matches a filter
+     *
+     * @param filter filter to match
+     * @return row numbers in ascending order
+     */
+    public int[] rows(SongFilter filter) {
+        int[] candidates = candidates(filter);
+        if (candidates != null) {
+            return candidates;
+        }
+        long[] bits = bitmap(filter);
+        int[] rows = new int[count(bits)];
+        int size = 0;
+        for (int w = 0; w < bits.length; w++) {
+            for (long word = bits[w]; word != 0; word &= word - 1) {
+                rows[size++] = (w << 6) + Long.numberOfTrailingZeros(word);
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Counts the rows that match a filter
+     *
+     * @param filter filter to match
+     * @return number of matching rows
+     */
+    public int count(SongFilter filter) {
+        int[] candidates = candidates(filter);
+        return candidates != null ? candidates.length : count(bitmap(filter));
+    }
+
+    /**
+     * Estimates the number of rows that match a filter from the index alone.  Conditions on indexed columns are
+     * counted exactly; conditions on other columns are assumed to match every row.
+     *
+     * @param filter filter to estimate
+     * @return estimated number of matching rows, at most getRowCount()
+     */
+    public int estimate(SongFilter filter) {
+        switch (filter.kind()) {
+            case RANGE:
+                int sorted = SORTED_POSITIONS[filter.column().ordinal()];
+                int bitmap = BITMAP_POSITIONS[filter.column().ordinal()];
+                if (sorted < 0 && bitmap < 0) {
+                    return toRow;
+                }
+                int count = 0;
+                for (FeatureIndex layer = this; layer != null; layer = layer.parent) {
+                    count += sorted >= 0 ? layer.sliceSize(sorted, filter.min(), filter.max())
+                            : layer.bitmapSize(bitmap, filter.min(), filter.max());
+                }
+                return count;
+            case AND:
+                int smallest = toRow;
+                for (SongFilter child : filter.children()) {
+                    smallest = Math.min(smallest, estimate(child));
+                }
+                return smallest;
+            case OR:
+                long total = 0;
+                for (SongFilter child : filter.children()) {
+                    total += estimate(child);
+                }
+                return (int) Math.min(toRow, total);
+            default:
+                throw new IllegalStateException("unknown filter kind " + filter.kind());
+        }
+    }
+
+    /**
+     * Helper method to answer a filter from a selective sorted range: the rows of its slice are the candidates and
+     * the rest of the filter is checked on each of them
+     *
+     * @param filter filter answered
+     * @return matching rows in ascending order, or null if the filter has no selective enough sorted range
+     */
+    private int[] candidates(SongFilter filter) {
+        SongFilter[] conditions = filter.kind() == SongFilter.Kind.AND ? byEstimate(filter.children())
+                : new SongFilter[]{filter};
+        SongFilter first = conditions[0];
+        if (first.kind() != SongFilter.Kind.RANGE || SORTED_POSITIONS[first.column().ordinal()] < 0
+                || estimate(first) > toRow / SELECTIVE) {
+            return null;
+        }
+        int sorted = SORTED_POSITIONS[first.column().ordinal()];
+        int[] rows = new int[estimate(first)];
+        int size = 0;
+        for (FeatureIndex layer = this; layer != null; layer = layer.parent) {
+            int[] bounds = layer.slice(sorted, first.min(), first.max());
+            System.arraycopy(layer.sortedRows[sorted], bounds[0], rows, size, bounds[1] - bounds[0]);
+            size += bounds[1] - bounds[0];
+        }
+        Arrays.sort(rows);
+        int matched = 0;
+        for (int i = 0; i < size; i++) {
+            if (matchesRest(conditions, rows[i])) {
+                rows[matched++] = rows[i];
+            }
+        }
+        return matched == rows.length ? rows : Arrays.copyOf(rows, matched);
+    }
+
+    /**
+     * Helper method to check a row against every condition after the first, which the index has already applied
+     *
+     * @param conditions conditions of the filter, the one already applied first
+     * @param row        row number
+     * @return true if the row matches every condition after the first
+     */
+    private boolean matchesRest(SongFilter[] conditions, int row) {
+        for (int i = 1; i < conditions.length; i++) {
+            if (!conditions[i].matches(columns, row)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Helper method to build the bitmap of the rows that match a filter
+     *
+     * @param filter filter matched
+     * @return bitmap with bit row set for every matching row
+     */
+    private long[] bitmap(SongFilter filter) {
+        switch (filter.kind()) {
+            case RANGE:
+                return rangeBitmap(filter);
+            case AND:
+                SongFilter[] conditions = byEstimate(filter.children());
+                long[] bits = bitmap(conditions[0]);
+                int remaining = count(bits);
+                for (int i = 1; i < conditions.length && remaining > 0; i++) {
+                    SongFilter condition = conditions[i];
+                    if (!isIndexed(condition) || (long) remaining * PROBE < estimate(condition)) {
+                        remaining = probe(bits, condition);
+                    } else {
+                        long[] other = bitmap(condition);
+                        remaining = 0;
+                        for (int w = 0; w < bits.length; w++) {
+                            bits[w] &= other[w];
+                            remaining += Long.bitCount(bits[w]);
+                        }
+                    }
+                }
+                return bits;
+            case OR:
+                long[] any = bitmap(filter.children()[0]);
+                for (int i = 1; i < filter.children().length; i++) {
+                    long[] other = bitmap(filter.children()[i]);
+                    for (int w = 0; w < any.length; w++) {
+                        any[w] |= other[w];
+                    }
+                }
+                return any;
+            default:
+                throw new IllegalStateException("unknown filter kind " + filter.kind());
+        }
+    }
+
+    /**
+     * Helper method to build the bitmap of one condition: from the slices of a sorted index, the value bitmaps of a
+     * bitmap index, or a scan of the column
+     *
+     * @param filter RANGE filter matched
+     * @return bitmap with bit row set for every matching row
+     */
+    private long[] rangeBitmap(SongFilter filter) {
+        long[] bits = new long[(toRow + 63) >>> 6];
+        int sorted = SORTED_POSITIONS[filter.column().ordinal()];
+        int bitmap = BITMAP_POSITIONS[filter.column().ordinal()];
+        if (sorted >= 0) {
+            for (FeatureIndex layer = this; layer != null; layer = layer.parent) {
+                int[] bounds = layer.slice(sorted, filter.min(), filter.max());
+                int[] rows = layer.sortedRows[sorted];
+                for (int i = bounds[0]; i < bounds[1]; i++) {
+                    bits[rows[i] >>> 6] |= 1L << rows[i];
+                }
+            }
+        } else if (bitmap >= 0) {
+            for (FeatureIndex layer = this; layer != null; layer = layer.parent) {
+                int[] bounds = layer.valueBounds(bitmap, filter.min(), filter.max());
+                int firstWord = layer.fromRow >>> 6;
+                for (int v = bounds[0]; v < bounds[1]; v++) {
+                    long[] valueBits = layer.bitmaps[bitmap][v];
+                    for (int w = 0; w < valueBits.length; w++) {
+                        bits[firstWord + w] |= valueBits[w];
+                    }
+                }
+            }
+        } else {
+            long[] values = new long[1024];
+            for (int row = 0; row < toRow; row += values.length) {
+                int count = Math.min(values.length, toRow - row);
+                columns.get(filter.column(), row, values, count);
+                for (int i = 0; i < count; i++) {
+                    if (values[i] >= filter.min() && values[i] <= filter.max()) {
+                        bits[(row + i) >>> 6] |= 1L << (row + i);
+                    }
+                }
+            }
+        }
+        return bits;
+    }
+
+    /**
+     * Helper method to clear the bits of the rows that do not match a condition, checking each set row
+     *
+     * @param bits      bitmap of the rows left, cleared in place
+     * @param condition condition checked on each row
+     * @return number of bits left
+     */
+    private int probe(long[] bits, SongFilter condition) {
+        int remaining = 0;
+        for (int w = 0; w < bits.length; w++) {
+            long word = bits[w];
+            for (long left = word; left != 0; left &= left - 1) {
+                long bit = Long.lowestOneBit(left);
+                if (!condition.matches(columns, (w << 6) + Long.numberOfTrailingZeros(bit))) {
+                    word &= ~bit;
+                }
+            }
+            bits[w] = word;
+            remaining += Long.bitCount(word);
+        }
+        return remaining;
+    }
+
+    /**
+     * Helper method to order conditions from the fewest estimated rows to the most, so the most selective is used
+     * first
+     *
+     * @param conditions conditions ordered
+     * @return the conditions from the fewest estimated rows to the most
+     */
+    private SongFilter[] byEstimate(SongFilter[] conditions) {
+        int[] estimates = new int[conditions.length];
+        Integer[] order = new Integer[conditions.length];
+        for (int i = 0; i < conditions.length; i++) {
+            estimates[i] = estimate(conditions[i]);
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Integer.compare(estimates[a], estimates[b]));
+        SongFilter[] sorted = new SongFilter[conditions.length];
+        for (int i = 0; i < conditions.length; i++) {
+            sorted[i] = conditions[order[i]];
+        }
+        return sorted;
+    }
+
+    /**
+     * Helper method to check whether every column a filter tests is indexed
+     *
+     * @param filter filter checked
+     * @return true if every range of the filter is on a sorted or bitmap column
+     */
+    private static boolean isIndexed(SongFilter filter) {
+        if (filter.kind() == SongFilter.Kind.RANGE) {
+            return isIndexed(filter.column());
+        }
+        for (SongFilter child : filter.children()) {
+            if (!isIndexed(child)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Helper method to count this layer's rows with values from min to max in a sorted column
+     *
+     * @param sorted position of the column in SORTED_COLUMNS
+     * @param min    smallest value counted
+     * @param max    largest value counted
+     * @return number of rows
+     */
+    private int sliceSize(int sorted, long min, long max) {
+        int[] bounds = slice(sorted, min, max);
+        return bounds[1] - bounds[0];
+    }
+
+    /**
+     * Helper method to find the slice of this layer's sorted rows of a column with values from min to max
+     *
+     * @param sorted position of the column in SORTED_COLUMNS
+     * @param min    smallest value of the slice
+     * @param max    largest value of the slice
+     * @return start and end (exclusive) in sortedRows[sorted]
+     */
+    private int[] slice(int sorted, long min, long max) {
+        int[] starts = sortedStarts[sorted];
+        int[] bounds = clamp(sortedMins[sorted], starts.length - 1, min, max);
+        return new int[]{starts[bounds[0]], starts[bounds[1]]};
+    }
+
+    /**
+     * Helper method to count this layer's rows with values from min to max in a bitmap column
+     *
+     * @param bitmap position of the column in BITMAP_COLUMNS
+     * @param min    smallest value counted
+     * @param max    largest value counted
+     * @return number of rows
+     */
+    private int bitmapSize(int bitmap, long min, long max) {
+        int[] bounds = valueBounds(bitmap, min, max);
+        int count = 0;
+        for (int v = bounds[0]; v < bounds[1]; v++) {
+            count += bitmapCounts[bitmap][v];
+        }
+        return count;
+    }
+
+    /**
+     * Helper method to find the bitmaps of this layer for the values from min to max
+     *
+     * @param bitmap position of the column in BITMAP_COLUMNS
+     * @param min    smallest value
+     * @param max    largest value
+     * @return first and last (exclusive) position in bitmaps[bitmap]
+     */
+    private int[] valueBounds(int bitmap, long min, long max) {
+        return clamp(bitmapMins[bitmap], bitmaps[bitmap].length, min, max);
+    }
+
+    /**
+     * Helper method to clamp a range of values to the positions of the values from minValue to
+     * minValue + span - 1
+     *
+     * @param minValue value at position 0
+     * @param span     number of positions
+     * @param min      smallest value of the range
+     * @param max      largest value of the range
+     * @return first and last (exclusive) position, equal if no value is in the range
+     */
+    private static int[] clamp(int minValue, int span, long min, long max) {
+        long first = Math.max(min, minValue) - minValue;
+        long last = Math.min(max, (long) minValue + span - 1) - minValue;
+        return first > last ? new int[]{0, 0} : new int[]{(int) first, (int) last + 1};
+    }
+
+    /**
+     * Helper method to read this layer's values of a column
+     *
+     * @param column column read
+     * @param values receives the value of each row of this layer
+     * @return smallest value read (0 if there are no rows)
+     */
+    private int read(SongColumn column, int[] values) {
+        int min = values.length == 0 ? 0 : Integer.MAX_VALUE;
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (int) columns.get(column, fromRow + i);
+            min = Math.min(min, values[i]);
+        }
+        return min;
+    }
+
+    /**
+     * Helper method to count the values, shifted so the smallest is 0
+     *
+     * @param values values counted
+     * @param min    smallest value
+     * @return count of each value at position value - min + 1 (position 0 is always 0)
+     */
+    private static int[] counts(int[] values, int min) {
+        int max = min;
+        for (int value : values) {
+            max = Math.max(max, value);
+        }
+        int[] counts = new int[max - min + 2];
+        for (int value : values) {
+            counts[value - min + 1]++;
+        }
+        return counts;
+    }
+
+    /**
+     * Helper method to count the bits set in a bitmap
+     *
+     * @param bits bitmap counted
+     * @return number of bits set
+     */
+    private static int count(long[] bits) {
+        int count = 0;
+        for (long word : bits) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * Helper method to map each column's ordinal to its position in an array of indexed columns (-1 if it is not there)
+     *
+     * @param indexed indexed columns
+     * @return position of each column by ordinal, or -1
+     */
+    private static int[] positions(SongColumn[] indexed) {
+        int[] positions = new int[SongColumn.values().length];
+        Arrays.fill(positions, -1);
+        for (int i = 0; i < indexed.length; i++) {
+            positions[indexed[i].ordinal()] = i;
+        }
+        return positions;
+    }
+}
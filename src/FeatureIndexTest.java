@@ -0,0 +1,120 @@
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FeatureIndexTest {
+
+    /**
+     * filters with selective and unselective conditions, on indexed and non-indexed columns
+     */
+    private static final SongFilter[] FILTERS = {
+            SongFilter.and(SongFilter.range(SongColumn.BPM, 120, 130), SongFilter.greaterThan(SongColumn.ENERGY, 80),
+                    SongFilter.mode("Minor")),
+            SongFilter.range(SongColumn.BPM, 120, 130),
+            SongFilter.equalTo(SongColumn.BPM, 99),
+            SongFilter.atLeast(SongColumn.DANCEABILITY, 50),
+            SongFilter.lessThan(SongColumn.ACOUSTICNESS, 3),
+            SongFilter.range(SongColumn.VALENCE, 200, 300),
+            SongFilter.range(SongColumn.LIVENESS, 30, 20),
+            SongFilter.key("C#"),
+            SongFilter.key(""),
+            SongFilter.range(SongColumn.KEY, 2, 5),
+            SongFilter.and(SongFilter.key("A"), SongFilter.mode("Major")),
+            SongFilter.and(SongFilter.atLeast(SongColumn.DANCEABILITY, 60), SongFilter.atLeast(SongColumn.VALENCE, 60),
+                    SongFilter.atMost(SongColumn.SPEECHINESS, 10)),
+            SongFilter.or(SongFilter.greaterThan(SongColumn.INSTRUMENTALNESS, 50), SongFilter.key("F"),
+                    SongFilter.range(SongColumn.BPM, 170, 180)),
+            SongFilter.and(SongFilter.or(SongFilter.mode("Minor"), SongFilter.atLeast(SongColumn.ENERGY, 90)),
+                    SongFilter.range(SongColumn.BPM, 90, 110)),
+            SongFilter.atLeast(SongColumn.STREAMS, 500_000_000),
+            SongFilter.and(SongFilter.atLeast(SongColumn.STREAMS, 100_000_000), SongFilter.key("G"),
+                    SongFilter.range(SongColumn.RELEASED_YEAR, 2015, 2020)),
+            SongFilter.and(SongFilter.equalTo(SongColumn.BPM, 128), SongFilter.atLeast(SongColumn.STREAMS, 1)),
+            SongFilter.or(SongFilter.equalTo(SongColumn.ARTIST_COUNT, 3), SongFilter.equalTo(SongColumn.LIVENESS, 9))
+    };
+
+    @org.junit.jupiter.api.Test
+    void matchesLinearScan() throws Exception {
+
+        SongColumns columns = SongCsvGenerator.columns(11, 20_000);
+        FeatureIndex index = new FeatureIndex(columns, columns.getRowCount());
+        assertScan(columns, columns.getRowCount(), index);
+    }
+
+    @org.junit.jupiter.api.Test
+    void layersMatchRebuild() throws Exception {
+
+        SongColumns columns = SongCsvGenerator.columns(11, 20_000);
+        FeatureIndex index = new FeatureIndex(columns, 16_001);
+        for (int rowCount = 17_003; rowCount <= 20_000; rowCount += 999) {
+            index = index.withRows(columns, rowCount);
+            assertEquals(rowCount, index.getRowCount());
+            assertScan(columns, rowCount, index);
+        }
+    }
+
+    @org.junit.jupiter.api.Test
+    void estimates() throws Exception {
+
+        SongColumns columns = SongCsvGenerator.columns(11, 5_000);
+        FeatureIndex index = new FeatureIndex(columns, columns.getRowCount());
+        //indexed conditions are estimated exactly, others as every row
+        SongFilter bpm = SongFilter.range(SongColumn.BPM, 120, 130);
+        assertEquals(scan(columns, 5_000, bpm).length, index.estimate(bpm));
+        assertEquals(scan(columns, 5_000, SongFilter.key("D")).length, index.estimate(SongFilter.key("D")));
+        assertEquals(5_000, index.estimate(SongFilter.atLeast(SongColumn.STREAMS, 0)));
+        assertEquals(index.estimate(bpm), index.estimate(SongFilter.and(bpm, SongFilter.mode("Major"))));
+        assertTrue(FeatureIndex.isIndexed(SongColumn.SPEECHINESS));
+        assertFalse(FeatureIndex.isIndexed(SongColumn.STREAMS));
+    }
+
+    @org.junit.jupiter.api.Test
+    void realCatalog() {
+
+        SongManager manager = new SongManager();
+        SongFilter filter = SongFilter.and(SongFilter.range(SongColumn.BPM, 120, 130),
+                SongFilter.greaterThan(SongColumn.ENERGY, 80), SongFilter.mode("Minor"));
+        SongLocation[] songs = manager.filter(filter);
+        assertTrue(songs.length > 0);
+        assertEquals(songs.length, manager.countMatching(filter));
+        for (int i = 0; i < songs.length; i++) {
+            long bpm = manager.getValue(SongColumn.BPM, songs[i].yearIndex(), songs[i].songIndex());
+            assertTrue(bpm >= 120 && bpm <= 130);
+            assertTrue(manager.getValue(SongColumn.ENERGY, songs[i].yearIndex(), songs[i].songIndex()) > 80);
+            assertEquals(SongColumns.modeCode("Minor"),
+                    manager.getValue(SongColumn.MODE, songs[i].yearIndex(), songs[i].songIndex()));
+            assertTrue(i == 0 || songs[i - 1].ordinal() < songs[i].ordinal());
+        }
+        assertArrayEquals(manager.getCatalog().filterLinear(filter), songs);
+        //locations follow a re-sort
+        manager.sortSongs(SortKey.STREAMS);
+        assertArrayEquals(manager.getCatalog().filterLinear(filter), manager.filter(filter));
+        assertThrows(IllegalArgumentException.class, () -> SongFilter.key("H"));
+        assertThrows(IllegalArgumentException.class, () -> SongFilter.and());
+    }
+
+    /**
+     * Helper method to check every filter against a scan of the rows
+     */
+    private static void assertScan(SongColumns columns, int rowCount, FeatureIndex index) {
+        for (SongFilter filter : FILTERS) {
+            int[] expected = scan(columns, rowCount, filter);
+            assertArrayEquals(expected, index.rows(filter), filter.toString());
+            assertEquals(expected.length, index.count(filter), filter.toString());
+        }
+    }
+
+    /**
+     * Helper method to list the rows a filter matches by checking every row
+     */
+    private static int[] scan(SongColumns columns, int rowCount, SongFilter filter) {
+        int[] rows = new int[rowCount];
+        int size = 0;
+        for (int row = 0; row < rowCount; row++) {
+            if (filter.matches(columns, row)) {
+                rows[size++] = row;
+            }
+        }
+        return Arrays.copyOf(rows, size);
+    }
+}
@@ -0,0 +1,57 @@
+/**
+ * GroupKey record that describes one key of a group-by: a numeric column, optionally cut into buckets of equal width
+ * (for example playlist counts in buckets of 1,000).  A bucket is named by its smallest value.
+ *
+ * @param column      numeric column grouped by
+ * @param bucketWidth width of each bucket, 1 for the exact value
+ * @author Bennett Fife
+ * @version 10/17/26
+ */
+public record GroupKey(SongColumn column, long bucketWidth) {
+
+    /**
+     * GroupKey constructor
+     *
+     * @param column      numeric column to group by; must not be null
+     * @param bucketWidth width of each bucket, 1 to group by the exact value; must be positive
+     */
+    public GroupKey {
+        if (column == null) {
+            throw new IllegalArgumentException("column must not be null");
+        }
+        if (bucketWidth < 1) {
+            throw new IllegalArgumentException("bucket width must be positive");
+        }
+    }
+
+    /**
+     * Creates a key that groups by the exact value of a column
+     *
+     * @param column numeric column
+     * @return new group key
+     */
+    public static GroupKey of(SongColumn column) {
+        return new GroupKey(column, 1);
+    }
+
+    /**
+     * Creates a key that groups by buckets of a column's values
+     *
+     * @param column      numeric column
+     * @param bucketWidth width of each bucket; must be positive
+     * @return new group key
+     */
+    public static GroupKey bucketed(SongColumn column, long bucketWidth) {
+        return new GroupKey(column, bucketWidth);
+    }
+
+    /**
+     * Retrieves the bucket of a value
+     *
+     * @param value column value
+     * @return smallest value of the value's bucket
+     */
+    public long bucket(long value) {
+        return bucketWidth == 1 ? value : Math.floorDiv(value, bucketWidth) * bucketWidth;
+    }
+}
@@ -0,0 +1,899 @@
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * HeapSongColumns class that stores song rows on the heap, each column as a primitive array sized to its values.
+ * Rows are only ever added at the end, so readers that stop at an earlier row count are not disturbed by them.
+ *
+ * @author Bennett Fife
+ * @version 10/17/26
+ */
+public class HeapSongColumns extends SongColumns {
+
+    /**
+     * starting capacity of the columns
+     */
+    private static final int INITIAL_CAPACITY = 1024;
+    /**
+     * smallest and largest value the array of each column holds, indexed by SongColumn.ordinal()
+     */
+    private static final long[] MIN_VALUES = new long[SongColumn.values().length];
+    /**
+     * largest value the array of each column holds, indexed by SongColumn.ordinal()
+     */
+    private static final long[] MAX_VALUES = new long[SongColumn.values().length];
+    /**
+     * starting capacity of the list of invalid rows
+     */
+    private static final int INITIAL_INVALID_CAPACITY = 16;
+
+    static {
+        for (SongColumn column : SongColumn.values()) {
+            int bits = bytes(column) * Byte.SIZE;
+            MAX_VALUES[column.ordinal()] = bits == Long.SIZE ? Long.MAX_VALUE : (1L << (bits - 1)) - 1;
+            MIN_VALUES[column.ordinal()] = bits == Long.SIZE ? INVALID + 1 : -(1L << (bits - 1));
+        }
+    }
+
+    /**
+     * number of rows added
+     */
+    private int rowCount;
+    /**
+     * numeric values of the row being added by add(String[])
+     */
+    private final long[] lineValues = new long[SongColumn.values().length];
+    /**
+     * values of a row with invalid cells, with those cells set to 0
+     */
+    private final long[] validValues = new long[SongColumn.values().length];
+    /**
+     * rows that had a numeric cell that was not a number or did not fit its column, in ascending order
+     */
+    private int[] invalidRows = new int[0];
+    /**
+     * number of entries of invalidRows in use
+     */
+    private int invalidRowCount;
+
+    /**
+     * track name of each row
+     */
+    private String[] trackNames;
+    /**
+     * artist pool code of each row
+     */
+    private int[] artistCodes;
+    /**
+     * ARTIST_COUNT of each row
+     */
+    private byte[] artistCounts;
+    /**
+     * RELEASED_YEAR of each row
+     */
+    private short[] releasedYears;
+    /**
+     * RELEASED_MONTH of each row
+     */
+    private byte[] releasedMonths;
+    /**
+     * RELEASED_DAY of each row
+     */
+    private byte[] releasedDays;
+    /**
+     * IN_SPOTIFY_PLAYLISTS of each row
+     */
+    private int[] inSpotifyPlaylists;
+    /**
+     * IN_SPOTIFY_CHARTS of each row
+     */
+    private short[] inSpotifyCharts;
+    /**
+     * STREAMS of each row
+     */
+    private long[] streams;
+    /**
+     * IN_APPLE_PLAYLISTS of each row
+     */
+    private short[] inApplePlaylists;
+    /**
+     * IN_APPLE_CHARTS of each row
+     */
+    private short[] inAppleCharts;
+    /**
+     * IN_DEEZER_PLAYLISTS of each row
+     */
+    private int[] inDeezerPlaylists;
+    /**
+     * IN_DEEZER_CHARTS of each row
+     */
+    private short[] inDeezerCharts;
+    /**
+     * IN_SHAZAM_CHARTS of each row
+     */
+    private int[] inShazamCharts;
+    /**
+     * BPM of each row
+     */
+    private short[] bpms;
+    /**
+     * KEY code of each row
+     */
+    private byte[] keys;
+    /**
+     * MODE code of each row
+     */
+    private byte[] modes;
+    /**
+     * DANCEABILITY of each row
+     */
+    private byte[] danceability;
+    /**
+     * VALENCE of each row
+     */
+    private byte[] valence;
+    /**
+     * ENERGY of each row
+     */
+    private byte[] energy;
+    /**
+     * ACOUSTICNESS of each row
+     */
+    private byte[] acousticness;
+    /**
+     * INSTRUMENTALNESS of each row
+     */
+    private byte[] instrumentalness;
+    /**
+     * LIVENESS of each row
+     */
+    private byte[] liveness;
+    /**
+     * SPEECHINESS of each row
+     */
+    private byte[] speechiness;
+
+    /**
+     * HeapSongColumns constructor creates empty columns
+     */
+    public HeapSongColumns() {
+        this(INITIAL_CAPACITY);
+    }
+
+    /**
+     * HeapSongColumns constructor creates empty columns with room for the specified number of rows
+     *
+     * @param capacity starting number of rows; must not be negative
+     */
+    public HeapSongColumns(int capacity) {
+        this(capacity, new StringPool());
+    }
+
+    /**
+     * HeapSongColumns constructor creates empty columns that store artist names in an existing pool
+     *
+     * @param capacity   starting number of rows; must not be negative
+     * @param artistPool pool of artist names; codes are only added to it, so it can be shared with older columns
+     */
+    HeapSongColumns(int capacity, StringPool artistPool) {
+        super(artistPool);
+        if (capacity < 0) {
+            throw new IllegalArgumentException("capacity must not be negative");
+        }
+        trackNames = new String[capacity];
+        artistCodes = new int[capacity];
+        artistCounts = new byte[capacity];
+        releasedYears = new short[capacity];
+        releasedMonths = new byte[capacity];
+        releasedDays = new byte[capacity];
+        inSpotifyPlaylists = new int[capacity];
+        inSpotifyCharts = new short[capacity];
+        streams = new long[capacity];
+        inApplePlaylists = new short[capacity];
+        inAppleCharts = new short[capacity];
+        inDeezerPlaylists = new int[capacity];
+        inDeezerCharts = new short[capacity];
+        inShazamCharts = new int[capacity];
+        bpms = new short[capacity];
+        keys = new byte[capacity];
+        modes = new byte[capacity];
+        danceability = new byte[capacity];
+        valence = new byte[capacity];
+        energy = new byte[capacity];
+        acousticness = new byte[capacity];
+        instrumentalness = new byte[capacity];
+        liveness = new byte[capacity];
+        speechiness = new byte[capacity];
+    }
+
+    /**
+     * Appends a CSV song row.  The track name, artist name, release date and streams must not be null or empty;
+     * other blank numeric cells are stored as 0, and grouping commas ("2,445") are ignored.  A numeric cell that is
+     * not a number or does not fit its column is stored as 0, and the row is listed by getInvalidRows().
+     *
+     * @param songLine one row of song data in 'spotify-2023.csv' column order, at least up to the streams column
+     * @return row number of the appended song
+     * @throws IllegalArgumentException if the row is shorter than that, or a required cell is null or empty
+     */
+    public int add(String[] songLine) {
+        if (songLine.length < SongColumn.STREAMS.csvIndex() + 1) {
+            throw new IllegalArgumentException("song row must have at least "
+                    + (SongColumn.STREAMS.csvIndex() + 1) + " columns");
+        }
+        requireText(songLine[3], "release year must not be null or empty");
+        requireText(songLine[4], "release month must not be null or empty");
+        requireText(songLine[5], "release day must not be null or empty");
+        requireText(songLine[8], "number of streams must not be null or empty");
+        for (SongColumn column : SongColumn.values()) {
+            lineValues[column.ordinal()] = parseNumber(songLine, column);
+        }
+        lineValues[SongColumn.KEY.ordinal()] = keyCode(cell(songLine, SongColumn.KEY));
+        lineValues[SongColumn.MODE.ordinal()] = modeCode(cell(songLine, SongColumn.MODE));
+        return add(songLine[0], songLine[1], lineValues);
+    }
+
+    /**
+     * Appends a song row whose numeric cells are already parsed.  A value outside its column's range (such as INVALID)
+     * is stored as 0, and the row is listed by getInvalidRows().
+     *
+     * @param trackName  track name; must not be null or empty
+     * @param artistName artist name(s); must not be null or empty
+     * @param values     numeric values indexed by SongColumn.ordinal() (key and mode as codes)
+     * @return row number of the appended song
+     */
+    int add(String trackName, String artistName, long[] values) {
+        requireText(trackName, "track name must not be null or empty");
+        requireText(artistName, "artist name must not be null or empty");
+        return add(trackName, getArtistPool().intern(artistName), values);
+    }
+
+    /**
+     * Helper method to append a song row whose artist name(s) are already in the pool
+     *
+     * @param trackName  track name
+     * @param artistCode pool code of the artist(s) name
+     * @param values     numeric values by SongColumn.ordinal()
+     * @return row number of the song
+     */
+    private int add(String trackName, int artistCode, long[] values) {
+        if (rowCount == trackNames.length) {
+            grow(Math.max(INITIAL_CAPACITY, rowCount * 2));
+        }
+        int row = rowCount;
+        if (!fits(values)) {
+            for (int i = 0; i < values.length; i++) {
+                validValues[i] = values[i] >= MIN_VALUES[i] && values[i] <= MAX_VALUES[i] ? values[i] : 0;
+            }
+            values = validValues;
+            flag(row);
+        }
+        trackNames[row] = trackName;
+        artistCodes[row] = artistCode;
+        artistCounts[row] = (byte) values[SongColumn.ARTIST_COUNT.ordinal()];
+        releasedYears[row] = (short) values[SongColumn.RELEASED_YEAR.ordinal()];
+        releasedMonths[row] = (byte) values[SongColumn.RELEASED_MONTH.ordinal()];
+        releasedDays[row] = (byte) values[SongColumn.RELEASED_DAY.ordinal()];
+        inSpotifyPlaylists[row] = (int) values[SongColumn.IN_SPOTIFY_PLAYLISTS.ordinal()];
+        inSpotifyCharts[row] = (short) values[SongColumn.IN_SPOTIFY_CHARTS.ordinal()];
+        streams[row] = values[SongColumn.STREAMS.ordinal()];
+        inApplePlaylists[row] = (short) values[SongColumn.IN_APPLE_PLAYLISTS.ordinal()];
+        inAppleCharts[row] = (short) values[SongColumn.IN_APPLE_CHARTS.ordinal()];
+        inDeezerPlaylists[row] = (int) values[SongColumn.IN_DEEZER_PLAYLISTS.ordinal()];
+        inDeezerCharts[row] = (short) values[SongColumn.IN_DEEZER_CHARTS.ordinal()];
+        inShazamCharts[row] = (int) values[SongColumn.IN_SHAZAM_CHARTS.ordinal()];
+        bpms[row] = (short) values[SongColumn.BPM.ordinal()];
+        keys[row] = (byte) values[SongColumn.KEY.ordinal()];
+        modes[row] = (byte) values[SongColumn.MODE.ordinal()];
+        danceability[row] = (byte) values[SongColumn.DANCEABILITY.ordinal()];
+        valence[row] = (byte) values[SongColumn.VALENCE.ordinal()];
+        energy[row] = (byte) values[SongColumn.ENERGY.ordinal()];
+        acousticness[row] = (byte) values[SongColumn.ACOUSTICNESS.ordinal()];
+        instrumentalness[row] = (byte) values[SongColumn.INSTRUMENTALNESS.ordinal()];
+        liveness[row] = (byte) values[SongColumn.LIVENESS.ordinal()];
+        speechiness[row] = (byte) values[SongColumn.SPEECHINESS.ordinal()];
+        rowCount++;
+        return row;
+    }
+
+    /**
+     * Appends every row of other columns
+     *
+     * @param other columns to copy rows from
+     * @return row number of the first appended row
+     */
+    public int addAll(SongColumns other) {
+        return addAll(other, other.getRowCount());
+    }
+
+    /**
+     * Appends the first rows of other columns
+     *
+     * @param other columns to copy rows from
+     * @param count number of rows copied; at most other.getRowCount()
+     * @return row number of the first appended row
+     */
+    int addAll(SongColumns other, int count) {
+        int first = rowCount;
+        if (first + count > trackNames.length) {
+            grow(Math.max(first + count, Math.max(INITIAL_CAPACITY, first * 2)));
+        }
+        if (!(other instanceof HeapSongColumns heap)) {
+            //rows stored elsewhere are read back one at a time
+            for (int row = 0; row < count; row++) {
+                for (SongColumn column : SongColumn.values()) {
+                    lineValues[column.ordinal()] = other.get(column, row);
+                }
+                add(other.trackName(row), getArtistPool().intern(other.getArtistPool(), other.artistCode(row)),
+                        lineValues);
+            }
+            flagAll(other, first, count);
+            return first;
+        }
+        System.arraycopy(heap.trackNames, 0, trackNames, first, count);
+        if (heap.getArtistPool() == getArtistPool()) {
+            System.arraycopy(heap.artistCodes, 0, artistCodes, first, count);
+        } else {
+            //each of the other pool's codes is looked up once; mapped holds code + 1 (0 for not looked up yet)
+            int[] mapped = new int[heap.getArtistPool().size()];
+            for (int i = 0; i < count; i++) {
+                int code = heap.artistCodes[i];
+                if (mapped[code] == 0) {
+                    mapped[code] = getArtistPool().intern(heap.getArtistPool(), code) + 1;
+                }
+                artistCodes[first + i] = mapped[code] - 1;
+            }
+        }
+        System.arraycopy(heap.artistCounts, 0, artistCounts, first, count);
+        System.arraycopy(heap.releasedYears, 0, releasedYears, first, count);
+        System.arraycopy(heap.releasedMonths, 0, releasedMonths, first, count);
+        System.arraycopy(heap.releasedDays, 0, releasedDays, first, count);
+        System.arraycopy(heap.inSpotifyPlaylists, 0, inSpotifyPlaylists, first, count);
+        System.arraycopy(heap.inSpotifyCharts, 0, inSpotifyCharts, first, count);
+        System.arraycopy(heap.streams, 0, streams, first, count);
+        System.arraycopy(heap.inApplePlaylists, 0, inApplePlaylists, first, count);
+        System.arraycopy(heap.inAppleCharts, 0, inAppleCharts, first, count);
+        System.arraycopy(heap.inDeezerPlaylists, 0, inDeezerPlaylists, first, count);
+        System.arraycopy(heap.inDeezerCharts, 0, inDeezerCharts, first, count);
+        System.arraycopy(heap.inShazamCharts, 0, inShazamCharts, first, count);
+        System.arraycopy(heap.bpms, 0, bpms, first, count);
+        System.arraycopy(heap.keys, 0, keys, first, count);
+        System.arraycopy(heap.modes, 0, modes, first, count);
+        System.arraycopy(heap.danceability, 0, danceability, first, count);
+        System.arraycopy(heap.valence, 0, valence, first, count);
+        System.arraycopy(heap.energy, 0, energy, first, count);
+        System.arraycopy(heap.acousticness, 0, acousticness, first, count);
+        System.arraycopy(heap.instrumentalness, 0, instrumentalness, first, count);
+        System.arraycopy(heap.liveness, 0, liveness, first, count);
+        System.arraycopy(heap.speechiness, 0, speechiness, first, count);
+        flagAll(other, first, count);
+        rowCount += count;
+        return first;
+    }
+
+    @Override
+    public int[] getInvalidRows() {
+        return Arrays.copyOf(invalidRows, invalidRowCount);
+    }
+
+    @Override
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public SongStorage storage() {
+        return SongStorage.HEAP;
+    }
+
+    /**
+     * Retrieves the number of rows that fit without resizing the columns
+     *
+     * @return capacity in rows
+     */
+    public int capacity() {
+        return trackNames.length;
+    }
+
+    /**
+     * Appends the delta in place when these columns hold exactly rowCount rows and have room for it; otherwise only
+     * the first rowCount rows are copied, with room to spare so later appends are written in place again
+     */
+    @Override
+    HeapSongColumns append(int rowCount, SongColumns delta) {
+        HeapSongColumns target = this;
+        int needed = rowCount + delta.getRowCount();
+        if (this.rowCount != rowCount || needed > capacity()) {
+            target = new HeapSongColumns(Math.max(needed, rowCount * 2), getArtistPool());
+            target.addAll(this, rowCount);
+        }
+        target.addAll(delta);
+        return target;
+    }
+
+    @Override
+    public String trackName(int row) {
+        return trackNames[row];
+    }
+
+    @Override
+    public int artistCode(int row) {
+        return artistCodes[row];
+    }
+
+    @Override
+    public int releasedYear(int row) {
+        return releasedYears[row];
+    }
+
+    @Override
+    public int releasedMonth(int row) {
+        return releasedMonths[row];
+    }
+
+    @Override
+    public int releasedDay(int row) {
+        return releasedDays[row];
+    }
+
+    @Override
+    public long streams(int row) {
+        return streams[row];
+    }
+
+    @Override
+    public long get(SongColumn column, int row) {
+        switch (column) {
+            case ARTIST_COUNT:
+                return artistCounts[row];
+            case RELEASED_YEAR:
+                return releasedYears[row];
+            case RELEASED_MONTH:
+                return releasedMonths[row];
+            case RELEASED_DAY:
+                return releasedDays[row];
+            case IN_SPOTIFY_PLAYLISTS:
+                return inSpotifyPlaylists[row];
+            case IN_SPOTIFY_CHARTS:
+                return inSpotifyCharts[row];
+            case STREAMS:
+                return streams[row];
+            case IN_APPLE_PLAYLISTS:
+                return inApplePlaylists[row];
+            case IN_APPLE_CHARTS:
+                return inAppleCharts[row];
+            case IN_DEEZER_PLAYLISTS:
+                return inDeezerPlaylists[row];
+            case IN_DEEZER_CHARTS:
+                return inDeezerCharts[row];
+            case IN_SHAZAM_CHARTS:
+                return inShazamCharts[row];
+            case BPM:
+                return bpms[row];
+            case KEY:
+                return keys[row];
+            case MODE:
+                return modes[row];
+            case DANCEABILITY:
+                return danceability[row];
+            case VALENCE:
+                return valence[row];
+            case ENERGY:
+                return energy[row];
+            case ACOUSTICNESS:
+                return acousticness[row];
+            case INSTRUMENTALNESS:
+                return instrumentalness[row];
+            case LIVENESS:
+                return liveness[row];
+            case SPEECHINESS:
+                return speechiness[row];
+            default:
+                throw new IllegalArgumentException("unknown column " + column);
+        }
+    }
+
+    @Override
+    public void get(SongColumn column, int fromRow, long[] values, int count) {
+        switch (column) {
+            case ARTIST_COUNT:
+                copy(artistCounts, fromRow, values, count);
+                break;
+            case RELEASED_YEAR:
+                copy(releasedYears, fromRow, values, count);
+                break;
+            case RELEASED_MONTH:
+                copy(releasedMonths, fromRow, values, count);
+                break;
+            case RELEASED_DAY:
+                copy(releasedDays, fromRow, values, count);
+                break;
+            case IN_SPOTIFY_PLAYLISTS:
+                copy(inSpotifyPlaylists, fromRow, values, count);
+                break;
+            case IN_SPOTIFY_CHARTS:
+                copy(inSpotifyCharts, fromRow, values, count);
+                break;
+            case STREAMS:
+                System.arraycopy(streams, fromRow, values, 0, count);
+                break;
+            case IN_APPLE_PLAYLISTS:
+                copy(inApplePlaylists, fromRow, values, count);
+                break;
+            case IN_APPLE_CHARTS:
+                copy(inAppleCharts, fromRow, values, count);
+                break;
+            case IN_DEEZER_PLAYLISTS:
+                copy(inDeezerPlaylists, fromRow, values, count);
+                break;
+            case IN_DEEZER_CHARTS:
+                copy(inDeezerCharts, fromRow, values, count);
+                break;
+            case IN_SHAZAM_CHARTS:
+                copy(inShazamCharts, fromRow, values, count);
+                break;
+            case BPM:
+                copy(bpms, fromRow, values, count);
+                break;
+            case KEY:
+                copy(keys, fromRow, values, count);
+                break;
+            case MODE:
+                copy(modes, fromRow, values, count);
+                break;
+            case DANCEABILITY:
+                copy(danceability, fromRow, values, count);
+                break;
+            case VALENCE:
+                copy(valence, fromRow, values, count);
+                break;
+            case ENERGY:
+                copy(energy, fromRow, values, count);
+                break;
+            case ACOUSTICNESS:
+                copy(acousticness, fromRow, values, count);
+                break;
+            case INSTRUMENTALNESS:
+                copy(instrumentalness, fromRow, values, count);
+                break;
+            case LIVENESS:
+                copy(liveness, fromRow, values, count);
+                break;
+            case SPEECHINESS:
+                copy(speechiness, fromRow, values, count);
+                break;
+            default:
+                throw new IllegalArgumentException("unknown column " + column);
+        }
+    }
+
+    /**
+     * Helper method to widen count values of a column starting at a row
+     *
+     * @param column  column array
+     * @param fromRow first row copied
+     * @param values  receives the values
+     * @param count   number of values copied
+     */
+    private static void copy(byte[] column, int fromRow, long[] values, int count) {
+        for (int i = 0; i < count; i++) {
+            values[i] = column[fromRow + i];
+        }
+    }
+
+    /**
+     * Helper method to widen count values of a column starting at a row
+     *
+     * @param column  column array
+     * @param fromRow first row copied
+     * @param values  receives the values
+     * @param count   number of values copied
+     */
+    private static void copy(short[] column, int fromRow, long[] values, int count) {
+        for (int i = 0; i < count; i++) {
+            values[i] = column[fromRow + i];
+        }
+    }
+
+    /**
+     * Helper method to widen count values of a column starting at a row
+     *
+     * @param column  column array
+     * @param fromRow first row copied
+     * @param values  receives the values
+     * @param count   number of values copied
+     */
+    private static void copy(int[] column, int fromRow, long[] values, int count) {
+        for (int i = 0; i < count; i++) {
+            values[i] = column[fromRow + i];
+        }
+    }
+
+    /**
+     * Writes every row to a snapshot stream: the row count, then each column as a contiguous block.
+     * String columns are written as row offsets followed by one UTF-8 block, so they can be read back in bulk;
+     * artist names are written as their pool followed by each row's code.
+     *
+     * @param out snapshot stream
+     * @throws IOException if the stream cannot be written
+     */
+    @Override
+    void writeTo(DataOutputStream out) throws IOException {
+        out.writeInt(rowCount);
+        writeStrings(out, trackNames);
+        getArtistPool().writeTo(out);
+        writeInts(out, artistCodes);
+        out.write(artistCounts, 0, rowCount);
+        writeShorts(out, releasedYears);
+        out.write(releasedMonths, 0, rowCount);
+        out.write(releasedDays, 0, rowCount);
+        writeInts(out, inSpotifyPlaylists);
+        writeShorts(out, inSpotifyCharts);
+        for (int row = 0; row < rowCount; row++) {
+            out.writeLong(streams[row]);
+        }
+        writeShorts(out, inApplePlaylists);
+        writeShorts(out, inAppleCharts);
+        writeInts(out, inDeezerPlaylists);
+        writeShorts(out, inDeezerCharts);
+        writeInts(out, inShazamCharts);
+        writeShorts(out, bpms);
+        out.write(keys, 0, rowCount);
+        out.write(modes, 0, rowCount);
+        out.write(danceability, 0, rowCount);
+        out.write(valence, 0, rowCount);
+        out.write(energy, 0, rowCount);
+        out.write(acousticness, 0, rowCount);
+        out.write(instrumentalness, 0, rowCount);
+        out.write(liveness, 0, rowCount);
+        out.write(speechiness, 0, rowCount);
+    }
+
+    /**
+     * Reads columns written by writeTo.  Numeric columns are bulk copied out of the buffer.
+     *
+     * @param in buffer positioned at the start of the columns; left positioned after them
+     * @return new columns
+     */
+    static HeapSongColumns readFrom(ByteBuffer in) {
+        int rowCount = in.getInt();
+        String[] trackNames = new String[rowCount];
+        readStrings(in, trackNames);
+        HeapSongColumns columns = new HeapSongColumns(rowCount, StringPool.readFrom(in));
+        columns.trackNames = trackNames;
+        readInts(in, columns.artistCodes);
+        in.get(columns.artistCounts);
+        readShorts(in, columns.releasedYears);
+        in.get(columns.releasedMonths);
+        in.get(columns.releasedDays);
+        readInts(in, columns.inSpotifyPlaylists);
+        readShorts(in, columns.inSpotifyCharts);
+        in.asLongBuffer().get(columns.streams);
+        in.position(in.position() + rowCount * Long.BYTES);
+        readShorts(in, columns.inApplePlaylists);
+        readShorts(in, columns.inAppleCharts);
+        readInts(in, columns.inDeezerPlaylists);
+        readShorts(in, columns.inDeezerCharts);
+        readInts(in, columns.inShazamCharts);
+        readShorts(in, columns.bpms);
+        in.get(columns.keys);
+        in.get(columns.modes);
+        in.get(columns.danceability);
+        in.get(columns.valence);
+        in.get(columns.energy);
+        in.get(columns.acousticness);
+        in.get(columns.instrumentalness);
+        in.get(columns.liveness);
+        in.get(columns.speechiness);
+        columns.rowCount = rowCount;
+        return columns;
+    }
+
+    /**
+     * Helper method to resize every column
+     *
+     * @param capacity new number of rows
+     */
+    private void grow(int capacity) {
+        trackNames = Arrays.copyOf(trackNames, capacity);
+        artistCodes = Arrays.copyOf(artistCodes, capacity);
+        artistCounts = Arrays.copyOf(artistCounts, capacity);
+        releasedYears = Arrays.copyOf(releasedYears, capacity);
+        releasedMonths = Arrays.copyOf(releasedMonths, capacity);
+        releasedDays = Arrays.copyOf(releasedDays, capacity);
+        inSpotifyPlaylists = Arrays.copyOf(inSpotifyPlaylists, capacity);
+        inSpotifyCharts = Arrays.copyOf(inSpotifyCharts, capacity);
+        streams = Arrays.copyOf(streams, capacity);
+        inApplePlaylists = Arrays.copyOf(inApplePlaylists, capacity);
+        inAppleCharts = Arrays.copyOf(inAppleCharts, capacity);
+        inDeezerPlaylists = Arrays.copyOf(inDeezerPlaylists, capacity);
+        inDeezerCharts = Arrays.copyOf(inDeezerCharts, capacity);
+        inShazamCharts = Arrays.copyOf(inShazamCharts, capacity);
+        bpms = Arrays.copyOf(bpms, capacity);
+        keys = Arrays.copyOf(keys, capacity);
+        modes = Arrays.copyOf(modes, capacity);
+        danceability = Arrays.copyOf(danceability, capacity);
+        valence = Arrays.copyOf(valence, capacity);
+        energy = Arrays.copyOf(energy, capacity);
+        acousticness = Arrays.copyOf(acousticness, capacity);
+        instrumentalness = Arrays.copyOf(instrumentalness, capacity);
+        liveness = Arrays.copyOf(liveness, capacity);
+        speechiness = Arrays.copyOf(speechiness, capacity);
+    }
+
+    /**
+     * Helper method to write a string column: the UTF-8 offsets, then the bytes of every value
+     *
+     * @param out    stream written to
+     * @param values value of each row
+     * @throws IOException if the stream cannot be written
+     */
+    private void writeStrings(DataOutputStream out, String[] values) throws IOException {
+        byte[][] encoded = new byte[rowCount][];
+        int offset = 0;
+        for (int row = 0; row < rowCount; row++) {
+            encoded[row] = values[row].getBytes(StandardCharsets.UTF_8);
+            out.writeInt(offset);
+            offset += encoded[row].length;
+        }
+        out.writeInt(offset);
+        for (int row = 0; row < rowCount; row++) {
+            out.write(encoded[row]);
+        }
+    }
+
+    /**
+     * Helper method to write the rows of an int column
+     *
+     * @param out    stream written to
+     * @param values value of each row
+     * @throws IOException if the stream cannot be written
+     */
+    private void writeInts(DataOutputStream out, int[] values) throws IOException {
+        for (int row = 0; row < rowCount; row++) {
+            out.writeInt(values[row]);
+        }
+    }
+
+    /**
+     * Helper method to write the rows of a short column
+     *
+     * @param out    stream written to
+     * @param values value of each row
+     * @throws IOException if the stream cannot be written
+     */
+    private void writeShorts(DataOutputStream out, short[] values) throws IOException {
+        for (int row = 0; row < rowCount; row++) {
+            out.writeShort(values[row]);
+        }
+    }
+
+    /**
+     * Helper method to read a string column written by writeStrings
+     *
+     * @param in     snapshot contents, positioned at the column
+     * @param values receives the value of each row
+     */
+    private static void readStrings(ByteBuffer in, String[] values) {
+        int[] offsets = new int[values.length + 1];
+        readInts(in, offsets);
+        byte[] utf8 = new byte[offsets[values.length]];
+        in.get(utf8);
+        for (int row = 0; row < values.length; row++) {
+            values[row] = new String(utf8, offsets[row], offsets[row + 1] - offsets[row], StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Helper method to read an int column written by writeInts
+     *
+     * @param in     snapshot contents, positioned at the column
+     * @param values receives the value of each row
+     */
+    private static void readInts(ByteBuffer in, int[] values) {
+        in.asIntBuffer().get(values);
+        in.position(in.position() + values.length * Integer.BYTES);
+    }
+
+    /**
+     * Helper method to read a short column written by writeShorts
+     *
+     * @param in     snapshot contents, positioned at the column
+     * @param values receives the value of each row
+     */
+    private static void readShorts(ByteBuffer in, short[] values) {
+        in.asShortBuffer().get(values);
+        in.position(in.position() + values.length * Short.BYTES);
+    }
+
+    /**
+     * Helper method to check whether every value of a row fits its column
+     *
+     * @param values numeric values by SongColumn.ordinal()
+     * @return true if no value is outside its column's range
+     */
+    private static boolean fits(long[] values) {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] < MIN_VALUES[i] || values[i] > MAX_VALUES[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Helper method to add a row to the invalid rows
+     *
+     * @param row row number
+     */
+    private void flag(int row) {
+        if (invalidRowCount == invalidRows.length) {
+            invalidRows = Arrays.copyOf(invalidRows, Math.max(INITIAL_INVALID_CAPACITY, invalidRowCount * 2));
+        }
+        invalidRows[invalidRowCount++] = row;
+    }
+
+    /**
+     * Helper method to add the invalid rows among the first rows of other columns, appended from a first row
+     *
+     * @param other columns appended
+     * @param first row the first row of other was appended as
+     * @param count number of rows of other appended
+     */
+    private void flagAll(SongColumns other, int first, int count) {
+        for (int row : other.getInvalidRows()) {
+            if (row < count) {
+                flag(first + row);
+            }
+        }
+    }
+
+    /**
+     * Helper method to read a cell that may be missing from a short row
+     *
+     * @param songLine one row of song data
+     * @param column   column to read
+     * @return cell text, or an empty string if the row is too short
+     */
+    private static String cell(String[] songLine, SongColumn column) {
+        return column.csvIndex() < songLine.length ? songLine[column.csvIndex()] : "";
+    }
+
+    /**
+     * Helper method to parse a numeric cell without creating intermediate strings
+     *
+     * @param songLine one row of song data
+     * @param column   column to parse
+     * @return parsed value; 0 if the cell is blank, INVALID if it is not a number or is too big for a long
+     */
+    private static long parseNumber(String[] songLine, SongColumn column) {
+        String text = cell(songLine, column);
+        long value = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (value > (Long.MAX_VALUE - (c - '0')) / 10) {
+                    return INVALID;
+                }
+                value = value * 10 + (c - '0');
+            } else if (c != ',' && c != ' ') {
+                return INVALID;
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Helper method to check a required text cell
+     *
+     * @param text    cell text
+     * @param message exception message
+     */
+    private static void requireText(String text, String message) {
+        if (text == null || text.isBlank()) {
+            throw new IllegalArgumentException(message);
+        }
+    }
+}
@@ -0,0 +1,253 @@
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * JsonWriter class that writes JSON to a Writer as it is produced, so a large result is never built as one string.
+ * Commas are written between the members of objects and the elements of arrays automatically; nesting is limited to
+ * 63 levels.
+ *
+ * @author Bennett Fife
+ * @version 10/17/26
+ */
+public final class JsonWriter {
+
+    /**
+     * writer the JSON is written to
+     */
+    private final Writer out;
+    /**
+     * whether the object or array at each nesting level already has a member, one bit per level
+     */
+    private long hasMembers;
+    /**
+     * nesting level of the innermost object or array, 0 outside all of them
+     */
+    private int depth;
+    /**
+     * true right after a member name, when the value needs no comma in front
+     */
+    private boolean afterName;
+
+    /**
+     * JsonWriter constructor
+     *
+     * @param out writer the JSON is written to; it should be buffered
+     */
+    public JsonWriter(Writer out) {
+        this.out = out;
+    }
+
+    /**
+     * Starts an object
+     *
+     * @return this writer
+     * @throws IOException if the JSON cannot be written
+     */
+    public JsonWriter beginObject() throws IOException {
+        open('{');
+        return this;
+    }
+
+    /**
+     * Ends the current object
+     *
+     * @return this writer
+     * @throws IOException if the JSON cannot be written
+     */
+    public JsonWriter endObject() throws IOException {
+        close('}');
+        return this;
+    }
+
+    /**
+     * Starts an array
+     *
+     * @return this writer
+     * @throws IOException if the JSON cannot be written
+     */
+    public JsonWriter beginArray() throws IOException {
+        open('[');
+        return this;
+    }
+
+    /**
+     * Ends the current array
+     *
+     * @return this writer
+     * @throws IOException if the JSON cannot be written
+     */
+    public JsonWriter endArray() throws IOException {
+        close(']');
+        return this;
+    }
+
+    /**
+     * Writes the name of the next member of the current object
+     *
+     * @param name member name
+     * @return this writer
+     * @throws IOException if the JSON cannot be written
+     */
+    public JsonWriter name(String name) throws IOException {
+        separate();
+        string(name);
+        out.write(':');
+        afterName = true;
+        return this;
+    }
+
+    /**
+     * Writes a string value, or null
+     *
+     * @param value string to write
+     * @return this writer
+     * @throws IOException if the JSON cannot be written
+     */
+    public JsonWriter value(String value) throws IOException {
+        separate();
+        if (value == null) {
+            out.write("null");
+        } else {
+            string(value);
+        }
+        return this;
+    }
+
+    /**
+     * Writes a number value
+     *
+     * @param value number to write
+     * @return this writer
+     * @throws IOException if the JSON cannot be written
+     */
+    public JsonWriter value(long value) throws IOException {
+        separate();
+        out.write(Long.toString(value));
+        return this;
+    }
+
+    /**
+     * Writes a boolean value
+     *
+     * @param value boolean to write
+     * @return this writer
+     * @throws IOException if the JSON cannot be written
+     */
+    public JsonWriter value(boolean value) throws IOException {
+        separate();
+        out.write(value ? "true" : "false");
+        return this;
+    }
+
+    /**
+     * Writes a song as an object with one member per field
+     *
+     * @param song song to write
+     * @return this writer
+     * @throws IOException if the JSON cannot be written
+     */
+    public JsonWriter song(Song song) throws IOException {
+        return beginObject()
+                .name("trackName").value(song.trackName())
+                .name("artistName").value(song.artistName())
+                .name("releasedYear").value(song.releasedYear())
+                .name("releasedMonth").value(song.releasedMonth())
+                .name("releasedDay").value(song.releasedDay())
+                .name("streams").value(song.totalNumberOfStreamsOnSpotify())
+                .endObject();
+    }
+
+    /**
+     * Writes everything written so far to the underlying writer
+     *
+     * @throws IOException if the JSON cannot be written
+     */
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    /**
+     * Helper method to start an object or array
+     *
+     * @param bracket '{' or '['
+     * @throws IOException if the writer fails
+     */
+    private void open(char bracket) throws IOException {
+        if (depth == 63) {
+            throw new IllegalStateException("JSON is nested too deeply");
+        }
+        separate();
+        out.write(bracket);
+        depth++;
+        hasMembers &= ~(1L << depth);
+    }
+
+    /**
+     * Helper method to end the innermost object or array
+     *
+     * @param bracket '}' or ']'
+     * @throws IOException if the writer fails
+     */
+    private void close(char bracket) throws IOException {
+        if (depth == 0) {
+            throw new IllegalStateException("no object or array to end");
+        }
+        out.write(bracket);
+        depth--;
+    }
+
+    /**
+     * Helper method to write the comma before a value or member, unless it is the first one (or follows its name)
+     *
+     * @throws IOException if the writer fails
+     */
+    private void separate() throws IOException {
+        if (afterName) {
+            afterName = false;
+            return;
+        }
+        if ((hasMembers & (1L << depth)) != 0) {
+            out.write(',');
+        }
+        hasMembers |= 1L << depth;
+    }
+
+    /**
+     * Helper method to write a string literal, escaping quotes, backslashes and control characters
+     *
+     * @param value string written
+     * @throws IOException if the writer fails
+     */
+    private void string(String value) throws IOException {
+        out.write('"');
+        int from = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\' || c < 0x20) {
+                out.write(value, from, i - from);
+                switch (c) {
+                    case '"':
+                        out.write("\\\"");
+                        break;
+                    case '\\':
+                        out.write("\\\\");
+                        break;
+                    case '\n':
+                        out.write("\\n");
+                        break;
+                    case '\r':
+                        out.write("\\r");
+                        break;
+                    case '\t':
+                        out.write("\\t");
+                        break;
+                    default:
+                        out.write(String.format("\\u%04x", (int) c));
+                }
+                from = i + 1;
+            }
+        }
+        out.write(value, from, value.length() - from);
+        out.write('"');
+    }
+}
@@ -1,3 +1,14 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
 /**
  * Main class used for running the program.
  *
@@ -7,12 +18,135 @@
 class Main {
     /**
      * The application's entry point
-     * @param args an array of command-line arguments for the application
+     * @param args an array of command-line arguments for the application;
+     *             "--tail deltaFile" also appends the rows written to deltaFile while the program runs;
+     *             "--serve port" serves the songs as JSON over HTTP on the port instead of opening the viewer,
+     *             recording query metrics (served at /metrics);
+     *             "--storage off-heap" keeps the served songs outside the Java heap;
+     *             "--resolve playlistFile" resolves the track names in the file (or standard input for "-"), one
+     *             per line with an optional tab and artist, and writes the matches to standard output as JSON lines
+     *             instead of opening the viewer;
+     *             "--unmatched reportFile" writes the track names that matched no song to the file instead of
+     *             standard error;
+     *             "--songs path" loads the songs from a file, or from a directory or glob of them as one catalog,
+     *             instead of 'spotify-2023.csv';
+     *             "--export csvFile" writes every song, formatted for reading, to the file (or standard output for
+     *             "-") instead of opening the viewer
+     * @throws IOException if a playlist or export file cannot be read or written
      */
-    public static void main(String[] args){
+    public static void main(String[] args) throws IOException {
+
+        String deltaFile = null;
+        int port = -1;
+        SongStorage storage = SongStorage.HEAP;
+        String playlistFile = null;
+        String unmatchedFile = null;
+        String songsPath = SongManager.DEFAULT_SONGS_PATH;
+        String exportFile = null;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            if (args[i].equals("--tail")) {
+                deltaFile = args[i + 1];
+            } else if (args[i].equals("--serve")) {
+                port = Integer.parseInt(args[i + 1]);
+            } else if (args[i].equals("--storage")) {
+                storage = SongStorage.valueOf(args[i + 1].toUpperCase().replace('-', '_'));
+            } else if (args[i].equals("--resolve")) {
+                playlistFile = args[i + 1];
+            } else if (args[i].equals("--unmatched")) {
+                unmatchedFile = args[i + 1];
+            } else if (args[i].equals("--songs")) {
+                songsPath = args[i + 1];
+            } else if (args[i].equals("--export")) {
+                exportFile = args[i + 1];
+            }
+        }
+        if (exportFile != null) {
+            SongManager a = new SongManager(songsPath, true, storage, percent -> {
+            });
+            export(a, exportFile);
+            return;
+        }
+        if (playlistFile != null) {
+            SongManager a = new SongManager(songsPath, true, storage, percent -> {
+            });
+            resolve(a, playlistFile, unmatchedFile);
+            return;
+        }
+        if (port >= 0) {
+            SongManager a = new SongManager(songsPath, true, storage, percent -> {
+            });
+            a.getMetrics().setEnabled(true);
+            tail(a, deltaFile);
+            SongServer server = new SongServer(a, port);
+            server.start();
+            System.out.println("Serving songs on http://localhost:" + server.getPort() + "/");
+            return;
+        }
+        //the window opens at once and loads the songs in the background
+        SongViewer b = new SongViewer(songsPath);
+        String tailed = deltaFile;
+        b.whenLoaded().thenAccept(a -> tail(a, tailed));
+
+    }
 
-        SongManager a = new SongManager();
-        SongViewer b = new SongViewer(a);
+    /**
+     * Helper method to stream a playlist file through a PlaylistResolver and report the counts on standard error
+     *
+     * @param manager       SongManager whose catalog the track names are resolved against
+     * @param playlistFile  playlist file, or "-" for standard input
+     * @param unmatchedFile file the unmatched track names are written to, or null for standard error
+     * @throws IOException if the playlist or unmatched file cannot be read or written
+     */
+    private static void resolve(SongManager manager, String playlistFile, String unmatchedFile) throws IOException {
+        BufferedReader in = playlistFile.equals("-")
+                ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))
+                : Files.newBufferedReader(Path.of(playlistFile));
+        Writer matched = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+        Writer unmatched = unmatchedFile == null
+                ? new BufferedWriter(new OutputStreamWriter(System.err, StandardCharsets.UTF_8))
+                : Files.newBufferedWriter(Path.of(unmatchedFile));
+        try (in) {
+            PlaylistResolver.Report report = new PlaylistResolver().resolve(manager.getCatalog(), in, matched,
+                    unmatched);
+            System.err.printf("resolved %,d of %,d track names (%,d unmatched) at %,d lookups/s%n",
+                    report.matched(), report.lines(), report.unmatched(), report.lookupsPerSecond());
+        } finally {
+            if (unmatchedFile != null) {
+                unmatched.close();
+            }
+        }
+    }
 
+    /**
+     * Helper method to write the songs to a CSV file, or standard output for "-", and report the count on standard
+     * error
+     *
+     * @param manager    SongManager whose catalog is exported
+     * @param exportFile CSV file written, or "-" for standard output
+     * @throws IOException if the file cannot be written
+     */
+    private static void export(SongManager manager, String exportFile) throws IOException {
+        long start = System.nanoTime();
+        OutputStream out = exportFile.equals("-") ? System.out : Files.newOutputStream(Path.of(exportFile));
+        try {
+            int songs = new SongExporter(out).export(manager.getCatalog());
+            System.err.printf("exported %,d songs in %,d ms%n", songs, (System.nanoTime() - start) / 1_000_000);
+        } finally {
+            if (out != System.out) {
+                out.close();
+            }
+        }
+    }
+
+    /**
+     * Helper method to poll the delta file once a second for new chart rows, if there is one
+     *
+     * @param manager   SongManager the new rows are appended to
+     * @param deltaFile delta file followed, or null for none
+     */
+    private static void tail(SongManager manager, String deltaFile) {
+        if (deltaFile != null) {
+            new DeltaTailer(manager, Path.of(deltaFile)).start(1000);
+        }
     }
 }
@@ -0,0 +1,660 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.LongConsumer;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * MappedCsvParser class that parses a 'spotify-2023.csv' shaped song file in parallel straight from a memory-mapped
+ * file.  The file is cut into chunks that each start on a record boundary (quoted fields, including ones that span
+ * lines, never get split), every chunk is parsed into its own SongColumns on a fork/join pool, and the chunks are
+ * returned in file order.
+ * Text is decoded explicitly: as UTF-8, with any field that is not valid UTF-8 decoded as Latin-1 instead, or as
+ * Latin-1 throughout.
+ *
+ * @author Bennett Fife
+ * @version 10/17/26
+ */
+public class MappedCsvParser {
+
+    /**
+     * largest chunk mapped at once (a single mapping is limited to 2 GB)
+     */
+    private static final long MAX_CHUNK_SIZE = 1L << 28;
+    /**
+     * files smaller than this are parsed as a single chunk
+     */
+    private static final long MIN_CHUNK_SIZE = 1L << 20;
+    /**
+     * size of the reads used to find record boundaries
+     */
+    private static final int BOUNDARY_WINDOW = 1 << 16;
+    /**
+     * numeric column stored at each CSV column index (null for the text columns)
+     */
+    private static final SongColumn[] COLUMN_AT_CSV_INDEX = new SongColumn[SongColumn.SPEECHINESS.csvIndex() + 1];
+
+    static {
+        for (SongColumn column : SongColumn.values()) {
+            COLUMN_AT_CSV_INDEX[column.csvIndex()] = column;
+        }
+    }
+
+    /**
+     * song file parsed
+     */
+    private final Path file;
+    /**
+     * charset of the text cells
+     */
+    private final Charset charset;
+    /**
+     * fork/join pool the chunks are parsed on
+     */
+    private final ForkJoinPool pool;
+    /**
+     * fixed nominal chunk size, or 0 to size chunks from the file size and the pool's parallelism
+     */
+    private final long chunkSize;
+
+    /**
+     * MappedCsvParser constructor that decodes UTF-8 (falling back to Latin-1 per field) on the common pool
+     *
+     * @param file song file to parse
+     */
+    public MappedCsvParser(Path file) {
+        this(file, StandardCharsets.UTF_8, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * MappedCsvParser constructor
+     *
+     * @param file    song file to parse
+     * @param charset StandardCharsets.UTF_8 (falling back to Latin-1 per field) or StandardCharsets.ISO_8859_1
+     * @param pool    fork/join pool the chunks are parsed on; its parallelism decides the number of chunks
+     */
+    public MappedCsvParser(Path file, Charset charset, ForkJoinPool pool) {
+        this(file, charset, pool, 0);
+    }
+
+    /**
+     * MappedCsvParser constructor with a fixed nominal chunk size (used to test chunk boundaries on small files)
+     *
+     * @param file      song file to parse
+     * @param charset   StandardCharsets.UTF_8 (falling back to Latin-1 per field) or StandardCharsets.ISO_8859_1
+     * @param pool      fork/join pool the chunks are parsed on
+     * @param chunkSize nominal chunk size in bytes, or 0 to size chunks automatically
+     */
+    MappedCsvParser(Path file, Charset charset, ForkJoinPool pool, long chunkSize) {
+        if (!charset.equals(StandardCharsets.UTF_8) && !charset.equals(StandardCharsets.ISO_8859_1)) {
+            throw new IllegalArgumentException("charset must be UTF-8 or ISO-8859-1");
+        }
+        this.file = file;
+        this.charset = charset;
+        this.pool = pool;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Parses every song row of the file (the header line is skipped)
+     *
+     * @return parsed columns of each chunk, in file order
+     */
+    public List<SongColumns> parse() {
+        return parse(bytes -> {
+        });
+    }
+
+    /**
+     * Parses every song row of the file (the header line is skipped), reporting each chunk as it is finished
+     *
+     * @param parsedBytes told the size in bytes of every chunk once it is parsed; called from the parsing threads,
+     *                    in no particular order
+     * @return parsed columns of each chunk, in file order
+     */
+    public List<SongColumns> parse(LongConsumer parsedBytes) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long[] boundaries = boundaries(channel, size);
+            List<ChunkTask> tasks = new ArrayList<>();
+            for (int i = 0; i + 1 < boundaries.length; i++) {
+                if (boundaries[i + 1] > boundaries[i]) {
+                    tasks.add(new ChunkTask(channel, boundaries[i], boundaries[i + 1], parsedBytes, null));
+                }
+            }
+            List<SongColumns> chunks = new ArrayList<>(tasks.size());
+            pool.invoke(new RecursiveTask<Void>() {
+                @Override
+                protected Void compute() {
+                    invokeAll(tasks);
+                    return null;
+                }
+            });
+            for (ChunkTask task : tasks) {
+                chunks.add(task.join());
+            }
+            return chunks;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Retrieves the position of the first record, after the header line
+     *
+     * @return position after the header line, or -1 if the file does not hold a complete header line yet
+     */
+    public long headerEnd() {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long end = findRecordEnd(channel, 0, size, false);
+            return end == size && !endsWithLineBreak(channel, size) ? -1 : end;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Retrieves the end of the last complete record (one followed by a line break) at or after a record start.
+     * Used to read a file that is still being written without picking up a half-written record.
+     *
+     * @param from position where a record starts
+     * @return position after the last complete record, or from if there is none
+     */
+    public long lastRecordEnd(long from) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            ByteBuffer window = ByteBuffer.allocate(BOUNDARY_WINDOW);
+            boolean inQuotes = false;
+            long end = from;
+            long position = from;
+            while (position < size) {
+                window.clear();
+                int read = channel.read(window, position);
+                if (read <= 0) {
+                    break;
+                }
+                for (int i = 0; i < read; i++) {
+                    byte b = window.get(i);
+                    if (b == '"') {
+                        inQuotes = !inQuotes;
+                    } else if (b == '\n' && !inQuotes) {
+                        end = position + i + 1;
+                    }
+                }
+                position += read;
+            }
+            return end;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Parses the records between two record boundaries on the current thread
+     *
+     * @param from position where a record starts
+     * @param to   position where a record ends
+     * @return parsed song rows
+     */
+    public SongColumns parseRecords(long from, long to) {
+        return parseRecords(from, to, null);
+    }
+
+    /**
+     * Parses the records between two record boundaries on the current thread, skipping any record that is not a
+     * valid song row instead of failing, so one bad row cannot hold up the rows after it
+     *
+     * @param from     position where a record starts
+     * @param to       position where a record ends
+     * @param rejected receives the reason and the file position of each skipped record; null to fail on the first
+     * @return parsed song rows
+     */
+    public SongColumns parseRecords(long from, long to, ObjLongConsumer<String> rejected) {
+        if (to <= from) {
+            return new HeapSongColumns(0);
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new ChunkTask(channel, from, to, bytes -> {
+            }, rejected).invoke();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Helper method to check whether the file ends with a line break
+     *
+     * @param channel channel of the file
+     * @param size    size of the file
+     * @return true if the last byte is '\n'
+     * @throws IOException if the file cannot be read
+     */
+    private static boolean endsWithLineBreak(FileChannel channel, long size) throws IOException {
+        if (size == 0) {
+            return false;
+        }
+        ByteBuffer last = ByteBuffer.allocate(1);
+        channel.read(last, size - 1);
+        return last.get(0) == '\n';
+    }
+
+    /**
+     * Helper method to cut the file into chunks that start on record boundaries.  The quotes in each nominal chunk
+     * are counted in parallel; the parity of the quotes before a chunk tells whether it starts inside a quoted field,
+     * so the first line break outside quotes can be found without reading the file from the start.
+     *
+     * @param channel channel of the file
+     * @param size    size of the file
+     * @return chunk start positions, ending with the file size
+     * @throws IOException if the file cannot be read
+     */
+    private long[] boundaries(FileChannel channel, long size) throws IOException {
+        long chunkSize = this.chunkSize;
+        if (chunkSize <= 0) {
+            chunkSize = Math.max(MIN_CHUNK_SIZE, Math.min(MAX_CHUNK_SIZE, size / (pool.getParallelism() * 4L) + 1));
+        }
+        int chunkCount = (int) Math.max(1, (size + chunkSize - 1) / chunkSize);
+
+        List<RecursiveTask<Long>> quoteCounts = new ArrayList<>(chunkCount);
+        for (int i = 0; i < chunkCount; i++) {
+            long from = i * chunkSize;
+            long to = Math.min(size, from + chunkSize);
+            quoteCounts.add(new RecursiveTask<>() {
+                @Override
+                protected Long compute() {
+                    return countQuotes(channel, from, to);
+                }
+            });
+        }
+        pool.invoke(new RecursiveTask<Void>() {
+            @Override
+            protected Void compute() {
+                invokeAll(quoteCounts);
+                return null;
+            }
+        });
+
+        long[] boundaries = new long[chunkCount + 1];
+        long quotesBefore = 0;
+        for (int i = 0; i < chunkCount; i++) {
+            if (i == 0) {
+                //the first record starts after the header line
+                boundaries[i] = findRecordEnd(channel, 0, size, false);
+            } else {
+                //start one byte early so a chunk that already starts on a record keeps that record
+                long previous = i * chunkSize - 1;
+                ByteBuffer oneByte = ByteBuffer.allocate(1);
+                channel.read(oneByte, previous);
+                long quotesBeforePrevious = quotesBefore - (oneByte.get(0) == '"' ? 1 : 0);
+                boundaries[i] = findRecordEnd(channel, previous, size, (quotesBeforePrevious & 1) == 1);
+            }
+            quotesBefore += quoteCounts.get(i).join();
+        }
+        boundaries[chunkCount] = size;
+        for (int i = 1; i < boundaries.length; i++) {
+            boundaries[i] = Math.max(boundaries[i], boundaries[i - 1]);
+        }
+        return boundaries;
+    }
+
+    /**
+     * Helper method to count the quote characters in part of the file
+     *
+     * @param channel channel of the file
+     * @param from    first position counted
+     * @param to      position after the last one counted
+     * @return number of '"' bytes
+     */
+    private static long countQuotes(FileChannel channel, long from, long to) {
+        try {
+            ByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, from, to - from);
+            long quotes = 0;
+            for (int i = 0, end = bytes.limit(); i < end; i++) {
+                if (bytes.get(i) == '"') {
+                    quotes++;
+                }
+            }
+            return quotes;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Helper method to find the position after the first line break outside quotes at or after a position
+     *
+     * @param channel  channel of the file
+     * @param from     position the search starts at
+     * @param size     size of the file
+     * @param inQuotes whether the position is inside a quoted field
+     * @return position of the next record, or the file size if there is none
+     * @throws IOException if the file cannot be read
+     */
+    private static long findRecordEnd(FileChannel channel, long from, long size, boolean inQuotes)
+            throws IOException {
+        ByteBuffer window = ByteBuffer.allocate(BOUNDARY_WINDOW);
+        long position = from;
+        while (position < size) {
+            window.clear();
+            int read = channel.read(window, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                byte b = window.get(i);
+                if (b == '"') {
+                    inQuotes = !inQuotes;
+                } else if (b == '\n' && !inQuotes) {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    /**
+     * Parses the records of one chunk into SongColumns
+     */
+    private final class ChunkTask extends RecursiveTask<SongColumns> {
+        /**
+         * channel of the file
+         */
+        private final FileChannel channel;
+        /**
+         * file position of the first record
+         */
+        private final long from;
+        /**
+         * file position after the last record
+         */
+        private final long to;
+        /**
+         * receives the number of bytes parsed once the chunk is done
+         */
+        private final LongConsumer parsedBytes;
+        /**
+         * receives each record that is not a valid song row, or null to throw instead
+         */
+        private final ObjLongConsumer<String> rejected;
+        /**
+         * value of each numeric column of the record being parsed, by SongColumn.ordinal()
+         */
+        private final long[] values = new long[SongColumn.values().length];
+        /**
+         * whether each numeric cell of the record being parsed is non-empty, by SongColumn.ordinal()
+         */
+        private final boolean[] present = new boolean[SongColumn.values().length];
+        /**
+         * decoder of UTF-8 text cells; it reports malformed input so the cell can be read as Latin-1
+         */
+        private final CharsetDecoder utf8 = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPORT)
+                .onUnmappableCharacter(CodingErrorAction.REPORT);
+        /**
+         * bytes of the cell being read, without its quotes
+         */
+        private byte[] cell = new byte[256];
+        /**
+         * number of bytes in cell
+         */
+        private int cellLength;
+        /**
+         * whether every byte of the cell is ASCII
+         */
+        private boolean cellAscii;
+        /**
+         * position of the next record, set by parseRecord before it checks the record
+         */
+        private int recordEnd;
+
+        /**
+         * ChunkTask constructor parses the records between positions from and to
+         *
+         * @param channel     channel of the file
+         * @param from        file position of the first record
+         * @param to          file position after the last record
+         * @param parsedBytes receives the number of bytes parsed once the chunk is done
+         * @param rejected    receives each invalid record's message and file position, or null to throw instead
+         */
+        private ChunkTask(FileChannel channel, long from, long to, LongConsumer parsedBytes,
+                          ObjLongConsumer<String> rejected) {
+            this.channel = channel;
+            this.from = from;
+            this.to = to;
+            this.parsedBytes = parsedBytes;
+            this.rejected = rejected;
+        }
+
+        @Override
+        protected SongColumns compute() {
+            ByteBuffer bytes;
+            try {
+                bytes = channel.map(FileChannel.MapMode.READ_ONLY, from, to - from);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            HeapSongColumns columns =
+                    new HeapSongColumns((int) Math.min(Integer.MAX_VALUE - 8, (to - from) / 64 + 16));
+            int end = bytes.limit();
+            int position = 0;
+            while (position < end) {
+                int start = position;
+                try {
+                    position = parseRecord(bytes, position, end, columns);
+                } catch (IllegalArgumentException e) {
+                    if (rejected == null) {
+                        throw e;
+                    }
+                    rejected.accept(e.getMessage(), from + start);
+                    position = recordEnd;
+                }
+            }
+            parsedBytes.accept(to - from);
+            return columns;
+        }
+
+        /**
+         * Parses one record starting at a position
+         *
+         * @param bytes    mapped bytes of the chunk
+         * @param position position of the record in the chunk
+         * @param end      end of the chunk
+         * @param columns  columns the song is added to
+         * @return position of the next record
+         */
+        private int parseRecord(ByteBuffer bytes, int position, int end, HeapSongColumns columns) {
+            String trackName = null;
+            String artistName = null;
+            int column = 0;
+            Arrays.fill(values, 0);
+            Arrays.fill(present, false);
+            while (true) {
+                position = readCell(bytes, position, end);
+                if (column == 0) {
+                    trackName = decode();
+                } else if (column == 1) {
+                    artistName = decode();
+                } else if (column < COLUMN_AT_CSV_INDEX.length) {
+                    SongColumn songColumn = COLUMN_AT_CSV_INDEX[column];
+                    present[songColumn.ordinal()] = cellLength > 0;
+                    values[songColumn.ordinal()] = parseCell(songColumn);
+                }
+                column++;
+                if (position >= end) {
+                    break;
+                }
+                byte delimiter = bytes.get(position++);
+                if (delimiter == ',') {
+                    continue;
+                }
+                if (delimiter == '\r' && position < end && bytes.get(position) == '\n') {
+                    position++;
+                }
+                break;
+            }
+            recordEnd = position;
+            if (column == 1 && trackName.isEmpty()) {
+                return position; //blank line
+            }
+            if (column < SongColumn.STREAMS.csvIndex() + 1) {
+                throw new IllegalArgumentException("song row must have at least "
+                        + (SongColumn.STREAMS.csvIndex() + 1) + " columns");
+            }
+            requirePresent(present, SongColumn.RELEASED_YEAR, "release year must not be null or empty");
+            requirePresent(present, SongColumn.RELEASED_MONTH, "release month must not be null or empty");
+            requirePresent(present, SongColumn.RELEASED_DAY, "release day must not be null or empty");
+            requirePresent(present, SongColumn.STREAMS, "number of streams must not be null or empty");
+            if (column <= SongColumn.KEY.csvIndex()) {
+                values[SongColumn.KEY.ordinal()] = -1;
+            }
+            if (column <= SongColumn.MODE.csvIndex()) {
+                values[SongColumn.MODE.ordinal()] = -1;
+            }
+            columns.add(trackName, artistName, values);
+            return position;
+        }
+
+        /**
+         * Copies the cell starting at a position into the cell buffer, removing quotes
+         *
+         * @param bytes    mapped bytes of the chunk
+         * @param position position of the cell in the chunk
+         * @param end      end of the chunk
+         * @return position of the delimiter after the cell (or end)
+         */
+        private int readCell(ByteBuffer bytes, int position, int end) {
+            cellLength = 0;
+            cellAscii = true;
+            if (position < end && bytes.get(position) == '"') {
+                position++;
+                while (position < end) {
+                    byte b = bytes.get(position++);
+                    if (b == '"') {
+                        if (position < end && bytes.get(position) == '"') {
+                            position++; //escaped quote
+                        } else {
+                            break;
+                        }
+                    }
+                    append(b);
+                }
+                //skip anything between the closing quote and the delimiter
+                while (position < end && !isDelimiter(bytes.get(position))) {
+                    position++;
+                }
+                return position;
+            }
+            while (position < end) {
+                byte b = bytes.get(position);
+                if (isDelimiter(b)) {
+                    break;
+                }
+                append(b);
+                position++;
+            }
+            return position;
+        }
+
+        /**
+         * Helper method to add a byte to the cell buffer
+         *
+         * @param b byte added
+         */
+        private void append(byte b) {
+            if (cellLength == cell.length) {
+                cell = Arrays.copyOf(cell, cellLength * 2);
+            }
+            cell[cellLength++] = b;
+            if (b < 0) {
+                cellAscii = false;
+            }
+        }
+
+        /**
+         * Decodes the cell buffer as text
+         *
+         * @return cell text, read as Latin-1 if it is not valid UTF-8
+         */
+        private String decode() {
+            if (cellAscii || charset.equals(StandardCharsets.ISO_8859_1)) {
+                return new String(cell, 0, cellLength, StandardCharsets.ISO_8859_1);
+            }
+            try {
+                CharBuffer chars = utf8.reset().decode(ByteBuffer.wrap(cell, 0, cellLength));
+                return chars.toString();
+            } catch (CharacterCodingException e) {
+                //not valid UTF-8, so the field was most likely written as Latin-1
+                return new String(cell, 0, cellLength, StandardCharsets.ISO_8859_1);
+            }
+        }
+
+        /**
+         * Parses the cell buffer as the value of a numeric column (0 if blank, SongColumns.INVALID if it is not a
+         * number or is too big for a long, so the row is listed as invalid)
+         *
+         * @param column numeric column of the cell
+         * @return value of the cell
+         */
+        private long parseCell(SongColumn column) {
+            if (column == SongColumn.KEY) {
+                return SongColumns.keyCode(new String(cell, 0, cellLength, StandardCharsets.ISO_8859_1));
+            }
+            if (column == SongColumn.MODE) {
+                return SongColumns.modeCode(new String(cell, 0, cellLength, StandardCharsets.ISO_8859_1));
+            }
+            long value = 0;
+            for (int i = 0; i < cellLength; i++) {
+                byte b = cell[i];
+                if (b >= '0' && b <= '9') {
+                    if (value > (Long.MAX_VALUE - (b - '0')) / 10) {
+                        return SongColumns.INVALID;
+                    }
+                    value = value * 10 + (b - '0');
+                } else if (b != ',' && b != ' ') {
+                    return SongColumns.INVALID;
+                }
+            }
+            return value;
+        }
+    }
+
+    /**
+     * Helper method to check whether a byte ends a cell
+     *
+     * @param b byte checked
+     * @return true for a comma or line break
+     */
+    private static boolean isDelimiter(byte b) {
+        return b == ',' || b == '\n' || b == '\r';
+    }
+
+    /**
+     * Helper method to reject a record whose cell of a required column is empty
+     *
+     * @param present whether each numeric cell of the record is non-empty
+     * @param column  required column
+     * @param message message of the exception
+     * @throws IllegalArgumentException if the column's cell is empty
+     */
+    private static void requirePresent(boolean[] present, SongColumn column, String message) {
+        if (!present[column.ordinal()]) {
+            throw new IllegalArgumentException(message);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedCsvParserTest {
+
+    @org.junit.jupiter.api.Test
+    void matchesOpenCsv() {
+
+        SongLoader openCsv = new SongLoader();
+        openCsv.load("spotify-2023.csv");
+        SongLoader mapped = new SongLoader();
+        mapped.loadMapped("spotify-2023.csv");
+
+        assertSameRows(openCsv.getColumns(), mapped.getColumns());
+        assertArrayEquals(openCsv.getReleaseYears(), mapped.getReleaseYears());
+        assertEquals("Styrx, utku INC, Thezth", mapped.getColumns().artistName(0));
+    }
+
+    @org.junit.jupiter.api.Test
+    void chunksSplitOnRecordBoundaries() throws Exception {
+
+        Path file = Files.createTempFile("songs-mapped", ".csv");
+        try {
+            //quoted fields with commas, escaped quotes and line breaks, and CRLF line endings
+            StringBuilder csv = new StringBuilder(SongCsvGenerator.HEADER).append("\r\n");
+            for (int i = 0; i < 200; i++) {
+                csv.append(i % 3 == 0 ? "\"Song \"\"" + i + "\"\",\nPart 2\"" : "Song " + i)
+                        .append(",\"Artist A, Artist B\",2,").append(2000 + i % 7)
+                        .append(",1,2,\"1,234\",0,").append(i).append(",0,0,,0,,120,C#,Minor,1,2,3,4,5,6,7\r\n");
+            }
+            Files.writeString(file, csv, StandardCharsets.UTF_8);
+
+            SongColumns whole = merge(new MappedCsvParser(file).parse());
+            assertEquals(200, whole.getRowCount());
+            assertEquals("Song \"0\",\nPart 2", whole.trackName(0));
+            assertEquals("Artist A, Artist B", whole.artistName(0));
+            assertEquals(1234, whole.get(SongColumn.IN_SPOTIFY_PLAYLISTS, 0));
+            assertEquals(7, whole.get(SongColumn.SPEECHINESS, 199));
+
+            //every chunk size, including ones that start inside a quoted field, gives the same rows
+            ForkJoinPool pool = new ForkJoinPool(4);
+            for (int chunkSize : new int[]{1, 7, 64, 97, 500, 4096}) {
+                SongColumns chunked = merge(new MappedCsvParser(file, StandardCharsets.UTF_8, pool, chunkSize)
+                        .parse());
+                assertSameRows(whole, chunked);
+            }
+            pool.shutdown();
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @org.junit.jupiter.api.Test
+    void latin1Fallback() throws Exception {
+
+        Path file = Files.createTempFile("songs-mapped", ".csv");
+        try {
+            byte[] header = (SongCsvGenerator.HEADER + "\n").getBytes(StandardCharsets.US_ASCII);
+            byte[] utf8Row = "Agudo M\u00e1gi,Styrx,1,1930,1,1,0,0,5\n".getBytes(StandardCharsets.UTF_8);
+            byte[] latin1Row = "Agudo M\u00e1gi,Styrx,1,1930,1,1,0,0,5\n".getBytes(StandardCharsets.ISO_8859_1);
+            Files.write(file, concat(header, utf8Row, latin1Row));
+
+            SongColumns columns = merge(new MappedCsvParser(file).parse());
+            assertEquals("Agudo M\u00e1gi", columns.trackName(0));
+            assertEquals("Agudo M\u00e1gi", columns.trackName(1));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @org.junit.jupiter.api.Test
+    @org.junit.jupiter.api.condition.EnabledIfSystemProperty(named = "songs.benchmarks", matches = "true")
+    void parserScaling() throws Exception {
+
+        int rows = SongCsvGenerator.benchmarkRows("parser", 1_000_000);
+        Path file = SongCsvGenerator.tempFile(42, rows);
+        try {
+            for (int threads = 1; threads <= Runtime.getRuntime().availableProcessors(); threads *= 2) {
+                ForkJoinPool pool = new ForkJoinPool(threads);
+                long start = System.nanoTime();
+                SongColumns columns = merge(new MappedCsvParser(file, StandardCharsets.UTF_8, pool).parse());
+                double seconds = (System.nanoTime() - start) / 1e9;
+                pool.shutdown();
+
+                assertEquals(rows, columns.getRowCount());
+                System.out.printf("%2d threads: %,d rows in %.2f s (%,.0f rows/sec)%n",
+                        threads, rows, seconds, rows / seconds);
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static SongColumns merge(List<SongColumns> chunks) {
+        HeapSongColumns columns = new HeapSongColumns();
+        for (SongColumns chunk : chunks) {
+            columns.addAll(chunk);
+        }
+        return columns;
+    }
+
+    private static void assertSameRows(SongColumns expected, SongColumns actual) {
+        assertEquals(expected.getRowCount(), actual.getRowCount());
+        for (int row = 0; row < expected.getRowCount(); row++) {
+            assertEquals(expected.toSong(row), actual.toSong(row));
+            for (SongColumn column : SongColumn.values()) {
+                assertEquals(expected.get(column, row), actual.get(column, row), column + " of row " + row);
+            }
+        }
+    }
+
+    private static byte[] concat(byte[]... parts) {
+        int length = 0;
+        for (byte[] part : parts) {
+            length += part.length;
+        }
+        byte[] all = new byte[length];
+        int offset = 0;
+        for (byte[] part : parts) {
+            System.arraycopy(part, 0, all, offset, part.length);
+            offset += part.length;
+        }
+        return all;
+    }
+}
@@ -0,0 +1,383 @@
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * OffHeapSongColumns class that keeps song rows outside the Java heap, in direct ByteBuffers.
+ * Each numeric column is one region of fixed-width slots (the value of a row is at row * width, with the same width
+ * as the HeapSongColumns array), track names are one region of UTF-8 bytes addressed by a region of row offsets, and
+ * artist names are a region of codes into the artist pool (which holds each distinct name once and stays on the heap).
+ * The garbage collector sees a few buffer objects however many rows there are, so full collections do not trace or
+ * copy the song data and the heap can be sized for the rest of the program.
+ * The accessors read a field in place; a track name is only decoded, and a Song only built, when it is asked for,
+ * which makes reading strings slower than from the heap.
+ * Appended rows go to a small heap tail shared by the columns appended after them, so an append costs the size of the
+ * delta rather than of the catalog; once the tail holds more than a quarter as many rows as the buffers, the rows
+ * are written to new buffers and the tail starts empty again.
+ *
+ * @author Bennett Fife
+ * @version 10/17/26
+ */
+public final class OffHeapSongColumns extends SongColumns {
+
+    /**
+     * every column, by ordinal
+     */
+    private static final SongColumn[] COLUMNS = SongColumn.values();
+    /**
+     * rows read from the source columns at a time while they are copied
+     */
+    private static final int BLOCK = 1024;
+    /**
+     * the rows are moved into new buffers once the tail holds more than offHeapRows / COMPACT_RATIO rows
+     */
+    private static final int COMPACT_RATIO = 4;
+
+    /**
+     * number of rows these columns hold
+     */
+    private final int rowCount;
+    /**
+     * number of rows held in the direct buffers; the rest are in the tail
+     */
+    private final int offHeapRows;
+    /**
+     * rows appended after the buffers were written; later columns may have written more rows past ours
+     */
+    private final HeapSongColumns tail;
+    /**
+     * rows in the buffers that had a numeric cell that was not a number or did not fit its column, in ascending order
+     */
+    private final int[] invalidRows;
+    /**
+     * numeric columns by SongColumn.ordinal(); the value of a row is at {@code row << shifts[ordinal]}
+     */
+    private final ByteBuffer[] numeric = new ByteBuffer[COLUMNS.length];
+    /**
+     * log2 of the bytes per row of each numeric column, by SongColumn.ordinal()
+     */
+    private final int[] shifts = new int[COLUMNS.length];
+    /**
+     * stream count of each row, one long per row
+     */
+    private final ByteBuffer streams;
+    /**
+     * the track name of a row is trackBytes[trackOffsets[row], trackOffsets[row + 1]), one int offset per row
+     */
+    private final ByteBuffer trackOffsets;
+    /**
+     * UTF-8 bytes of every track name, one after another
+     */
+    private final ByteBuffer trackBytes;
+    /**
+     * artist pool code of each row, one int per row
+     */
+    private final ByteBuffer artistCodes;
+
+    /**
+     * OffHeapSongColumns constructor copies every row of columns off the heap.  The copy shares the artist pool with
+     * the source, and the source can be dropped once it is made.
+     *
+     * @param source columns to copy
+     */
+    public OffHeapSongColumns(SongColumns source) {
+        super(source.getArtistPool());
+        rowCount = source.getRowCount();
+        offHeapRows = rowCount;
+        tail = new HeapSongColumns(0, source.getArtistPool());
+        invalidRows = source.getInvalidRows();
+        if (rowCount > Integer.MAX_VALUE / Long.BYTES) {
+            throw new IllegalArgumentException("too many rows for one off-heap region per column");
+        }
+        long[] values = new long[BLOCK];
+        for (SongColumn column : COLUMNS) {
+            int shift = shift(column);
+            ByteBuffer region = allocate(rowCount << shift);
+            for (int from = 0; from < rowCount; from += BLOCK) {
+                int count = Math.min(BLOCK, rowCount - from);
+                source.get(column, from, values, count);
+                for (int i = 0; i < count; i++) {
+                    put(region, shift, from + i, values[i]);
+                }
+            }
+            numeric[column.ordinal()] = region;
+            shifts[column.ordinal()] = shift;
+        }
+        streams = numeric[SongColumn.STREAMS.ordinal()];
+
+        //the offsets are laid out first, so the name bytes can be allocated at their exact size
+        trackOffsets = allocate((rowCount + 1) * Integer.BYTES);
+        long offset = 0;
+        for (int row = 0; row < rowCount; row++) {
+            trackOffsets.putInt(row * Integer.BYTES, (int) offset);
+            offset += utf8Length(source.trackName(row));
+            if (offset > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("track names do not fit in one 2 GB off-heap region");
+            }
+        }
+        trackOffsets.putInt(rowCount * Integer.BYTES, (int) offset);
+        trackBytes = allocate((int) offset);
+        for (int row = 0; row < rowCount; row++) {
+            trackBytes.put(trackOffsets.getInt(row * Integer.BYTES),
+                    source.trackName(row).getBytes(StandardCharsets.UTF_8));
+        }
+        artistCodes = allocate(rowCount * Integer.BYTES);
+        for (int row = 0; row < rowCount; row++) {
+            artistCodes.putInt(row * Integer.BYTES, source.artistCode(row));
+        }
+    }
+
+    /**
+     * OffHeapSongColumns constructor shares the buffers of other columns and reads the rows past them from a tail
+     *
+     * @param buffers  columns whose buffers are shared
+     * @param tail     rows after the buffers'
+     * @param rowCount number of rows the columns hold
+     */
+    private OffHeapSongColumns(OffHeapSongColumns buffers, HeapSongColumns tail, int rowCount) {
+        super(buffers.getArtistPool());
+        this.rowCount = rowCount;
+        offHeapRows = buffers.offHeapRows;
+        this.tail = tail;
+        invalidRows = buffers.invalidRows;
+        System.arraycopy(buffers.numeric, 0, numeric, 0, numeric.length);
+        System.arraycopy(buffers.shifts, 0, shifts, 0, shifts.length);
+        streams = buffers.streams;
+        trackOffsets = buffers.trackOffsets;
+        trackBytes = buffers.trackBytes;
+        artistCodes = buffers.artistCodes;
+    }
+
+    /**
+     * Retrieves the number of bytes the rows take up outside the heap (the tail is on the heap)
+     *
+     * @return total capacity of the direct buffers
+     */
+    public long offHeapBytes() {
+        long bytes = (long) trackOffsets.capacity() + trackBytes.capacity() + artistCodes.capacity();
+        for (ByteBuffer region : numeric) {
+            bytes += region.capacity();
+        }
+        return bytes;
+    }
+
+    @Override
+    public SongStorage storage() {
+        return SongStorage.OFF_HEAP;
+    }
+
+    /**
+     * Retrieves the number of rows held in the direct buffers; the rest were appended since and are on the heap
+     *
+     * @return rows off the heap
+     */
+    public int getOffHeapRowCount() {
+        return offHeapRows;
+    }
+
+    @Override
+    public int[] getInvalidRows() {
+        int[] tailRows = tail.getInvalidRows();
+        int count = 0;
+        while (count < tailRows.length && tailRows[count] < rowCount - offHeapRows) {
+            count++;
+        }
+        int[] rows = Arrays.copyOf(invalidRows, invalidRows.length + count);
+        for (int i = 0; i < count; i++) {
+            rows[invalidRows.length + i] = offHeapRows + tailRows[i];
+        }
+        return rows;
+    }
+
+    @Override
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Appends the delta to the tail (in place when no later columns wrote past it), sharing the buffers; the rows
+     * are only written to new buffers when the tail has grown past a quarter of them
+     */
+    @Override
+    OffHeapSongColumns append(int rowCount, SongColumns delta) {
+        if (rowCount < offHeapRows || rowCount > this.rowCount) {
+            throw new IllegalArgumentException("rowCount must be between the off-heap row count and the row count");
+        }
+        HeapSongColumns appended = tail.append(rowCount - offHeapRows, delta);
+        OffHeapSongColumns columns = new OffHeapSongColumns(this, appended, rowCount + delta.getRowCount());
+        return appended.getRowCount() > offHeapRows / COMPACT_RATIO ? new OffHeapSongColumns(columns) : columns;
+    }
+
+    @Override
+    public String trackName(int row) {
+        if (row >= offHeapRows) {
+            return tail.trackName(row - offHeapRows);
+        }
+        int from = trackOffsets.getInt(row * Integer.BYTES);
+        byte[] utf8 = new byte[trackOffsets.getInt((row + 1) * Integer.BYTES) - from];
+        trackBytes.get(from, utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public int artistCode(int row) {
+        if (row >= offHeapRows) {
+            return tail.artistCode(row - offHeapRows);
+        }
+        return artistCodes.getInt(row * Integer.BYTES);
+    }
+
+    @Override
+    public int releasedYear(int row) {
+        if (row >= offHeapRows) {
+            return tail.releasedYear(row - offHeapRows);
+        }
+        return numeric[SongColumn.RELEASED_YEAR.ordinal()].getShort(row * Short.BYTES);
+    }
+
+    @Override
+    public int releasedMonth(int row) {
+        if (row >= offHeapRows) {
+            return tail.releasedMonth(row - offHeapRows);
+        }
+        return numeric[SongColumn.RELEASED_MONTH.ordinal()].get(row);
+    }
+
+    @Override
+    public int releasedDay(int row) {
+        if (row >= offHeapRows) {
+            return tail.releasedDay(row - offHeapRows);
+        }
+        return numeric[SongColumn.RELEASED_DAY.ordinal()].get(row);
+    }
+
+    @Override
+    public long streams(int row) {
+        if (row >= offHeapRows) {
+            return tail.streams(row - offHeapRows);
+        }
+        return streams.getLong(row * Long.BYTES);
+    }
+
+    @Override
+    public long get(SongColumn column, int row) {
+        if (row >= offHeapRows) {
+            return tail.get(column, row - offHeapRows);
+        }
+        int ordinal = column.ordinal();
+        ByteBuffer region = numeric[ordinal];
+        switch (shifts[ordinal]) {
+            case 0:
+                return region.get(row);
+            case 1:
+                return region.getShort(row << 1);
+            case 2:
+                return region.getInt(row << 2);
+            default:
+                return region.getLong(row << 3);
+        }
+    }
+
+    /**
+     * Helper method to find the log2 of the width of a numeric column, the same width HeapSongColumns stores it in
+     *
+     * @param column numeric column
+     * @return log2 of its width in bytes
+     * @throws IllegalArgumentException if the column is unknown
+     */
+    private static int shift(SongColumn column) {
+        switch (column) {
+            case ARTIST_COUNT:
+            case RELEASED_MONTH:
+            case RELEASED_DAY:
+            case KEY:
+            case MODE:
+            case DANCEABILITY:
+            case VALENCE:
+            case ENERGY:
+            case ACOUSTICNESS:
+            case INSTRUMENTALNESS:
+            case LIVENESS:
+            case SPEECHINESS:
+                return 0;
+            case RELEASED_YEAR:
+            case IN_SPOTIFY_CHARTS:
+            case IN_APPLE_PLAYLISTS:
+            case IN_APPLE_CHARTS:
+            case IN_DEEZER_CHARTS:
+            case BPM:
+                return 1;
+            case IN_SPOTIFY_PLAYLISTS:
+            case IN_DEEZER_PLAYLISTS:
+            case IN_SHAZAM_CHARTS:
+                return 2;
+            case STREAMS:
+                return 3;
+            default:
+                throw new IllegalArgumentException("unknown column " + column);
+        }
+    }
+
+    /**
+     * Helper method to store a row's value in a column region of {@code 1 << shift} bytes per row
+     *
+     * @param region column region written
+     * @param shift  log2 of the bytes per row
+     * @param row    row number
+     * @param value  value stored, narrowed to the column's width
+     */
+    private static void put(ByteBuffer region, int shift, int row, long value) {
+        switch (shift) {
+            case 0:
+                region.put(row, (byte) value);
+                break;
+            case 1:
+                region.putShort(row << 1, (short) value);
+                break;
+            case 2:
+                region.putInt(row << 2, (int) value);
+                break;
+            default:
+                region.putLong(row << 3, value);
+                break;
+        }
+    }
+
+    /**
+     * Helper method to allocate a direct buffer in the platform's byte order
+     *
+     * @param bytes capacity in bytes
+     * @return new direct buffer
+     */
+    private static ByteBuffer allocate(int bytes) {
+        return ByteBuffer.allocateDirect(bytes).order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * Helper method to count the UTF-8 bytes of a string without encoding it
+     *
+     * @param text string measured
+     * @return number of bytes its UTF-8 encoding takes
+     */
+    private static int utf8Length(String text) {
+        int length = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < text.length()
+                    && Character.isLowSurrogate(text.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                length++; //an unpaired surrogate is encoded as '?'
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+}
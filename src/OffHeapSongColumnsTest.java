@@ -0,0 +1,173 @@
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapSongColumnsTest {
+
+    @org.junit.jupiter.api.Test
+    void matchesHeapColumns() throws Exception {
+
+        SongColumns songs = new SongManager().getCatalog().columns();
+        HeapSongColumns heap = songs.copy(songs.getRowCount() + 2);
+        heap.add(new String[]{"\u00dcn\u00efc\u00f6d\u00e9 \ud83c\udfb5", "Beyonc\u00e9", "1", "2023", "1", "1", "0",
+                "0", "1"});
+        heap.add(new String[]{"Bad Count", "Someone", "many", "2023", "1", "1", "0", "0", "1"});
+        OffHeapSongColumns offHeap = new OffHeapSongColumns(heap);
+        assertEquals(SongStorage.OFF_HEAP, offHeap.storage());
+        assertEquals(heap.getRowCount(), offHeap.getRowCount());
+        assertArrayEquals(heap.getInvalidRows(), offHeap.getInvalidRows());
+        assertTrue(offHeap.getInvalidRows().length > 0);
+        assertTrue(offHeap.offHeapBytes() > 0);
+        long[] expected = new long[heap.getRowCount()];
+        long[] actual = new long[heap.getRowCount()];
+        for (SongColumn column : SongColumn.values()) {
+            heap.get(column, 0, expected, expected.length);
+            offHeap.get(column, 0, actual, actual.length);
+            assertArrayEquals(expected, actual, column.toString());
+        }
+        for (int row = 0; row < heap.getRowCount(); row++) {
+            assertEquals(heap.toSong(row), offHeap.toSong(row));
+            assertEquals(heap.artistCode(row), offHeap.artistCode(row));
+            assertEquals(heap.get(SongColumn.BPM, row), offHeap.get(SongColumn.BPM, row));
+        }
+
+        //copies back to the heap and writes the same snapshot
+        SongColumns copy = offHeap.copy(offHeap.getRowCount() + 1);
+        assertEquals(SongStorage.HEAP, copy.storage());
+        assertEquals(heap.toSong(heap.getRowCount() - 1), copy.toSong(copy.getRowCount() - 1));
+        ByteArrayOutputStream heapBytes = new ByteArrayOutputStream();
+        heap.writeTo(new DataOutputStream(heapBytes));
+        ByteArrayOutputStream offHeapBytes = new ByteArrayOutputStream();
+        offHeap.writeTo(new DataOutputStream(offHeapBytes));
+        assertTrue(Arrays.equals(heapBytes.toByteArray(), offHeapBytes.toByteArray()));
+        assertEquals(heap.toSong(5), HeapSongColumns.readFrom(ByteBuffer.wrap(offHeapBytes.toByteArray())).toSong(5));
+    }
+
+    @org.junit.jupiter.api.Test
+    void appendsToTail() {
+
+        HeapSongColumns heap = new HeapSongColumns();
+        for (int i = 0; i < 40; i++) {
+            heap.add(new String[]{"Song " + i, "Artist " + i % 3, "1", "2020", "1", "1", "0", "0", "" + i});
+        }
+        OffHeapSongColumns offHeap = new OffHeapSongColumns(heap);
+        OffHeapSongColumns appended = offHeap.append(40, delta("Bad Count", "many"));
+        assertEquals(SongStorage.OFF_HEAP, appended.storage());
+        assertEquals(41, appended.getRowCount());
+        assertEquals(40, appended.getOffHeapRowCount());
+        assertEquals(40, offHeap.getRowCount());
+        assertEquals("Bad Count", appended.trackName(40));
+        assertEquals(heap.toSong(39), appended.toSong(39));
+        assertArrayEquals(new int[]{40}, appended.getInvalidRows());
+        assertArrayEquals(new int[0], offHeap.getInvalidRows());
+
+        //the next append writes into the same tail; appending to the older columns again only copies the tail
+        OffHeapSongColumns next = appended.append(41, delta("Next", "1"));
+        OffHeapSongColumns branch = appended.append(41, delta("Branch", "1"));
+        assertEquals("Next", next.trackName(41));
+        assertEquals("Branch", branch.trackName(41));
+        assertEquals(41, appended.getRowCount());
+        assertArrayEquals(new int[]{40}, next.getInvalidRows());
+
+        //once the tail holds more than a quarter as many rows, every row is moved to new buffers
+        OffHeapSongColumns compacted = next;
+        for (int i = 0; i < 9; i++) {
+            compacted = compacted.append(compacted.getRowCount(), delta("More " + i, "1"));
+        }
+        assertEquals(51, compacted.getRowCount());
+        assertEquals(51, compacted.getOffHeapRowCount());
+        assertEquals("More 8", compacted.trackName(50));
+        assertEquals("Next", compacted.trackName(41));
+        assertEquals(heap.artistCode(2), compacted.artistCode(2));
+        assertArrayEquals(new int[]{40}, compacted.getInvalidRows());
+        assertThrows(IllegalArgumentException.class, () -> next.append(43, delta("Past", "1")));
+    }
+
+    @org.junit.jupiter.api.Test
+    void managerKeepsStorage() {
+
+        SongManager heap = new SongManager();
+        SongManager offHeap = new SongManager(SongManager.DEFAULT_SONGS_PATH, true, SongStorage.OFF_HEAP, percent -> {
+        });
+        assertEquals(SongStorage.OFF_HEAP, offHeap.getCatalog().getStorage());
+        assertEquals(heap.getYearCount(), offHeap.getYearCount());
+        for (int yearIndex = 0; yearIndex < heap.getYearCount(); yearIndex++) {
+            assertArrayEquals(heap.getSongs(yearIndex), offHeap.getSongs(yearIndex));
+        }
+        String trackName = heap.getSong(heap.getYearCount() - 1, 2).trackName();
+        assertEquals(heap.findSongYear(trackName), offHeap.findSongYear(trackName));
+
+        //appended rows are moved off the heap with the rest
+        HeapSongColumns delta = new HeapSongColumns();
+        delta.add(new String[]{"Brand New", "Someone New", "1", "2031", "5", "6", "0", "0", "12345"});
+        heap.append(delta);
+        offHeap.append(delta);
+        assertEquals(SongStorage.OFF_HEAP, offHeap.getCatalog().getStorage());
+        assertEquals(heap.getSongCount("2031"), offHeap.getSongCount("2031"));
+        assertEquals(heap.getSong(heap.getYearCount() - 1, 0), offHeap.getSong(offHeap.getYearCount() - 1, 0));
+        assertEquals(SongStorage.OFF_HEAP, offHeap.reload().getStorage());
+    }
+
+    /**
+     * Compares the heap footprint and the full GC pause of a large catalog kept on the heap and off it
+     */
+    @org.junit.jupiter.api.Test
+    @org.junit.jupiter.api.condition.EnabledIfSystemProperty(named = "songs.benchmarks", matches = "true")
+    void gcComparison() throws Exception {
+
+        int rows = SongCsvGenerator.benchmarkRows("offHeap", 1_000_000);
+        Path source = SongCsvGenerator.tempFile(42, rows);
+        try {
+            for (SongStorage storage : SongStorage.values()) {
+                long heapBefore = usedHeap();
+                long directBefore = directMemory();
+                SongManager manager = new SongManager(source.toString(), false, storage, percent -> {
+                });
+                long heapUsed = usedHeap() - heapBefore;
+                long start = System.nanoTime();
+                System.gc();
+                double pauseMillis = (System.nanoTime() - start) / 1e6;
+                System.out.printf("%,d rows %s: heap %,d MB, off-heap %,d MB, full GC %.1f ms%n", rows, storage,
+                        heapUsed >> 20, (directMemory() - directBefore) >> 20, pauseMillis);
+                assertEquals(rows, manager.getSongCount());
+            }
+        } finally {
+            Files.deleteIfExists(source);
+        }
+    }
+
+    /**
+     * Helper method to create columns holding one 2031 song
+     */
+    private static HeapSongColumns delta(String trackName, String artistCount) {
+        HeapSongColumns delta = new HeapSongColumns();
+        delta.add(new String[]{trackName, "Someone New", artistCount, "2031", "5", "6", "0", "0", "12345"});
+        return delta;
+    }
+
+    /**
+     * Helper method to measure the heap in use after a full collection
+     */
+    private static long usedHeap() {
+        System.gc();
+        System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private static long directMemory() {
+        long used = 0;
+        for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+            if (pool.getName().equals("direct")) {
+                used += pool.getMemoryUsed();
+            }
+        }
+        return used;
+    }
+}
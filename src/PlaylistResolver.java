@@ -0,0 +1,254 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * PlaylistResolver class that joins external track lists (such as exported playlists) against a catalog: each
+ * track name, with an optional artist, is resolved to the first song in year and song order that matches it.
+ * The join probes the catalog's track name index, which is a hash table built once per load, so each lookup is one
+ * hash probe however large the catalog is, and the probes are split across a fork/join pool.
+ * A stream of names is read, resolved and written a chunk at a time, so memory stays bounded by the chunk size
+ * however long the list is, and the results come out in input order.
+ *
+ * @author Bennett Fife
+ * @version 10/17/26
+ */
+public final class PlaylistResolver {
+
+    /**
+     * lines read and resolved at a time when resolving a stream
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 1 << 16;
+    /**
+     * smallest number of lookups given to one task
+     */
+    private static final int MIN_PARTITION = 1024;
+
+    /**
+     * counts of one resolved stream
+     *
+     * @param lines   number of track names read
+     * @param matched number of track names resolved to a song
+     * @param nanos   time taken in nanoseconds, including reading and writing
+     */
+    public record Report(long lines, long matched, long nanos) {
+
+        /**
+         * Retrieves the number of track names that matched no song
+         *
+         * @return unmatched count
+         */
+        public long unmatched() {
+            return lines - matched;
+        }
+
+        /**
+         * Retrieves the rate the track names were resolved at
+         *
+         * @return lookups per second
+         */
+        public long lookupsPerSecond() {
+            return nanos == 0 ? 0 : (long) (lines * 1e9 / nanos);
+        }
+    }
+
+    /**
+     * fork/join pool used for the lookups
+     */
+    private final ForkJoinPool pool;
+    /**
+     * lines read and resolved at a time when resolving a stream
+     */
+    private final int chunkSize;
+
+    /**
+     * PlaylistResolver constructor that resolves on the common fork/join pool
+     */
+    public PlaylistResolver() {
+        this(ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * PlaylistResolver constructor that resolves on the specified pool
+     *
+     * @param pool      fork/join pool used for the lookups
+     * @param chunkSize lines read and resolved at a time when resolving a stream
+     */
+    public PlaylistResolver(ForkJoinPool pool, int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("chunk size must be at least 1");
+        }
+        this.pool = pool;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Resolves a batch of track names to songs
+     *
+     * @param catalog    catalog to look the songs up in
+     * @param trackNames track names to look up
+     * @param artists    artist of each track name, or null (for the whole array or an element) to match any artist
+     * @return location of the first matching song for each track name, or null where none matches
+     */
+    public SongLocation[] resolve(SongCatalog catalog, String[] trackNames, String[] artists) {
+        if (artists != null && artists.length != trackNames.length) {
+            throw new IllegalArgumentException("there must be one artist for each track name");
+        }
+        int[] ordinals = new int[trackNames.length];
+        resolve(catalog, trackNames, artists, ordinals, trackNames.length);
+        SongLocation[] locations = new SongLocation[ordinals.length];
+        for (int i = 0; i < ordinals.length; i++) {
+            if (ordinals[i] >= 0) {
+                locations[i] = catalog.locateOrdinal(ordinals[i]);
+            }
+        }
+        return locations;
+    }
+
+    /**
+     * Resolves a stream of track names to songs.  Each line of the input is a track name, optionally followed by a
+     * tab and an artist; blank lines are skipped.  Each match is written as one line of JSON holding the line number,
+     * the year and song index and the song; each track name with no match is written as its line number, the track
+     * name and the artist (if any), separated by tabs, so the report can be fixed up and resolved again.
+     *
+     * @param catalog   catalog to look the songs up in
+     * @param in        track names, one per line
+     * @param matched   writer the matches are written to
+     * @param unmatched writer the track names with no match are written to
+     * @return counts of the track names read and matched
+     * @throws IOException if the input cannot be read or the output written
+     */
+    public Report resolve(SongCatalog catalog, BufferedReader in, Writer matched, Writer unmatched)
+            throws IOException {
+        long start = System.nanoTime();
+        String[] trackNames = new String[chunkSize];
+        String[] artists = new String[chunkSize];
+        long[] lineNumbers = new long[chunkSize];
+        int[] ordinals = new int[chunkSize];
+        long lineNumber = 0;
+        long lines = 0;
+        long found = 0;
+        String line = in.readLine();
+        while (line != null) {
+            int count = 0;
+            while (line != null && count < chunkSize) {
+                lineNumber++;
+                if (!line.isBlank()) {
+                    int tab = line.indexOf('\t');
+                    trackNames[count] = (tab < 0 ? line : line.substring(0, tab)).strip();
+                    artists[count] = tab < 0 || line.substring(tab + 1).isBlank() ? null
+                            : line.substring(tab + 1).strip();
+                    lineNumbers[count] = lineNumber;
+                    count++;
+                }
+                line = in.readLine();
+            }
+            resolve(catalog, trackNames, artists, ordinals, count);
+            for (int i = 0; i < count; i++) {
+                if (ordinals[i] < 0) {
+                    unmatched.write(lineNumbers[i] + "\t" + trackNames[i]
+                            + (artists[i] == null ? "" : "\t" + artists[i]) + "\n");
+                    continue;
+                }
+                SongLocation location = catalog.locateOrdinal(ordinals[i]);
+                //one writer per line, so the lines are separate JSON values
+                new JsonWriter(matched).beginObject().name("line").value(lineNumbers[i])
+                        .name("yearIndex").value(location.yearIndex())
+                        .name("songIndex").value(location.songIndex())
+                        .name("song").song(catalog.getSong(location.yearIndex(), location.songIndex()))
+                        .endObject();
+                matched.write('\n');
+                found++;
+            }
+            lines += count;
+        }
+        matched.flush();
+        unmatched.flush();
+        return new Report(lines, found, System.nanoTime() - start);
+    }
+
+    /**
+     * Helper method to resolve the first count track names into ordinals (-1 where none matches) on the pool
+     *
+     * @param catalog    catalog the track names are looked up in
+     * @param trackNames track names to resolve
+     * @param artists    artist of each track name (null where none is given), or null
+     * @param ordinals   receives the ordinal of each track name
+     * @param count      number of track names to resolve
+     */
+    private void resolve(SongCatalog catalog, String[] trackNames, String[] artists, int[] ordinals, int count) {
+        int partition = Math.max(MIN_PARTITION, count / (pool.getParallelism() * 4) + 1);
+        pool.invoke(new ResolveTask(catalog, trackNames, artists, ordinals, 0, count, partition));
+    }
+
+    /**
+     * Resolves a range of track names: small ranges are probed directly, larger ones are split in two
+     */
+    private static final class ResolveTask extends RecursiveAction {
+        /**
+         * catalog the track names are looked up in
+         */
+        private final SongCatalog catalog;
+        /**
+         * track names to resolve
+         */
+        private final String[] trackNames;
+        /**
+         * artist of each track name, or null
+         */
+        private final String[] artists;
+        /**
+         * receives the ordinal of each track name
+         */
+        private final int[] ordinals;
+        /**
+         * index of the first track name
+         */
+        private final int from;
+        /**
+         * index after the last track name
+         */
+        private final int to;
+        /**
+         * most track names resolved without splitting
+         */
+        private final int partition;
+
+        /**
+         * ResolveTask constructor resolves the track names at indexes [from, to)
+         *
+         * @param catalog    catalog the track names are looked up in
+         * @param trackNames track names to resolve
+         * @param artists    artist of each track name (null where none is given), or null
+         * @param ordinals   receives the ordinal of each track name
+         * @param from       index of the first track name
+         * @param to         index after the last track name
+         * @param partition  most track names resolved without splitting
+         */
+        private ResolveTask(SongCatalog catalog, String[] trackNames, String[] artists, int[] ordinals, int from,
+                            int to, int partition) {
+            this.catalog = catalog;
+            this.trackNames = trackNames;
+            this.artists = artists;
+            this.ordinals = ordinals;
+            this.from = from;
+            this.to = to;
+            this.partition = partition;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= partition) {
+                for (int i = from; i < to; i++) {
+                    ordinals[i] = catalog.resolveOrdinal(trackNames[i], artists == null ? null : artists[i]);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new ResolveTask(catalog, trackNames, artists, ordinals, from, mid, partition),
+                    new ResolveTask(catalog, trackNames, artists, ordinals, mid, to, partition));
+        }
+    }
+}
@@ -0,0 +1,114 @@
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PlaylistResolverTest {
+
+    @org.junit.jupiter.api.Test
+    void resolvesBatch() {
+
+        SongManager manager = new SongManager();
+        SongCatalog catalog = manager.getCatalog();
+        Song solo = null;
+        Song featuring = null;
+        for (int ordinal = 0; ordinal < catalog.getSongCount() && (solo == null || featuring == null); ordinal++) {
+            SongLocation location = catalog.locateOrdinal(ordinal);
+            Song song = manager.getSong(location.yearIndex(), location.songIndex());
+            if (catalog.findSongLocations(song.trackName()).length == 1) {
+                if (ArtistIndex.split(song.artistName()).length == 1) {
+                    solo = solo == null ? song : solo;
+                } else {
+                    featuring = featuring == null ? song : featuring;
+                }
+            }
+        }
+        String second = ArtistIndex.split(featuring.artistName())[1];
+        String[] trackNames = {solo.trackName(), solo.trackName(), featuring.trackName(), featuring.trackName(),
+                featuring.trackName(), "not a song", null};
+        String[] artists = {null, solo.artistName(), featuring.artistName(), second, solo.artistName(), null, null};
+        SongLocation[] locations = manager.resolve(trackNames, artists);
+        assertEquals(trackNames.length, locations.length);
+        assertEquals(catalog.findSongLocation(solo.trackName()), locations[0]);
+        assertEquals(locations[0], locations[1]);
+        assertEquals(catalog.findSongLocation(featuring.trackName()), locations[2]);
+        assertEquals(locations[2], locations[3]);
+        assertNull(locations[4]);
+        assertNull(locations[5]);
+        assertNull(locations[6]);
+        assertThrows(IllegalArgumentException.class, () -> manager.resolve(trackNames, new String[1]));
+
+        //without artists each track name resolves to the same song as findSongLocation
+        String[] every = new String[catalog.getSongCount()];
+        for (int ordinal = 0; ordinal < every.length; ordinal++) {
+            every[ordinal] = catalog.columns().trackName(catalog.rowAt(ordinal));
+        }
+        SongLocation[] resolved = new PlaylistResolver(new ForkJoinPool(4), 16).resolve(catalog, every, null);
+        for (int ordinal = 0; ordinal < every.length; ordinal++) {
+            assertEquals(catalog.findSongLocation(every[ordinal]), resolved[ordinal]);
+        }
+    }
+
+    @org.junit.jupiter.api.Test
+    void streamsInChunks() throws Exception {
+
+        SongCatalog catalog = new SongManager().getCatalog();
+        Song first = catalog.getSong(0, 0);
+        Song last = catalog.getSong(catalog.getYearCount() - 1, 0);
+        String input = first.trackName() + "\n"
+                + "\n"
+                + "missing song\tnobody\n"
+                + last.trackName() + "\t" + last.artistName() + "\n"
+                + first.trackName() + "\tnobody\n"
+                + "  " + last.trackName() + "  \n";
+        StringWriter matched = new StringWriter();
+        StringWriter unmatched = new StringWriter();
+        //a chunk of 2 lines splits the input across three chunks
+        PlaylistResolver.Report report = new PlaylistResolver(ForkJoinPool.commonPool(), 2)
+                .resolve(catalog, new BufferedReader(new StringReader(input)), matched, unmatched);
+        assertEquals(5, report.lines());
+        assertEquals(3, report.matched());
+        assertEquals(2, report.unmatched());
+        assertEquals("3\tmissing song\tnobody\n5\t" + first.trackName() + "\tnobody\n", unmatched.toString());
+        String[] lines = matched.toString().split("\n");
+        assertEquals(3, lines.length);
+        SongLocation location = catalog.findSongLocation(first.trackName());
+        assertTrue(lines[0].startsWith("{\"line\":1,\"yearIndex\":" + location.yearIndex() + ",\"songIndex\":"
+                + location.songIndex() + ",\"song\":{\"trackName\":"), lines[0]);
+        assertTrue(lines[1].startsWith("{\"line\":4,"), lines[1]);
+        assertTrue(lines[2].startsWith("{\"line\":6,"), lines[2]);
+        assertThrows(IllegalArgumentException.class, () -> new PlaylistResolver(ForkJoinPool.commonPool(), 0));
+    }
+
+    /**
+     * Measures batch lookups per second against the default catalog, half of them hits
+     */
+    @org.junit.jupiter.api.Test
+    @org.junit.jupiter.api.condition.EnabledIfSystemProperty(named = "songs.benchmarks", matches = "true")
+    void throughput() {
+
+        SongCatalog catalog = new SongManager().getCatalog();
+        int lookups = 1_000_000;
+        String[] trackNames = new String[lookups];
+        for (int i = 0; i < lookups; i++) {
+            trackNames[i] = (i & 1) == 0 ? catalog.columns().trackName(catalog.rowAt(i % catalog.getSongCount()))
+                    : "missing " + i;
+        }
+        PlaylistResolver resolver = new PlaylistResolver();
+        int found = 0;
+        double perSecond = 0;
+        for (int round = 0; round < 3; round++) {
+            long start = System.nanoTime();
+            found = 0;
+            for (SongLocation location : resolver.resolve(catalog, trackNames, null)) {
+                found += location == null ? 0 : 1;
+            }
+            perSecond = lookups * 1e9 / (System.nanoTime() - start);
+        }
+        System.out.printf("resolve: %,.0f lookups/s over %,d songs (%d threads)%n", perSecond,
+                catalog.getSongCount(), ForkJoinPool.commonPool().getParallelism());
+        assertEquals(lookups / 2, found);
+    }
+}
@@ -0,0 +1,769 @@
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * SimilarityIndex class that finds the songs that sound most like a song: the nearest neighbours of its audio
+ * feature vector (danceability, valence, energy, acousticness, instrumentalness, liveness and speechiness
+ * percentages, and the bpm scaled to the same 0 to 100 range) by squared Euclidean distance.
+ * The vectors are packed into one byte array, one column of the catalog after another, so a block of rows is
+ * compared one feature at a time.  HotSpot does not vectorize that loop on its own, so when the vector module's
+ * VectorDistanceKernel is on the class path and the JVM runs with --add-modules jdk.incubator.vector, blocks are
+ * compared with the Vector API a whole register of rows at a time; otherwise (or with -Dsongs.vector=false) a plain
+ * loop is used.  An exact search scans every row this way, in parallel on a fork/join pool, keeping the k best of
+ * each partition in a heap of packed (distance, row) longs; nothing is allocated per row.
+ * An approximate search uses an inverted file built on first use: the vectors are grouped around a few hundred
+ * k-means centroids, and only the rows of the centroids nearest the song are scanned, which reads a few percent
+ * of the rows at the cost of sometimes missing a neighbour near the edge of a group.
+ * The index stores row numbers, so it stays valid when the songs are re-sorted, but not when rows are appended.
+ *
+ * @author Bennett Fife
+ * @version 10/17/26
+ */
+public final class SimilarityIndex {
+
+    /**
+     * the columns of the feature vector, in order
+     */
+    static final SongColumn[] FEATURES = {SongColumn.DANCEABILITY, SongColumn.VALENCE, SongColumn.ENERGY,
+            SongColumn.ACOUSTICNESS, SongColumn.INSTRUMENTALNESS, SongColumn.LIVENESS, SongColumn.SPEECHINESS,
+            SongColumn.BPM};
+    /**
+     * centroids scanned by an approximate search unless another number is asked for
+     */
+    public static final int DEFAULT_PROBES = 8;
+
+    /**
+     * number of features in a vector
+     */
+    private static final int DIMENSIONS = FEATURES.length;
+    /**
+     * rows compared at a time
+     */
+    private static final int BLOCK = 1024;
+    /**
+     * smallest partition when the partition size is picked from the pool's parallelism
+     */
+    private static final int MIN_PARTITION = 1 << 15;
+    /**
+     * most centroids of the inverted file, and the rows per centroid it aims for below that
+     */
+    private static final int MAX_CENTROIDS = 256;
+    /**
+     * rows per centroid the inverted file aims for
+     */
+    private static final int ROWS_PER_CENTROID = 64;
+    /**
+     * k-means rounds run on a sample of at most SAMPLE_PER_CENTROID rows per centroid
+     */
+    private static final int ROUNDS = 8;
+    /**
+     * most sampled rows per centroid
+     */
+    private static final int SAMPLE_PER_CENTROID = 64;
+    /**
+     * VectorDistanceKernel.distances, or null if the Vector API is not available and the plain loop is used
+     */
+    private static final MethodHandle VECTOR_DISTANCES = vectorDistances();
+
+    /**
+     * song columns the features were read from
+     */
+    private final SongColumns columns;
+    /**
+     * number of rows indexed
+     */
+    private final int rowCount;
+    /**
+     * fork/join pool the exact search runs on
+     */
+    private final ForkJoinPool pool;
+    /**
+     * rows per partition, or 0 to pick it from the pool's parallelism
+     */
+    private final int partitionRows;
+    /**
+     * feature d of row r is features[d * rowCount + r], from 0 to 100
+     */
+    private final byte[] features;
+    /**
+     * built the first time an approximate search is run
+     */
+    private volatile Clusters clusters;
+
+    /**
+     * SimilarityIndex constructor indexes the first rows of the columns and searches on the common fork/join pool
+     *
+     * @param columns  song columns to index
+     * @param rowCount number of rows to index
+     */
+    public SimilarityIndex(SongColumns columns, int rowCount) {
+        this(columns, rowCount, ForkJoinPool.commonPool(), 0);
+    }
+
+    /**
+     * SimilarityIndex constructor with a fixed pool and partition size (so small catalogs can be split too)
+     *
+     * @param columns       song columns to index
+     * @param rowCount      number of rows to index
+     * @param pool          fork/join pool used for exact searches and for building the inverted file
+     * @param partitionRows rows per partition, or 0 to pick it from the pool's parallelism
+     */
+    SimilarityIndex(SongColumns columns, int rowCount, ForkJoinPool pool, int partitionRows) {
+        this.columns = columns;
+        this.rowCount = rowCount;
+        this.pool = pool;
+        this.partitionRows = partitionRows;
+        features = new byte[DIMENSIONS * rowCount];
+        long[] values = new long[BLOCK];
+        for (int d = 0; d < DIMENSIONS; d++) {
+            long min = Long.MAX_VALUE;
+            long max = Long.MIN_VALUE;
+            if (FEATURES[d] == SongColumn.BPM) {
+                for (int from = 0; from < rowCount; from += BLOCK) {
+                    int count = Math.min(BLOCK, rowCount - from);
+                    columns.get(SongColumn.BPM, from, values, count);
+                    for (int i = 0; i < count; i++) {
+                        min = Math.min(min, values[i]);
+                        max = Math.max(max, values[i]);
+                    }
+                }
+            } else {
+                min = 0;
+                max = 100;
+            }
+            long span = Math.max(1, max - min);
+            for (int from = 0; from < rowCount; from += BLOCK) {
+                int count = Math.min(BLOCK, rowCount - from);
+                columns.get(FEATURES[d], from, values, count);
+                for (int i = 0; i < count; i++) {
+                    long scaled = (Math.min(max, Math.max(min, values[i])) - min) * 100 / span;
+                    features[d * rowCount + from + i] = (byte) scaled;
+                }
+            }
+        }
+    }
+
+    /**
+     * Retrieves the number of rows indexed
+     *
+     * @return row count
+     */
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Retrieves the squared distance between the feature vectors of two rows
+     *
+     * @param row   row number
+     * @param other row number
+     * @return squared Euclidean distance, from 0 (the same features) to 80,000
+     */
+    public int distance(int row, int other) {
+        checkRow(row);
+        checkRow(other);
+        int distance = 0;
+        for (int d = 0; d < DIMENSIONS; d++) {
+            int difference = features[d * rowCount + row] - features[d * rowCount + other];
+            distance += difference * difference;
+        }
+        return distance;
+    }
+
+    /**
+     * Finds the rows whose features are nearest a row's, by comparing it with every row
+     *
+     * @param row    row number of the song to compare with (it is never returned)
+     * @param k      most rows returned
+     * @param filter restriction the returned rows must match (such as a release year range or key), or null
+     * @return row numbers, nearest first (ties in row order)
+     */
+    public int[] nearest(int row, int k, SongFilter filter) {
+        checkRow(row);
+        //the row itself is never returned, so a larger k only sizes the heaps past what can be found
+        k = Math.min(k, rowCount - 1);
+        if (k < 1) {
+            return new int[0];
+        }
+        int partition = partitionRows > 0 ? partitionRows
+                : Math.max(MIN_PARTITION, rowCount / (pool.getParallelism() * 4) + 1);
+        Nearest nearest = pool.invoke(new NearestTask(this, query(row), row, k, filter, 0, rowCount, partition));
+        return nearest.rows();
+    }
+
+    /**
+     * Finds rows whose features are near a row's by scanning only the groups of rows around the centroids nearest
+     * it.  The first call builds the groups.
+     *
+     * @param row    row number of the song to compare with (it is never returned)
+     * @param k      most rows returned
+     * @param filter restriction the returned rows must match, or null
+     * @param probes number of centroids whose rows are scanned; more finds more of the true neighbours but reads
+     *               more rows
+     * @return row numbers, nearest first (ties in row order)
+     */
+    public int[] nearestApproximate(int row, int k, SongFilter filter, int probes) {
+        checkRow(row);
+        if (probes < 1) {
+            throw new IllegalArgumentException("probes must be at least 1");
+        }
+        //the row itself is never returned, so a larger k only sizes the heaps past what can be found
+        k = Math.min(k, rowCount - 1);
+        if (k < 1) {
+            return new int[0];
+        }
+        Clusters groups = getClusters();
+        int[] query = query(row);
+        //the nearest centroids are picked with the same heap the rows are
+        Nearest nearestCentroids = new Nearest(Math.min(probes, groups.count));
+        for (int c = 0; c < groups.count; c++) {
+            int distance = 0;
+            for (int d = 0; d < DIMENSIONS; d++) {
+                int difference = groups.centroids[c * DIMENSIONS + d] - query[d];
+                distance += difference * difference;
+            }
+            nearestCentroids.offer(distance, c);
+        }
+        Nearest nearest = new Nearest(k);
+        int[] distances = new int[BLOCK];
+        for (int c : nearestCentroids.rows()) {
+            scan(groups.features, groups.rows, query, row, filter, groups.starts[c], groups.starts[c + 1],
+                    distances, nearest);
+        }
+        return nearest.rows();
+    }
+
+    /**
+     * Retrieves the number of groups in the inverted file, building it on the first call
+     *
+     * @return centroid count
+     */
+    public int getCentroidCount() {
+        return getClusters().count;
+    }
+
+    /**
+     * Helper method to retrieve the inverted file, building it on the first call
+     *
+     * @return inverted file of the index
+     */
+    private Clusters getClusters() {
+        Clusters groups = clusters;
+        if (groups == null) {
+            synchronized (this) {
+                groups = clusters;
+                if (groups == null) {
+                    groups = new Clusters();
+                    clusters = groups;
+                }
+            }
+        }
+        return groups;
+    }
+
+    /**
+     * Helper method to scan positions [from, to) of a packed feature array (with one column per dimension, each
+     * rows.length or rowCount long) and offer every row that matches the filter to the heap
+     *
+     * @param packed    feature array laid out like features
+     * @param rows      row number at each position, or null if the position is the row number
+     * @param query     feature vector to compare with
+     * @param skip      row never offered
+     * @param filter    filter a row must match, or null for every row
+     * @param from      first position scanned
+     * @param to        position after the last one scanned
+     * @param distances scratch buffer of BLOCK ints
+     * @param nearest   heap the rows are offered to
+     */
+    private void scan(byte[] packed, int[] rows, int[] query, int skip, SongFilter filter, int from, int to,
+                      int[] distances, Nearest nearest) {
+        int stride = rows == null ? rowCount : rows.length;
+        for (int start = from; start < to; start += BLOCK) {
+            int count = Math.min(BLOCK, to - start);
+            distances(packed, stride, start, count, query, distances);
+            for (int i = 0; i < count; i++) {
+                int row = rows == null ? start + i : rows[start + i];
+                if (nearest.accepts(distances[i], row) && row != skip
+                        && (filter == null || filter.matches(columns, row))) {
+                    nearest.offer(distances[i], row);
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks whether blocks are compared with the Vector API rather than the plain loop
+     *
+     * @return true if the vector module's kernel is used
+     */
+    static boolean isVectorized() {
+        return VECTOR_DISTANCES != null;
+    }
+
+    /**
+     * Works out the squared distance between a query and positions [start, start + count) of a packed feature array,
+     * with the Vector API kernel if it is available and the plain loop otherwise
+     *
+     * @param packed    feature array laid out like features, each column stride long
+     * @param stride    length of each column
+     * @param start     first position compared
+     * @param count     number of positions compared
+     * @param query     feature vector to compare with
+     * @param distances receives the distance of position start + i at index i
+     */
+    static void distances(byte[] packed, int stride, int start, int count, int[] query, int[] distances) {
+        if (VECTOR_DISTANCES == null) {
+            scalarDistances(packed, stride, start, count, query, distances);
+            return;
+        }
+        try {
+            VECTOR_DISTANCES.invokeExact(packed, stride, start, count, query, distances);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Works out the same distances as distances() with a plain loop, one feature at a time over the block
+     *
+     * @param packed    feature array laid out like features, each column stride long
+     * @param stride    length of each column
+     * @param start     first position compared
+     * @param count     number of positions compared
+     * @param query     feature vector to compare with
+     * @param distances receives the distance of position start + i at index i
+     */
+    static void scalarDistances(byte[] packed, int stride, int start, int count, int[] query, int[] distances) {
+        Arrays.fill(distances, 0, count, 0);
+        for (int d = 0; d < query.length; d++) {
+            int base = d * stride + start;
+            int value = query[d];
+            for (int i = 0; i < count; i++) {
+                int difference = packed[base + i] - value;
+                distances[i] += difference * difference;
+            }
+        }
+    }
+
+    /**
+     * Helper method to look up the Vector API kernel: only if jdk.incubator.vector is resolved, the kernel's class
+     * can be loaded, songs.vector is not false, and the kernel agrees with the plain loop on a small block
+     *
+     * @return the kernel's distances method, or null
+     */
+    private static MethodHandle vectorDistances() {
+        if ("false".equals(System.getProperty("songs.vector"))
+                || ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            return null;
+        }
+        try {
+            MethodHandle kernel = MethodHandles.publicLookup().findStatic(Class.forName("VectorDistanceKernel"),
+                    "distances", MethodType.methodType(void.class, byte[].class, int.class, int.class, int.class,
+                            int[].class, int[].class));
+            //two columns of 100 rows, so both the vector loop and its tail are checked
+            byte[] packed = new byte[DIMENSIONS * 100];
+            for (int i = 0; i < packed.length; i++) {
+                packed[i] = (byte) (i * 37 % 101);
+            }
+            int[] query = new int[DIMENSIONS];
+            for (int d = 0; d < DIMENSIONS; d++) {
+                query[d] = d * 13;
+            }
+            int[] expected = new int[99];
+            int[] actual = new int[99];
+            scalarDistances(packed, 100, 1, 99, query, expected);
+            kernel.invokeExact(packed, 100, 1, 99, query, actual);
+            return Arrays.equals(expected, actual) ? kernel : null;
+        } catch (Throwable e) {
+            //the class is missing, or jdk.incubator.vector cannot be linked on this JVM
+            return null;
+        }
+    }
+
+    /**
+     * Helper method to read a row's feature vector
+     *
+     * @param row row number
+     * @return feature vector of the row
+     */
+    private int[] query(int row) {
+        int[] query = new int[DIMENSIONS];
+        for (int d = 0; d < DIMENSIONS; d++) {
+            query[d] = features[d * rowCount + row];
+        }
+        return query;
+    }
+
+    /**
+     * Helper method to check that a row number is in range
+     *
+     * @param row row number
+     * @throws IllegalArgumentException if the row number is out of range
+     */
+    private void checkRow(int row) {
+        if (row < 0 || row >= rowCount) {
+            throw new IllegalArgumentException("row must be a valid index in the range 0 to count - 1");
+        }
+    }
+
+    /**
+     * The k nearest rows seen so far: a max-heap of {@code distance << 32 | row}, so the root is the worst row kept and
+     * ties are broken by row number
+     */
+    private static final class Nearest {
+        /**
+         * keys of the rows kept
+         */
+        private final long[] heap;
+        /**
+         * number of rows kept
+         */
+        private int size;
+
+        /**
+         * Nearest constructor keeps at most k rows
+         *
+         * @param k most rows kept
+         */
+        private Nearest(int k) {
+            heap = new long[k];
+        }
+
+        /**
+         * Helper method to check whether a row would be kept, before the more costly checks on it are made
+         *
+         * @param distance squared distance of the row
+         * @param row      row number
+         * @return true if offer() would keep the row
+         */
+        private boolean accepts(int distance, int row) {
+            return size < heap.length || key(distance, row) < heap[0];
+        }
+
+        /**
+         * Helper method to keep a row if it is nearer than the worst row kept, or fewer than k are kept
+         *
+         * @param distance squared distance of the row
+         * @param row      row number
+         */
+        private void offer(int distance, int row) {
+            long key = key(distance, row);
+            if (size < heap.length) {
+                int child = size++;
+                while (child > 0 && heap[(child - 1) >>> 1] < key) {
+                    heap[child] = heap[(child - 1) >>> 1];
+                    child = (child - 1) >>> 1;
+                }
+                heap[child] = key;
+            } else if (key < heap[0]) {
+                int parent = 0;
+                while (true) {
+                    int child = parent * 2 + 1;
+                    if (child >= size) {
+                        break;
+                    }
+                    if (child + 1 < size && heap[child + 1] > heap[child]) {
+                        child++;
+                    }
+                    if (heap[child] <= key) {
+                        break;
+                    }
+                    heap[parent] = heap[child];
+                    parent = child;
+                }
+                heap[parent] = key;
+            }
+        }
+
+        /**
+         * Helper method to offer every row another heap kept
+         *
+         * @param other heap whose rows are offered
+         */
+        private void addAll(Nearest other) {
+            for (int i = 0; i < other.size; i++) {
+                offer((int) (other.heap[i] >>> 32), (int) other.heap[i]);
+            }
+        }
+
+        /**
+         * Helper method to list the rows kept, nearest first
+         *
+         * @return row numbers, nearest first
+         */
+        private int[] rows() {
+            long[] sorted = Arrays.copyOf(heap, size);
+            Arrays.sort(sorted);
+            int[] rows = new int[size];
+            for (int i = 0; i < size; i++) {
+                rows[i] = (int) sorted[i];
+            }
+            return rows;
+        }
+
+        /**
+         * Helper method to pack a distance and row into one heap key
+         *
+         * @param distance squared distance of the row
+         * @param row      row number
+         * @return heap key that orders by distance, then by row
+         */
+        private static long key(int distance, int row) {
+            return (long) distance << 32 | row;
+        }
+    }
+
+    /**
+     * Scans a range of rows: small ranges are scanned directly, larger ones are split in two and their nearest rows
+     * merged
+     */
+    private static final class NearestTask extends RecursiveTask<Nearest> {
+        /**
+         * index whose rows are scanned
+         */
+        private final SimilarityIndex index;
+        /**
+         * feature vector to compare with
+         */
+        private final int[] query;
+        /**
+         * row never kept
+         */
+        private final int skip;
+        /**
+         * most rows kept
+         */
+        private final int k;
+        /**
+         * filter a row must match, or null for every row
+         */
+        private final SongFilter filter;
+        /**
+         * first row of the range
+         */
+        private final int from;
+        /**
+         * row after the last row of the range
+         */
+        private final int to;
+        /**
+         * most rows scanned without splitting
+         */
+        private final int partition;
+
+        /**
+         * NearestTask constructor scans rows [from, to) for the k rows nearest the query, leaving out row skip
+         *
+         * @param index     index whose rows are scanned
+         * @param query     feature vector to compare with
+         * @param skip      row never kept
+         * @param k         most rows kept
+         * @param filter    filter a row must match, or null for every row
+         * @param from      first row of the range
+         * @param to        row after the last row of the range
+         * @param partition most rows scanned without splitting
+         */
+        private NearestTask(SimilarityIndex index, int[] query, int skip, int k, SongFilter filter, int from, int to,
+                            int partition) {
+            this.index = index;
+            this.query = query;
+            this.skip = skip;
+            this.k = k;
+            this.filter = filter;
+            this.from = from;
+            this.to = to;
+            this.partition = partition;
+        }
+
+        @Override
+        protected Nearest compute() {
+            if (to - from <= partition) {
+                Nearest nearest = new Nearest(Math.min(k, to - from));
+                index.scan(index.features, null, query, skip, filter, from, to, new int[BLOCK], nearest);
+                return nearest;
+            }
+            int mid = (from + to) >>> 1;
+            NearestTask left = new NearestTask(index, query, skip, k, filter, from, mid, partition);
+            left.fork();
+            Nearest right = new NearestTask(index, query, skip, k, filter, mid, to, partition).compute();
+            Nearest merged = left.join();
+            //each half keeps no more rows than it has, so the merged heap may need room for more
+            if (merged.heap.length < Math.min(k, to - from)) {
+                Nearest larger = new Nearest(Math.min(k, to - from));
+                larger.addAll(merged);
+                merged = larger;
+            }
+            merged.addAll(right);
+            return merged;
+        }
+    }
+
+    /**
+     * The inverted file: the rows grouped by their nearest k-means centroid, with their features copied in group
+     * order so each group is scanned as contiguous memory
+     */
+    private final class Clusters {
+        /**
+         * number of centroids
+         */
+        private final int count;
+        /**
+         * feature d of centroid c is centroids[c * DIMENSIONS + d]
+         */
+        private final int[] centroids;
+        /**
+         * the rows of centroid c are rows[starts[c], starts[c + 1]), and their features are laid out like the
+         * index's, at the same positions
+         */
+        private final int[] starts;
+        /**
+         * rows in centroid order
+         */
+        private final int[] rows;
+        /**
+         * features of the rows in centroid order, one column per dimension, each rows.length long
+         */
+        private final byte[] features;
+
+        /**
+         * Clusters constructor groups the rows around centroids found by k-means on a sample of them
+         */
+        private Clusters() {
+            count = Math.max(1, Math.min(MAX_CENTROIDS, rowCount / ROWS_PER_CENTROID));
+            centroids = new int[count * DIMENSIONS];
+            //k-means on an evenly spread sample, starting from random sample rows (seeded, so it is repeatable)
+            int[] sample = new int[Math.min(rowCount, count * SAMPLE_PER_CENTROID)];
+            for (int i = 0; i < sample.length; i++) {
+                sample[i] = (int) ((long) i * rowCount / sample.length);
+            }
+            Random random = new Random(42);
+            for (int c = 0; c < count; c++) {
+                int row = sample.length == 0 ? 0 : sample[random.nextInt(sample.length)];
+                for (int d = 0; d < DIMENSIONS; d++) {
+                    centroids[c * DIMENSIONS + d] = rowCount == 0 ? 0 : SimilarityIndex.this.features[d * rowCount
+                            + row];
+                }
+            }
+            int[] assigned = new int[sample.length];
+            for (int round = 0; round < ROUNDS; round++) {
+                for (int i = 0; i < sample.length; i++) {
+                    assigned[i] = nearestCentroid(sample[i]);
+                }
+                long[] sums = new long[centroids.length];
+                int[] sizes = new int[count];
+                for (int i = 0; i < sample.length; i++) {
+                    sizes[assigned[i]]++;
+                    for (int d = 0; d < DIMENSIONS; d++) {
+                        sums[assigned[i] * DIMENSIONS + d] += SimilarityIndex.this.features[d * rowCount
+                                + sample[i]];
+                    }
+                }
+                for (int c = 0; c < count; c++) {
+                    //an empty group keeps its centroid
+                    for (int d = 0; d < DIMENSIONS && sizes[c] > 0; d++) {
+                        centroids[c * DIMENSIONS + d] = (int) ((sums[c * DIMENSIONS + d] + sizes[c] / 2) / sizes[c]);
+                    }
+                }
+            }
+
+            //every row goes to its nearest centroid; a counting sort lays the groups out one after another
+            //the rows are assigned a partition at a time on the pool
+            int[] groups = new int[rowCount];
+            int partition = Math.max(MIN_PARTITION, rowCount / (pool.getParallelism() * 4) + 1);
+            List<ForkJoinTask<?>> partitions = new ArrayList<>();
+            for (int from = 0; from < rowCount; from += partition) {
+                int start = from;
+                int end = Math.min(rowCount, from + partition);
+                partitions.add(ForkJoinTask.adapt(() -> assign(groups, start, end)));
+            }
+            pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(partitions)));
+            starts = new int[count + 1];
+            for (int row = 0; row < rowCount; row++) {
+                starts[groups[row] + 1]++;
+            }
+            for (int c = 0; c < count; c++) {
+                starts[c + 1] += starts[c];
+            }
+            int[] next = Arrays.copyOf(starts, count);
+            rows = new int[rowCount];
+            for (int row = 0; row < rowCount; row++) {
+                rows[next[groups[row]]++] = row;
+            }
+            features = new byte[DIMENSIONS * rowCount];
+            for (int d = 0; d < DIMENSIONS; d++) {
+                for (int position = 0; position < rowCount; position++) {
+                    features[d * rowCount + position] = SimilarityIndex.this.features[d * rowCount + rows[position]];
+                }
+            }
+        }
+
+        /**
+         * Helper method to find the nearest centroid of rows [from, to), comparing a block of rows with one centroid
+         * at a time the same way scan() does
+         *
+         * @param groups receives the centroid of each row, by row number
+         * @param from   first row assigned
+         * @param to     row after the last row assigned
+         */
+        private void assign(int[] groups, int from, int to) {
+            int[] distances = new int[BLOCK];
+            int[] best = new int[BLOCK];
+            byte[] packed = SimilarityIndex.this.features;
+            for (int start = from; start < to; start += BLOCK) {
+                int size = Math.min(BLOCK, to - start);
+                Arrays.fill(best, 0, size, Integer.MAX_VALUE);
+                for (int c = 0; c < count; c++) {
+                    Arrays.fill(distances, 0, size, 0);
+                    for (int d = 0; d < DIMENSIONS; d++) {
+                        int base = d * rowCount + start;
+                        int value = centroids[c * DIMENSIONS + d];
+                        for (int i = 0; i < size; i++) {
+                            int difference = packed[base + i] - value;
+                            distances[i] += difference * difference;
+                        }
+                    }
+                    for (int i = 0; i < size; i++) {
+                        if (distances[i] < best[i]) {
+                            best[i] = distances[i];
+                            groups[start + i] = c;
+                        }
+                    }
+                }
+            }
+        }
+
+        /**
+         * Helper method to find the centroid nearest a row of the index (the first one on ties)
+         *
+         * @param row row number
+         * @return centroid index
+         */
+        private int nearestCentroid(int row) {
+            int best = 0;
+            int bestDistance = Integer.MAX_VALUE;
+            for (int c = 0; c < count; c++) {
+                int distance = 0;
+                for (int d = 0; d < DIMENSIONS; d++) {
+                    int difference = centroids[c * DIMENSIONS + d] - SimilarityIndex.this.features[d * rowCount
+                            + row];
+                    distance += difference * difference;
+                }
+                if (distance < bestDistance) {
+                    best = c;
+                    bestDistance = distance;
+                }
+            }
+            return best;
+        }
+    }
+}
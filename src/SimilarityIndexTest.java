@@ -0,0 +1,212 @@
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SimilarityIndexTest {
+
+    @org.junit.jupiter.api.Test
+    void exactMatchesBruteForce() {
+
+        SongCatalog catalog = new SongManager().getCatalog();
+        SongColumns columns = catalog.columns();
+        int rowCount = catalog.getSongCount();
+        SimilarityIndex index = new SimilarityIndex(columns, rowCount, new ForkJoinPool(4), 64);
+        SongFilter minor = SongFilter.and(SongFilter.mode("Minor"), SongFilter.range(SongColumn.RELEASED_YEAR, 2010,
+                2023));
+        for (int row = 0; row < rowCount; row += 37) {
+            assertArrayEquals(bruteForce(index, columns, row, 10, null), index.nearest(row, 10, null));
+            assertArrayEquals(bruteForce(index, columns, row, 5, minor), index.nearest(row, 5, minor));
+        }
+        assertEquals(0, index.distance(3, 3));
+        assertEquals(index.distance(3, 4), index.distance(4, 3));
+        //more rows than one 64-row partition holds, so the partitions' heaps grow as they are merged
+        assertArrayEquals(bruteForce(index, columns, 0, 200, null), index.nearest(0, 200, null));
+        assertEquals(rowCount - 1, index.nearest(0, rowCount + 10, null).length);
+        assertEquals(rowCount - 1, index.nearest(0, Integer.MAX_VALUE, null).length);
+        assertEquals(0, index.nearest(0, 0, null).length);
+        assertThrows(IllegalArgumentException.class, () -> index.nearest(rowCount, 1, null));
+    }
+
+    @org.junit.jupiter.api.Test
+    void approximateSearch() {
+
+        SongCatalog catalog = new SongManager().getCatalog();
+        SongColumns columns = catalog.columns();
+        SimilarityIndex index = new SimilarityIndex(columns, catalog.getSongCount());
+        int centroids = index.getCentroidCount();
+        assertTrue(centroids > 1 && centroids <= catalog.getSongCount(), String.valueOf(centroids));
+        for (int row = 0; row < catalog.getSongCount(); row += 53) {
+            int[] approximate = index.nearestApproximate(row, 10, null, 2);
+            for (int i = 0; i < approximate.length; i++) {
+                assertTrue(approximate[i] != row);
+                assertTrue(i == 0 || index.distance(row, approximate[i - 1]) <= index.distance(row, approximate[i]));
+            }
+            //probing every centroid scans every row
+            assertArrayEquals(index.nearest(row, 10, null), index.nearestApproximate(row, 10, null, centroids));
+        }
+        assertThrows(IllegalArgumentException.class, () -> index.nearestApproximate(0, 10, null, 0));
+    }
+
+    @org.junit.jupiter.api.Test
+    void catalogAndManager() {
+
+        SongManager manager = new SongManager();
+        int yearIndex = manager.getYearCount() - 1;
+        SongLocation[] similar = manager.similar(yearIndex, 0, 5, null);
+        assertEquals(5, similar.length);
+        Song song = manager.getSong(yearIndex, 0);
+        for (SongLocation location : similar) {
+            assertTrue(!manager.getSong(location.yearIndex(), location.songIndex()).equals(song));
+        }
+        SongFilter sameYear = SongFilter.range(SongColumn.RELEASED_YEAR, 2022, 2022);
+        for (SongLocation location : manager.similarApproximate(yearIndex, 0, 5, sameYear)) {
+            assertEquals("2022", manager.getSong(location.yearIndex(), location.songIndex()).releasedYear());
+        }
+        assertThrows(IllegalArgumentException.class, () -> manager.similar(yearIndex, -1, 5, null));
+        //like topByStreams, a k past the catalog size returns every other song rather than sizing a heap for k
+        assertEquals(manager.getSongCount() - 1, manager.similar(yearIndex, 0, Integer.MAX_VALUE, null).length);
+        int approximate = manager.similarApproximate(yearIndex, 0, Integer.MAX_VALUE, null).length;
+        assertTrue(approximate > 0 && approximate < manager.getSongCount(), String.valueOf(approximate));
+
+        //re-sorting keeps the index but moves the songs
+        SongCatalog byStreams = manager.getCatalog().sorted(SortKey.STREAMS);
+        assertSame(manager.getCatalog().getSimilarityIndex(), byStreams.getSimilarityIndex());
+        Song first = manager.getSong(similar[0].yearIndex(), similar[0].songIndex());
+        SongLocation resorted = byStreams.similar(yearIndex, indexOf(byStreams, yearIndex, song), 5, null)[0];
+        assertEquals(first, byStreams.getSong(resorted.yearIndex(), resorted.songIndex()));
+    }
+
+    @org.junit.jupiter.api.Test
+    void distancesMatchPlainLoop() {
+
+        //the Vector API kernel when the JVM runs with --add-modules jdk.incubator.vector, the plain loop otherwise
+        SplittableRandom random = new SplittableRandom(22);
+        int stride = 3000;
+        byte[] packed = new byte[SimilarityIndex.FEATURES.length * stride];
+        for (int i = 0; i < packed.length; i++) {
+            packed[i] = (byte) random.nextInt(101);
+        }
+        int[] query = new int[SimilarityIndex.FEATURES.length];
+        int[] expected = new int[1024];
+        int[] actual = new int[1024];
+        for (int count : new int[]{0, 1, 7, 15, 16, 63, 64, 65, 1000, 1024}) {
+            for (int q = 0; q < query.length; q++) {
+                query[q] = random.nextInt(101);
+            }
+            int start = random.nextInt(stride - count + 1);
+            Arrays.fill(actual, -1);
+            SimilarityIndex.scalarDistances(packed, stride, start, count, query, expected);
+            SimilarityIndex.distances(packed, stride, start, count, query, actual);
+            assertArrayEquals(Arrays.copyOf(expected, count), Arrays.copyOf(actual, count), "count " + count);
+            for (int i = 0; i < count; i++) {
+                int distance = 0;
+                for (int d = 0; d < query.length; d++) {
+                    int difference = packed[d * stride + start + i] - query[d];
+                    distance += difference * difference;
+                }
+                assertEquals(distance, actual[i]);
+            }
+        }
+    }
+
+    @org.junit.jupiter.api.Test
+    void approximateRecall() throws Exception {
+
+        //large enough for many centroids, so most exact neighbours are only found if the right groups are probed
+        int rows = 20_000;
+        SimilarityIndex index = SongCsvGenerator.catalog(42, rows).getSimilarityIndex();
+        int queries = 50;
+        int k = 10;
+        int found = 0;
+        for (int q = 0; q < queries; q++) {
+            int row = q * (rows / queries);
+            found += recall(index, row, index.nearest(row, k, null),
+                    index.nearestApproximate(row, k, null, SimilarityIndex.DEFAULT_PROBES));
+        }
+        assertTrue(index.getCentroidCount() > SimilarityIndex.DEFAULT_PROBES);
+        assertTrue(found > queries * k / 2, String.valueOf(found));
+    }
+
+    /**
+     * Measures the latency of exact and approximate searches and how many of the exact neighbours the approximate
+     * search finds
+     */
+    @org.junit.jupiter.api.Test
+    @org.junit.jupiter.api.condition.EnabledIfSystemProperty(named = "songs.benchmarks", matches = "true")
+    void recallAndLatency() throws Exception {
+
+        int rows = SongCsvGenerator.benchmarkRows("similarity", 200_000);
+        SongCatalog catalog = SongCsvGenerator.catalog(42, rows);
+        SimilarityIndex index = catalog.getSimilarityIndex();
+        long start = System.nanoTime();
+        int centroids = index.getCentroidCount();
+        double buildMillis = (System.nanoTime() - start) / 1e6;
+        int queries = 200;
+        int k = 10;
+        long exactNanos = 0;
+        long approximateNanos = 0;
+        int found = 0;
+        for (int round = 0; round < 2; round++) {
+            exactNanos = 0;
+            approximateNanos = 0;
+            found = 0;
+            for (int q = 0; q < queries; q++) {
+                int row = (int) ((long) q * rows / queries);
+                start = System.nanoTime();
+                int[] exact = index.nearest(row, k, null);
+                exactNanos += System.nanoTime() - start;
+                start = System.nanoTime();
+                int[] approximate = index.nearestApproximate(row, k, null, SimilarityIndex.DEFAULT_PROBES);
+                approximateNanos += System.nanoTime() - start;
+                found += recall(index, row, exact, approximate);
+            }
+        }
+        System.out.printf("similar (%,d rows, %d centroids built in %.0f ms, vector kernel %b): exact %.0f us,"
+                        + " approximate %.0f us, recall@%d %.1f%%%n", rows, centroids, buildMillis,
+                SimilarityIndex.isVectorized(), exactNanos / 1e3 / queries, approximateNanos / 1e3 / queries, k,
+                found * 100.0 / (queries * k));
+        assertTrue(found > queries * k / 2);
+    }
+
+    /**
+     * Helper method to count the exact neighbours an approximate search found, counting a different row at the same
+     * distance as found
+     */
+    private static int recall(SimilarityIndex index, int row, int[] exact, int[] approximate) {
+        Set<Integer> distances = new HashSet<>();
+        for (int other : approximate) {
+            distances.add(index.distance(row, other));
+        }
+        int found = 0;
+        for (int other : exact) {
+            found += distances.contains(index.distance(row, other)) ? 1 : 0;
+        }
+        return found;
+    }
+
+    private static int[] bruteForce(SimilarityIndex index, SongColumns columns, int row, int k, SongFilter filter) {
+        Integer[] rows = new Integer[index.getRowCount()];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = i;
+        }
+        return Arrays.stream(rows)
+                .filter(other -> other != row && (filter == null || filter.matches(columns, other)))
+                .sorted(Comparator.<Integer>comparingInt(other -> index.distance(row, other))
+                        .thenComparingInt(other -> other))
+                .limit(k).mapToInt(Integer::intValue).toArray();
+    }
+
+    private static int indexOf(SongCatalog catalog, int yearIndex, Song song) {
+        for (int songIndex = 0; songIndex < catalog.getSongCount(yearIndex); songIndex++) {
+            if (catalog.getSong(yearIndex, songIndex).equals(song)) {
+                return songIndex;
+            }
+        }
+        return -1;
+    }
+}
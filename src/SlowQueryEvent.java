@@ -0,0 +1,32 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * SlowQueryEvent class that reports a SongManager query slower than its SongMetrics threshold to JDK Flight Recorder,
+ * so slow lookups show up in a recording next to the GC pauses and lock waits that may explain them.
+ *
+ * @author Bennett Fife
+ * @version 10/17/26
+ */
+@Name("songs.SlowQuery")
+@Label("Slow Song Query")
+@Category("Songs")
+@Description("A SongManager query that took longer than the slow query threshold")
+class SlowQueryEvent extends jdk.jfr.Event {
+
+    /**
+     * name of the SongManager method
+     */
+    @Label("Query")
+    String query;
+
+    /**
+     * time the query took
+     */
+    @Label("Query Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long queryTime;
+}
@@ -0,0 +1,424 @@
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * SongAggregator class that groups the songs of a catalog by one or more numeric keys and computes the count, sum,
+ * minimum, maximum and average of numeric columns for every group, on a fork/join pool.
+ * The rows are split into partitions; each partition reads its columns a block at a time into primitive buffers and
+ * adds them to its own hash table of groups, and the tables are merged pairwise as the partitions finish.
+ * Nothing is boxed and no lock is taken while the rows are read.
+ *
+ * @author Bennett Fife
+ * @version 10/17/26
+ */
+public class SongAggregator {
+
+    /**
+     * rows read into the buffers at a time
+     */
+    private static final int BLOCK = 1024;
+    /**
+     * smallest partition when the partition size is picked from the pool's parallelism
+     */
+    private static final int MIN_PARTITION = 1 << 16;
+
+    /**
+     * fork/join pool the partitions are aggregated on
+     */
+    private final ForkJoinPool pool;
+    /**
+     * rows per partition, or 0 to pick it from the pool's parallelism
+     */
+    private final int partitionRows;
+
+    /**
+     * SongAggregator constructor that aggregates on the common fork/join pool
+     */
+    public SongAggregator() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * SongAggregator constructor that aggregates on the specified pool
+     *
+     * @param pool fork/join pool used for aggregating
+     */
+    public SongAggregator(ForkJoinPool pool) {
+        this(pool, 0);
+    }
+
+    /**
+     * SongAggregator constructor with a fixed partition size (so small catalogs can be split too)
+     *
+     * @param pool          fork/join pool used for aggregating
+     * @param partitionRows rows per partition, or 0 to pick it from the pool's parallelism
+     */
+    SongAggregator(ForkJoinPool pool, int partitionRows) {
+        this.pool = pool;
+        this.partitionRows = partitionRows;
+    }
+
+    /**
+     * Groups the songs of a catalog and aggregates numeric columns for every group
+     *
+     * @param catalog  catalog whose songs are aggregated
+     * @param groupBy  keys to group by, in order; none puts every song in one group
+     * @param measures numeric columns to aggregate
+     * @return groups in ascending key order
+     */
+    public Aggregation aggregate(SongCatalog catalog, GroupKey[] groupBy, SongColumn[] measures) {
+        for (GroupKey key : groupBy) {
+            if (key == null) {
+                throw new IllegalArgumentException("group keys must not be null");
+            }
+        }
+        for (SongColumn measure : measures) {
+            if (measure == null) {
+                throw new IllegalArgumentException("measures must not be null");
+            }
+        }
+        //every row before the catalog's row count belongs to one of its years
+        int rowCount = catalog.getSongCount();
+        int partition = partitionRows > 0 ? partitionRows
+                : Math.max(MIN_PARTITION, rowCount / (pool.getParallelism() * 4) + 1);
+        Groups groups = pool.invoke(new AggregateTask(catalog.columns(), groupBy.clone(), measures.clone(), 0,
+                rowCount, partition));
+        return groups.toAggregation(groupBy.clone(), measures.clone());
+    }
+
+    /**
+     * Aggregates a range of rows: small ranges are read directly, larger ones are split in two and their groups
+     * merged
+     */
+    private static final class AggregateTask extends RecursiveTask<Groups> {
+        /**
+         * song columns read
+         */
+        private final SongColumns columns;
+        /**
+         * keys the songs are grouped by
+         */
+        private final GroupKey[] groupBy;
+        /**
+         * columns aggregated
+         */
+        private final SongColumn[] measures;
+        /**
+         * first row of the range
+         */
+        private final int from;
+        /**
+         * row after the last row of the range
+         */
+        private final int to;
+        /**
+         * most rows read without splitting
+         */
+        private final int partition;
+
+        /**
+         * AggregateTask constructor aggregates rows [from, to)
+         *
+         * @param columns   song columns read
+         * @param groupBy   keys the songs are grouped by
+         * @param measures  columns aggregated
+         * @param from      first row of the range
+         * @param to        row after the last row of the range
+         * @param partition most rows read without splitting
+         */
+        private AggregateTask(SongColumns columns, GroupKey[] groupBy, SongColumn[] measures, int from, int to,
+                              int partition) {
+            this.columns = columns;
+            this.groupBy = groupBy;
+            this.measures = measures;
+            this.from = from;
+            this.to = to;
+            this.partition = partition;
+        }
+
+        @Override
+        protected Groups compute() {
+            if (to - from <= partition) {
+                return scan();
+            }
+            int mid = (from + to) >>> 1;
+            AggregateTask left = new AggregateTask(columns, groupBy, measures, from, mid, partition);
+            left.fork();
+            Groups right = new AggregateTask(columns, groupBy, measures, mid, to, partition).compute();
+            Groups merged = left.join();
+            merged.addAll(right);
+            return merged;
+        }
+
+        /**
+         * Helper method to read the rows of this range a block at a time, one column at a time
+         *
+         * @return groups of the range
+         */
+        private Groups scan() {
+            Groups groups = new Groups(groupBy.length, measures.length);
+            long[][] keyValues = new long[groupBy.length][BLOCK];
+            long[][] measureValues = new long[measures.length][BLOCK];
+            int[] blockGroups = new int[BLOCK];
+            for (int row = from; row < to; row += BLOCK) {
+                int count = Math.min(BLOCK, to - row);
+                for (int k = 0; k < groupBy.length; k++) {
+                    columns.get(groupBy[k].column(), row, keyValues[k], count);
+                    if (groupBy[k].bucketWidth() != 1) {
+                        for (int i = 0; i < count; i++) {
+                            keyValues[k][i] = groupBy[k].bucket(keyValues[k][i]);
+                        }
+                    }
+                }
+                for (int i = 0; i < count; i++) {
+                    blockGroups[i] = groups.group(keyValues, i);
+                }
+                groups.count(blockGroups, count);
+                for (int m = 0; m < measures.length; m++) {
+                    columns.get(measures[m], row, measureValues[m], count);
+                    groups.add(m, blockGroups, measureValues[m], count);
+                }
+            }
+            return groups;
+        }
+    }
+
+    /**
+     * Open addressing hash table of groups.  The key values, counts and aggregates of group g are kept in parallel
+     * primitive arrays at g * keyCount and g * measureCount.
+     */
+    private static final class Groups {
+        /**
+         * number of key values per group
+         */
+        private final int keyCount;
+        /**
+         * number of measures per group
+         */
+        private final int measureCount;
+        /**
+         * group number + 1 for each slot, 0 for an empty slot; the length is a power of two
+         */
+        private int[] slots = new int[64];
+        /**
+         * number of groups
+         */
+        private int size;
+        /**
+         * key values of every group, keyCount per group
+         */
+        private long[] keys;
+        /**
+         * song count of every group
+         */
+        private long[] counts;
+        /**
+         * sum of every measure of every group, measureCount per group
+         */
+        private long[] sums;
+        /**
+         * minimum of every measure of every group, measureCount per group
+         */
+        private long[] mins;
+        /**
+         * maximum of every measure of every group, measureCount per group
+         */
+        private long[] maxs;
+
+        /**
+         * Groups constructor starts with room for 16 groups
+         *
+         * @param keyCount     number of key values per group
+         * @param measureCount number of measures per group
+         */
+        private Groups(int keyCount, int measureCount) {
+            this.keyCount = keyCount;
+            this.measureCount = measureCount;
+            int capacity = 16;
+            keys = new long[capacity * keyCount];
+            counts = new long[capacity];
+            sums = new long[capacity * measureCount];
+            mins = new long[capacity * measureCount];
+            maxs = new long[capacity * measureCount];
+        }
+
+        /**
+         * Finds the group of the key values at an index of the key buffers, adding it if it is new
+         *
+         * @param keyValues key buffers, one per key
+         * @param index     index of the key values in the buffers
+         * @return group number
+         */
+        private int group(long[][] keyValues, int index) {
+            long hash = 0;
+            for (int k = 0; k < keyCount; k++) {
+                hash = (hash + keyValues[k][index]) * 0x9E3779B97F4A7C15L;
+            }
+            int mask = slots.length - 1;
+            for (int slot = (int) (hash ^ (hash >>> 32)) & mask; ; slot = (slot + 1) & mask) {
+                int group = slots[slot] - 1;
+                if (group < 0) {
+                    group = newGroup();
+                    for (int k = 0; k < keyCount; k++) {
+                        keys[group * keyCount + k] = keyValues[k][index];
+                    }
+                    slots[slot] = group + 1;
+                    if (size * 2 > slots.length) {
+                        rehash();
+                    }
+                    return group;
+                }
+                if (sameKey(group, keyValues, index)) {
+                    return group;
+                }
+            }
+        }
+
+        /**
+         * Helper method to check whether a group has the key values at an index of a block
+         *
+         * @param group     group number
+         * @param keyValues key buffers, one per key
+         * @param index     index of the key values in the buffers
+         * @return true if every key value matches
+         */
+        private boolean sameKey(int group, long[][] keyValues, int index) {
+            for (int k = 0; k < keyCount; k++) {
+                if (keys[group * keyCount + k] != keyValues[k][index]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Helper method to add an empty group, growing the arrays if they are full
+         *
+         * @return number of the new group
+         */
+        private int newGroup() {
+            if (size == counts.length) {
+                int capacity = size * 2;
+                keys = Arrays.copyOf(keys, capacity * keyCount);
+                counts = Arrays.copyOf(counts, capacity);
+                sums = Arrays.copyOf(sums, capacity * measureCount);
+                mins = Arrays.copyOf(mins, capacity * measureCount);
+                maxs = Arrays.copyOf(maxs, capacity * measureCount);
+            }
+            int group = size++;
+            for (int m = 0; m < measureCount; m++) {
+                mins[group * measureCount + m] = Long.MAX_VALUE;
+                maxs[group * measureCount + m] = Long.MIN_VALUE;
+            }
+            return group;
+        }
+
+        /**
+         * Helper method to double the hash table and insert every group again
+         */
+        private void rehash() {
+            slots = new int[slots.length * 2];
+            int mask = slots.length - 1;
+            for (int group = 0; group < size; group++) {
+                long hash = 0;
+                for (int k = 0; k < keyCount; k++) {
+                    hash = (hash + keys[group * keyCount + k]) * 0x9E3779B97F4A7C15L;
+                }
+                int slot = (int) (hash ^ (hash >>> 32)) & mask;
+                while (slots[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                slots[slot] = group + 1;
+            }
+        }
+
+        /**
+         * Helper method to count the songs of a block in their groups
+         *
+         * @param blockGroups group of each song of the block
+         * @param count       number of songs in the block
+         */
+        private void count(int[] blockGroups, int count) {
+            for (int i = 0; i < count; i++) {
+                counts[blockGroups[i]]++;
+            }
+        }
+
+        /**
+         * Adds a block of values of one measure to their groups
+         *
+         * @param measure     measure index
+         * @param blockGroups group of each song of the block
+         * @param values      value of the measure for each song of the block
+         * @param count       number of songs in the block
+         */
+        private void add(int measure, int[] blockGroups, long[] values, int count) {
+            for (int i = 0; i < count; i++) {
+                int at = blockGroups[i] * measureCount + measure;
+                long value = values[i];
+                sums[at] += value;
+                if (value < mins[at]) {
+                    mins[at] = value;
+                }
+                if (value > maxs[at]) {
+                    maxs[at] = value;
+                }
+            }
+        }
+
+        /**
+         * Merges the groups of another table into this one
+         *
+         * @param other groups merged in; not changed
+         */
+        private void addAll(Groups other) {
+            long[][] keyValues = new long[keyCount][1];
+            for (int otherGroup = 0; otherGroup < other.size; otherGroup++) {
+                for (int k = 0; k < keyCount; k++) {
+                    keyValues[k][0] = other.keys[otherGroup * keyCount + k];
+                }
+                int group = group(keyValues, 0);
+                counts[group] += other.counts[otherGroup];
+                for (int m = 0; m < measureCount; m++) {
+                    int at = group * measureCount + m;
+                    int otherAt = otherGroup * measureCount + m;
+                    sums[at] += other.sums[otherAt];
+                    mins[at] = Math.min(mins[at], other.mins[otherAt]);
+                    maxs[at] = Math.max(maxs[at], other.maxs[otherAt]);
+                }
+            }
+        }
+
+        /**
+         * Copies the groups, in ascending key order, into an Aggregation
+         *
+         * @param groupBy  keys the songs were grouped by
+         * @param measures columns aggregated
+         * @return groups in ascending key order
+         */
+        private Aggregation toAggregation(GroupKey[] groupBy, SongColumn[] measures) {
+            Integer[] order = new Integer[size];
+            for (int group = 0; group < size; group++) {
+                order[group] = group;
+            }
+            //sorted once per aggregation over the (few) groups, not per row
+            Arrays.sort(order, (a, b) -> Arrays.compare(keys, a * keyCount, (a + 1) * keyCount,
+                    keys, b * keyCount, (b + 1) * keyCount));
+            long[] sortedKeys = new long[size * keyCount];
+            long[] sortedCounts = new long[size];
+            long[] sortedSums = new long[size * measureCount];
+            long[] sortedMins = new long[size * measureCount];
+            long[] sortedMaxs = new long[size * measureCount];
+            for (int i = 0; i < size; i++) {
+                int group = order[i];
+                System.arraycopy(keys, group * keyCount, sortedKeys, i * keyCount, keyCount);
+                sortedCounts[i] = counts[group];
+                System.arraycopy(sums, group * measureCount, sortedSums, i * measureCount, measureCount);
+                System.arraycopy(mins, group * measureCount, sortedMins, i * measureCount, measureCount);
+                System.arraycopy(maxs, group * measureCount, sortedMaxs, i * measureCount, measureCount);
+            }
+            return new Aggregation(groupBy, measures, sortedKeys, sortedCounts, sortedSums, sortedMins, sortedMaxs);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SongAggregatorTest {
+
+    private static final GroupKey[][] GROUPINGS = {
+            {GroupKey.of(SongColumn.RELEASED_YEAR), GroupKey.of(SongColumn.RELEASED_MONTH)},
+            {GroupKey.of(SongColumn.KEY), GroupKey.of(SongColumn.MODE)},
+            {GroupKey.bucketed(SongColumn.IN_SPOTIFY_PLAYLISTS, 1000)},
+            {GroupKey.bucketed(SongColumn.RELEASED_YEAR, 10), GroupKey.of(SongColumn.MODE),
+                    GroupKey.bucketed(SongColumn.BPM, 20)},
+            {}};
+    private static final SongColumn[] MEASURES = {SongColumn.STREAMS, SongColumn.DANCEABILITY, SongColumn.ENERGY,
+            SongColumn.VALENCE};
+    /**
+     * order of the expected keys, the same as the group order of an Aggregation
+     */
+    private static final Comparator<List<Long>> KEY_ORDER = (a, b) -> {
+        for (int i = 0; i < a.size(); i++) {
+            int compare = Long.compare(a.get(i), b.get(i));
+            if (compare != 0) {
+                return compare;
+            }
+        }
+        return 0;
+    };
+
+    @org.junit.jupiter.api.Test
+    void matchesLinearScan() throws Exception {
+
+        SongCatalog catalog = SongCsvGenerator.catalog(7, 20_000);
+        //small partitions, so the partial groups of many partitions are merged
+        SongAggregator aggregator = new SongAggregator(ForkJoinPool.commonPool(), 1_000);
+        for (GroupKey[] groupBy : GROUPINGS) {
+            assertMatchesScan(catalog, groupBy, aggregator.aggregate(catalog, groupBy, MEASURES));
+            assertMatchesScan(catalog, groupBy, catalog.aggregate(groupBy, MEASURES));
+        }
+    }
+
+    @org.junit.jupiter.api.Test
+    void realCatalog() {
+
+        SongManager manager = new SongManager();
+        Aggregation byYear = manager.aggregate(new GroupKey[]{GroupKey.of(SongColumn.RELEASED_YEAR)},
+                SongColumn.STREAMS);
+        assertEquals(manager.getYearCount(), byYear.getGroupCount());
+        long songs = 0;
+        for (int group = 0; group < byYear.getGroupCount(); group++) {
+            assertEquals(manager.getYearName(group), String.valueOf(byYear.getKey(group, 0)));
+            assertEquals(manager.getSongCount(group), byYear.getCount(group));
+            songs += byYear.getCount(group);
+        }
+        assertEquals(manager.getSongCount(), songs);
+        //the most streamed song's streams pass 2^31 and are summed as longs
+        int group2019 = byYear.findGroup(2019);
+        assertEquals(3_703_895_074L, byYear.getMax(group2019, SongColumn.STREAMS));
+        assertTrue(byYear.getSum(group2019, SongColumn.STREAMS) > Integer.MAX_VALUE);
+        assertEquals(-1, byYear.findGroup(1800));
+        assertThrows(IllegalArgumentException.class, () -> byYear.getSum(0, SongColumn.BPM));
+        assertThrows(IllegalArgumentException.class, () -> byYear.findGroup(2019, 1));
+    }
+
+    /**
+     * Helper method to check an aggregation against a scan of every song
+     */
+    private static void assertMatchesScan(SongCatalog catalog, GroupKey[] groupBy, Aggregation aggregation) {
+        TreeMap<List<Long>, List<long[]>> expected = new TreeMap<>(KEY_ORDER);
+        for (int yearIndex = 0; yearIndex < catalog.getYearCount(); yearIndex++) {
+            for (int songIndex = 0; songIndex < catalog.getSongCount(yearIndex); songIndex++) {
+                List<Long> key = new ArrayList<>();
+                for (GroupKey groupKey : groupBy) {
+                    key.add(Math.floorDiv(catalog.getValue(groupKey.column(), yearIndex, songIndex),
+                            groupKey.bucketWidth()) * groupKey.bucketWidth());
+                }
+                long[] values = new long[MEASURES.length];
+                for (int m = 0; m < MEASURES.length; m++) {
+                    values[m] = catalog.getValue(MEASURES[m], yearIndex, songIndex);
+                }
+                expected.computeIfAbsent(key, k -> new ArrayList<>()).add(values);
+            }
+        }
+        assertEquals(expected.size(), aggregation.getGroupCount());
+        int group = 0;
+        for (var entry : expected.entrySet()) {
+            for (int k = 0; k < groupBy.length; k++) {
+                assertEquals((long) entry.getKey().get(k), aggregation.getKey(group, k));
+            }
+            assertEquals(group, aggregation.findGroup(entry.getKey().stream().mapToLong(Long::longValue).toArray()));
+            List<long[]> rows = entry.getValue();
+            assertEquals(rows.size(), aggregation.getCount(group));
+            for (int m = 0; m < MEASURES.length; m++) {
+                int measure = m;
+                long sum = rows.stream().mapToLong(values -> values[measure]).sum();
+                assertEquals(sum, aggregation.getSum(group, MEASURES[m]));
+                assertEquals(rows.stream().mapToLong(values -> values[measure]).min().getAsLong(),
+                        aggregation.getMin(group, MEASURES[m]));
+                assertEquals(rows.stream().mapToLong(values -> values[measure]).max().getAsLong(),
+                        aggregation.getMax(group, MEASURES[m]));
+                assertEquals((double) sum / rows.size(), aggregation.getAverage(group, MEASURES[m]), 1e-9);
+            }
+            group++;
+        }
+    }
+}
@@ -0,0 +1,1615 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
+
+/**
+ * SongCatalog class that holds one immutable version of a SongManager's songs and year data.
+ * Nothing in a catalog changes after it is built: sorting and appending build a new catalog that shares whatever it
+ * did not change, so a catalog can be read by any number of threads without locks and always gives a consistent view.
+ *
+ * @author Bennett Fife
+ * @version 10/17/26
+ */
+public final class SongCatalog implements SongManagerInterface {
+
+    /**
+     * load progress reported once the songs are parsed (or the snapshot is open), sorted, and saved
+     */
+    private static final int PARSED_PERCENT = 60;
+    /**
+     * load progress reported once the songs are sorted
+     */
+    private static final int SORTED_PERCENT = 75;
+    /**
+     * load progress reported once the snapshot is saved, or the partitions are merged
+     */
+    private static final int SAVED_PERCENT = 85;
+
+    /**
+     * song columns; rows at or after rowCount may be written by a newer catalog and are never read
+     */
+    private final SongColumns columns;
+    /**
+     * number of rows of columns in this catalog
+     */
+    private final int rowCount;
+    /**
+     * release years in ascending order
+     */
+    private final String[] releaseYears;
+    /**
+     * numeric release years, parallel to releaseYears
+     */
+    private final int[] yearValues;
+    /**
+     * row numbers into columns for each release year, in sorted order
+     */
+    private final int[][] yearRows;
+    /**
+     * row numbers into columns for each release year, most streamed first (the same arrays as yearRows when the
+     * songs are sorted by streams)
+     */
+    private final int[][] yearRanks;
+    /**
+     * number of songs in all release years before each release year
+     */
+    private final int[] yearOffsets;
+    /**
+     * number of songs in all release years
+     */
+    private final int totalSongCount;
+    /**
+     * order the songs of each release year are sorted in
+     */
+    private final SortKey sortKey;
+    /**
+     * order of sortKey, comparing row numbers
+     */
+    private final SongSorter.RowComparator order;
+    /**
+     * most streamed first, comparing row numbers
+     */
+    private final SongSorter.RowComparator streamOrder;
+    /**
+     * rows of each exact track name
+     */
+    private final TrackNameIndex trackNameIndex;
+    /**
+     * rows of each single artist
+     */
+    private final ArtistIndex artistIndex;
+    /**
+     * the source file of each range of rows, in row order, covering every row before rowCount
+     */
+    private final SongPartition[] partitions;
+    /**
+     * order of COLLATED_TRACK_NAME
+     */
+    private final TrackNameCollation collation;
+    /**
+     * built the first time the songs are sorted or searched in collation order, and kept up to date on appends
+     */
+    private volatile CollationKeys collationKeys;
+    /**
+     * built the first time the catalog is searched
+     */
+    private volatile SongSearchIndex searchIndex;
+    /**
+     * built the first time the catalog is filtered
+     */
+    private volatile FeatureIndex featureIndex;
+    /**
+     * built the first time similar songs are asked for, and rebuilt after rows are appended
+     */
+    private volatile SimilarityIndex similarityIndex;
+    /**
+     * position of each row in year and song order, built the first time many rows are located at once
+     */
+    private volatile int[] ordinals;
+
+    /**
+     * SongCatalog constructor; the catalog is built with build() or derived from another catalog
+     *
+     * @param columns        song columns
+     * @param rowCount       number of rows of columns in the catalog
+     * @param releaseYears   release years in ascending order
+     * @param yearRows       rows of each release year, in sortKey order
+     * @param yearRanks      rows of each release year, most streamed first
+     * @param sortKey        order the songs of each release year are sorted in
+     * @param trackNameIndex rows of each exact track name
+     * @param artistIndex    rows of each single artist
+     * @param searchIndex    search index, or null to build it when first searched
+     * @param featureIndex   feature index, or null to build it when first filtered
+     * @param partitions     source file of each range of rows
+     * @param collation      order of COLLATED_TRACK_NAME
+     * @param collationKeys  collation keys, or null to build them when first needed
+     */
+    private SongCatalog(SongColumns columns, int rowCount, String[] releaseYears, int[][] yearRows, int[][] yearRanks,
+                        SortKey sortKey, TrackNameIndex trackNameIndex, ArtistIndex artistIndex,
+                        SongSearchIndex searchIndex, FeatureIndex featureIndex, SongPartition[] partitions,
+                        TrackNameCollation collation, CollationKeys collationKeys) {
+        this.columns = columns;
+        this.rowCount = rowCount;
+        this.releaseYears = releaseYears;
+        this.yearRows = yearRows;
+        this.yearRanks = yearRanks;
+        this.sortKey = sortKey;
+        this.order = SongSorter.comparator(columns, sortKey, collationKeys);
+        this.streamOrder = SongSorter.comparator(columns, SortKey.STREAMS);
+        this.trackNameIndex = trackNameIndex;
+        this.artistIndex = artistIndex;
+        this.searchIndex = searchIndex;
+        this.featureIndex = featureIndex;
+        this.partitions = partitions;
+        this.collation = collation;
+        this.collationKeys = collationKeys;
+        yearValues = new int[releaseYears.length];
+        for (int i = 0; i < releaseYears.length; i++) {
+            yearValues[i] = Integer.parseInt(releaseYears[i]);
+        }
+        yearOffsets = new int[yearRows.length];
+        int offset = 0;
+        for (int yearIndex = 0; yearIndex < yearRows.length; yearIndex++) {
+            yearOffsets[yearIndex] = offset;
+            offset += yearRows[yearIndex].length;
+        }
+        totalSongCount = offset;
+    }
+
+    /**
+     * Loads a catalog from a song file, sorted by track name.  The CatalogSnapshot of the file is opened if it is
+     * current; otherwise the file is parsed, sorted, and (if snapshots are used) saved as a new snapshot.
+     *
+     * @param spotifySongsPath path of a 'spotify-2023.csv' shaped song file
+     * @param useSnapshot      true to open (or else write) the CatalogSnapshot of the song file
+     * @return new catalog
+     */
+    public static SongCatalog load(String spotifySongsPath, boolean useSnapshot) {
+        return load(spotifySongsPath, useSnapshot, percent -> {
+        });
+    }
+
+    /**
+     * Loads a catalog from a song file, sorted by track name, reporting how far along the load is.  Parsing reports
+     * as each chunk of the file is finished; sorting, writing the snapshot and indexing report when they are done.
+     *
+     * @param spotifySongsPath path of a 'spotify-2023.csv' shaped song file
+     * @param useSnapshot      true to open (or else write) the CatalogSnapshot of the song file
+     * @param progress         told the percentage done, from 0 to 100, never decreasing; it may be called from
+     *                         parsing threads
+     * @return new catalog
+     */
+    public static SongCatalog load(String spotifySongsPath, boolean useSnapshot, IntConsumer progress) {
+        return load(spotifySongsPath, useSnapshot, SongStorage.HEAP, progress);
+    }
+
+    /**
+     * Loads a catalog from a song file, sorted by track name, and keeps its rows in the specified storage.  Off-heap
+     * rows are parsed and sorted on the heap first, then copied out, so the heap must still fit them while loading.
+     *
+     * @param spotifySongsPath path of a 'spotify-2023.csv' shaped song file
+     * @param useSnapshot      true to open (or else write) the CatalogSnapshot of the song file
+     * @param storage          where the rows are kept once the catalog is built
+     * @param progress         told the percentage done, from 0 to 100, never decreasing; it may be called from
+     *                         parsing threads
+     * @return new catalog
+     */
+    public static SongCatalog load(String spotifySongsPath, boolean useSnapshot, SongStorage storage,
+                                   IntConsumer progress) {
+        return load(spotifySongsPath, useSnapshot, storage, progress, new SongMetrics());
+    }
+
+    /**
+     * Loads a catalog from a song file, recording how long each stage takes in metrics and reporting the load to
+     * JDK Flight Recorder as a SongLoadEvent.  The path may also name several song files, as a directory or a glob
+     * (see SongSources): each file is then loaded (from its own CatalogSnapshot if it is current) as a separate task
+     * on the fork/join pool, so the files load in about the time of the largest, and their rows are merged into
+     * one set of release years, with a SongPartition for each file.
+     *
+     * @param spotifySongsPath path of a 'spotify-2023.csv' shaped song file, or a directory or glob of them
+     * @param useSnapshot      true to open (or else write) the CatalogSnapshot of the song file
+     * @param storage          where the rows are kept once the catalog is built
+     * @param progress         told the percentage done, from 0 to 100, never decreasing; it may be called from
+     *                         parsing threads
+     * @param metrics          metrics the stage timings replace the previous load's in
+     * @return new catalog
+     */
+    public static SongCatalog load(String spotifySongsPath, boolean useSnapshot, SongStorage storage,
+                                   IntConsumer progress, SongMetrics metrics) {
+        SongLoadEvent event = new SongLoadEvent();
+        event.begin();
+        event.path = spotifySongsPath;
+        event.storage = storage.name();
+        metrics.startLoad();
+        List<Path> sources = SongSources.resolve(spotifySongsPath);
+        progress.accept(0);
+        if (sources.size() > 1) {
+            return loadPartitions(sources, useSnapshot, storage, progress, metrics, event);
+        }
+        Path source = sources.get(0);
+        event.partitions = 1;
+        long start = System.nanoTime();
+        CatalogSnapshot snapshot = useSnapshot ? CatalogSnapshot.open(source) : null;
+        if (snapshot != null) {
+            //the snapshot is already sorted by track name
+            SongColumns columns = snapshot.getColumns();
+            event.fromSnapshot = true;
+            event.openSnapshotTime = metrics.recordPhase(SongMetrics.Phase.OPEN_SNAPSHOT, start,
+                    columns.getRowCount());
+            progress.accept(PARSED_PERCENT);
+            start = System.nanoTime();
+            SongCatalog catalog = build(columns, snapshot.getReleaseYears(), snapshot.getYearRows(), storage,
+                    new SongPartition[]{partition(source, 0, columns.getRowCount(), snapshot.getReleaseYears())});
+            event.buildIndexesTime = metrics.recordPhase(SongMetrics.Phase.BUILD_INDEXES, start,
+                    columns.getRowCount());
+            progress.accept(100);
+            event.rows = columns.getRowCount();
+            event.commit();
+            return catalog;
+        }
+        start = System.nanoTime();
+        CatalogSnapshot.Stamp stamp = useSnapshot ? stamp(source) : null;
+        SongLoader loader = new SongLoader();
+        long size = source.toFile().length();
+        AtomicLong parsed = new AtomicLong();
+        loader.loadMapped(spotifySongsPath, bytes -> {
+            //chunks finish in any order, so report the total so far rather than this chunk
+            synchronized (parsed) {
+                long total = parsed.addAndGet(bytes);
+                progress.accept((int) (PARSED_PERCENT * Math.min(total, size) / Math.max(1, size)));
+            }
+        });
+        SongColumns columns = loader.getColumns();
+        int rows = columns.getRowCount();
+        event.parseTime = metrics.recordPhase(SongMetrics.Phase.PARSE, start, rows);
+        int[][] yearRows = loader.getYearRows();
+        //sort songs by track name for each year
+        start = System.nanoTime();
+        new SongSorter().sort(columns, yearRows, SortKey.TRACK_NAME);
+        event.sortTime = metrics.recordPhase(SongMetrics.Phase.SORT, start, rows);
+        progress.accept(SORTED_PERCENT);
+        if (stamp != null) {
+            start = System.nanoTime();
+            try {
+                //not written if the file changed while it was parsed
+                CatalogSnapshot.write(source, stamp, columns, loader.getReleaseYears(), yearRows);
+            } catch (IOException e) {
+                System.err.println("Could not write the catalog snapshot: " + e.getMessage());
+            }
+            event.writeSnapshotTime = metrics.recordPhase(SongMetrics.Phase.WRITE_SNAPSHOT, start, rows);
+        }
+        progress.accept(SAVED_PERCENT);
+        start = System.nanoTime();
+        SongCatalog catalog = build(columns, loader.getReleaseYears(), yearRows, storage,
+                new SongPartition[]{partition(source, 0, rows, loader.getReleaseYears())});
+        event.buildIndexesTime = metrics.recordPhase(SongMetrics.Phase.BUILD_INDEXES, start, rows);
+        progress.accept(100);
+        event.rows = rows;
+        event.invalidRows = columns.getInvalidRows().length;
+        event.commit();
+        return catalog;
+    }
+
+    /**
+     * Helper method to load several song files as the partitions of one catalog.  Every file is loaded on its own
+     * task; the columns are then appended one after another and the sorted rows of each release year merged.
+     *
+     * @param sources     song files, one per partition
+     * @param useSnapshot true to open (or else write) the CatalogSnapshot of each file
+     * @param storage     where the rows are kept once the catalog is built
+     * @param progress    told the percentage done, from 0 to 100, never decreasing
+     * @param metrics     metrics the stage timings are recorded in
+     * @param event       load event the timings and counts are set on and committed
+     * @return catalog of the songs of every file
+     */
+    private static SongCatalog loadPartitions(List<Path> sources, boolean useSnapshot, SongStorage storage,
+                                              IntConsumer progress, SongMetrics metrics, SongLoadEvent event) {
+        long start = System.nanoTime();
+        long size = 0;
+        for (Path source : sources) {
+            size += source.toFile().length();
+        }
+        long totalSize = size;
+        AtomicLong parsed = new AtomicLong();
+        LongConsumer parsedBytes = bytes -> {
+            synchronized (parsed) {
+                long total = parsed.addAndGet(bytes);
+                progress.accept((int) (PARSED_PERCENT * Math.min(total, totalSize) / Math.max(1, totalSize)));
+            }
+        };
+        List<ForkJoinTask<LoadedFile>> tasks = new ArrayList<>();
+        for (Path source : sources) {
+            tasks.add(ForkJoinTask.adapt(() -> loadFile(source, useSnapshot, parsedBytes)));
+        }
+        ForkJoinPool.commonPool().invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(tasks)));
+        LoadedFile[] files = new LoadedFile[tasks.size()];
+        int rows = 0;
+        for (int i = 0; i < files.length; i++) {
+            files[i] = tasks.get(i).join();
+            rows += files[i].columns().getRowCount();
+            event.fromSnapshot |= files[i].fromSnapshot();
+        }
+        event.loadPartitionsTime = metrics.recordPhase(SongMetrics.Phase.LOAD_PARTITIONS, start, rows);
+        progress.accept(PARSED_PERCENT);
+
+        start = System.nanoTime();
+        HeapSongColumns columns = new HeapSongColumns(rows);
+        SongPartition[] partitions = new SongPartition[files.length];
+        for (int i = 0; i < files.length; i++) {
+            int first = columns.addAll(files[i].columns());
+            partitions[i] = partition(sources.get(i), first, files[i].columns().getRowCount(),
+                    files[i].releaseYears());
+        }
+        //each file's years are already sorted, so the years of all files are merged rather than sorted again
+        SongSorter.RowComparator order = SongSorter.comparator(columns, SortKey.TRACK_NAME);
+        TreeMap<Integer, int[]> years = new TreeMap<>();
+        for (int i = 0; i < files.length; i++) {
+            int first = partitions[i].firstRow();
+            for (int yearIndex = 0; yearIndex < files[i].releaseYears().length; yearIndex++) {
+                int[] yearRows = files[i].yearRows()[yearIndex].clone();
+                for (int j = 0; j < yearRows.length; j++) {
+                    yearRows[j] += first;
+                }
+                years.merge(Integer.parseInt(files[i].releaseYears()[yearIndex]), yearRows,
+                        (merged, next) -> SongSorter.mergeRuns(merged, next, order));
+            }
+        }
+        String[] releaseYears = new String[years.size()];
+        int[][] yearRows = new int[years.size()][];
+        int yearIndex = 0;
+        for (Map.Entry<Integer, int[]> year : years.entrySet()) {
+            releaseYears[yearIndex] = SongColumns.numberName(year.getKey());
+            yearRows[yearIndex++] = year.getValue();
+        }
+        event.mergePartitionsTime = metrics.recordPhase(SongMetrics.Phase.MERGE_PARTITIONS, start, rows);
+        progress.accept(SAVED_PERCENT);
+
+        start = System.nanoTime();
+        SongCatalog catalog = build(columns, releaseYears, yearRows, storage, partitions);
+        event.buildIndexesTime = metrics.recordPhase(SongMetrics.Phase.BUILD_INDEXES, start, rows);
+        progress.accept(100);
+        event.partitions = files.length;
+        event.rows = rows;
+        event.invalidRows = columns.getInvalidRows().length;
+        event.commit();
+        return catalog;
+    }
+
+    /**
+     * the rows of one song file, sorted by track name within each release year
+     *
+     * @param columns      song columns of the file
+     * @param releaseYears release years in ascending order
+     * @param yearRows     rows of each release year, sorted by track name
+     * @param fromSnapshot true if the rows were read from the file's snapshot
+     */
+    private record LoadedFile(SongColumns columns, String[] releaseYears, int[][] yearRows, boolean fromSnapshot) {
+    }
+
+    /**
+     * Helper method to load one song file of a partitioned catalog: its snapshot if it is current, or else the file
+     * itself, sorted, and (if snapshots are used) saved as a new snapshot
+     *
+     * @param source      song file
+     * @param useSnapshot true to open (or else write) the CatalogSnapshot of the file
+     * @param parsedBytes told the number of bytes of the file parsed
+     * @return rows of the file
+     */
+    private static LoadedFile loadFile(Path source, boolean useSnapshot, LongConsumer parsedBytes) {
+        CatalogSnapshot snapshot = useSnapshot ? CatalogSnapshot.open(source) : null;
+        if (snapshot != null) {
+            parsedBytes.accept(source.toFile().length());
+            return new LoadedFile(snapshot.getColumns(), snapshot.getReleaseYears(), snapshot.getYearRows(), true);
+        }
+        CatalogSnapshot.Stamp stamp = useSnapshot ? stamp(source) : null;
+        SongLoader loader = new SongLoader();
+        loader.loadMapped(source.toString(), parsedBytes);
+        int[][] yearRows = loader.getYearRows();
+        new SongSorter().sort(loader.getColumns(), yearRows, SortKey.TRACK_NAME);
+        if (stamp != null) {
+            try {
+                CatalogSnapshot.write(source, stamp, loader.getColumns(), loader.getReleaseYears(), yearRows);
+            } catch (IOException e) {
+                System.err.println("Could not write the catalog snapshot of " + source + ": " + e.getMessage());
+            }
+        }
+        return new LoadedFile(loader.getColumns(), loader.getReleaseYears(), yearRows, false);
+    }
+
+    /**
+     * Helper method to stamp a song file before it is parsed, or return null (so no snapshot is written) if the file
+     * cannot be read
+     *
+     * @param source song file
+     * @return stamp of the file, or null
+     */
+    private static CatalogSnapshot.Stamp stamp(Path source) {
+        try {
+            return CatalogSnapshot.stamp(source);
+        } catch (IOException e) {
+            System.err.println("Could not stamp " + source + " for its catalog snapshot: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Helper method to describe the rows loaded from one file, whose release years are in ascending order
+     *
+     * @param source       song file
+     * @param firstRow     first row of the file in the catalog
+     * @param rowCount     number of rows of the file
+     * @param releaseYears release years of the file in ascending order
+     * @return partition of the file
+     */
+    private static SongPartition partition(Path source, int firstRow, int rowCount, String[] releaseYears) {
+        return releaseYears.length == 0
+                ? new SongPartition(source.toString(), firstRow, rowCount, Integer.MAX_VALUE, Integer.MIN_VALUE)
+                : new SongPartition(source.toString(), firstRow, rowCount, Integer.parseInt(releaseYears[0]),
+                Integer.parseInt(releaseYears[releaseYears.length - 1]));
+    }
+
+    /**
+     * Helper method to build a catalog of loaded songs, already sorted by track name, with its indexes and stream
+     * rankings.  The rankings and indexes are built from heap columns before the rows are moved to their storage.
+     *
+     * @param columns      song columns
+     * @param releaseYears release years in ascending order
+     * @param yearRows     rows of each release year, sorted by track name
+     * @param storage      where the rows are kept once the catalog is built
+     * @param partitions   source file of each range of rows
+     * @return new catalog
+     */
+    private static SongCatalog build(SongColumns columns, String[] releaseYears, int[][] yearRows,
+                                     SongStorage storage, SongPartition[] partitions) {
+        int[][] yearRanks = new int[yearRows.length][];
+        for (int i = 0; i < yearRows.length; i++) {
+            yearRanks[i] = yearRows[i].clone();
+        }
+        new SongSorter().sort(columns, yearRanks, SortKey.STREAMS);
+        TrackNameIndex trackNames = new TrackNameIndex(columns, columns.getRowCount());
+        ArtistIndex artists = new ArtistIndex(columns, columns.getRowCount());
+        return new SongCatalog(store(columns, storage), columns.getRowCount(), releaseYears, yearRows, yearRanks,
+                SortKey.TRACK_NAME, trackNames, artists, null, null, partitions, TrackNameCollation.DEFAULT, null);
+    }
+
+    /**
+     * Helper method to move columns to a storage (if they are not there already)
+     *
+     * @param columns song columns
+     * @param storage storage the columns are moved to
+     * @return columns in the storage
+     */
+    private static SongColumns store(SongColumns columns, SongStorage storage) {
+        return storage == SongStorage.OFF_HEAP && columns.storage() != SongStorage.OFF_HEAP
+                ? new OffHeapSongColumns(columns) : columns;
+    }
+
+    /**
+     * Retrieves the count of release years
+     *
+     * @return count of release years
+     */
+    @Override
+    public int getYearCount() {
+        return yearRows.length;
+    }
+
+    /**
+     * Retrieves the number of songs in the specified release year (by index)
+     *
+     * @param yearIndex the index of the release year
+     * @return song count in that release year
+     */
+    @Override
+    public int getSongCount(int yearIndex) {
+        checkYearIndex(yearIndex);
+        return yearRows[yearIndex].length;
+    }
+
+    /**
+     * Retrieves the number of songs in all release years
+     *
+     * @return song count in all release years
+     */
+    @Override
+    public int getSongCount() {
+        return totalSongCount;
+    }
+
+    /**
+     * Retrieves the release year at the specified index
+     *
+     * @param yearIndex index of the desired release year
+     * @return release year
+     */
+    @Override
+    public String getYearName(int yearIndex) {
+        checkYearIndex(yearIndex);
+        return releaseYears[yearIndex];
+    }
+
+    /**
+     * Retrieves the index of a release year
+     *
+     * @param year the release year
+     * @return release year index, or -1 if the year doesn't exist in the data
+     */
+    public int getYearIndex(String year) {
+        int index;
+        try {
+            index = Arrays.binarySearch(yearValues, Integer.parseInt(year));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+        return index < 0 ? -1 : index;
+    }
+
+    /**
+     * Retrieves the number of songs in the specified release year (by name)
+     *
+     * @param year the release year
+     * @return song count in that release year
+     */
+    @Override
+    public int getSongCount(String year) {
+        int index = getYearIndex(year);
+        if (index == -1) {
+            System.out.print("The year doesn't exist in our data");
+            return 0;
+        } else {
+            return getSongCount(index);
+        }
+    }
+
+    /**
+     * Retrieves the song at the specific release year and song index
+     *
+     * @param yearIndex release year index
+     * @param songIndex song index
+     * @return song at that array position
+     */
+    @Override
+    public Song getSong(int yearIndex, int songIndex) {
+        checkSongIndex(yearIndex, songIndex);
+        return columns.toSong(yearRows[yearIndex][songIndex]);
+    }
+
+    /**
+     * Retrieves a copy of the song array for the release year at the specified
+     * index
+     *
+     * @param yearIndex release year index
+     * @return new song array built from the stored columns
+     */
+    @Override
+    public Song[] getSongs(int yearIndex) {
+        checkYearIndex(yearIndex);
+        Song[] songsInYear = new Song[yearRows[yearIndex].length];
+        for (int i = 0; i < songsInYear.length; i++) {
+            songsInYear[i] = columns.toSong(yearRows[yearIndex][i]);
+        }
+        return songsInYear;
+    }
+
+    /**
+     * Retrieves the value of a numeric column for the song at the specific release year and song index
+     *
+     * @param column    numeric column
+     * @param yearIndex release year index
+     * @param songIndex song index
+     * @return column value
+     */
+    public long getValue(SongColumn column, int yearIndex, int songIndex) {
+        checkSongIndex(yearIndex, songIndex);
+        return columns.get(column, yearRows[yearIndex][songIndex]);
+    }
+
+    /**
+     * Retrieves the first release year index associated with the specified song's
+     * track name
+     *
+     * @param trackName the track name to search for
+     * @return the first release year index containing the specified
+     * song, or -1 if not found
+     */
+    @Override
+    public int findSongYear(String trackName) {
+        SongLocation location = findSongLocation(trackName);
+        return location == null ? -1 : location.yearIndex();
+    }
+
+    /**
+     * Retrieves the song number of a track name starting from the first song of the first release year
+     *
+     * @param trackName name of the track to search for
+     * @return song number counted across every release year, or -1 if the track isn't found
+     */
+    public int getSongNum(String trackName) {
+        SongLocation location = findSongLocation(trackName);
+        return location == null ? -1 : location.ordinal() + 1;
+    }
+
+    /**
+     * Retrieves the location of the first song (in year and song order) with the specified track name
+     *
+     * @param trackName the track name to search for
+     * @return location of the first matching song, or null if not found
+     */
+    public SongLocation findSongLocation(String trackName) {
+        SongLocation first = null;
+        for (int row : trackNameIndex.rows(columns, trackName)) {
+            SongLocation location = locate(row);
+            if (first == null || location.ordinal() < first.ordinal()) {
+                first = location;
+            }
+        }
+        return first;
+    }
+
+    /**
+     * Retrieves the locations of every song with the specified track name
+     *
+     * @param trackName the track name to search for
+     * @return locations in year and song order (empty if not found)
+     */
+    public SongLocation[] findSongLocations(String trackName) {
+        int[] rows = trackNameIndex.rows(columns, trackName);
+        SongLocation[] locations = new SongLocation[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            locations[i] = locate(rows[i]);
+        }
+        Arrays.sort(locations, Comparator.comparingInt(SongLocation::ordinal));
+        return locations;
+    }
+
+    /**
+     * Resolves a batch of track names (each with an optional artist) to songs, in parallel
+     *
+     * @param trackNames track names to look up
+     * @param artists    artist of each track name, or null (for the whole array or an element) to match any artist;
+     *                   an artist matches the whole artist(s) name of a song or one of the artists in it
+     * @return location of the first matching song (in year and song order) for each track name, or null where none
+     * matches
+     * @see PlaylistResolver
+     */
+    public SongLocation[] resolve(String[] trackNames, String[] artists) {
+        return new PlaylistResolver().resolve(this, trackNames, artists);
+    }
+
+    /**
+     * Retrieves the locations of every song by (or featuring) an artist
+     *
+     * @param artist exact name of a single artist, as listed in the artist(s) names of the songs
+     * @return locations in year and song order (empty if the artist has no songs)
+     * @see ArtistIndex#split(String)
+     */
+    public SongLocation[] findArtistSongs(String artist) {
+        return locateInOrder(artistIndex.rows(artist));
+    }
+
+    /**
+     * Retrieves the locations of every song by (or featuring) all of the specified artists
+     *
+     * @param artists exact names of single artists
+     * @return locations in year and song order (empty if no song has all of them)
+     */
+    public SongLocation[] findSongsWithArtists(String... artists) {
+        return locateInOrder(artistIndex.rowsWithAll(artists));
+    }
+
+    /**
+     * Retrieves the number of songs by (or featuring) an artist
+     *
+     * @param artist exact name of a single artist
+     * @return song count (0 if the artist has no songs)
+     */
+    public int getArtistSongCount(String artist) {
+        int id = artistIndex.id(artist);
+        return id < 0 ? 0 : artistIndex.songCount(id);
+    }
+
+    /**
+     * Retrieves the number of songs by (or featuring) each artist
+     *
+     * @return new map of song counts by artist name, in name order
+     */
+    public Map<String, Integer> getArtistSongCounts() {
+        Map<String, Integer> counts = new TreeMap<>();
+        for (int id = 0; id < artistIndex.getArtistCount(); id++) {
+            counts.put(artistIndex.name(id), artistIndex.songCount(id));
+        }
+        return counts;
+    }
+
+    /**
+     * Retrieves the most streamed songs of all release years
+     *
+     * @param k most songs returned; must not be negative
+     * @return locations of the k most streamed songs (fewer if there are fewer songs), most streamed first
+     */
+    public SongLocation[] topByStreams(int k) {
+        return topByStreams(0, yearRows.length, Integer.MIN_VALUE, Integer.MAX_VALUE, k);
+    }
+
+    /**
+     * Retrieves the most streamed songs of one release year
+     *
+     * @param yearIndex release year index
+     * @param k         most songs returned; must not be negative
+     * @return locations of the k most streamed songs of the year (fewer if it has fewer songs), most streamed first
+     */
+    public SongLocation[] topByStreams(int yearIndex, int k) {
+        checkYearIndex(yearIndex);
+        return topByStreams(yearIndex, yearIndex + 1, Integer.MIN_VALUE, Integer.MAX_VALUE, k);
+    }
+
+    /**
+     * Retrieves the most streamed songs released within a date range
+     *
+     * @param from earliest release date (inclusive)
+     * @param to   latest release date (inclusive)
+     * @param k    most songs returned; must not be negative
+     * @return locations of the k most streamed songs released from 'from' to 'to', most streamed first
+     */
+    public SongLocation[] topByStreams(LocalDate from, LocalDate to, int k) {
+        int fromYear = Arrays.binarySearch(yearValues, from.getYear());
+        int toYear = Arrays.binarySearch(yearValues, to.getYear());
+        //years inside the range are merged whole; only the first and last can hold songs outside it
+        fromYear = fromYear < 0 ? -fromYear - 1 : fromYear;
+        toYear = toYear < 0 ? -toYear - 1 : toYear + 1;
+        return topByStreams(fromYear, toYear, SongSorter.releaseDate(from.getYear(), from.getMonthValue(),
+                from.getDayOfMonth()), SongSorter.releaseDate(to.getYear(), to.getMonthValue(), to.getDayOfMonth()), k);
+    }
+
+    /**
+     * Groups the songs by numeric keys and aggregates numeric columns for every group, in parallel on the common
+     * fork/join pool
+     *
+     * @param groupBy  keys to group by, in order; none puts every song in one group
+     * @param measures numeric columns to aggregate
+     * @return groups in ascending key order
+     * @see SongAggregator
+     */
+    public Aggregation aggregate(GroupKey[] groupBy, SongColumn... measures) {
+        return new SongAggregator().aggregate(this, groupBy, measures);
+    }
+
+    /**
+     * Finds the songs that match a filter on their numeric columns, such as
+     * {@code and(range(BPM, 120, 130), greaterThan(ENERGY, 80), mode("Minor"))}
+     *
+     * @param filter filter to match
+     * @return locations of the matching songs in year and song order
+     * @see FeatureIndex#rows(SongFilter)
+     */
+    public SongLocation[] filter(SongFilter filter) {
+        return locateInOrder(getFeatureIndex().rows(filter));
+    }
+
+    /**
+     * Counts the songs that match a filter on their numeric columns
+     *
+     * @param filter filter to match
+     * @return number of matching songs
+     */
+    public int countMatching(SongFilter filter) {
+        return getFeatureIndex().count(filter);
+    }
+
+    /**
+     * Finds the same songs as filter() without the feature index, by checking every song of the partitions holding
+     * release years the filter can match.
+     * This is the baseline the feature index is measured against; use filter() instead.
+     *
+     * @param filter filter to match
+     * @return locations of the matching songs in year and song order
+     */
+    public SongLocation[] filterLinear(SongFilter filter) {
+        long[] years = filter.bounds(SongColumn.RELEASED_YEAR);
+        int[] rows = new int[rowCount];
+        int size = 0;
+        //partitions with no release year the filter can match are skipped
+        for (SongPartition partition : partitions) {
+            if (!partition.overlaps(years[0], years[1])) {
+                continue;
+            }
+            int end = partition.firstRow() + partition.rowCount();
+            for (int row = partition.firstRow(); row < end; row++) {
+                if (filter.matches(columns, row)) {
+                    rows[size++] = row;
+                }
+            }
+        }
+        return locateInOrder(Arrays.copyOf(rows, size));
+    }
+
+    /**
+     * Finds the songs whose audio features are nearest a song's, by comparing it with every song
+     *
+     * @param yearIndex release year index of the song
+     * @param songIndex song index of the song
+     * @param k         most songs returned
+     * @param filter    restriction the returned songs must match (such as a release year range, key or mode), or
+     *                  null
+     * @return locations of the nearest songs, nearest first (never the song itself)
+     * @see SimilarityIndex#nearest(int, int, SongFilter)
+     */
+    public SongLocation[] similar(int yearIndex, int songIndex, int k, SongFilter filter) {
+        checkSongIndex(yearIndex, songIndex);
+        return locate(getSimilarityIndex().nearest(yearRows[yearIndex][songIndex], k, filter));
+    }
+
+    /**
+     * Finds songs whose audio features are near a song's by comparing it with the songs of the nearest groups only.
+     * This reads a few percent of the songs, but can miss some of the songs similar() finds.
+     *
+     * @param yearIndex release year index of the song
+     * @param songIndex song index of the song
+     * @param k         most songs returned
+     * @param filter    restriction the returned songs must match, or null
+     * @return locations of the nearest songs found, nearest first (never the song itself)
+     * @see SimilarityIndex#nearestApproximate(int, int, SongFilter, int)
+     */
+    public SongLocation[] similarApproximate(int yearIndex, int songIndex, int k, SongFilter filter) {
+        checkSongIndex(yearIndex, songIndex);
+        return locate(getSimilarityIndex().nearestApproximate(yearRows[yearIndex][songIndex], k, filter,
+                SimilarityIndex.DEFAULT_PROBES));
+    }
+
+    /**
+     * Retrieves the source file, rows and release years of each partition of the catalog
+     *
+     * @return new array of the partitions in row order: one per song file loaded, then one for appended rows
+     */
+    public SongPartition[] getPartitions() {
+        return partitions.clone();
+    }
+
+    /**
+     * Retrieves the partitions that may hold songs released in a range of years
+     *
+     * @param fromYear earliest release year
+     * @param toYear   latest release year
+     * @return new array of the overlapping partitions in row order
+     */
+    public SongPartition[] getPartitions(int fromYear, int toYear) {
+        return Arrays.stream(partitions).filter(partition -> partition.overlaps(fromYear, toYear))
+                .toArray(SongPartition[]::new);
+    }
+
+    /**
+     * Retrieves the artist index
+     *
+     * @return index of the songs of every single artist
+     */
+    public ArtistIndex getArtistIndex() {
+        return artistIndex;
+    }
+
+    /**
+     * Finds the songs whose track or artist name best matches a query, for type-ahead search
+     *
+     * @param query text typed so far (case-insensitive), or null, which matches nothing
+     * @param limit most songs returned
+     * @return locations of the best matches, best first
+     * @see SongSearchIndex#search(String, int)
+     */
+    public SongLocation[] search(String query, int limit) {
+        return locate(getSearchIndex().search(query, limit));
+    }
+
+    /**
+     * Finds the songs whose track name starts with a prefix in the catalog's collation, ignoring case, accents and
+     * the characters the collation ignores (so "cafe" finds "Caf\u00e9 Society").  When the songs are sorted by
+     * COLLATED_TRACK_NAME the matches of each year sit together and are found by binary search; otherwise every
+     * song's key is compared with the prefix.  Either way no Collator is called per song.
+     *
+     * @param prefix start of a track name
+     * @return locations in year and song order (every song if the prefix has no letters or digits)
+     */
+    public SongLocation[] startingWith(String prefix) {
+        CollationKeys keys = getCollationKeys();
+        byte[] prefixKey = keys.prefix(prefix);
+        boolean seek = sortKey == SortKey.COLLATED_TRACK_NAME;
+        List<SongLocation> locations = new ArrayList<>();
+        for (int yearIndex = 0; yearIndex < yearRows.length; yearIndex++) {
+            int[] rows = yearRows[yearIndex];
+            int songIndex = 0;
+            if (seek) {
+                int high = rows.length;
+                while (songIndex < high) {
+                    int mid = (songIndex + high) >>> 1;
+                    if (keys.comparePrefix(rows[mid], prefixKey) < 0) {
+                        songIndex = mid + 1;
+                    } else {
+                        high = mid;
+                    }
+                }
+            }
+            for (; songIndex < rows.length; songIndex++) {
+                int order = keys.comparePrefix(rows[songIndex], prefixKey);
+                if (order == 0) {
+                    locations.add(new SongLocation(yearIndex, songIndex, yearOffsets[yearIndex] + songIndex));
+                } else if (seek && order > 0) {
+                    break;
+                }
+            }
+        }
+        return locations.toArray(new SongLocation[0]);
+    }
+
+    /**
+     * Finds the same songs as search() without the search index, by checking every song.
+     * This is the baseline the search index is measured against; use search() instead.
+     *
+     * @param query text typed so far (case-insensitive), or null, which matches nothing
+     * @param limit most songs returned
+     * @return locations of the best matches, best first
+     */
+    public SongLocation[] searchLinear(String query, int limit) {
+        return locate(SongSearchIndex.linearSearch(columns, rowCount, query, limit));
+    }
+
+    /**
+     * Helper method to locate rows and put them in year and song order.  The positions come from the ordinals
+     * array, so locating many rows costs an array read each instead of a binary search each.
+     *
+     * @param rows row numbers
+     * @return location of each row, in year and song order
+     */
+    private SongLocation[] locateInOrder(int[] rows) {
+        int[] rowOrdinals = ordinals();
+        int[] sorted = new int[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            sorted[i] = rowOrdinals[rows[i]];
+        }
+        Arrays.sort(sorted);
+        SongLocation[] locations = new SongLocation[sorted.length];
+        for (int i = 0; i < sorted.length; i++) {
+            locations[i] = locateOrdinal(sorted[i]);
+        }
+        return locations;
+    }
+
+    /**
+     * Helper method to retrieve the position of each row in year and song order, building it on the first call
+     *
+     * @return ordinal of each row
+     */
+    private int[] ordinals() {
+        int[] rowOrdinals = ordinals;
+        if (rowOrdinals == null) {
+            rowOrdinals = new int[rowCount];
+            for (int yearIndex = 0; yearIndex < yearRows.length; yearIndex++) {
+                int[] rowsOfYear = yearRows[yearIndex];
+                for (int songIndex = 0; songIndex < rowsOfYear.length; songIndex++) {
+                    rowOrdinals[rowsOfYear[songIndex]] = yearOffsets[yearIndex] + songIndex;
+                }
+            }
+            //built the same way by any thread, so a race only builds it twice
+            ordinals = rowOrdinals;
+        }
+        return rowOrdinals;
+    }
+
+    /**
+     * Retrieves the position of the first song (in year and song order) with a track name and an artist.  The track
+     * name index is probed once, and the artist is only compared on the rows it returns.
+     *
+     * @param trackName track name to look up
+     * @param artist    whole artist(s) name, or one artist in it, or null to match any artist
+     * @return position counted across every release year, or -1 if no song matches
+     */
+    int resolveOrdinal(String trackName, String artist) {
+        int[] rows = trackNameIndex.rows(columns, trackName);
+        if (rows.length == 0) {
+            return -1;
+        }
+        int[] rowOrdinals = ordinals();
+        StringPool artistPool = columns.getArtistPool();
+        int artistCode = artist == null ? -1 : artistPool.code(artist);
+        int first = -1;
+        for (int row : rows) {
+            int code = columns.artistCode(row);
+            if (artist == null || code == artistCode
+                    || Arrays.asList(ArtistIndex.split(artistPool.value(code))).contains(artist)) {
+                int ordinal = rowOrdinals[row];
+                if (first == -1 || ordinal < first) {
+                    first = ordinal;
+                }
+            }
+        }
+        return first;
+    }
+
+    /**
+     * Retrieves the location of the song at a position counted across every release year
+     *
+     * @param ordinal position starting at 0
+     * @return location of the song
+     */
+    SongLocation locateOrdinal(int ordinal) {
+        int yearIndex = yearIndexOfOrdinal(ordinal);
+        return new SongLocation(yearIndex, ordinal - yearOffsets[yearIndex], ordinal);
+    }
+
+    /**
+     * Helper method to merge the stream rankings of a range of years, best first, skipping songs released outside
+     * a date range.  A heap holds the next song of each year, so each result costs a heap step, not a scan.
+     *
+     * @param fromYear first release year index
+     * @param toYear   release year index after the last one
+     * @param fromDate earliest release date, packed by SongSorter.releaseDate
+     * @param toDate   latest release date, packed by SongSorter.releaseDate
+     * @param k        most songs returned
+     * @return locations, most streamed first
+     */
+    private SongLocation[] topByStreams(int fromYear, int toYear, int fromDate, int toDate, int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k must not be negative");
+        }
+        //heap of year indexes ordered by the next row of each year; positions are indexed by year - fromYear
+        int[] heap = new int[Math.max(0, toYear - fromYear)];
+        int[] positions = new int[heap.length];
+        int size = 0;
+        for (int yearIndex = fromYear; yearIndex < toYear; yearIndex++) {
+            if (skipOutside(yearIndex, positions, fromYear, fromDate, toDate)) {
+                heap[size] = yearIndex;
+                siftUp(heap, size++, positions, fromYear);
+            }
+        }
+        int[] rowOrdinals = ordinals();
+        SongLocation[] top = new SongLocation[Math.min(k, totalSongCount)];
+        int found = 0;
+        while (found < top.length && size > 0) {
+            int yearIndex = heap[0];
+            top[found++] = locateOrdinal(rowOrdinals[yearRanks[yearIndex][positions[yearIndex - fromYear]++]]);
+            if (!skipOutside(yearIndex, positions, fromYear, fromDate, toDate)) {
+                heap[0] = heap[--size];
+            }
+            siftDown(heap, size, positions, fromYear);
+        }
+        return found == top.length ? top : Arrays.copyOf(top, found);
+    }
+
+    /**
+     * Helper method to move a year's position past songs released outside a date range
+     *
+     * @param yearIndex release year index
+     * @param positions next position in the ranks of each year from fromYear
+     * @param fromYear  first year of the range
+     * @param fromDate  earliest release date, packed by SongSorter.releaseDate
+     * @param toDate    latest release date, packed by SongSorter.releaseDate
+     * @return true if the year has a song left
+     */
+    private boolean skipOutside(int yearIndex, int[] positions, int fromYear, int fromDate, int toDate) {
+        int[] ranks = yearRanks[yearIndex];
+        int position = positions[yearIndex - fromYear];
+        while (position < ranks.length) {
+            int row = ranks[position];
+            int date = SongSorter.releaseDate(columns.releasedYear(row), columns.releasedMonth(row),
+                    columns.releasedDay(row));
+            if (date >= fromDate && date <= toDate) {
+                break;
+            }
+            position++;
+        }
+        positions[yearIndex - fromYear] = position;
+        return position < ranks.length;
+    }
+
+    /**
+     * Helper method to check whether the next song of one year has more streams than the next song of another
+     *
+     * @param yearA     first release year index
+     * @param yearB     second release year index
+     * @param positions next position in the ranks of each year from fromYear
+     * @param fromYear  first year of the range
+     * @return true if yearA's next song has more streams
+     */
+    private boolean ranksBefore(int yearA, int yearB, int[] positions, int fromYear) {
+        return streamOrder.compare(yearRanks[yearA][positions[yearA - fromYear]],
+                yearRanks[yearB][positions[yearB - fromYear]]) < 0;
+    }
+
+    /**
+     * Helper method to move a year up the heap of years until its parent's next song ranks before its own
+     *
+     * @param heap      release year indexes ordered by their next song
+     * @param index     position of the year moved
+     * @param positions next position in the ranks of each year from fromYear
+     * @param fromYear  first year of the range
+     */
+    private void siftUp(int[] heap, int index, int[] positions, int fromYear) {
+        while (index > 0 && ranksBefore(heap[index], heap[(index - 1) / 2], positions, fromYear)) {
+            int parent = (index - 1) / 2;
+            int year = heap[index];
+            heap[index] = heap[parent];
+            heap[parent] = year;
+            index = parent;
+        }
+    }
+
+    /**
+     * Helper method to move the root year down the heap of years until its next song ranks before its children's
+     *
+     * @param heap      release year indexes ordered by their next song
+     * @param size      number of years in the heap
+     * @param positions next position in the ranks of each year from fromYear
+     * @param fromYear  first year of the range
+     */
+    private void siftDown(int[] heap, int size, int[] positions, int fromYear) {
+        int index = 0;
+        while (true) {
+            int best = index;
+            for (int child = 2 * index + 1; child <= 2 * index + 2 && child < size; child++) {
+                if (ranksBefore(heap[child], heap[best], positions, fromYear)) {
+                    best = child;
+                }
+            }
+            if (best == index) {
+                return;
+            }
+            int year = heap[index];
+            heap[index] = heap[best];
+            heap[best] = year;
+            index = best;
+        }
+    }
+
+    /**
+     * Helper method to find the location of each of several rows
+     *
+     * @param rows row numbers
+     * @return location of each row, in the order of the rows
+     */
+    private SongLocation[] locate(int[] rows) {
+        SongLocation[] locations = new SongLocation[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            locations[i] = locate(rows[i]);
+        }
+        return locations;
+    }
+
+    /**
+     * Retrieves the search index, building it on the first call
+     *
+     * @return search index over this catalog's rows
+     */
+    public SongSearchIndex getSearchIndex() {
+        SongSearchIndex index = searchIndex;
+        if (index == null) {
+            synchronized (this) {
+                index = searchIndex;
+                if (index == null) {
+                    index = new SongSearchIndex(columns, rowCount);
+                    searchIndex = index;
+                }
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Retrieves the feature index, building it on the first call
+     *
+     * @return index of the audio features of this catalog's rows
+     */
+    public FeatureIndex getFeatureIndex() {
+        FeatureIndex index = featureIndex;
+        if (index == null) {
+            synchronized (this) {
+                index = featureIndex;
+                if (index == null) {
+                    index = new FeatureIndex(columns, rowCount);
+                    featureIndex = index;
+                }
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Retrieves the similarity index, building it on the first call
+     *
+     * @return index of the audio feature vectors of this catalog's rows
+     */
+    public SimilarityIndex getSimilarityIndex() {
+        SimilarityIndex index = similarityIndex;
+        if (index == null) {
+            synchronized (this) {
+                index = similarityIndex;
+                if (index == null) {
+                    index = new SimilarityIndex(columns, rowCount);
+                    similarityIndex = index;
+                }
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Retrieves a copy of the release years
+     *
+     * @return new String array of release years in ascending order
+     */
+    public String[] getReleaseYears() {
+        return releaseYears.clone();
+    }
+
+    /**
+     * Retrieves the collation the songs are put in order by when they are sorted by COLLATED_TRACK_NAME
+     *
+     * @return collation
+     */
+    public TrackNameCollation getCollation() {
+        return collation;
+    }
+
+    /**
+     * Retrieves the collation keys of the track names, building them on the first call
+     *
+     * @return keys of this catalog's rows in getCollation() order
+     */
+    public CollationKeys getCollationKeys() {
+        CollationKeys keys = collationKeys;
+        if (keys == null) {
+            synchronized (this) {
+                keys = collationKeys;
+                if (keys == null) {
+                    keys = new CollationKeys(columns, rowCount, collation);
+                    collationKeys = keys;
+                }
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Retrieves the order the songs of each release year are sorted in
+     *
+     * @return sort key
+     */
+    public SortKey getSortKey() {
+        return sortKey;
+    }
+
+    /**
+     * Retrieves where the song rows are kept
+     *
+     * @return storage of the rows
+     */
+    public SongStorage getStorage() {
+        return columns.storage();
+    }
+
+    /**
+     * Creates a cursor on the first song of the specified release year
+     *
+     * @param yearIndex release year index
+     * @return new cursor over this catalog
+     */
+    public SongCursor cursor(int yearIndex) {
+        return new SongCursor(this, yearIndex);
+    }
+
+    /**
+     * Creates a catalog with the songs of each release year sorted by the specified key
+     *
+     * @param key order to sort the songs in
+     * @return new catalog sharing this catalog's columns
+     */
+    SongCatalog sorted(SortKey key) {
+        int[][] sortedRows = new int[yearRows.length][];
+        for (int i = 0; i < yearRows.length; i++) {
+            sortedRows[i] = yearRows[i].clone();
+        }
+        CollationKeys keys = key == SortKey.COLLATED_TRACK_NAME ? getCollationKeys() : collationKeys;
+        new SongSorter().sort(columns, sortedRows, key, keys);
+        SongCatalog sorted = new SongCatalog(columns, rowCount, releaseYears, sortedRows, key == SortKey.STREAMS
+                ? sortedRows : yearRanks, key, trackNameIndex, artistIndex, searchIndex,
+                featureIndex, partitions, collation, keys);
+        //the same rows, so the similarity index still holds
+        sorted.similarityIndex = similarityIndex;
+        return sorted;
+    }
+
+    /**
+     * Creates a catalog whose COLLATED_TRACK_NAME order is another collation.  If the songs are sorted in that order
+     * they are keyed and sorted again.
+     *
+     * @param newCollation order of COLLATED_TRACK_NAME
+     * @return new catalog sharing this catalog's columns, or this catalog if the collation is the same
+     */
+    SongCatalog withCollation(TrackNameCollation newCollation) {
+        if (newCollation.equals(collation)) {
+            return this;
+        }
+        CollationKeys keys = null;
+        int[][] rows = yearRows;
+        if (sortKey == SortKey.COLLATED_TRACK_NAME) {
+            keys = new CollationKeys(columns, rowCount, newCollation);
+            rows = new int[yearRows.length][];
+            for (int i = 0; i < yearRows.length; i++) {
+                rows[i] = yearRows[i].clone();
+            }
+            new SongSorter().sort(columns, rows, sortKey, keys);
+        }
+        SongCatalog changed = new SongCatalog(columns, rowCount, releaseYears, rows, yearRanks, sortKey,
+                trackNameIndex, artistIndex, searchIndex, featureIndex, partitions, newCollation, keys);
+        changed.similarityIndex = similarityIndex;
+        return changed;
+    }
+
+    /**
+     * Creates a catalog with parsed song rows appended.  Each song goes into its release year (a new year is added
+     * in year order if needed) and the year stays sorted by merging the sorted new songs into it, so there is no full
+     * re-sort.  Years the delta does not touch are shared with this catalog and the track name index only gets the
+     * new rows, so the cost depends on the size of the delta and of the years it touches, not on the catalog.
+     *
+     * @param delta song rows to append
+     * @return new catalog; this catalog is unchanged
+     */
+    SongCatalog append(SongColumns delta) {
+        if (delta.getRowCount() == 0) {
+            return this;
+        }
+        //the new rows are written past this catalog's row count, which its readers never look at; the columns
+        //only copy what they must (a full heap array, or an off-heap tail a newer catalog already wrote past)
+        SongColumns target = columns.append(rowCount, delta);
+        int first = rowCount;
+        int last = rowCount + delta.getRowCount();
+
+        //group the new rows by release year (stable, so each year's rows stay in file order)
+        int[] newRows = new int[last - first];
+        for (int i = 0; i < newRows.length; i++) {
+            newRows[i] = first + i;
+        }
+        SongColumns appended = target;
+        SongSorter.sortSequential(newRows,
+                (a, b) -> Integer.compare(appended.releasedYear(a), appended.releasedYear(b)));
+
+        CollationKeys keys = collationKeys;
+        CollationKeys newKeys = keys == null ? null : keys.withRows(target, last);
+        SongSorter.RowComparator newOrder = SongSorter.comparator(target, sortKey, newKeys);
+        SongSorter.RowComparator newStreamOrder = SongSorter.comparator(target, SortKey.STREAMS);
+        String[] newReleaseYears = releaseYears;
+        int[] newYearValues = yearValues;
+        int[][] newYearRows = yearRows.clone();
+        int[][] newYearRanks = yearRanks.clone();
+        int runStart = 0;
+        while (runStart < newRows.length) {
+            int year = target.releasedYear(newRows[runStart]);
+            int runEnd = runStart + 1;
+            while (runEnd < newRows.length && target.releasedYear(newRows[runEnd]) == year) {
+                runEnd++;
+            }
+            int[] run = Arrays.copyOfRange(newRows, runStart, runEnd);
+            SongSorter.sortSequential(run, newOrder);
+
+            int yearIndex = Arrays.binarySearch(newYearValues, year);
+            if (yearIndex < 0) {
+                yearIndex = -yearIndex - 1;
+                newReleaseYears = insertAt(newReleaseYears, yearIndex, SongColumns.numberName(year),
+                        new String[newReleaseYears.length + 1]);
+                newYearRows = insertAt(newYearRows, yearIndex, new int[0], new int[newYearRows.length + 1][]);
+                newYearRanks = insertAt(newYearRanks, yearIndex, new int[0], new int[newYearRanks.length + 1][]);
+                newYearValues = insertAt(newYearValues, yearIndex, year);
+            }
+            newYearRows[yearIndex] = SongSorter.mergeRuns(newYearRows[yearIndex], run, newOrder);
+            if (sortKey != SortKey.STREAMS) {
+                SongSorter.sortSequential(run, newStreamOrder);
+                newYearRanks[yearIndex] = SongSorter.mergeRuns(newYearRanks[yearIndex], run, newStreamOrder);
+            }
+            runStart = runEnd;
+        }
+        if (sortKey == SortKey.STREAMS) {
+            //the rankings are the years themselves
+            newYearRanks = newYearRows;
+        }
+        SongSearchIndex search = searchIndex;
+        FeatureIndex features = featureIndex;
+        return new SongCatalog(target, last, newReleaseYears, newYearRows, newYearRanks, sortKey,
+                trackNameIndex.withRows(target, last), artistIndex.withRows(target, last),
+                search == null ? null : search.withRows(target, last),
+                features == null ? null : features.withRows(target, last),
+                appendPartition(target, first, last), collation, newKeys);
+    }
+
+    /**
+     * Helper method to add appended rows [first, last) to the partitions: they extend the partition of the rows
+     * appended before them, or start one
+     *
+     * @param target columns the rows were appended to
+     * @param first  first appended row
+     * @param last   row after the last appended row
+     * @return partitions of the new catalog
+     */
+    private SongPartition[] appendPartition(SongColumns target, int first, int last) {
+        int minYear = Integer.MAX_VALUE;
+        int maxYear = Integer.MIN_VALUE;
+        for (int row = first; row < last; row++) {
+            minYear = Math.min(minYear, target.releasedYear(row));
+            maxYear = Math.max(maxYear, target.releasedYear(row));
+        }
+        SongPartition previous = partitions.length == 0 ? null : partitions[partitions.length - 1];
+        if (previous != null && previous.source() == null) {
+            SongPartition[] extended = partitions.clone();
+            extended[extended.length - 1] = new SongPartition(null, previous.firstRow(),
+                    last - previous.firstRow(), Math.min(minYear, previous.minYear()),
+                    Math.max(maxYear, previous.maxYear()));
+            return extended;
+        }
+        SongPartition[] added = Arrays.copyOf(partitions, partitions.length + 1);
+        added[partitions.length] = new SongPartition(null, first, last - first, minYear, maxYear);
+        return added;
+    }
+
+    /**
+     * Retrieves the columns the songs are stored in
+     *
+     * @return song columns
+     */
+    SongColumns columns() {
+        return columns;
+    }
+
+    /**
+     * Retrieves the row number of a song without bounds checks
+     *
+     * @param yearIndex release year index
+     * @param songIndex song index
+     * @return row number into columns()
+     */
+    int rowAt(int yearIndex, int songIndex) {
+        return yearRows[yearIndex][songIndex];
+    }
+
+    /**
+     * Retrieves the number of songs in all release years before a release year
+     *
+     * @param yearIndex release year index
+     * @return song count before that year
+     */
+    int yearOffset(int yearIndex) {
+        return yearOffsets[yearIndex];
+    }
+
+    /**
+     * Retrieves the row of the song at a position counted across every release year
+     *
+     * @param ordinal position starting at 0
+     * @return row number into the columns
+     */
+    int rowAt(int ordinal) {
+        if (ordinal < 0 || ordinal > totalSongCount - 1) {
+            throw new IllegalArgumentException("ordinal must be a valid index in the range 0 to count - 1");
+        }
+        int yearIndex = yearIndexOfOrdinal(ordinal);
+        return yearRows[yearIndex][ordinal - yearOffsets[yearIndex]];
+    }
+
+    /**
+     * Retrieves the location of the song stored in a row
+     *
+     * @param row row number into the columns, below the catalog's row count
+     * @return location of the row's song in year and song order
+     */
+    SongLocation locateRow(int row) {
+        return locateOrdinal(ordinals()[row]);
+    }
+
+    /**
+     * Retrieves the release year index of a position counted across every release year
+     *
+     * @param ordinal position starting at 0
+     * @return release year index
+     */
+    int yearIndexOfOrdinal(int ordinal) {
+        int low = 0;
+        int high = yearOffsets.length - 1;
+        //find the last year whose offset is at or before the ordinal
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (yearOffsets[mid] <= ordinal) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Helper method to find where a row sits in the sort order.  Every sort order is total (ties are ordered by
+     * row number), so the row's index within its year is found by binary search.
+     *
+     * @param row row number
+     * @return location of the row
+     */
+    private SongLocation locate(int row) {
+        int yearIndex = Arrays.binarySearch(yearValues, columns.releasedYear(row));
+        int[] rows = yearRows[yearIndex];
+        int low = 0;
+        int high = rows.length - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (order.compare(rows[mid], row) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return new SongLocation(yearIndex, low, yearOffsets[yearIndex] + low);
+    }
+
+    /**
+     * Helper method to check that a year index is in range
+     *
+     * @param yearIndex release year index
+     * @throws IllegalArgumentException if the index is out of range
+     */
+    private void checkYearIndex(int yearIndex) {
+        if (yearIndex < 0 || yearIndex > getYearCount() - 1) {
+            throw new IllegalArgumentException("year must be a valid index in the range 0 to count - 1");
+        }
+    }
+
+    /**
+     * Helper method to check that a year index and a song index within it are in range
+     *
+     * @param yearIndex release year index
+     * @param songIndex song index within the release year
+     * @throws IllegalArgumentException if an index is out of range
+     */
+    private void checkSongIndex(int yearIndex, int songIndex) {
+        checkYearIndex(yearIndex);
+        if (songIndex < 0 || songIndex > yearRows[yearIndex].length - 1) {
+            throw new IllegalArgumentException("song must be a valid index in the range 0 to count - 1");
+        }
+    }
+
+    /**
+     * Helper method to copy an array into one a value longer with the value inserted at an index
+     *
+     * @param <T>    element type
+     * @param array  array copied
+     * @param index  index of the value
+     * @param value  value inserted
+     * @param result array one element longer than array
+     * @return result
+     */
+    private static <T> T[] insertAt(T[] array, int index, T value, T[] result) {
+        System.arraycopy(array, 0, result, 0, index);
+        result[index] = value;
+        System.arraycopy(array, index, result, index + 1, array.length - index);
+        return result;
+    }
+
+    /**
+     * Helper method to copy an array into one a value longer with the value inserted at an index
+     *
+     * @param array array copied
+     * @param index index of the value
+     * @param value value inserted
+     * @return new array one element longer
+     */
+    private static int[] insertAt(int[] array, int index, int value) {
+        int[] result = new int[array.length + 1];
+        System.arraycopy(array, 0, result, 0, index);
+        result[index] = value;
+        System.arraycopy(array, index, result, index + 1, array.length - index);
+        return result;
+    }
+}
@@ -0,0 +1,120 @@
+/**
+ * SongColumn enum of the numeric columns of a 'spotify-2023.csv' shaped song file.
+ * Each constant knows the position of its column in a CSV song row.
+ *
+ * @author Bennett Fife
+ * @version 10/17/26
+ */
+public enum SongColumn {
+    /**
+     * number of artists credited
+     */
+    ARTIST_COUNT(2),
+    /**
+     * release year
+     */
+    RELEASED_YEAR(3),
+    /**
+     * release month, 1 to 12
+     */
+    RELEASED_MONTH(4),
+    /**
+     * release day of the month
+     */
+    RELEASED_DAY(5),
+    /**
+     * number of Spotify playlists the song is in
+     */
+    IN_SPOTIFY_PLAYLISTS(6),
+    /**
+     * rank on the Spotify charts
+     */
+    IN_SPOTIFY_CHARTS(7),
+    /**
+     * total number of streams on Spotify
+     */
+    STREAMS(8),
+    /**
+     * number of Apple Music playlists the song is in
+     */
+    IN_APPLE_PLAYLISTS(9),
+    /**
+     * rank on the Apple Music charts
+     */
+    IN_APPLE_CHARTS(10),
+    /**
+     * number of Deezer playlists the song is in
+     */
+    IN_DEEZER_PLAYLISTS(11),
+    /**
+     * rank on the Deezer charts
+     */
+    IN_DEEZER_CHARTS(12),
+    /**
+     * rank on the Shazam charts
+     */
+    IN_SHAZAM_CHARTS(13),
+    /**
+     * tempo in beats per minute
+     */
+    BPM(14),
+    /**
+     * key of the song as a code from 0 (C) to 11 (B), or -1 when the file has no key
+     */
+    KEY(15),
+    /**
+     * mode of the song as a code (0 = Major, 1 = Minor), or -1 when the file has no mode
+     */
+    MODE(16),
+    /**
+     * how suitable the song is for dancing, as a percentage
+     */
+    DANCEABILITY(17),
+    /**
+     * how positive the song sounds, as a percentage
+     */
+    VALENCE(18),
+    /**
+     * how energetic the song is, as a percentage
+     */
+    ENERGY(19),
+    /**
+     * how acoustic the song is, as a percentage
+     */
+    ACOUSTICNESS(20),
+    /**
+     * how much of the song has no vocals, as a percentage
+     */
+    INSTRUMENTALNESS(21),
+    /**
+     * how likely the song was recorded live, as a percentage
+     */
+    LIVENESS(22),
+    /**
+     * how much of the song is spoken words, as a percentage
+     */
+    SPEECHINESS(23);
+
+    /**
+     * position of the column in a 'spotify-2023.csv' row
+     */
+    private final int csvIndex;
+
+    /**
+     * SongColumn constructor
+     *
+     * @param csvIndex position of the column in a CSV song row
+     */
+    SongColumn(int csvIndex) {
+        this.csvIndex = csvIndex;
+    }
+
+    /**
+     * Retrieves the position of this column in a CSV song row
+     *
+     * @return CSV column index
+     */
+    public int csvIndex() {
+        return csvIndex;
+    }
+}
@@ -0,0 +1,317 @@
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * SongColumns class that reads song rows stored column by column.  Every CSV column is kept, numeric columns sized
+ * to their values, so there is no object per cell and numeric columns can be scanned without parsing.
+ * Song objects are only built when a row is asked for.
+ * Artist names repeat across many songs, so they are stored as codes into a StringPool that holds each distinct
+ * name once; rows by the same artist(s) hold the same code.
+ * The columns are read-only here; HeapSongColumns stores the rows in arrays and is the one rows are added to, and
+ * OffHeapSongColumns keeps them outside the heap.
+ *
+ * @author Bennett Fife
+ * @version 10/17/26
+ */
+public abstract class SongColumns {
+
+    /**
+     * key names in code order (code 0 is C, code 11 is B)
+     */
+    private static final String[] KEY_NAMES = {"C", "C#", "D", "D#", "E", "F", "F#", "G", "G#", "A", "A#", "B"};
+    /**
+     * mode names in code order
+     */
+    private static final String[] MODE_NAMES = {"Major", "Minor"};
+    /**
+     * shared text of the numbers a Song's date fields take, so Song objects do not each hold their own copy
+     */
+    private static final String[] NUMBER_NAMES = new String[4096];
+    /**
+     * value a parser gives a numeric cell that is not a number; it is outside the range of every column
+     */
+    static final long INVALID = Long.MIN_VALUE;
+
+    static {
+        for (int i = 0; i < NUMBER_NAMES.length; i++) {
+            NUMBER_NAMES[i] = String.valueOf(i);
+        }
+    }
+
+    /**
+     * pool of the artist(s) names; it may be shared with other columns
+     */
+    private final StringPool artistPool;
+
+    /**
+     * SongColumns constructor sets the pool the artist names are stored in
+     *
+     * @param artistPool pool of artist names; codes are only added to it, so it can be shared with older columns
+     */
+    SongColumns(StringPool artistPool) {
+        this.artistPool = artistPool;
+    }
+
+    /**
+     * Retrieves the rows that had a numeric cell that was not a number or did not fit its column when they were
+     * added; that cell is stored as 0.  Columns read from a snapshot list none, since the snapshot holds the stored
+     * values.
+     *
+     * @return new array of row numbers in ascending order
+     */
+    public abstract int[] getInvalidRows();
+
+    /**
+     * Retrieves the number of rows stored
+     *
+     * @return row count
+     */
+    public abstract int getRowCount();
+
+    /**
+     * Retrieves where the rows are stored
+     *
+     * @return storage of these columns
+     */
+    public abstract SongStorage storage();
+
+    /**
+     * Creates heap columns holding the same rows, with room for more.  Rows appended to the copy are not seen by
+     * anyone still reading these columns.
+     *
+     * @param capacity number of rows the copy holds without resizing; at least getRowCount()
+     * @return new heap columns holding the same rows
+     */
+    public HeapSongColumns copy(int capacity) {
+        if (capacity < getRowCount()) {
+            throw new IllegalArgumentException("capacity must be at least the row count");
+        }
+        HeapSongColumns copy = new HeapSongColumns(capacity, artistPool);
+        copy.addAll(this);
+        return copy;
+    }
+
+    /**
+     * Creates columns holding the first rows of these columns followed by every row of a delta, in the same storage.
+     * Readers that only look at those first rows are not disturbed, so the delta may be written in place past them.
+     *
+     * @param rowCount number of rows of these columns kept; at most getRowCount()
+     * @param delta    columns whose rows are appended
+     * @return columns holding rowCount + delta.getRowCount() rows (these columns or new ones)
+     */
+    abstract SongColumns append(int rowCount, SongColumns delta);
+
+    /**
+     * Retrieves the track name of a row
+     *
+     * @param row row number
+     * @return track name
+     */
+    public abstract String trackName(int row);
+
+    /**
+     * Retrieves the artist name(s) of a row
+     *
+     * @param row row number
+     * @return artist name(s) as written in the file
+     */
+    public String artistName(int row) {
+        return artistPool.value(artistCode(row));
+    }
+
+    /**
+     * Retrieves the code of the artist name(s) of a row.  Two rows have the same artist name(s) exactly when they
+     * have the same code.
+     *
+     * @param row row number
+     * @return code of the artist name(s) in getArtistPool()
+     */
+    public abstract int artistCode(int row);
+
+    /**
+     * Retrieves the pool the artist names are stored in
+     *
+     * @return artist name pool (not a copy)
+     */
+    public StringPool getArtistPool() {
+        return artistPool;
+    }
+
+    /**
+     * Retrieves the release year of a row
+     *
+     * @param row row number
+     * @return release year
+     */
+    public abstract int releasedYear(int row);
+
+    /**
+     * Retrieves the release month of a row
+     *
+     * @param row row number
+     * @return release month
+     */
+    public abstract int releasedMonth(int row);
+
+    /**
+     * Retrieves the release day of a row
+     *
+     * @param row row number
+     * @return release day
+     */
+    public abstract int releasedDay(int row);
+
+    /**
+     * Retrieves the total number of Spotify streams of a row
+     *
+     * @param row row number
+     * @return number of streams (0 when the file value was not a number)
+     */
+    public abstract long streams(int row);
+
+    /**
+     * Retrieves the value of a numeric column of a row
+     *
+     * @param column numeric column
+     * @param row    row number
+     * @return column value
+     */
+    public abstract long get(SongColumn column, int row);
+
+    /**
+     * Reads the values of a numeric column for a run of rows into a buffer, for passes over many rows
+     *
+     * @param column  numeric column
+     * @param fromRow first row number
+     * @param values  buffer the values are written to, from index 0
+     * @param count   number of rows to read
+     */
+    public void get(SongColumn column, int fromRow, long[] values, int count) {
+        for (int i = 0; i < count; i++) {
+            values[i] = get(column, fromRow + i);
+        }
+    }
+
+    /**
+     * Builds a Song object from a row
+     *
+     * @param row row number
+     * @return new Song with the row's data
+     */
+    public Song toSong(int row) {
+        if (row < 0 || row > getRowCount() - 1) {
+            throw new IllegalArgumentException("row must be a valid index in the range 0 to count - 1");
+        }
+        return new Song(trackName(row), artistName(row), numberName(releasedYear(row)), numberName(releasedMonth(row)),
+                numberName(releasedDay(row)), String.valueOf(streams(row)));
+    }
+
+    /**
+     * Retrieves the text of a number, shared between every caller for small numbers such as years and days
+     *
+     * @param number number
+     * @return decimal text of the number
+     */
+    static String numberName(int number) {
+        return number >= 0 && number < NUMBER_NAMES.length ? NUMBER_NAMES[number] : String.valueOf(number);
+    }
+
+    /**
+     * Writes every row to a snapshot stream in the layout HeapSongColumns.readFrom reads, by way of a heap copy
+     *
+     * @param out snapshot stream
+     * @throws IOException if the stream cannot be written
+     */
+    void writeTo(DataOutputStream out) throws IOException {
+        copy(getRowCount()).writeTo(out);
+    }
+
+    /**
+     * Retrieves the name of a key code
+     *
+     * @param keyCode key code from the KEY column
+     * @return key name (e.g. "F#"), or an empty string for -1
+     */
+    public static String keyName(int keyCode) {
+        return keyCode < 0 ? "" : KEY_NAMES[keyCode];
+    }
+
+    /**
+     * Retrieves the name of a mode code
+     *
+     * @param modeCode mode code from the MODE column
+     * @return "Major" or "Minor", or an empty string for -1
+     */
+    public static String modeName(int modeCode) {
+        return modeCode < 0 ? "" : MODE_NAMES[modeCode];
+    }
+
+    /**
+     * Retrieves the code of a key name
+     *
+     * @param keyName key name (e.g. "F#")
+     * @return key code, or -1 if the name is blank or not a key
+     */
+    public static int keyCode(String keyName) {
+        for (int i = 0; i < KEY_NAMES.length; i++) {
+            if (KEY_NAMES[i].equals(keyName)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Retrieves the code of a mode name
+     *
+     * @param modeName "Major" or "Minor"
+     * @return mode code, or -1 if the name is blank or not a mode
+     */
+    public static int modeCode(String modeName) {
+        for (int i = 0; i < MODE_NAMES.length; i++) {
+            if (MODE_NAMES[i].equals(modeName)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Retrieves the number of bytes a column's values take in its array
+     *
+     * @param column numeric column
+     * @return 1, 2, 4 or 8
+     */
+    static int bytes(SongColumn column) {
+        switch (column) {
+            case ARTIST_COUNT:
+            case RELEASED_MONTH:
+            case RELEASED_DAY:
+            case KEY:
+            case MODE:
+            case DANCEABILITY:
+            case VALENCE:
+            case ENERGY:
+            case ACOUSTICNESS:
+            case INSTRUMENTALNESS:
+            case LIVENESS:
+            case SPEECHINESS:
+                return Byte.BYTES;
+            case RELEASED_YEAR:
+            case IN_SPOTIFY_CHARTS:
+            case IN_APPLE_PLAYLISTS:
+            case IN_APPLE_CHARTS:
+            case IN_DEEZER_CHARTS:
+            case BPM:
+                return Short.BYTES;
+            case IN_SPOTIFY_PLAYLISTS:
+            case IN_DEEZER_PLAYLISTS:
+            case IN_SHAZAM_CHARTS:
+                return Integer.BYTES;
+            case STREAMS:
+                return Long.BYTES;
+            default:
+                throw new IllegalArgumentException("unknown column " + column);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+class SongColumnsTest {
+
+    private final HeapSongColumns columns = new HeapSongColumns(1);
+    private final int row = columns.add(new String[]{"Smooth Operator", "Sade", "1", "1994", "2", "16", "2,445", "0",
+            "3703895074", "4", "0", "", "0", "", "128", "F#", "Minor", "65", "49", "80", "22", "4", "7", "5"});
+
+    @org.junit.jupiter.api.Test
+    void toSong() {
+
+        assertEquals(new Song("Smooth Operator", "Sade", "1994", "2", "16", "3703895074"), columns.toSong(row));
+    }
+
+    @org.junit.jupiter.api.Test
+    void numericColumns() {
+
+        assertEquals(3703895074L, columns.streams(row));
+        assertEquals(2445, columns.get(SongColumn.IN_SPOTIFY_PLAYLISTS, row));
+        assertEquals(0, columns.get(SongColumn.IN_SHAZAM_CHARTS, row));
+        assertEquals(128, columns.get(SongColumn.BPM, row));
+        assertEquals("F#", SongColumns.keyName((int) columns.get(SongColumn.KEY, row)));
+        assertEquals("Minor", SongColumns.modeName((int) columns.get(SongColumn.MODE, row)));
+        assertEquals(5, columns.get(SongColumn.SPEECHINESS, row));
+    }
+
+    @org.junit.jupiter.api.Test
+    void growsAndValidates() {
+
+        columns.add(new String[]{"Next", "Artist", "1", "2023", "1", "1", "0", "0", "1"});
+        assertEquals(2, columns.getRowCount());
+        assertEquals("Next", columns.trackName(1));
+        assertThrows(IllegalArgumentException.class,
+                () -> columns.add(new String[]{" ", "Artist", "1", "2023", "1", "1", "0", "0", "1"}));
+        //rows that stop before the streams column are rejected like MappedCsvParser rejects them
+        IllegalArgumentException shortRow = assertThrows(IllegalArgumentException.class,
+                () -> columns.add(new String[]{"Short", "Artist", "1", "2023"}));
+        assertEquals("song row must have at least 9 columns", shortRow.getMessage());
+        assertEquals(2, columns.getRowCount());
+    }
+
+    @org.junit.jupiter.api.Test
+    void invalidCellsAreFlagged() {
+
+        int text = columns.add(new String[]{"Text", "Artist", "1", "2023", "1", "1", "0", "0", "BPM110KeyA"});
+        //300 artists do not fit a byte, 40000 does not fit a short, and the streams do not fit a long
+        int tooBig = columns.add(new String[]{"Too Big", "Artist", "300", "40000", "1", "1", "0", "0", "5"});
+        int overflow = columns.add(new String[]{"Overflow", "Artist", "1", "2023", "1", "1", "0", "0",
+                "99999999999999999999"});
+        long[] values = new long[SongColumn.values().length];
+        values[SongColumn.RELEASED_YEAR.ordinal()] = 2023;
+        values[SongColumn.BPM.ordinal()] = SongColumns.INVALID;
+        int parsed = columns.add("Parsed", "Artist", values);
+        assertArrayEquals(new int[]{text, tooBig, overflow, parsed}, columns.getInvalidRows());
+        assertEquals(0, columns.streams(text));
+        assertEquals(0, columns.get(SongColumn.ARTIST_COUNT, tooBig));
+        assertEquals(0, columns.releasedYear(tooBig));
+        assertEquals(5, columns.streams(tooBig));
+        assertEquals(0, columns.streams(overflow));
+        assertEquals(0, columns.get(SongColumn.BPM, parsed));
+        assertEquals(2023, columns.releasedYear(parsed));
+
+        //the largest values that fit are kept
+        int largest = columns.add(new String[]{"Largest", "Artist", "127", "32767", "1", "1", "2147483647", "0",
+                "9223372036854775807"});
+        assertEquals(127, columns.get(SongColumn.ARTIST_COUNT, largest));
+        assertEquals(Long.MAX_VALUE, columns.streams(largest));
+        assertEquals(4, columns.getInvalidRows().length);
+
+        HeapSongColumns appended = new HeapSongColumns();
+        appended.add(new String[]{"First", "Artist", "1", "2023", "1", "1", "0", "0", "1"});
+        appended.addAll(columns);
+        assertArrayEquals(new int[]{text + 1, tooBig + 1, overflow + 1, parsed + 1}, appended.getInvalidRows());
+        assertArrayEquals(columns.getInvalidRows(), columns.copy(columns.getRowCount()).getInvalidRows());
+
+        //appending past rows a reader stops at writes in place; appending to that reader's rows again copies them
+        int rows = appended.getRowCount();
+        HeapSongColumns delta = new HeapSongColumns();
+        delta.add(new String[]{"Next", "Artist", "1", "2023", "1", "1", "0", "0", "2"});
+        assertSame(appended, appended.append(rows, delta));
+        HeapSongColumns branch = appended.append(rows, delta);
+        assertNotSame(appended, branch);
+        assertEquals(rows + 1, branch.getRowCount());
+        assertEquals("Next", branch.trackName(rows));
+        assertArrayEquals(appended.getInvalidRows(), branch.getInvalidRows());
+    }
+
+    @org.junit.jupiter.api.Test
+    void bundledFileHasOneInvalidRow() {
+
+        //one row of the file has the audio features run together in its streams cell
+        SongLoader mapped = new SongLoader();
+        mapped.loadMapped("spotify-2023.csv");
+        SongLoader openCsv = new SongLoader();
+        openCsv.load("spotify-2023.csv");
+        for (SongColumns loaded : new SongColumns[]{mapped.getColumns(), openCsv.getColumns()}) {
+            int[] invalid = loaded.getInvalidRows();
+            assertEquals(1, invalid.length);
+            assertTrue(loaded.trackName(invalid[0]).startsWith("Love Grows"), loaded.trackName(invalid[0]));
+            assertEquals(0, loaded.streams(invalid[0]));
+        }
+    }
+}
@@ -0,0 +1,257 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.SplittableRandom;
+
+/**
+ * SongCsvGenerator class that writes synthetic song files shaped like 'spotify-2023.csv'.
+ * Rows are written in random year order so loaders cannot rely on the file being grouped by year.
+ * The standard files (1k, 100k, 1M and 10M rows) always use the same seed, so benchmark results taken on different
+ * machines or days are measured against the same data.
+ *
+ * @author Bennett Fife
+ * @version 10/17/26
+ */
+public class SongCsvGenerator {
+
+    /**
+     * header line of 'spotify-2023.csv'
+     */
+    public static final String HEADER = "track_name,artist(s)_name,artist_count,released_year,released_month,"
+            + "released_day,in_spotify_playlists,in_spotify_charts,streams,in_apple_playlists,in_apple_charts,"
+            + "in_deezer_playlists,in_deezer_charts,in_shazam_charts,bpm,key,mode,danceability_%,valence_%,"
+            + "energy_%,acousticness_%,instrumentalness_%,liveness_%,speechiness_%";
+
+    /**
+     * row counts of the standard benchmark files
+     */
+    public static final int[] STANDARD_SIZES = {1_000, 100_000, 1_000_000, 10_000_000};
+    /**
+     * seed of the standard benchmark files
+     */
+    public static final long STANDARD_SEED = 2023;
+
+    /**
+     * words track names are made of
+     */
+    private static final String[] WORDS = {"Love", "Night", "Summer", "Dance", "Heart", "Fire", "Dream", "Blue",
+            "Money", "Baby", "Christmas", "Rain", "Gold", "City", "Lights", "Running", "Forever", "Wild", "Young",
+            "Midnight", "Sweet", "Ghost", "Paradise", "Sugar"};
+    /**
+     * artists a song is credited to
+     */
+    private static final String[] ARTISTS = {"Taylor Swift", "Bad Bunny", "The Weeknd", "SZA", "Drake",
+            "Harry Styles", "Peso Pluma", "Feid", "Bizarrap", "Karol G", "Eslabon Armado", "Olivia Rodrigo",
+            "Miley Cyrus", "Metro Boomin", "21 Savage", "Arctic Monkeys", "Nat King Cole", "Frank Sinatra"};
+    /**
+     * musical keys, with the empty key some songs have
+     */
+    private static final String[] KEYS = {"C", "C#", "D", "D#", "E", "F", "F#", "G", "G#", "A", "A#", "B", ""};
+
+    /**
+     * random source of every row
+     */
+    private final SplittableRandom random;
+
+    /**
+     * SongCsvGenerator constructor seeds the generator so the same seed always writes the same file
+     *
+     * @param seed random seed
+     */
+    public SongCsvGenerator(long seed) {
+        random = new SplittableRandom(seed);
+    }
+
+    /**
+     * Writes the standard song files that are missing from a directory.
+     * Usage: {@code java SongCsvGenerator [directory] [rows...]}; the directory defaults to 'benchmarks/data' and the
+     * row counts to the standard sizes.
+     *
+     * @param args directory followed by optional row counts
+     * @throws IOException if a file cannot be written
+     */
+    public static void main(String[] args) throws IOException {
+        Path directory = Path.of(args.length > 0 ? args[0] : "benchmarks/data");
+        int[] sizes = STANDARD_SIZES;
+        if (args.length > 1) {
+            sizes = new int[args.length - 1];
+            for (int i = 1; i < args.length; i++) {
+                sizes[i - 1] = Integer.parseInt(args[i].replace("_", ""));
+            }
+        }
+        for (int rows : sizes) {
+            System.out.println(standardFile(directory, rows));
+        }
+    }
+
+    /**
+     * Retrieves the standard song file with a number of rows, writing it first if it is not in the directory yet
+     *
+     * @param directory directory holding the standard files
+     * @param rows      number of song rows
+     * @return path of 'songs-&lt;rows&gt;.csv' in the directory
+     * @throws IOException if the file cannot be written
+     */
+    public static Path standardFile(Path directory, int rows) throws IOException {
+        Path file = directory.resolve("songs-" + rows + ".csv");
+        if (!Files.isRegularFile(file)) {
+            Files.createDirectories(directory);
+            //written under a temporary name first so an interrupted run never leaves a short file behind
+            Path temp = directory.resolve(file.getFileName() + ".tmp");
+            new SongCsvGenerator(STANDARD_SEED).write(temp, rows);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+        return file;
+    }
+
+    /**
+     * Writes a new temporary song file of generated rows, for tests and benchmarks that load a file.  The caller
+     * deletes it.
+     *
+     * @param seed random seed
+     * @param rows number of song rows
+     * @return path of the temporary file
+     * @throws IOException if the file cannot be written
+     */
+    public static Path tempFile(long seed, int rows) throws IOException {
+        Path file = Files.createTempFile("songs-" + seed + "-", ".csv");
+        try {
+            new SongCsvGenerator(seed).write(file, rows);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+        return file;
+    }
+
+    /**
+     * Generates song rows and parses them into columns, in file order, through a temporary file that is deleted
+     * again
+     *
+     * @param seed random seed
+     * @param rows number of song rows
+     * @return columns holding the rows
+     * @throws IOException if the temporary file cannot be written
+     */
+    public static SongColumns columns(long seed, int rows) throws IOException {
+        Path file = tempFile(seed, rows);
+        try {
+            HeapSongColumns columns = new HeapSongColumns();
+            for (SongColumns chunk : new MappedCsvParser(file).parse()) {
+                columns.addAll(chunk);
+            }
+            return columns;
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Generates song rows and loads them into a catalog (without a snapshot), through a temporary file that is
+     * deleted again
+     *
+     * @param seed random seed
+     * @param rows number of song rows
+     * @return new catalog, sorted by track name
+     * @throws IOException if the temporary file cannot be written
+     */
+    public static SongCatalog catalog(long seed, int rows) throws IOException {
+        Path file = tempFile(seed, rows);
+        try {
+            return SongCatalog.load(file.toString(), false);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Retrieves the number of rows a benchmark generates: the system property 'songs.&lt;name&gt;Benchmark.rows'
+     * (such as -Dsongs.parserBenchmark.rows=N for a smaller or larger file), or the benchmark's default
+     *
+     * @param name        name of the benchmark, such as "parser"
+     * @param defaultRows rows generated when the property is not set
+     * @return number of rows to generate
+     */
+    public static int benchmarkRows(String name, int defaultRows) {
+        return Integer.getInteger("songs." + name + "Benchmark.rows", defaultRows);
+    }
+
+    /**
+     * Writes a header line and the specified number of song rows to a file
+     *
+     * @param path file to (over)write
+     * @param rows number of song rows to write; must not be negative
+     * @throws IOException if the file cannot be written
+     */
+    public void write(Path path, int rows) throws IOException {
+        if (rows < 0) {
+            throw new IllegalArgumentException("rows must not be negative");
+        }
+        try (BufferedWriter out = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            out.write(HEADER);
+            out.newLine();
+            StringBuilder line = new StringBuilder(256);
+            for (int i = 0; i < rows; i++) {
+                line.setLength(0);
+                appendRow(line, i);
+                out.append(line);
+                out.newLine();
+            }
+        }
+    }
+
+    /**
+     * Appends one CSV song row (without a line terminator)
+     *
+     * @param line   builder the row is appended to
+     * @param rowNum row number, used to keep track names distinct
+     */
+    public void appendRow(StringBuilder line, int rowNum) {
+        //track name, e.g. "Midnight Rain 1234"
+        line.append(pick(WORDS)).append(' ').append(pick(WORDS)).append(' ').append(rowNum).append(',');
+        //artist(s) name, quoted when there are several artists (like the real file)
+        int artistCount = 1 + (random.nextInt(10) == 0 ? random.nextInt(3) + 1 : 0);
+        if (artistCount > 1) {
+            line.append('"');
+        }
+        for (int a = 0; a < artistCount; a++) {
+            if (a > 0) {
+                line.append(", ");
+            }
+            line.append(pick(ARTISTS));
+        }
+        if (artistCount > 1) {
+            line.append('"');
+        }
+        line.append(',').append(artistCount).append(',');
+        //release date, skewed towards recent years the same way the chart data is
+        int year = random.nextInt(4) == 0 ? 1930 + random.nextInt(94) : 2018 + random.nextInt(6);
+        line.append(year).append(',').append(1 + random.nextInt(12)).append(',').append(1 + random.nextInt(28));
+        //playlist/chart counts and streams (streams go past 2^31 like the top tracks do)
+        line.append(',').append(random.nextInt(53_000)).append(',').append(random.nextInt(148));
+        line.append(',').append(random.nextLong(3_800_000_000L));
+        line.append(',').append(random.nextInt(673)).append(',').append(random.nextInt(276));
+        line.append(',').append(random.nextInt(975)).append(',').append(random.nextInt(59));
+        line.append(',').append(random.nextInt(954));
+        //audio features
+        line.append(',').append(65 + random.nextInt(142));
+        line.append(',').append(pick(KEYS));
+        line.append(',').append(random.nextBoolean() ? "Major" : "Minor");
+        for (int feature = 0; feature < 7; feature++) {
+            line.append(',').append(random.nextInt(98));
+        }
+    }
+
+    /**
+     * Helper method to choose one of some values at random
+     *
+     * @param values values to choose from
+     * @return one of the values
+     */
+    private String pick(String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+}
@@ -0,0 +1,199 @@
+/**
+ * SongCursor class that walks the songs of a SongCatalog one position at a time.
+ * Moving and reading the cursor's position are constant time and allocate no arrays, so navigation does not slow
+ * down as the catalog grows.  A cursor stays on the catalog it was created from, so songs appended or re-sorted
+ * after that do not move it.
+ *
+ * @author Bennett Fife
+ * @version 10/17/26
+ */
+public class SongCursor {
+
+    /**
+     * catalog whose songs are walked
+     */
+    private final SongCatalog catalog;
+    /**
+     * index of the current release year
+     */
+    private int yearIndex;
+    /**
+     * index of the current song within its release year
+     */
+    private int songIndex;
+
+    /**
+     * SongCursor constructor that starts on the first song of a release year
+     *
+     * @param catalog   catalog whose songs are walked
+     * @param yearIndex index of the starting release year
+     */
+    SongCursor(SongCatalog catalog, int yearIndex) {
+        this.catalog = catalog;
+        seek(yearIndex, 0);
+    }
+
+    /**
+     * Moves to a song
+     *
+     * @param yearIndex release year index
+     * @param songIndex song index within the release year
+     */
+    public void seek(int yearIndex, int songIndex) {
+        if (yearIndex < 0 || yearIndex > catalog.getYearCount() - 1) {
+            throw new IllegalArgumentException("year must be a valid index in the range 0 to count - 1");
+        }
+        if (songIndex < 0 || songIndex > catalog.getSongCount(yearIndex) - 1) {
+            throw new IllegalArgumentException("song must be a valid index in the range 0 to count - 1");
+        }
+        this.yearIndex = yearIndex;
+        this.songIndex = songIndex;
+    }
+
+    /**
+     * Moves to the song at a position counted across every release year
+     *
+     * @param ordinal position starting at 0
+     */
+    public void seekOrdinal(int ordinal) {
+        if (ordinal < 0 || ordinal > catalog.getSongCount() - 1) {
+            throw new IllegalArgumentException("ordinal must be a valid index in the range 0 to count - 1");
+        }
+        int year = catalog.yearIndexOfOrdinal(ordinal);
+        seek(year, ordinal - catalog.yearOffset(year));
+    }
+
+    /**
+     * Checks whether there is a song after the current one in the same release year
+     *
+     * @return true if next() will move
+     */
+    public boolean hasNext() {
+        return songIndex < catalog.getSongCount(yearIndex) - 1;
+    }
+
+    /**
+     * Checks whether there is a song before the current one in the same release year
+     *
+     * @return true if previous() will move
+     */
+    public boolean hasPrevious() {
+        return songIndex > 0;
+    }
+
+    /**
+     * Moves to the next song in the same release year
+     *
+     * @return true if the cursor moved, false if it was already on the last song of the year
+     */
+    public boolean next() {
+        if (!hasNext()) {
+            return false;
+        }
+        songIndex++;
+        return true;
+    }
+
+    /**
+     * Moves to the previous song in the same release year
+     *
+     * @return true if the cursor moved, false if it was already on the first song of the year
+     */
+    public boolean previous() {
+        if (!hasPrevious()) {
+            return false;
+        }
+        songIndex--;
+        return true;
+    }
+
+    /**
+     * Retrieves the catalog the cursor walks
+     *
+     * @return catalog the cursor was created from
+     */
+    public SongCatalog getCatalog() {
+        return catalog;
+    }
+
+    /**
+     * Retrieves the index of the current release year
+     *
+     * @return release year index
+     */
+    public int getYearIndex() {
+        return yearIndex;
+    }
+
+    /**
+     * Retrieves the index of the current song within its release year
+     *
+     * @return song index
+     */
+    public int getSongIndex() {
+        return songIndex;
+    }
+
+    /**
+     * Retrieves the position of the current song counted across every release year
+     *
+     * @return ordinal starting at 0
+     */
+    public int getOrdinal() {
+        return catalog.yearOffset(yearIndex) + songIndex;
+    }
+
+    /**
+     * Retrieves the number of songs in the current release year
+     *
+     * @return song count
+     */
+    public int getYearSongCount() {
+        return catalog.getSongCount(yearIndex);
+    }
+
+    /**
+     * Retrieves the current song
+     *
+     * @return current song
+     */
+    public Song getSong() {
+        return catalog.getSong(yearIndex, songIndex);
+    }
+
+    /**
+     * Retrieves the track name of the current song without building a Song
+     *
+     * @return track name
+     */
+    public String getTrackName() {
+        return catalog.columns().trackName(catalog.rowAt(yearIndex, songIndex));
+    }
+
+    /**
+     * Retrieves the artist name(s) of the current song without building a Song
+     *
+     * @return artist name(s)
+     */
+    public String getArtistName() {
+        return catalog.columns().artistName(catalog.rowAt(yearIndex, songIndex));
+    }
+
+    /**
+     * Retrieves the release year of the current song without building a Song
+     *
+     * @return release year
+     */
+    public int getReleasedYear() {
+        return catalog.columns().releasedYear(catalog.rowAt(yearIndex, songIndex));
+    }
+
+    /**
+     * Retrieves the total number of Spotify streams of the current song without building a Song
+     *
+     * @return number of streams
+     */
+    public long getStreams() {
+        return catalog.columns().streams(catalog.rowAt(yearIndex, songIndex));
+    }
+}
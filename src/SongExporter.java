@@ -0,0 +1,295 @@
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * SongExporter class that writes songs as CSV rows formatted for people to read: the release date as year-month-day,
+ * the streams with a comma every three digits, and each song's share of all the catalog's streams.
+ * Rows are encoded as UTF-8 straight from the catalog's columns into one reused buffer with SongFormat, and artist
+ * names are copied from the artist pool's UTF-8 bytes without being decoded, so exporting a catalog of any size
+ * creates no objects per row (besides whatever the storage creates to read a track name).
+ *
+ * @author Bennett Fife
+ * @version 10/17/26
+ */
+public final class SongExporter {
+
+    /**
+     * header line of an export
+     */
+    public static final String HEADER = "track_name,artist(s)_name,released,streams,share_of_streams_%";
+    /**
+     * digits after the decimal point of the share of streams
+     */
+    public static final int SHARE_DECIMALS = 4;
+    /**
+     * buffer size used by the one-argument constructor
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+
+    /**
+     * most bytes a row takes besides its track and artist names
+     */
+    private static final int MAX_NUMBERS_LENGTH = SongFormat.MAX_DATE_LENGTH + SongFormat.MAX_GROUPED_LENGTH
+            + SongFormat.MAX_GROUPED_LENGTH + SongFormat.MAX_DECIMALS + 8;
+
+    /**
+     * stream the CSV is written to
+     */
+    private final OutputStream out;
+    /**
+     * bytes not yet written to the stream
+     */
+    private final byte[] buffer;
+    /**
+     * number of bytes in the buffer
+     */
+    private int length;
+
+    /**
+     * SongExporter constructor that buffers DEFAULT_BUFFER_SIZE bytes
+     *
+     * @param out stream the rows are written to; it need not be buffered
+     */
+    public SongExporter(OutputStream out) {
+        this(out, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * SongExporter constructor
+     *
+     * @param out        stream the rows are written to; it need not be buffered
+     * @param bufferSize bytes collected before each write to the stream; at least 256
+     */
+    public SongExporter(OutputStream out, int bufferSize) {
+        if (bufferSize < 256) {
+            throw new IllegalArgumentException("the buffer must be at least 256 bytes");
+        }
+        this.out = out;
+        this.buffer = new byte[bufferSize];
+    }
+
+    /**
+     * Writes the header and every song of a catalog, in the catalog's order (by release year, then song index), and
+     * flushes
+     *
+     * @param catalog catalog to export
+     * @return number of songs written
+     * @throws IOException if the rows cannot be written
+     */
+    public int export(SongCatalog catalog) throws IOException {
+        SongColumns columns = catalog.columns();
+        int songCount = catalog.getSongCount();
+        long totalStreams = totalStreams(catalog);
+        header();
+        for (int ordinal = 0; ordinal < songCount; ordinal++) {
+            row(columns, catalog.rowAt(ordinal), totalStreams);
+        }
+        flush();
+        return songCount;
+    }
+
+    /**
+     * Writes the header and the songs at some locations of a catalog (such as the results of a filter), in the
+     * order given, and flushes.  Each share is still of all the catalog's streams.
+     *
+     * @param catalog   catalog the locations are in
+     * @param locations locations of the songs to export
+     * @return number of songs written
+     * @throws IOException if the rows cannot be written
+     */
+    public int export(SongCatalog catalog, SongLocation[] locations) throws IOException {
+        SongColumns columns = catalog.columns();
+        long totalStreams = totalStreams(catalog);
+        header();
+        for (SongLocation location : locations) {
+            if (location.yearIndex() < 0 || location.yearIndex() >= catalog.getYearCount()
+                    || location.songIndex() < 0 || location.songIndex() >= catalog.getSongCount(location.yearIndex())) {
+                throw new IllegalArgumentException("location " + location + " is not in the catalog");
+            }
+            row(columns, catalog.rowAt(location.yearIndex(), location.songIndex()), totalStreams);
+        }
+        flush();
+        return locations.length;
+    }
+
+    /**
+     * Writes everything collected so far to the stream, and flushes it
+     *
+     * @throws IOException if the rows cannot be written
+     */
+    public void flush() throws IOException {
+        drain();
+        out.flush();
+    }
+
+    /**
+     * Helper method to write the header line
+     *
+     * @throws IOException if the stream cannot be written
+     */
+    private void header() throws IOException {
+        reserve(HEADER.length() + 1);
+        for (int i = 0; i < HEADER.length(); i++) {
+            buffer[length++] = (byte) HEADER.charAt(i);
+        }
+        buffer[length++] = '\n';
+    }
+
+    /**
+     * Helper method to write one song's row
+     *
+     * @param columns      columns the row is read from
+     * @param row          row number
+     * @param totalStreams streams of every song, which the song's share is worked out of
+     * @throws IOException if the stream cannot be written
+     */
+    private void row(SongColumns columns, int row, long totalStreams) throws IOException {
+        text(columns.trackName(row));
+        buffer[length++] = ',';
+        artist(columns.getArtistPool(), columns.artistCode(row));
+        reserve(MAX_NUMBERS_LENGTH);
+        buffer[length++] = ',';
+        length = SongFormat.putDate(buffer, length, columns.releasedYear(row), columns.releasedMonth(row),
+                columns.releasedDay(row));
+        //the grouped streams contain commas, so they are quoted
+        long streams = columns.streams(row);
+        buffer[length++] = ',';
+        buffer[length++] = '"';
+        length = SongFormat.putGrouped(buffer, length, streams);
+        buffer[length++] = '"';
+        buffer[length++] = ',';
+        length = SongFormat.putPercent(buffer, length, Math.max(0, streams), totalStreams, SHARE_DECIMALS);
+        buffer[length++] = '\n';
+    }
+
+    /**
+     * Helper method to write a text field as UTF-8, quoted (with its quotes doubled) if it contains a comma, quote or
+     * line break.  A surrogate that is not half of a pair is written as '?', as String.getBytes would.  One byte is
+     * always left free after the field for the separator.
+     *
+     * @param value text written
+     * @throws IOException if the stream cannot be written
+     */
+    private void text(String value) throws IOException {
+        boolean quoted = false;
+        for (int i = 0; i < value.length() && !quoted; i++) {
+            char c = value.charAt(i);
+            quoted = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        reserve(2);
+        if (quoted) {
+            buffer[length++] = '"';
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            //four bytes for a character, two for a doubled quote, and the closing quote and separator
+            reserve(6);
+            if (c < 0x80) {
+                if (c == '"') {
+                    buffer[length++] = '"';
+                }
+                buffer[length++] = (byte) c;
+            } else if (c < 0x800) {
+                buffer[length++] = (byte) (0xC0 | c >> 6);
+                buffer[length++] = (byte) (0x80 | c & 0x3F);
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                buffer[length++] = (byte) (0xF0 | codePoint >> 18);
+                buffer[length++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+                buffer[length++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+                buffer[length++] = (byte) (0x80 | codePoint & 0x3F);
+            } else if (Character.isSurrogate(c)) {
+                buffer[length++] = '?';
+            } else {
+                buffer[length++] = (byte) (0xE0 | c >> 12);
+                buffer[length++] = (byte) (0x80 | c >> 6 & 0x3F);
+                buffer[length++] = (byte) (0x80 | c & 0x3F);
+            }
+        }
+        if (quoted) {
+            buffer[length++] = '"';
+        }
+    }
+
+    /**
+     * Helper method to write an artist name from the pool's UTF-8 bytes, quoted like text().  A comma, quote or line
+     * break byte is never part of a longer UTF-8 character, so the bytes are checked as they are.
+     *
+     * @param artists artist pool of the columns
+     * @param code    pool code of the artist name
+     * @throws IOException if the stream cannot be written
+     */
+    private void artist(StringPool artists, int code) throws IOException {
+        int utf8Length = artists.utf8Length(code);
+        //room for every byte doubled, the quotes and the separator
+        if (2 * utf8Length + 3 > buffer.length) {
+            text(artists.value(code));
+            return;
+        }
+        reserve(2 * utf8Length + 3);
+        int start = length;
+        int end = artists.copyUtf8(code, buffer, start);
+        int quotes = 0;
+        boolean quoted = false;
+        for (int i = start; i < end; i++) {
+            byte b = buffer[i];
+            if (b == '"') {
+                quotes++;
+            }
+            quoted |= b == ',' || b == '"' || b == '\n' || b == '\r';
+        }
+        if (quoted) {
+            //moved right from the end, doubling each quote, to make room for the opening quote
+            int target = end + quotes + 1;
+            buffer[target] = '"';
+            for (int i = end - 1; i >= start; i--) {
+                buffer[--target] = buffer[i];
+                if (buffer[i] == '"') {
+                    buffer[--target] = '"';
+                }
+            }
+            buffer[start] = '"';
+            end += quotes + 2;
+        }
+        length = end;
+    }
+
+    /**
+     * Helper method to make room for a number of bytes, writing the buffer to the stream if it is too full
+     *
+     * @param bytes number of bytes needed
+     * @throws IOException if the stream cannot be written
+     */
+    private void reserve(int bytes) throws IOException {
+        if (length + bytes > buffer.length) {
+            drain();
+        }
+    }
+
+    /**
+     * Helper method to write the buffered bytes to the stream and empty the buffer
+     *
+     * @throws IOException if the stream cannot be written
+     */
+    private void drain() throws IOException {
+        out.write(buffer, 0, length);
+        length = 0;
+    }
+
+    /**
+     * Helper method to add up the streams of every song; a negative count (which a file should not have) adds nothing
+     *
+     * @param catalog catalog exported
+     * @return total streams, at least 1
+     */
+    private static long totalStreams(SongCatalog catalog) {
+        SongColumns columns = catalog.columns();
+        int songCount = catalog.getSongCount();
+        long total = 0;
+        for (int ordinal = 0; ordinal < songCount; ordinal++) {
+            total += Math.max(0, columns.streams(catalog.rowAt(ordinal)));
+        }
+        return Math.max(1, total);
+    }
+}
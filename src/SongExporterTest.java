@@ -0,0 +1,139 @@
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SongExporterTest {
+
+    @org.junit.jupiter.api.Test
+    void rowsFollowCatalogOrder() throws IOException {
+
+        SongManager manager = new SongManager();
+        SongCatalog catalog = manager.getCatalog();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        //a small buffer, so rows are split across many writes
+        assertEquals(catalog.getSongCount(), new SongExporter(bytes, 256).export(catalog));
+        String[] lines = bytes.toString(StandardCharsets.UTF_8).split("\n", -1);
+        assertEquals(catalog.getSongCount() + 2, lines.length);
+        assertEquals(SongExporter.HEADER, lines[0]);
+        assertEquals("", lines[lines.length - 1]);
+
+        long totalStreams = 0;
+        for (int yearIndex = 0; yearIndex < catalog.getYearCount(); yearIndex++) {
+            for (Song song : catalog.getSongs(yearIndex)) {
+                totalStreams += Long.parseLong(song.totalNumberOfStreamsOnSpotify());
+            }
+        }
+        int line = 1;
+        for (int yearIndex = 0; yearIndex < catalog.getYearCount(); yearIndex++) {
+            for (Song song : catalog.getSongs(yearIndex)) {
+                assertEquals(expectedRow(song, totalStreams), lines[line++]);
+            }
+        }
+    }
+
+    @org.junit.jupiter.api.Test
+    void quotesAndEncodesText() throws IOException {
+
+        SongManager manager = new SongManager();
+        manager.appendSongs(List.of(
+                new String[]{"Say \"Hi\", Again", "\u00d1and\u00fa, \"Bj\u00f6rk\"", "2", "2023", "3", "4", "0", "0",
+                        "1234567"},
+                new String[]{"\u6771\u4eac \ud83c\udfb5 Night", "Someone", "1", "2023", "11", "30", "0", "0", "5"}));
+        SongCatalog catalog = manager.getCatalog();
+        SongLocation quoted = catalog.findSongLocation("Say \"Hi\", Again");
+        SongLocation emoji = catalog.findSongLocation("\u6771\u4eac \ud83c\udfb5 Night");
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        assertEquals(2, new SongExporter(bytes).export(catalog, new SongLocation[]{quoted, emoji}));
+        String[] lines = bytes.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(3, lines.length);
+        assertTrue(lines[1].startsWith("\"Say \"\"Hi\"\", Again\",\"\u00d1and\u00fa, \"\"Bj\u00f6rk\"\"\",2023-03-04,"
+                + "\"1,234,567\",0.00"), lines[1]);
+        assertTrue(lines[2].startsWith("\u6771\u4eac \ud83c\udfb5 Night,Someone,2023-11-30,\"5\",0.0000"), lines[2]);
+        assertThrows(IllegalArgumentException.class, () -> new SongExporter(bytes).export(catalog,
+                new SongLocation[]{new SongLocation(0, catalog.getSongCount(0), 0)}));
+        assertThrows(IllegalArgumentException.class, () -> new SongExporter(bytes, 100));
+    }
+
+    @org.junit.jupiter.api.Test
+    void exportAllocatesAlmostNothing() throws IOException {
+
+        int rows = 100_000;
+        long allocated = measureExport(rows)[2];
+        //well under a byte per row: a Song and its strings alone would be over a hundred
+        assertTrue(allocated < 256 * 1024 + rows / 4, allocated + " bytes allocated");
+    }
+
+    /**
+     * Measures exporting a generated catalog of 1,000,000 songs (or -Dsongs.exportBenchmark.rows=N) to a stream that
+     * drops the bytes
+     */
+    @org.junit.jupiter.api.Test
+    @org.junit.jupiter.api.condition.EnabledIfSystemProperty(named = "songs.benchmarks", matches = "true")
+    void exportSpeed() throws IOException {
+
+        int rows = SongCsvGenerator.benchmarkRows("export", 1_000_000);
+        long[] measured = measureExport(rows);
+        System.out.printf("export %,d rows: %.0f ms, %,d bytes written, %,d bytes allocated (%.3f per row)%n",
+                rows, measured[0] / 1e6, measured[1], measured[2], measured[2] / (double) rows);
+    }
+
+    /**
+     * Helper method to export a generated catalog to a stream that drops the bytes, twice, and measure the second
+     * (warmed up) export
+     *
+     * @return nanoseconds taken, bytes written and bytes allocated by the export
+     */
+    private static long[] measureExport(int rows) throws IOException {
+        SongCatalog catalog = SongCsvGenerator.catalog(17, rows);
+        long[] written = new long[1];
+        OutputStream discard = new OutputStream() {
+            @Override
+            public void write(int b) {
+                written[0]++;
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                written[0] += len;
+            }
+        };
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long nanos = 0;
+        long allocated = 0;
+        for (int round = 0; round < 2; round++) {
+            SongExporter exporter = new SongExporter(discard);
+            written[0] = 0;
+            long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+            long start = System.nanoTime();
+            assertEquals(rows, exporter.export(catalog));
+            nanos = System.nanoTime() - start;
+            allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+        }
+        return new long[]{nanos, written[0], allocated};
+    }
+
+    private static String expectedRow(Song song, long totalStreams) {
+        long streams = Long.parseLong(song.totalNumberOfStreamsOnSpotify());
+        return csv(song.trackName()) + "," + csv(song.artistName()) + ","
+                + String.format("%s-%02d-%02d", song.releasedYear(), Integer.parseInt(song.releasedMonth()),
+                Integer.parseInt(song.releasedDay())) + ",\"" + SongViewer.numberCommas(streams) + "\","
+                + BigDecimal.valueOf(streams).multiply(BigDecimal.valueOf(100)).divide(BigDecimal.valueOf(totalStreams),
+                SongExporter.SHARE_DECIMALS, RoundingMode.HALF_UP).toPlainString();
+    }
+
+    private static String csv(String text) {
+        if (text.contains(",") || text.contains("\"") || text.contains("\n") || text.contains("\r")) {
+            return "\"" + text.replace("\"", "\"\"") + "\"";
+        }
+        return text;
+    }
+}
@@ -0,0 +1,332 @@
+/**
+ * SongFilter class that describes a condition on the numeric columns of a song, such as
+ * "bpm 120 to 130 AND energy above 80 AND mode Minor".  Conditions are ranges of one column (inclusive at both ends),
+ * combined with and() and or().  A filter never changes after it is created.
+ *
+ * @author Bennett Fife
+ * @version 10/17/26
+ * @see FeatureIndex
+ */
+public final class SongFilter {
+
+    /**
+     * what a filter tests
+     */
+    enum Kind {
+        /**
+         * a column's value is within [min, max]
+         */
+        RANGE,
+        /**
+         * every child filter matches
+         */
+        AND,
+        /**
+         * at least one child filter matches
+         */
+        OR
+    }
+
+    /**
+     * how the filter matches
+     */
+    private final Kind kind;
+    /**
+     * column of a RANGE filter; null otherwise
+     */
+    private final SongColumn column;
+    /**
+     * smallest value a RANGE filter matches
+     */
+    private final long min;
+    /**
+     * largest value a RANGE filter matches
+     */
+    private final long max;
+    /**
+     * filters an AND or OR filter combines; null for RANGE
+     */
+    private final SongFilter[] children;
+
+    /**
+     * SongFilter constructor; filters are created with range(), and(), or() and the other factory methods
+     *
+     * @param kind     how the filter matches
+     * @param column   column of a RANGE filter, or null
+     * @param min      smallest value a RANGE filter matches
+     * @param max      largest value a RANGE filter matches
+     * @param children filters an AND or OR filter combines, or null
+     */
+    private SongFilter(Kind kind, SongColumn column, long min, long max, SongFilter[] children) {
+        this.kind = kind;
+        this.column = column;
+        this.min = min;
+        this.max = max;
+        this.children = children;
+    }
+
+    /**
+     * Creates a filter for the songs whose column value is within a range
+     *
+     * @param column numeric column; must not be null
+     * @param min    smallest value matched
+     * @param max    largest value matched
+     * @return new filter
+     */
+    public static SongFilter range(SongColumn column, long min, long max) {
+        if (column == null) {
+            throw new IllegalArgumentException("column must not be null");
+        }
+        return new SongFilter(Kind.RANGE, column, min, max, null);
+    }
+
+    /**
+     * Creates a filter for the songs whose column value equals a value
+     *
+     * @param column numeric column
+     * @param value  value matched
+     * @return new filter
+     */
+    public static SongFilter equalTo(SongColumn column, long value) {
+        return range(column, value, value);
+    }
+
+    /**
+     * Creates a filter for the songs whose column value is at least a value
+     *
+     * @param column numeric column
+     * @param min    smallest value matched
+     * @return new filter
+     */
+    public static SongFilter atLeast(SongColumn column, long min) {
+        return range(column, min, Long.MAX_VALUE);
+    }
+
+    /**
+     * Creates a filter for the songs whose column value is at most a value
+     *
+     * @param column numeric column
+     * @param max    largest value matched
+     * @return new filter
+     */
+    public static SongFilter atMost(SongColumn column, long max) {
+        return range(column, Long.MIN_VALUE, max);
+    }
+
+    /**
+     * Creates a filter for the songs whose column value is above a value
+     *
+     * @param column numeric column
+     * @param value  value the column must be greater than
+     * @return new filter
+     */
+    public static SongFilter greaterThan(SongColumn column, long value) {
+        return value == Long.MAX_VALUE ? range(column, 1, 0) : atLeast(column, value + 1);
+    }
+
+    /**
+     * Creates a filter for the songs whose column value is below a value
+     *
+     * @param column numeric column
+     * @param value  value the column must be less than
+     * @return new filter
+     */
+    public static SongFilter lessThan(SongColumn column, long value) {
+        return value == Long.MIN_VALUE ? range(column, 1, 0) : atMost(column, value - 1);
+    }
+
+    /**
+     * Creates a filter for the songs in a key
+     *
+     * @param keyName key name such as "C#"; a blank name matches the songs without a key
+     * @return new filter
+     */
+    public static SongFilter key(String keyName) {
+        int code = SongColumns.keyCode(keyName);
+        if (code < 0 && !keyName.isBlank()) {
+            throw new IllegalArgumentException("unknown key " + keyName);
+        }
+        return equalTo(SongColumn.KEY, code);
+    }
+
+    /**
+     * Creates a filter for the songs in a mode
+     *
+     * @param modeName "Major" or "Minor"
+     * @return new filter
+     */
+    public static SongFilter mode(String modeName) {
+        int code = SongColumns.modeCode(modeName);
+        if (code < 0) {
+            throw new IllegalArgumentException("unknown mode " + modeName);
+        }
+        return equalTo(SongColumn.MODE, code);
+    }
+
+    /**
+     * Creates a filter for the songs that match every one of the filters
+     *
+     * @param filters filters to combine; at least one
+     * @return new filter
+     */
+    public static SongFilter and(SongFilter... filters) {
+        return combine(Kind.AND, filters);
+    }
+
+    /**
+     * Creates a filter for the songs that match any of the filters
+     *
+     * @param filters filters to combine; at least one
+     * @return new filter
+     */
+    public static SongFilter or(SongFilter... filters) {
+        return combine(Kind.OR, filters);
+    }
+
+    /**
+     * Helper method to combine filters with AND or OR
+     *
+     * @param kind    AND or OR
+     * @param filters filters combined; copied
+     * @return new filter
+     * @throws IllegalArgumentException if there are no filters or one is null
+     */
+    private static SongFilter combine(Kind kind, SongFilter[] filters) {
+        if (filters.length == 0) {
+            throw new IllegalArgumentException("at least one filter must be combined");
+        }
+        for (SongFilter filter : filters) {
+            if (filter == null) {
+                throw new IllegalArgumentException("filters must not be null");
+            }
+        }
+        return new SongFilter(kind, null, 0, 0, filters.clone());
+    }
+
+    /**
+     * Checks whether a row matches this filter by reading its columns
+     *
+     * @param columns song columns
+     * @param row     row number
+     * @return true if the row matches
+     */
+    public boolean matches(SongColumns columns, int row) {
+        switch (kind) {
+            case RANGE:
+                long value = columns.get(column, row);
+                return value >= min && value <= max;
+            case AND:
+                for (SongFilter child : children) {
+                    if (!child.matches(columns, row)) {
+                        return false;
+                    }
+                }
+                return true;
+            case OR:
+                for (SongFilter child : children) {
+                    if (child.matches(columns, row)) {
+                        return true;
+                    }
+                }
+                return false;
+            default:
+                throw new IllegalStateException("unknown filter kind " + kind);
+        }
+    }
+
+    /**
+     * Retrieves the range of values of a column that the songs matching this filter can have, as far as the filter
+     * tells
+     *
+     * @param target numeric column
+     * @return {min, max}, Long.MIN_VALUE to Long.MAX_VALUE if the filter does not restrict the column, or a min above
+     * the max if no song can match
+     */
+    long[] bounds(SongColumn target) {
+        long[] bounds;
+        switch (kind) {
+            case RANGE:
+                return target == column ? new long[]{min, max} : new long[]{Long.MIN_VALUE, Long.MAX_VALUE};
+            case AND:
+                bounds = new long[]{Long.MIN_VALUE, Long.MAX_VALUE};
+                for (SongFilter child : children) {
+                    long[] childBounds = child.bounds(target);
+                    bounds[0] = Math.max(bounds[0], childBounds[0]);
+                    bounds[1] = Math.min(bounds[1], childBounds[1]);
+                }
+                return bounds;
+            case OR:
+                bounds = new long[]{Long.MAX_VALUE, Long.MIN_VALUE};
+                for (SongFilter child : children) {
+                    long[] childBounds = child.bounds(target);
+                    bounds[0] = Math.min(bounds[0], childBounds[0]);
+                    bounds[1] = Math.max(bounds[1], childBounds[1]);
+                }
+                return bounds;
+            default:
+                throw new IllegalStateException("unknown filter kind " + kind);
+        }
+    }
+
+    /**
+     * Retrieves what the filter tests
+     *
+     * @return filter kind
+     */
+    Kind kind() {
+        return kind;
+    }
+
+    /**
+     * Retrieves the column a RANGE filter tests
+     *
+     * @return column, or null for AND and OR
+     */
+    SongColumn column() {
+        return column;
+    }
+
+    /**
+     * Retrieves the smallest value a RANGE filter matches
+     *
+     * @return lower bound, inclusive
+     */
+    long min() {
+        return min;
+    }
+
+    /**
+     * Retrieves the largest value a RANGE filter matches
+     *
+     * @return upper bound, inclusive
+     */
+    long max() {
+        return max;
+    }
+
+    /**
+     * Retrieves the filters an AND or OR filter combines
+     *
+     * @return child filters, or null for RANGE
+     */
+    SongFilter[] children() {
+        return children;
+    }
+
+    /**
+     * Retrieves a description of the filter, such as "(BPM 120..130 AND MODE 1..1)"
+     *
+     * @return description
+     */
+    @Override
+    public String toString() {
+        if (kind == Kind.RANGE) {
+            return column + " " + (min == Long.MIN_VALUE ? "" : min) + ".." + (max == Long.MAX_VALUE ? "" : max);
+        }
+        StringBuilder text = new StringBuilder("(");
+        for (int i = 0; i < children.length; i++) {
+            text.append(i == 0 ? "" : " " + kind + " ").append(children[i]);
+        }
+        return text.append(')').toString();
+    }
+}
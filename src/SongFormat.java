@@ -0,0 +1,289 @@
+/**
+ * SongFormat class that formats the numbers shown for songs (stream counts with a comma every three digits,
+ * percentages and release dates) straight from their primitive values.
+ * Every format appends to a StringBuilder or writes ASCII into a byte array supplied by the caller, so a caller that
+ * reuses its builder or buffer formats any number of rows without creating objects.  Counts are the same as
+ * NumberFormat.getNumberInstance(Locale.US) and dates as "%d-%02d-%02d"; percentages are rounded half up from the
+ * exact fraction, like "%.Nf", with a whole part over 999 grouped like a count.
+ *
+ * @author Bennett Fife
+ * @version 10/17/26
+ */
+public final class SongFormat {
+
+    /**
+     * most characters a grouped long takes ("-9,223,372,036,854,775,808")
+     */
+    public static final int MAX_GROUPED_LENGTH = 26;
+    /**
+     * most decimals a percentage may have
+     */
+    public static final int MAX_DECIMALS = 6;
+    /**
+     * most characters a date takes ("-2147483648-2147483648-2147483648")
+     */
+    public static final int MAX_DATE_LENGTH = 35;
+
+    /**
+     * 10^0 to 10^8, the scales of a percentage with 0 to MAX_DECIMALS decimals
+     */
+    private static final long[] POWERS_OF_TEN = {1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L,
+            100_000_000L};
+
+    /**
+     * SongFormat has only static methods
+     */
+    private SongFormat() {
+    }
+
+    /**
+     * Formats a number with a comma every three digits from the right
+     *
+     * @param value number to format
+     * @return new string such as "3,703,895,074"
+     */
+    public static String grouped(long value) {
+        return appendGrouped(new StringBuilder(MAX_GROUPED_LENGTH), value).toString();
+    }
+
+    /**
+     * Formats a part of a whole as a percentage, rounded half up, without the percent sign
+     *
+     * @param part     the part
+     * @param whole    the whole
+     * @param decimals number of digits after the decimal point, 0 to MAX_DECIMALS
+     * @return new string such as "12.34"
+     */
+    public static String percent(long part, long whole, int decimals) {
+        return appendPercent(new StringBuilder(MAX_GROUPED_LENGTH), part, whole, decimals).toString();
+    }
+
+    /**
+     * Formats a date as year-month-day, with the month and day written as two digits
+     *
+     * @param year  year
+     * @param month month of the year
+     * @param day   day of the month
+     * @return new string such as "2023-07-14"
+     */
+    public static String date(int year, int month, int day) {
+        return appendDate(new StringBuilder(10), year, month, day).toString();
+    }
+
+    /**
+     * Appends a number with a comma every three digits from the right
+     *
+     * @param out   builder appended to
+     * @param value number to format
+     * @return out
+     */
+    public static StringBuilder appendGrouped(StringBuilder out, long value) {
+        int start = out.length();
+        int length = groupedLength(value);
+        out.setLength(start + length);
+        //the digits are worked out from the right as negative numbers, so Long.MIN_VALUE needs no special case
+        long rest = value < 0 ? value : -value;
+        int position = start + length;
+        int digits = 0;
+        do {
+            if (digits > 0 && digits % 3 == 0) {
+                out.setCharAt(--position, ',');
+            }
+            out.setCharAt(--position, (char) ('0' - rest % 10));
+            rest /= 10;
+            digits++;
+        } while (rest != 0);
+        if (value < 0) {
+            out.setCharAt(--position, '-');
+        }
+        return out;
+    }
+
+    /**
+     * Writes a number with a comma every three digits from the right, as ASCII
+     *
+     * @param out    buffer written to, with at least MAX_GROUPED_LENGTH bytes free from offset (or the exact length)
+     * @param offset index the first byte is written at
+     * @param value  number to format
+     * @return index after the last byte written
+     */
+    public static int putGrouped(byte[] out, int offset, long value) {
+        int end = offset + groupedLength(value);
+        long rest = value < 0 ? value : -value;
+        int position = end;
+        int digits = 0;
+        do {
+            if (digits > 0 && digits % 3 == 0) {
+                out[--position] = ',';
+            }
+            out[--position] = (byte) ('0' - rest % 10);
+            rest /= 10;
+            digits++;
+        } while (rest != 0);
+        if (value < 0) {
+            out[--position] = '-';
+        }
+        return end;
+    }
+
+    /**
+     * Appends a part of a whole as a percentage, rounded half up, without the percent sign
+     *
+     * @param out      builder appended to
+     * @param part     the part; must not be negative
+     * @param whole    the whole; must be positive
+     * @param decimals number of digits after the decimal point, 0 to MAX_DECIMALS
+     * @return out
+     */
+    public static StringBuilder appendPercent(StringBuilder out, long part, long whole, int decimals) {
+        long scaled = scaledPercent(part, whole, decimals);
+        long unit = POWERS_OF_TEN[decimals];
+        appendGrouped(out, scaled / unit);
+        if (decimals > 0) {
+            out.append('.');
+            long fraction = scaled % unit;
+            for (long digit = unit / 10; digit > 0; digit /= 10) {
+                out.append((char) ('0' + fraction / digit % 10));
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Writes a part of a whole as a percentage, rounded half up and without the percent sign, as ASCII
+     *
+     * @param out      buffer written to, with at least MAX_GROUPED_LENGTH + MAX_DECIMALS + 1 bytes free from offset
+     * @param offset   index the first byte is written at
+     * @param part     the part; must not be negative
+     * @param whole    the whole; must be positive
+     * @param decimals number of digits after the decimal point, 0 to MAX_DECIMALS
+     * @return index after the last byte written
+     */
+    public static int putPercent(byte[] out, int offset, long part, long whole, int decimals) {
+        long scaled = scaledPercent(part, whole, decimals);
+        long unit = POWERS_OF_TEN[decimals];
+        int position = putGrouped(out, offset, scaled / unit);
+        if (decimals > 0) {
+            out[position++] = '.';
+            long fraction = scaled % unit;
+            for (long digit = unit / 10; digit > 0; digit /= 10) {
+                out[position++] = (byte) ('0' + fraction / digit % 10);
+            }
+        }
+        return position;
+    }
+
+    /**
+     * Appends a date as year-month-day, with the month and day written as at least two digits
+     *
+     * @param out   builder appended to
+     * @param year  year
+     * @param month month of the year
+     * @param day   day of the month
+     * @return out
+     */
+    public static StringBuilder appendDate(StringBuilder out, int year, int month, int day) {
+        out.append(year).append('-');
+        if (month >= 0 && month < 10) {
+            out.append('0');
+        }
+        out.append(month).append('-');
+        if (day >= 0 && day < 10) {
+            out.append('0');
+        }
+        return out.append(day);
+    }
+
+    /**
+     * Writes a date as year-month-day, with the month and day written as at least two digits, as ASCII
+     *
+     * @param out    buffer written to, with at least MAX_DATE_LENGTH bytes free from offset
+     * @param offset index the first byte is written at
+     * @param year   year
+     * @param month  month of the year
+     * @param day    day of the month
+     * @return index after the last byte written
+     */
+    public static int putDate(byte[] out, int offset, int year, int month, int day) {
+        int position = putDigits(out, offset, year);
+        out[position++] = '-';
+        if (month >= 0 && month < 10) {
+            out[position++] = '0';
+        }
+        position = putDigits(out, position, month);
+        out[position++] = '-';
+        if (day >= 0 && day < 10) {
+            out[position++] = '0';
+        }
+        return putDigits(out, position, day);
+    }
+
+    /**
+     * Helper method to count the characters of a grouped number: its digits, a comma per three digits after the
+     * first group, and the sign
+     *
+     * @param value number formatted
+     * @return number of characters it takes with grouping
+     */
+    private static int groupedLength(long value) {
+        int digits = 1;
+        for (long rest = value < 0 ? value : -value; rest <= -10; rest /= 10) {
+            digits++;
+        }
+        return digits + (digits - 1) / 3 + (value < 0 ? 1 : 0);
+    }
+
+    /**
+     * Helper method to write a number without grouping, as ASCII
+     *
+     * @param out    buffer written to
+     * @param offset position of the first character
+     * @param value  number written
+     * @return position after the last character
+     */
+    private static int putDigits(byte[] out, int offset, int value) {
+        int digits = 1;
+        for (int rest = value < 0 ? value : -value; rest <= -10; rest /= 10) {
+            digits++;
+        }
+        int end = offset + digits + (value < 0 ? 1 : 0);
+        int position = end;
+        int rest = value < 0 ? value : -value;
+        do {
+            out[--position] = (byte) ('0' - rest % 10);
+            rest /= 10;
+        } while (rest != 0);
+        if (value < 0) {
+            out[position - 1] = '-';
+        }
+        return end;
+    }
+
+    /**
+     * Helper method to work out part / whole * 100 * 10^decimals, rounded half up.  The exact quotient is used while
+     * the scaled part fits in a long; past that (parts over 10^10 times 10^decimals) a double is accurate to far more
+     * digits than are shown.
+     *
+     * @param part     part of the whole, not negative
+     * @param whole    whole, positive
+     * @param decimals number of decimals, 0 to MAX_DECIMALS
+     * @return percentage times 10^decimals, rounded half up
+     * @throws IllegalArgumentException if an argument is out of range
+     */
+    private static long scaledPercent(long part, long whole, int decimals) {
+        if (part < 0 || whole <= 0) {
+            throw new IllegalArgumentException("the part must not be negative and the whole must be positive");
+        }
+        if (decimals < 0 || decimals > MAX_DECIMALS) {
+            throw new IllegalArgumentException("decimals must be in the range 0 to " + MAX_DECIMALS);
+        }
+        long scale = POWERS_OF_TEN[decimals + 2];
+        if (part > Long.MAX_VALUE / scale) {
+            return Math.round(part / (double) whole * scale);
+        }
+        long scaledPart = part * scale;
+        long quotient = scaledPart / whole;
+        long remainder = scaledPart % whole;
+        return remainder >= whole - remainder ? quotient + 1 : quotient;
+    }
+}
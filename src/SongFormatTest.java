@@ -0,0 +1,128 @@
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.text.NumberFormat;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SongFormatTest {
+
+    @org.junit.jupiter.api.Test
+    void groupedLikeNumberFormat() {
+
+        NumberFormat numberFormat = NumberFormat.getNumberInstance(Locale.US);
+        long[] values = {0, 1, -1, 9, 10, 999, 1_000, -1_000, 999_999, 1_000_000, 2_147_483_647L, 3_703_895_074L,
+                Long.MAX_VALUE, Long.MIN_VALUE, Long.MIN_VALUE + 1};
+        SplittableRandom random = new SplittableRandom(3);
+        StringBuilder out = new StringBuilder("streams: ");
+        byte[] buffer = new byte[SongFormat.MAX_GROUPED_LENGTH + 2];
+        for (int i = 0; i < values.length + 20_000; i++) {
+            long value = i < values.length ? values[i] : random.nextLong() >> random.nextInt(64);
+            String expected = numberFormat.format(value);
+            assertEquals(expected, SongFormat.grouped(value));
+            out.setLength(9);
+            assertEquals("streams: " + expected, SongFormat.appendGrouped(out, value).toString());
+            buffer[0] = 'x';
+            int end = SongFormat.putGrouped(buffer, 1, value);
+            assertEquals("x" + expected, new String(buffer, 0, end, StandardCharsets.US_ASCII));
+        }
+        assertEquals(SongFormat.MAX_GROUPED_LENGTH, SongFormat.grouped(Long.MIN_VALUE).length());
+    }
+
+    @org.junit.jupiter.api.Test
+    void percentRoundsHalfUp() {
+
+        assertEquals("0.05", SongFormat.percent(1, 1966, 2));
+        assertEquals("12.50", SongFormat.percent(1, 8, 2));
+        assertEquals("12.5", SongFormat.percent(1, 8, 1));
+        //12.5 rounds up, 33.33... rounds down
+        assertEquals("13", SongFormat.percent(1, 8, 0));
+        assertEquals("33.333333", SongFormat.percent(1, 3, 6));
+        assertEquals("66.67", SongFormat.percent(2, 3, 2));
+        assertEquals("100.00", SongFormat.percent(953, 953, 2));
+        assertEquals("0.00", SongFormat.percent(0, 953, 2));
+        assertEquals("1,000.0", SongFormat.percent(10, 1, 1));
+        //parts too big for the exact quotient
+        assertEquals("50.000000", SongFormat.percent(Long.MAX_VALUE / 2, Long.MAX_VALUE, 6));
+        assertEquals("100.00", SongFormat.percent(Long.MAX_VALUE, Long.MAX_VALUE, 2));
+
+        SplittableRandom random = new SplittableRandom(5);
+        StringBuilder out = new StringBuilder();
+        byte[] buffer = new byte[SongFormat.MAX_GROUPED_LENGTH + SongFormat.MAX_DECIMALS + 1];
+        for (int i = 0; i < 20_000; i++) {
+            long whole = 1 + random.nextLong(10_000_000_000L);
+            long part = random.nextLong(whole + 1);
+            int decimals = random.nextInt(SongFormat.MAX_DECIMALS + 1);
+            String expected = BigDecimal.valueOf(part).multiply(BigDecimal.valueOf(100))
+                    .divide(BigDecimal.valueOf(whole), decimals, RoundingMode.HALF_UP).toPlainString();
+            out.setLength(0);
+            assertEquals(expected, SongFormat.appendPercent(out, part, whole, decimals).toString());
+            int end = SongFormat.putPercent(buffer, 0, part, whole, decimals);
+            assertEquals(expected, new String(buffer, 0, end, StandardCharsets.US_ASCII));
+        }
+        assertThrows(IllegalArgumentException.class, () -> SongFormat.percent(1, 0, 2));
+        assertThrows(IllegalArgumentException.class, () -> SongFormat.percent(-1, 10, 2));
+        assertThrows(IllegalArgumentException.class, () -> SongFormat.percent(1, 10, SongFormat.MAX_DECIMALS + 1));
+    }
+
+    @org.junit.jupiter.api.Test
+    void datesLikeStringFormat() {
+
+        int[][] dates = {{2023, 7, 14}, {1930, 1, 1}, {2022, 12, 31}, {999, 10, 9}, {0, 0, 0}, {-5, -3, 7},
+                {Integer.MIN_VALUE, Integer.MIN_VALUE, Integer.MIN_VALUE}, {Integer.MAX_VALUE, 99, 100}};
+        StringBuilder out = new StringBuilder();
+        byte[] buffer = new byte[SongFormat.MAX_DATE_LENGTH];
+        for (int[] date : dates) {
+            String expected = String.format("%d-%02d-%02d", date[0], date[1], date[2]);
+            assertEquals(expected, SongFormat.date(date[0], date[1], date[2]));
+            out.setLength(0);
+            assertEquals(expected, SongFormat.appendDate(out, date[0], date[1], date[2]).toString());
+            int end = SongFormat.putDate(buffer, 0, date[0], date[1], date[2]);
+            assertEquals(expected, new String(buffer, 0, end, StandardCharsets.US_ASCII));
+        }
+    }
+
+    /**
+     * Measures grouping a stream count with a new NumberFormat for every count (the viewer's old way), with a shared
+     * NumberFormat, and with SongFormat into a reused builder
+     */
+    @org.junit.jupiter.api.Test
+    @org.junit.jupiter.api.condition.EnabledIfSystemProperty(named = "songs.benchmarks", matches = "true")
+    void groupingSpeed() {
+
+        SplittableRandom random = new SplittableRandom(9);
+        long[] streams = new long[1 << 12];
+        for (int i = 0; i < streams.length; i++) {
+            streams[i] = random.nextLong(4_000_000_000L);
+        }
+        int calls = 200_000;
+        double[] nanos = new double[3];
+        long check = 0;
+        NumberFormat shared = NumberFormat.getNumberInstance(Locale.US);
+        StringBuilder out = new StringBuilder(SongFormat.MAX_GROUPED_LENGTH);
+        //measured twice, and the second (warmed up) measurement is kept
+        for (int round = 0; round < 2; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < calls; i++) {
+                check += NumberFormat.getNumberInstance(Locale.US).format(streams[i & (streams.length - 1)]).length();
+            }
+            nanos[0] = (System.nanoTime() - start) / (double) calls;
+            start = System.nanoTime();
+            for (int i = 0; i < calls; i++) {
+                check += shared.format(streams[i & (streams.length - 1)]).length();
+            }
+            nanos[1] = (System.nanoTime() - start) / (double) calls;
+            start = System.nanoTime();
+            for (int i = 0; i < calls; i++) {
+                out.setLength(0);
+                check += SongFormat.appendGrouped(out, streams[i & (streams.length - 1)]).length();
+            }
+            nanos[2] = (System.nanoTime() - start) / (double) calls;
+        }
+        assertTrue(check > 0);
+        System.out.printf("group a stream count: new NumberFormat %.0f ns, shared NumberFormat %.0f ns, SongFormat %.0f"
+                + " ns%n", nanos[0], nanos[1], nanos[2]);
+    }
+}
@@ -0,0 +1,105 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * SongLoadEvent class that reports each catalog load to JDK Flight Recorder, with the time each stage took.
+ * A stage that did not run (parsing, when the snapshot was opened instead) has a time of 0.
+ *
+ * @author Bennett Fife
+ * @version 10/17/26
+ */
+@Name("songs.Load")
+@Label("Song Catalog Load")
+@Category("Songs")
+@Description("Loading a song file (or its snapshot) into a catalog")
+class SongLoadEvent extends jdk.jfr.Event {
+
+    /**
+     * song file, directory or glob loaded
+     */
+    @Label("Path")
+    String path;
+
+    /**
+     * number of song rows loaded
+     */
+    @Label("Rows")
+    int rows;
+
+    /**
+     * number of rows with an invalid numeric cell
+     */
+    @Label("Invalid Rows")
+    @Description("Rows parsed with a numeric cell that was not a number or did not fit its column (stored as 0)")
+    int invalidRows;
+
+    /**
+     * number of song files loaded
+     */
+    @Label("Partitions")
+    int partitions;
+
+    /**
+     * true if the rows were read from a CatalogSnapshot instead of parsed
+     */
+    @Label("From Snapshot")
+    boolean fromSnapshot;
+
+    /**
+     * name of the SongStorage the rows are kept in
+     */
+    @Label("Storage")
+    String storage;
+
+    /**
+     * time taken to open the snapshot
+     */
+    @Label("Open Snapshot Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long openSnapshotTime;
+
+    /**
+     * time taken to parse the song file
+     */
+    @Label("Parse Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long parseTime;
+
+    /**
+     * time taken to sort each release year
+     */
+    @Label("Sort Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long sortTime;
+
+    /**
+     * time taken to write the snapshot
+     */
+    @Label("Write Snapshot Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long writeSnapshotTime;
+
+    /**
+     * time taken to load every song file of a partitioned catalog
+     */
+    @Label("Load Partitions Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long loadPartitionsTime;
+
+    /**
+     * time taken to merge the partitions into one catalog
+     */
+    @Label("Merge Partitions Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long mergePartitionsTime;
+
+    /**
+     * time taken to build the lookup indexes and move the rows to their storage
+     */
+    @Label("Build Indexes Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long buildIndexesTime;
+}
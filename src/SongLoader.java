@@ -0,0 +1,228 @@
+import com.opencsv.CSVReader;
+import com.opencsv.exceptions.CsvValidationException;
+
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+/**
+ * SongLoader class that streams a song file once into SongColumns and buckets each row by its release year.
+ * Every year gets a growable buffer of row numbers that is compacted when loading is finished,
+ * so the file does not need to be grouped by year and no separate year count file is needed.
+ *
+ * @author Bennett Fife
+ * @version 10/17/26
+ */
+public class SongLoader {
+
+    /**
+     * starting capacity of a year buffer
+     */
+    private static final int INITIAL_BUCKET_CAPACITY = 16;
+    /**
+     * number of release years that fit before the year arrays are first resized
+     */
+    private static final int INITIAL_YEAR_CAPACITY = 64;
+
+    /**
+     * columns the rows are read into, in file order
+     */
+    private final HeapSongColumns columns = new HeapSongColumns();
+    /**
+     * release years seen so far in ascending order, and the buffer of each; there are only as many entries as distinct
+     * years, so a year far from the others (or negative) costs one entry
+     */
+    private int[] years = new int[INITIAL_YEAR_CAPACITY];
+    /**
+     * row buffer of each entry of years
+     */
+    private YearBucket[] buckets = new YearBucket[INITIAL_YEAR_CAPACITY];
+    /**
+     * number of entries of years and buckets in use
+     */
+    private int bucketCount;
+
+    /**
+     * Reads every song row of a 'spotify-2023.csv' shaped UTF-8 file with OpenCSV (the header line is skipped)
+     *
+     * @param spotifySongsPath path of the song file
+     */
+    public void load(String spotifySongsPath) {
+        try (CSVReader spotify = new CSVReader(new FileReader(spotifySongsPath, StandardCharsets.UTF_8))) {
+            //skip the header line
+            spotify.readNext();
+            String[] songLine;
+            while ((songLine = spotify.readNext()) != null) {
+                add(songLine);
+            }
+        } catch (IOException | CsvValidationException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Reads every song row of a 'spotify-2023.csv' shaped file with a MappedCsvParser, which parses chunks of the
+     * memory-mapped file in parallel (the header line is skipped)
+     *
+     * @param spotifySongsPath path of the song file
+     */
+    public void loadMapped(String spotifySongsPath) {
+        loadMapped(spotifySongsPath, bytes -> {
+        });
+    }
+
+    /**
+     * Reads every song row of a 'spotify-2023.csv' shaped file with a MappedCsvParser, reporting the bytes parsed
+     *
+     * @param spotifySongsPath path of the song file
+     * @param parsedBytes      told the size of every chunk of the file once it is parsed, from the parsing threads
+     */
+    public void loadMapped(String spotifySongsPath, LongConsumer parsedBytes) {
+        for (SongColumns chunk : new MappedCsvParser(Path.of(spotifySongsPath)).parse(parsedBytes)) {
+            addAll(chunk);
+        }
+    }
+
+    /**
+     * Adds a song row to the buffer of its release year
+     *
+     * @param songLine one row of song data
+     */
+    public void add(String[] songLine) {
+        bucket(columns.add(songLine));
+    }
+
+    /**
+     * Adds every row of parsed columns to the buffers of their release years
+     *
+     * @param chunk parsed song rows
+     */
+    public void addAll(SongColumns chunk) {
+        int first = columns.addAll(chunk);
+        for (int row = first; row < columns.getRowCount(); row++) {
+            bucket(row);
+        }
+    }
+
+    /**
+     * Helper method to add a stored row to the buffer of its release year
+     *
+     * @param row row number
+     */
+    private void bucket(int row) {
+        int year = columns.releasedYear(row);
+        int index = Arrays.binarySearch(years, 0, bucketCount, year);
+        if (index < 0) {
+            //a new year is inserted in order, so the buffers never need sorting
+            index = -index - 1;
+            if (bucketCount == years.length) {
+                years = Arrays.copyOf(years, bucketCount * 2);
+                buckets = Arrays.copyOf(buckets, bucketCount * 2);
+            }
+            System.arraycopy(years, index, years, index + 1, bucketCount - index);
+            System.arraycopy(buckets, index, buckets, index + 1, bucketCount - index);
+            years[index] = year;
+            buckets[index] = new YearBucket(year);
+            bucketCount++;
+        }
+        buckets[index].add(row);
+    }
+
+    /**
+     * Retrieves the number of song rows read so far
+     *
+     * @return number of rows loaded
+     */
+    public long getRowsLoaded() {
+        return columns.getRowCount();
+    }
+
+    /**
+     * Retrieves the columns holding every row read so far
+     *
+     * @return song columns (not a copy)
+     */
+    public SongColumns getColumns() {
+        return columns;
+    }
+
+    /**
+     * Retrieves the release years in ascending order
+     *
+     * @return new array of release years
+     */
+    public String[] getReleaseYears() {
+        YearBucket[] sorted = sortedBuckets();
+        String[] releaseYears = new String[sorted.length];
+        for (int i = 0; i < sorted.length; i++) {
+            releaseYears[i] = SongColumns.numberName(sorted[i].year);
+        }
+        return releaseYears;
+    }
+
+    /**
+     * Retrieves the row numbers of every release year, compacted to their exact size.  Row i holds the rows of
+     * getReleaseYears()[i] in file order.
+     *
+     * @return new jagged array of row numbers into getColumns()
+     */
+    public int[][] getYearRows() {
+        YearBucket[] sorted = sortedBuckets();
+        int[][] yearRows = new int[sorted.length][];
+        for (int i = 0; i < sorted.length; i++) {
+            yearRows[i] = Arrays.copyOf(sorted[i].rows, sorted[i].size);
+        }
+        return yearRows;
+    }
+
+    /**
+     * Helper method to copy the year buckets, which are kept in numeric year order
+     *
+     * @return array of year buckets in ascending year order
+     */
+    private YearBucket[] sortedBuckets() {
+        return Arrays.copyOf(buckets, bucketCount);
+    }
+
+    /**
+     * Growable buffer of the rows released in one year
+     */
+    private static final class YearBucket {
+        /**
+         * release year of the rows
+         */
+        private final int year;
+        /**
+         * rows released in the year, in file order
+         */
+        private int[] rows = new int[INITIAL_BUCKET_CAPACITY];
+        /**
+         * number of rows in use
+         */
+        private int size;
+
+        /**
+         * YearBucket constructor starts an empty bucket for a release year
+         *
+         * @param year release year of the rows
+         */
+        private YearBucket(int year) {
+            this.year = year;
+        }
+
+        /**
+         * Helper method to add a row to the bucket, growing it if it is full
+         *
+         * @param row row added
+         */
+        private void add(int row) {
+            if (size == rows.length) {
+                rows = Arrays.copyOf(rows, size * 2);
+            }
+            rows[size++] = row;
+        }
+    }
+}
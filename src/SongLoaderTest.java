@@ -0,0 +1,97 @@
+import com.opencsv.CSVReader;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SongLoaderTest {
+
+    @org.junit.jupiter.api.Test
+    void yearBucketsMatchCountFile() throws Exception {
+
+        SongLoader loader = new SongLoader();
+        loader.load("spotify-2023.csv");
+        String[] releaseYears = loader.getReleaseYears();
+        int[][] yearRows = loader.getYearRows();
+
+        //the derived buckets must agree with 'count-by-release-year.csv'
+        try (CSVReader counts = new CSVReader(Files.newBufferedReader(Path.of("count-by-release-year.csv"),
+                StandardCharsets.UTF_8))) {
+            assertEquals(Integer.parseInt(counts.readNext()[0]), releaseYears.length);
+            counts.readNext();
+            for (int i = 0; i < releaseYears.length; i++) {
+                String[] yearsLine = counts.readNext();
+                assertEquals(yearsLine[0], releaseYears[i]);
+                assertEquals(Integer.parseInt(yearsLine[1]), yearRows[i].length);
+            }
+        }
+        assertEquals(953, loader.getRowsLoaded());
+    }
+
+    @org.junit.jupiter.api.Test
+    void ungroupedRows() {
+
+        SongLoader loader = new SongLoader();
+        loader.add(new String[]{"B", "Artist", "1", "2020", "1", "1", "0", "0", "5"});
+        loader.add(new String[]{"A", "Artist", "1", "1999", "1", "1", "0", "0", "5"});
+        loader.add(new String[]{"C", "Artist", "1", "2020", "1", "1", "0", "0", "5"});
+
+        assertArrayEquals(new String[]{"1999", "2020"}, loader.getReleaseYears());
+        SongColumns columns = loader.getColumns();
+        assertEquals("B", columns.trackName(loader.getYearRows()[1][0]));
+        assertEquals("C", columns.trackName(loader.getYearRows()[1][1]));
+    }
+
+    @org.junit.jupiter.api.Test
+    void yearsFarApart() {
+
+        //a negative year or a typo such as 20230 gets its own bucket, not an array reaching up to it
+        SongLoader loader = new SongLoader();
+        HeapSongColumns chunk = new HeapSongColumns();
+        int[] years = {2023, 20230, -5, 0, 2023, 1930};
+        for (int i = 0; i < years.length; i++) {
+            long[] values = new long[SongColumn.values().length];
+            values[SongColumn.RELEASED_YEAR.ordinal()] = years[i];
+            chunk.add("Song " + i, "Artist", values);
+        }
+        loader.addAll(chunk);
+        //enough more years to grow the year arrays, added from both ends
+        for (int i = 0; i < 100; i++) {
+            String year = String.valueOf(i % 2 == 0 ? 1800 + i : 3000 - i);
+            loader.add(new String[]{"Filler " + i, "Artist", "1", year, "1", "1", "0", "0", "5"});
+        }
+        String[] releaseYears = loader.getReleaseYears();
+        int[][] yearRows = loader.getYearRows();
+        assertEquals(105, releaseYears.length);
+        for (int i = 1; i < releaseYears.length; i++) {
+            assertTrue(Integer.parseInt(releaseYears[i - 1]) < Integer.parseInt(releaseYears[i]));
+        }
+        assertEquals("-5", releaseYears[0]);
+        assertEquals("20230", releaseYears[releaseYears.length - 1]);
+        int year2023 = Arrays.asList(releaseYears).indexOf("2023");
+        assertArrayEquals(new int[]{0, 4}, yearRows[year2023]);
+        assertEquals(loader.getRowsLoaded(), Arrays.stream(yearRows).mapToInt(rows -> rows.length).sum());
+    }
+
+    @org.junit.jupiter.api.Test
+    @org.junit.jupiter.api.condition.EnabledIfSystemProperty(named = "songs.benchmarks", matches = "true")
+    void loaderThroughput() throws Exception {
+
+        int rows = SongCsvGenerator.benchmarkRows("loader", 5_000_000);
+        Path file = SongCsvGenerator.tempFile(42, rows);
+        try {
+            long start = System.nanoTime();
+            SongManager manager = new SongManager(file.toString());
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            assertEquals(rows, manager.getSongCount());
+            System.out.printf("loaded %,d rows in %.2f s (%,.0f rows/sec)%n", rows, seconds, rows / seconds);
+        } finally {
+            Files.deleteIfExists(CatalogSnapshot.snapshotPath(file));
+            Files.deleteIfExists(file);
+        }
+    }
+}
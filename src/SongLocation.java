@@ -0,0 +1,11 @@
+/**
+ * SongLocation record that describes where a song sits in a SongManager.
+ *
+ * @param yearIndex index of the song's release year
+ * @param songIndex index of the song within its release year
+ * @param ordinal   position of the song counted across every release year, starting at 0
+ * @author Bennett Fife
+ * @version 10/17/26
+ */
+public record SongLocation(int yearIndex, int songIndex, int ordinal) {
+}
@@ -1,13 +1,17 @@
-import com.opencsv.CSVReader;
-import com.opencsv.exceptions.CsvValidationException;
-
-import java.io.FileReader;
-import java.io.IOException;
-import java.util.Arrays;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.IntConsumer;
 
 /**
  * SongManager class that manages songs and year of release data.
  * It also provides methods that let clients access song and year data.
+ * The data is held in an immutable SongCatalog published through a volatile field: reads never lock, and sorting,
+ * appending and reloading build a new catalog off to the side and swap it in at once, so readers on other threads
+ * see either the old catalog or the new one, never a mix.  Callers that make several reads which must agree with each
+ * other (for example a year index and that year's songs) should take one catalog from getCatalog() and read from it.
+ * getMetrics() tells how long the last load took, stage by stage, and (once enabled) how long each query method takes.
  *
  * @author Bennett Fife
  * @version 10/25/23
@@ -16,56 +20,117 @@ import java.util.Arrays;
 
 public class SongManager implements SongManagerInterface {
 
-    private final Song[][] songs;
-    private final String[] releaseYears;
+    /**
+     * song file read by the no-argument constructor
+     */
+    public static final String DEFAULT_SONGS_PATH = "spotify-2023.csv";
+
+    /**
+     * song file, directory or glob the catalog is loaded from
+     */
+    private final String spotifySongsPath;
+    /**
+     * whether a catalog snapshot is opened or written
+     */
+    private final boolean useSnapshot;
+    /**
+     * where the song columns are kept
+     */
+    private final SongStorage storage;
+    /**
+     * load phase timings and query latencies
+     */
+    private final SongMetrics metrics = new SongMetrics();
+    /**
+     * current catalog; replaced as a whole, never changed in place
+     */
+    private volatile SongCatalog catalog;
+    /**
+     * held while a new catalog is built, so writers publish one after another and none of their changes are lost
+     */
+    private final Object writeLock = new Object();
 
     /**
-     * SongManager constructor pulls song/year data from files, places them in arrays, and sorts the songs.
+     * SongManager constructor pulls song/year data from 'spotify-2023.csv', places them in arrays, and sorts the songs.
      **/
     public SongManager() {
+        this(DEFAULT_SONGS_PATH);
+    }
 
-        String yearsCountPath = "count-by-release-year.csv";
-        String spotifySongsPath = "spotify-2023.csv";
-
-        try {
-            CSVReader countByReleaseCSV = new CSVReader(new FileReader(yearsCountPath));
-            CSVReader spotify = new CSVReader(new FileReader(spotifySongsPath));
-            String[] firstLine = countByReleaseCSV.readNext();
-            int yearCount = Integer.parseInt(firstLine[0]); //pull the number of years data from the first line
-            countByReleaseCSV.readNext();
-            songs = new Song[yearCount][]; //set the rows of the jagged array
-            releaseYears = new String[yearCount];
-
-            int yearIterator = 0;
-            String[] yearsLine;
-
-            //iterate through 'count-by-release-year.csv'
-            while ((yearsLine = countByReleaseCSV.readNext()) != null) {
-                //fill releaseYears with years (String) using csv data
-                releaseYears[yearIterator] = yearsLine[0];
-                //set each row length of the 2d array using csv data
-                songs[yearIterator] = new Song[Integer.parseInt(yearsLine[1])];
-                yearIterator++;
-            }
+    /**
+     * SongManager constructor that reads the song file once, buckets the songs by release year, and sorts the songs.
+     * The release years are taken from the song rows themselves, so the file does not need to be grouped by year.
+     * The parsed, sorted catalog is saved as a CatalogSnapshot next to the song file, and later instances open that
+     * snapshot instead of parsing the file again for as long as the file is unchanged.
+     *
+     * @param spotifySongsPath path of a 'spotify-2023.csv' shaped song file, or a directory or glob of them
+     **/
+    public SongManager(String spotifySongsPath) {
+        this(spotifySongsPath, true);
+    }
+
+    /**
+     * SongManager constructor that reads the song file once, buckets the songs by release year, and sorts the songs.
+     *
+     * @param spotifySongsPath path of a 'spotify-2023.csv' shaped song file, or a directory or glob of them
+     * @param useSnapshot      true to open (or else write) the CatalogSnapshot of the song file,
+     *                         false to always parse the song file
+     **/
+    public SongManager(String spotifySongsPath, boolean useSnapshot) {
+        this(spotifySongsPath, useSnapshot, percent -> {
+        });
+    }
 
-            //iterate through 'spotify.csv'
-            while ((spotify.readNext()) != null) {
-                //iterate through each index of the 2d array
-                for (int row = 0; row < getYearCount(); row++) {
-                    for (int col = 0; col < getSongCount(row); col++) {
-                        //temp String[] of specific song data
-                        String[] songLine = spotify.readNext();
-                        //create a new Song object at each index of the 2d array using songLine data
-                        songs[row][col] = new Song(songLine[0], songLine[1], songLine[3], songLine[4], songLine[5], songLine[8]);
-                    }
-                }
+    /**
+     * SongManager constructor that reads the song file once, buckets the songs by release year, and sorts the songs,
+     * reporting how far along it is (so a window can show the progress of a load on another thread)
+     *
+     * @param spotifySongsPath path of a 'spotify-2023.csv' shaped song file, or a directory or glob of them
+     * @param useSnapshot      true to open (or else write) the CatalogSnapshot of the song file,
+     *                         false to always parse the song file
+     * @param progress         told the percentage done, from 0 to 100, never decreasing
+     * @see SongCatalog#load(String, boolean, IntConsumer)
+     **/
+    public SongManager(String spotifySongsPath, boolean useSnapshot, IntConsumer progress) {
+        this(spotifySongsPath, useSnapshot, SongStorage.HEAP, progress);
+    }
 
-            }
-        } catch (IOException | CsvValidationException e) {
-            throw new RuntimeException(e);
-        }
-        //sort songs by track name for each year
-        sortSongs();
+    /**
+     * SongManager constructor that reads the song file once, buckets the songs by release year, sorts the songs,
+     * and keeps them in the specified storage.  OFF_HEAP takes the rows of a very large catalog out of the garbage
+     * collector's way; Song objects are still built for callers, one per song asked for.
+     *
+     * @param spotifySongsPath path of a 'spotify-2023.csv' shaped song file, or a directory or glob of them
+     * @param useSnapshot      true to open (or else write) the CatalogSnapshot of the song file,
+     *                         false to always parse the song file
+     * @param storage          where the song rows are kept, also after appends and reloads
+     * @param progress         told the percentage done, from 0 to 100, never decreasing
+     * @see SongCatalog#load(String, boolean, SongStorage, IntConsumer)
+     **/
+    public SongManager(String spotifySongsPath, boolean useSnapshot, SongStorage storage, IntConsumer progress) {
+        this.spotifySongsPath = spotifySongsPath;
+        this.useSnapshot = useSnapshot;
+        this.storage = storage;
+        catalog = SongCatalog.load(spotifySongsPath, useSnapshot, storage, progress, metrics);
+    }
+
+    /**
+     * Retrieves the current catalog.  The catalog never changes, so every read made through it is consistent.
+     *
+     * @return current catalog
+     */
+    public SongCatalog getCatalog() {
+        return catalog;
+    }
+
+    /**
+     * Retrieves the metrics of this manager: the stage timings of the last load and, while enabled, the latency of
+     * every query method
+     *
+     * @return metrics (not a copy)
+     */
+    public SongMetrics getMetrics() {
+        return metrics;
     }
 
     /**
@@ -75,7 +140,10 @@ public class SongManager implements SongManagerInterface {
      */
     @Override
     public int getYearCount() {
-        return songs.length;
+        long start = metrics.start();
+        int result = catalog.getYearCount();
+        metrics.finish(SongMetrics.Query.GET_YEAR_COUNT, start);
+        return result;
     }
 
     /**
@@ -86,11 +154,10 @@ public class SongManager implements SongManagerInterface {
      */
     @Override
     public int getSongCount(int yearIndex) {
-        if (yearIndex < 0 || yearIndex > getYearCount() - 1) {
-            throw new IllegalArgumentException("year must be a valid index in the range 0 to count - 1");
-        }
-
-        return songs[yearIndex].length;
+        long start = metrics.start();
+        int result = catalog.getSongCount(yearIndex);
+        metrics.finish(SongMetrics.Query.GET_SONG_COUNT, start);
+        return result;
     }
 
     /**
@@ -100,30 +167,23 @@ public class SongManager implements SongManagerInterface {
      */
     @Override
     public int getSongCount() {
-        int countTotal = 0;
-        for (Song[] songsInRow : songs) {
-            countTotal += songsInRow.length;
-        }
-        return countTotal;
+        long start = metrics.start();
+        int result = catalog.getSongCount();
+        metrics.finish(SongMetrics.Query.GET_SONG_COUNT, start);
+        return result;
     }
 
     /**
-     * Retrieves the song number of a track name starting from the beginning of Song[][] songs
+     * Retrieves the song number of a track name starting from the first song of the first release year
      *
      * @param trackName name of the track to search for
-     * @return song number from every song within Song[][] songs, or -1 if the track isn't found
+     * @return song number counted across every release year, or -1 if the track isn't found
      */
     public int getSongNum(String trackName) {
-        int num = 0;
-        for (int row = 0; row < getYearCount(); row++) {
-            for (int col = 0; col < getSongCount(row); col++) {
-                num++;
-                if (trackName.equals(getSong(row, col).trackName())) {
-                    return num;
-                }
-            }
-        }
-        return -1;
+        long start = metrics.start();
+        int result = catalog.getSongNum(trackName);
+        metrics.finish(SongMetrics.Query.GET_SONG_NUM, start);
+        return result;
     }
 
     /**
@@ -134,10 +194,10 @@ public class SongManager implements SongManagerInterface {
      */
     @Override
     public String getYearName(int yearIndex) {
-        if (yearIndex < 0 || yearIndex > getYearCount() - 1) {
-            throw new IllegalArgumentException("year must be a valid index in the range 0 to count - 1");
-        }
-        return releaseYears[yearIndex];
+        long start = metrics.start();
+        String result = catalog.getYearName(yearIndex);
+        metrics.finish(SongMetrics.Query.GET_YEAR_NAME, start);
+        return result;
     }
 
     /**
@@ -164,13 +224,10 @@ public class SongManager implements SongManagerInterface {
      */
     @Override
     public int getSongCount(String year) {
-        int index = findStringIndex(releaseYears, year);
-        if (index == -1) {
-            System.out.print("The year doesn't exist in our data");
-            return 0;
-        } else {
-            return getSongCount(index);
-        }
+        long start = metrics.start();
+        int result = catalog.getSongCount(year);
+        metrics.finish(SongMetrics.Query.GET_SONG_COUNT, start);
+        return result;
     }
 
     /**
@@ -182,13 +239,10 @@ public class SongManager implements SongManagerInterface {
      */
     @Override
     public Song getSong(int yearIndex, int songIndex) {
-        if (yearIndex < 0 || yearIndex > getYearCount() - 1) {
-            throw new IllegalArgumentException("year must be a valid index in the range 0 to count - 1");
-        }
-        if (songIndex < 0 || songIndex > getSongCount(yearIndex) - 1) {
-            throw new IllegalArgumentException("song must be a valid index in the range 0 to count - 1");
-        }
-        return songs[yearIndex][songIndex];
+        long start = metrics.start();
+        Song result = catalog.getSong(yearIndex, songIndex);
+        metrics.finish(SongMetrics.Query.GET_SONG, start);
+        return result;
     }
 
     /**
@@ -196,14 +250,29 @@ public class SongManager implements SongManagerInterface {
      * index
      *
      * @param yearIndex release year index
-     * @return copy of song array (not a reference to the internal one)
+     * @return new song array built from the stored columns
      */
     @Override
     public Song[] getSongs(int yearIndex) {
-        if (yearIndex < 0 || yearIndex > getYearCount() - 1) {
-            throw new IllegalArgumentException("year must be a valid index in the range 0 to count - 1");
-        }
-        return Arrays.copyOf(songs[yearIndex], songs[yearIndex].length);
+        long start = metrics.start();
+        Song[] result = catalog.getSongs(yearIndex);
+        metrics.finish(SongMetrics.Query.GET_SONGS, start);
+        return result;
+    }
+
+    /**
+     * Retrieves the value of a numeric column for the song at the specific release year and song index
+     *
+     * @param column    numeric column
+     * @param yearIndex release year index
+     * @param songIndex song index
+     * @return column value
+     */
+    public long getValue(SongColumn column, int yearIndex, int songIndex) {
+        long start = metrics.start();
+        long result = catalog.getValue(column, yearIndex, songIndex);
+        metrics.finish(SongMetrics.Query.GET_VALUE, start);
+        return result;
     }
 
     /**
@@ -216,41 +285,379 @@ public class SongManager implements SongManagerInterface {
      */
     @Override
     public int findSongYear(String trackName) {
-        for (int row = 0; row < getYearCount(); row++) {
-            for (int col = 0; col < getSongCount(row); col++) {
-                if (trackName.equals(getSong(row, col).trackName())) {
-                    return row;
-                }
-            }
-        }
-        return -1;
+        long start = metrics.start();
+        int result = catalog.findSongYear(trackName);
+        metrics.finish(SongMetrics.Query.FIND_SONG_YEAR, start);
+        return result;
+    }
+
+    /**
+     * Retrieves the location of the first song (in year and song order) with the specified track name
+     *
+     * @param trackName the track name to search for
+     * @return location of the first matching song, or null if not found
+     */
+    public SongLocation findSongLocation(String trackName) {
+        long start = metrics.start();
+        SongLocation result = catalog.findSongLocation(trackName);
+        metrics.finish(SongMetrics.Query.FIND_SONG_LOCATIONS, start);
+        return result;
+    }
+
+    /**
+     * Retrieves the locations of every song with the specified track name
+     *
+     * @param trackName the track name to search for
+     * @return locations in year and song order (empty if not found)
+     */
+    public SongLocation[] findSongLocations(String trackName) {
+        long start = metrics.start();
+        SongLocation[] result = catalog.findSongLocations(trackName);
+        metrics.finish(SongMetrics.Query.FIND_SONG_LOCATIONS, start);
+        return result;
+    }
+
+    /**
+     * Resolves a batch of track names (each with an optional artist) to songs, in parallel
+     *
+     * @param trackNames track names to look up
+     * @param artists    artist of each track name, or null (for the whole array or an element) to match any artist
+     * @return location of the first matching song for each track name, or null where none matches
+     */
+    public SongLocation[] resolve(String[] trackNames, String[] artists) {
+        long start = metrics.start();
+        SongLocation[] result = catalog.resolve(trackNames, artists);
+        metrics.finish(SongMetrics.Query.RESOLVE, start);
+        return result;
+    }
+
+    /**
+     * Finds the songs whose audio features are nearest a song's, by comparing it with every song
+     *
+     * @param yearIndex release year index of the song
+     * @param songIndex song index of the song
+     * @param k         most songs returned
+     * @param filter    restriction the returned songs must match (such as a release year range, key or mode), or
+     *                  null
+     * @return locations of the nearest songs, nearest first (never the song itself)
+     */
+    public SongLocation[] similar(int yearIndex, int songIndex, int k, SongFilter filter) {
+        long start = metrics.start();
+        SongLocation[] result = catalog.similar(yearIndex, songIndex, k, filter);
+        metrics.finish(SongMetrics.Query.SIMILAR, start);
+        return result;
+    }
+
+    /**
+     * Finds songs whose audio features are near a song's by comparing it with the songs of the nearest groups only,
+     * which is much faster for large catalogs but can miss some of the songs similar() finds
+     *
+     * @param yearIndex release year index of the song
+     * @param songIndex song index of the song
+     * @param k         most songs returned
+     * @param filter    restriction the returned songs must match, or null
+     * @return locations of the nearest songs found, nearest first (never the song itself)
+     */
+    public SongLocation[] similarApproximate(int yearIndex, int songIndex, int k, SongFilter filter) {
+        long start = metrics.start();
+        SongLocation[] result = catalog.similarApproximate(yearIndex, songIndex, k, filter);
+        metrics.finish(SongMetrics.Query.SIMILAR, start);
+        return result;
+    }
+
+    /**
+     * Groups the songs by numeric keys and aggregates numeric columns for every group, for example the average
+     * streams by release year and month, or the song count by playlist-count bucket
+     *
+     * @param groupBy  keys to group by, in order; none puts every song in one group
+     * @param measures numeric columns to aggregate
+     * @return groups in ascending key order
+     */
+    public Aggregation aggregate(GroupKey[] groupBy, SongColumn... measures) {
+        long start = metrics.start();
+        Aggregation result = catalog.aggregate(groupBy, measures);
+        metrics.finish(SongMetrics.Query.AGGREGATE, start);
+        return result;
+    }
+
+    /**
+     * Retrieves the most streamed songs of all release years from the precomputed rankings
+     *
+     * @param k most songs returned; must not be negative
+     * @return locations of the k most streamed songs, most streamed first
+     */
+    public SongLocation[] topByStreams(int k) {
+        long start = metrics.start();
+        SongLocation[] result = catalog.topByStreams(k);
+        metrics.finish(SongMetrics.Query.TOP_BY_STREAMS, start);
+        return result;
+    }
+
+    /**
+     * Retrieves the most streamed songs of one release year from the precomputed rankings
+     *
+     * @param yearIndex release year index
+     * @param k         most songs returned; must not be negative
+     * @return locations of the k most streamed songs of the year, most streamed first
+     */
+    public SongLocation[] topByStreams(int yearIndex, int k) {
+        long start = metrics.start();
+        SongLocation[] result = catalog.topByStreams(yearIndex, k);
+        metrics.finish(SongMetrics.Query.TOP_BY_STREAMS, start);
+        return result;
+    }
+
+    /**
+     * Retrieves the most streamed songs released within a date range from the precomputed rankings
+     *
+     * @param from earliest release date (inclusive)
+     * @param to   latest release date (inclusive)
+     * @param k    most songs returned; must not be negative
+     * @return locations of the k most streamed songs released from 'from' to 'to', most streamed first
+     */
+    public SongLocation[] topByStreams(LocalDate from, LocalDate to, int k) {
+        long start = metrics.start();
+        SongLocation[] result = catalog.topByStreams(from, to, k);
+        metrics.finish(SongMetrics.Query.TOP_BY_STREAMS, start);
+        return result;
+    }
+
+    /**
+     * Retrieves the locations of every song by (or featuring) an artist
+     *
+     * @param artist exact name of a single artist, as listed in the artist(s) names of the songs
+     * @return locations in year and song order (empty if the artist has no songs)
+     */
+    public SongLocation[] findArtistSongs(String artist) {
+        long start = metrics.start();
+        SongLocation[] result = catalog.findArtistSongs(artist);
+        metrics.finish(SongMetrics.Query.FIND_ARTIST_SONGS, start);
+        return result;
+    }
+
+    /**
+     * Retrieves the locations of every song by (or featuring) all of the specified artists
+     *
+     * @param artists exact names of single artists
+     * @return locations in year and song order (empty if no song has all of them)
+     */
+    public SongLocation[] findSongsWithArtists(String... artists) {
+        long start = metrics.start();
+        SongLocation[] result = catalog.findSongsWithArtists(artists);
+        metrics.finish(SongMetrics.Query.FIND_ARTIST_SONGS, start);
+        return result;
+    }
+
+    /**
+     * Retrieves the number of songs by (or featuring) an artist
+     *
+     * @param artist exact name of a single artist
+     * @return song count (0 if the artist has no songs)
+     */
+    public int getArtistSongCount(String artist) {
+        long start = metrics.start();
+        int result = catalog.getArtistSongCount(artist);
+        metrics.finish(SongMetrics.Query.GET_ARTIST_SONG_COUNTS, start);
+        return result;
+    }
+
+    /**
+     * Retrieves the number of songs by (or featuring) each artist
+     *
+     * @return new map of song counts by artist name, in name order
+     */
+    public Map<String, Integer> getArtistSongCounts() {
+        long start = metrics.start();
+        Map<String, Integer> result = catalog.getArtistSongCounts();
+        metrics.finish(SongMetrics.Query.GET_ARTIST_SONG_COUNTS, start);
+        return result;
+    }
+
+    /**
+     * Finds the songs whose track or artist name best matches a query, for type-ahead search
+     *
+     * @param query text typed so far (case-insensitive), or null, which matches nothing
+     * @param limit most songs returned
+     * @return locations of the best matches in the current catalog, best first
+     */
+    public SongLocation[] search(String query, int limit) {
+        long start = metrics.start();
+        SongLocation[] result = catalog.search(query, limit);
+        metrics.finish(SongMetrics.Query.SEARCH, start);
+        return result;
+    }
+
+    /**
+     * Finds the songs whose track name starts with a prefix in the collation, ignoring case and accents
+     *
+     * @param prefix start of a track name
+     * @return locations in year and song order
+     * @see SongCatalog#startingWith(String)
+     */
+    public SongLocation[] startingWith(String prefix) {
+        long start = metrics.start();
+        SongLocation[] result = catalog.startingWith(prefix);
+        metrics.finish(SongMetrics.Query.FIND_SONG_LOCATIONS, start);
+        return result;
+    }
+
+    /**
+     * Finds the songs that match a filter on their numeric columns
+     *
+     * @param filter filter to match, such as bpm 120 to 130 and energy above 80
+     * @return locations of the matching songs in the current catalog, in year and song order
+     */
+    public SongLocation[] filter(SongFilter filter) {
+        long start = metrics.start();
+        SongLocation[] result = catalog.filter(filter);
+        metrics.finish(SongMetrics.Query.FILTER, start);
+        return result;
+    }
+
+    /**
+     * Counts the songs that match a filter on their numeric columns
+     *
+     * @param filter filter to match
+     * @return number of matching songs
+     */
+    public int countMatching(SongFilter filter) {
+        long start = metrics.start();
+        int result = catalog.countMatching(filter);
+        metrics.finish(SongMetrics.Query.FILTER, start);
+        return result;
     }
 
     /**
      * Helper method to return a String array of song release years
      *
-     * @return String array of release years that have been extracted from the file
+     * @return new String array of release years that have been extracted from the file
      */
     public String[] getReleaseYears() {
-        return releaseYears;
+        return catalog.getReleaseYears();
     }
 
     /**
-     * Sorts the songs alphabetically (case-sensitive) by track name.  Implements an Insertion Sort adapted from the
-     * code given in my CSC142 class.
-     * rowIndex refers to the row index of the 2d jagged array
+     * Sorts the songs alphabetically (case-sensitive) by track name, the same order as Song.compareTo.
      */
     public void sortSongs() {
-        for (int rowIndex = 0; rowIndex < getYearCount(); rowIndex++) {
-            for (int pass = 1; pass < getSongCount(rowIndex); pass++) {
-                Song temp = songs[rowIndex][pass];
-                int checkPos = pass - 1;
-                while (checkPos >= 0 && temp.trackName().compareTo(songs[rowIndex][checkPos].trackName()) < 0) {
-                    songs[rowIndex][checkPos + 1] = songs[rowIndex][checkPos];
-                    checkPos--;
-                }
-                songs[rowIndex][checkPos + 1] = temp;
-            }
+        sortSongs(SortKey.TRACK_NAME);
+    }
+
+    /**
+     * Sorts the songs of each release year by the specified key.  Years are sorted in parallel by a SongSorter,
+     * and songs that compare equal keep their file order.  The first sort by COLLATED_TRACK_NAME builds the
+     * collation keys of the track names.
+     *
+     * @param key order to sort the songs in
+     */
+    public void sortSongs(SortKey key) {
+        synchronized (writeLock) {
+            catalog = catalog.sorted(key);
+        }
+    }
+
+    /**
+     * Sets the collation the songs are put in order by when they are sorted by COLLATED_TRACK_NAME, and that
+     * startingWith() matches in.  Songs already sorted that way are sorted again.  The collation is kept when songs
+     * are appended or reloaded.
+     *
+     * @param collation locale and folding of the order
+     */
+    public void setCollation(TrackNameCollation collation) {
+        synchronized (writeLock) {
+            catalog = catalog.withCollation(collation);
+        }
+    }
+
+    /**
+     * Appends CSV song rows (in 'spotify-2023.csv' column order, without a header)
+     *
+     * @param songLines rows of song data
+     * @return number of songs appended
+     * @throws IllegalArgumentException if a row is too short or a required cell is empty; no songs are appended
+     * @see #append(SongColumns)
+     */
+    public int appendSongs(Iterable<String[]> songLines) {
+        HeapSongColumns delta = new HeapSongColumns();
+        for (String[] songLine : songLines) {
+            delta.add(songLine);
         }
+        return append(delta);
+    }
+
+    /**
+     * Appends every song row of a 'spotify-2023.csv' shaped delta file (the header line is skipped)
+     *
+     * @param deltaPath path of the delta file
+     * @return number of songs appended
+     * @see #append(SongColumns)
+     */
+    public int appendFile(String deltaPath) {
+        HeapSongColumns delta = new HeapSongColumns();
+        for (SongColumns chunk : new MappedCsvParser(Path.of(deltaPath)).parse()) {
+            delta.addAll(chunk);
+        }
+        return append(delta);
+    }
+
+    /**
+     * Appends parsed song rows.  Each song goes into its release year (a new year is added in year order if needed)
+     * and the year stays sorted by merging the sorted new songs into it, so there is no full re-sort.
+     * Readers keep using the previous catalog until the new one is published.
+     *
+     * @param delta song rows to append
+     * @return number of songs appended
+     */
+    public int append(SongColumns delta) {
+        synchronized (writeLock) {
+            catalog = catalog.append(delta);
+        }
+        return delta.getRowCount();
+    }
+
+    /**
+     * Reloads the song file (or its snapshot) and publishes the new catalog, sorted in the current order.
+     * Songs appended since the last load are dropped unless they were written to the song file.
+     *
+     * @return new catalog
+     */
+    public SongCatalog reload() {
+        SongCatalog loaded = SongCatalog.load(spotifySongsPath, useSnapshot, storage, percent -> {
+        }, metrics);
+        synchronized (writeLock) {
+            SortKey key = catalog.getSortKey();
+            loaded = loaded.withCollation(catalog.getCollation());
+            catalog = key == loaded.getSortKey() ? loaded : loaded.sorted(key);
+            return catalog;
+        }
+    }
+
+    /**
+     * Reloads the song file on a background thread while readers keep using the current catalog
+     *
+     * @return future completed with the new catalog once it has been published
+     * @see #reload()
+     */
+    public CompletableFuture<SongCatalog> reloadAsync() {
+        return CompletableFuture.supplyAsync(this::reload);
+    }
+
+    /**
+     * Creates a cursor on the first song of the first release year
+     *
+     * @return new cursor
+     */
+    public SongCursor cursor() {
+        return cursor(0);
+    }
+
+    /**
+     * Creates a cursor on the first song of the specified release year of the current catalog
+     *
+     * @param yearIndex release year index
+     * @return new cursor
+     */
+    public SongCursor cursor(int yearIndex) {
+        return catalog.cursor(yearIndex);
     }
 }
@@ -0,0 +1,368 @@
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SongManagerTest {
+
+    private final SongManager manager = new SongManager();
+
+    @org.junit.jupiter.api.Test
+    void lookupsMatchLinearScan() {
+
+        for (int row = 0; row < manager.getYearCount(); row++) {
+            for (int col = 0; col < manager.getSongCount(row); col++) {
+                String trackName = manager.getSong(row, col).trackName();
+                assertEquals(scanSongYear(trackName), manager.findSongYear(trackName), trackName);
+                assertEquals(scanSongNum(trackName), manager.getSongNum(trackName), trackName);
+            }
+        }
+        assertEquals(-1, manager.findSongYear("not a track"));
+        assertEquals(-1, manager.getSongNum("not a track"));
+    }
+
+    @org.junit.jupiter.api.Test
+    void duplicateTitles() {
+
+        //"Die For You" is in the 2023 file more than once
+        SongLocation[] locations = manager.findSongLocations("Die For You");
+        assertTrue(locations.length > 1);
+        for (int i = 0; i < locations.length; i++) {
+            SongLocation location = locations[i];
+            assertEquals("Die For You", manager.getSong(location.yearIndex(), location.songIndex()).trackName());
+            if (i > 0) {
+                assertTrue(locations[i - 1].ordinal() < location.ordinal());
+            }
+        }
+        assertEquals(locations[0], manager.findSongLocation("Die For You"));
+    }
+
+    @org.junit.jupiter.api.Test
+    void lookupsFollowSortOrder() {
+
+        manager.sortSongs(SortKey.STREAMS);
+        for (int row = 0; row < manager.getYearCount(); row++) {
+            for (int col = 0; col < manager.getSongCount(row); col++) {
+                String trackName = manager.getSong(row, col).trackName();
+                assertEquals(scanSongNum(trackName), manager.getSongNum(trackName), trackName);
+            }
+        }
+    }
+
+    @org.junit.jupiter.api.Test
+    void cursorWalksEveryYear() {
+
+        int ordinal = 0;
+        for (int yearIndex = 0; yearIndex < manager.getYearCount(); yearIndex++) {
+            SongCursor cursor = manager.cursor(yearIndex);
+            assertFalse(cursor.hasPrevious());
+            assertFalse(cursor.previous());
+            int songIndex = 0;
+            do {
+                assertEquals(songIndex, cursor.getSongIndex());
+                assertEquals(ordinal, cursor.getOrdinal());
+                assertEquals(manager.getSong(yearIndex, songIndex), cursor.getSong());
+                assertEquals(cursor.getSong().trackName(), cursor.getTrackName());
+                songIndex++;
+                ordinal++;
+            } while (cursor.next());
+            assertEquals(manager.getSongCount(yearIndex), songIndex);
+            assertEquals(songIndex, cursor.getYearSongCount());
+        }
+        assertEquals(manager.getSongCount(), ordinal);
+    }
+
+    @org.junit.jupiter.api.Test
+    void cursorSeekOrdinal() {
+
+        SongCursor cursor = manager.cursor();
+        for (int ordinal = 0; ordinal < manager.getSongCount(); ordinal += 37) {
+            cursor.seekOrdinal(ordinal);
+            assertEquals(ordinal, cursor.getOrdinal());
+        }
+        cursor.seekOrdinal(manager.getSongCount() - 1);
+        assertEquals(manager.getYearCount() - 1, cursor.getYearIndex());
+        assertFalse(cursor.hasNext());
+        assertThrows(IllegalArgumentException.class, () -> cursor.seekOrdinal(manager.getSongCount()));
+    }
+
+    @org.junit.jupiter.api.Test
+    void appendKeepsYearsSortedAndIndexed() {
+
+        int songCount = manager.getSongCount();
+        int appended = manager.appendSongs(List.of(
+                new String[]{"AAA First Of 2022", "Delta Artist", "1", "2022", "5", "1", "0", "0", "10"},
+                new String[]{"Brand New Year", "Delta Artist", "1", "2031", "1", "1", "0", "0", "10"},
+                new String[]{"Die For You", "Delta Artist", "1", "1901", "1", "1", "0", "0", "10"}));
+
+        assertEquals(3, appended);
+        assertEquals(songCount + 3, manager.getSongCount());
+        assertEquals("1901", manager.getYearName(0));
+        assertEquals("2031", manager.getYearName(manager.getYearCount() - 1));
+        //"Die For You" now has its first occurrence in the new first year
+        assertEquals(0, manager.findSongYear("Die For You"));
+        assertEquals(1, manager.getSongNum("Die For You"));
+        //the new artist's songs are found in year order, with the first year added by the delta first
+        SongLocation[] deltaSongs = manager.findArtistSongs("Delta Artist");
+        assertEquals(3, deltaSongs.length);
+        assertEquals(0, deltaSongs[0].yearIndex());
+        assertEquals(manager.getYearCount() - 1, deltaSongs[2].yearIndex());
+        assertSortedAndIndexed();
+
+        //a short row rejects the whole batch before anything is appended
+        assertThrows(IllegalArgumentException.class, () -> manager.appendSongs(List.of(
+                new String[]{"Fine Song", "Delta Artist", "1", "2023", "1", "1", "0", "0", "10"},
+                new String[]{"Short Song", "Delta Artist", "1", "2023"})));
+        assertEquals(songCount + 3, manager.getSongCount());
+    }
+
+    @org.junit.jupiter.api.Test
+    void topByStreamsMatchesSort() {
+
+        assertEquals("Blinding Lights", song(manager.topByStreams(1)[0]).trackName());
+        assertEquals(expectedStreams(LocalDate.MIN, LocalDate.MAX, 25), streams(manager.topByStreams(25)));
+        for (int yearIndex = 0; yearIndex < manager.getYearCount(); yearIndex++) {
+            int year = Integer.parseInt(manager.getYearName(yearIndex));
+            assertEquals(expectedStreams(LocalDate.of(year, 1, 1), LocalDate.of(year, 12, 31), 5),
+                    streams(manager.topByStreams(yearIndex, 5)), manager.getYearName(yearIndex));
+        }
+        LocalDate from = LocalDate.of(2021, 11, 15);
+        LocalDate to = LocalDate.of(2022, 3, 3);
+        SongLocation[] range = manager.topByStreams(from, to, 40);
+        assertEquals(expectedStreams(from, to, 40), streams(range));
+        for (SongLocation location : range) {
+            LocalDate released = releaseDate(song(location));
+            assertFalse(released.isBefore(from) || released.isAfter(to), released.toString());
+        }
+        assertEquals(0, manager.topByStreams(to, from, 10).length);
+        assertEquals(0, manager.topByStreams(0).length);
+        assertEquals(manager.getSongCount(), manager.topByStreams(Integer.MAX_VALUE).length);
+        assertThrows(IllegalArgumentException.class, () -> manager.topByStreams(-1));
+    }
+
+    @org.junit.jupiter.api.Test
+    void topByStreamsFollowsAppends() {
+
+        manager.appendSongs(List.<String[]>of(
+                new String[]{"Most Streamed", "Delta Artist", "1", "2022", "6", "1", "0", "0", "9000000000"},
+                new String[]{"Old Hit", "Delta Artist", "1", "1901", "1", "1", "0", "0", "10"}));
+        assertEquals("Most Streamed", song(manager.topByStreams(1)[0]).trackName());
+        assertEquals("Old Hit", song(manager.topByStreams(0, 1)[0]).trackName());
+        assertEquals(expectedStreams(LocalDate.MIN, LocalDate.MAX, 25), streams(manager.topByStreams(25)));
+        //sorted by streams the rankings are the years themselves, and appends keep them that way
+        manager.sortSongs(SortKey.STREAMS);
+        manager.appendSongs(List.<String[]>of(
+                new String[]{"Even More Streamed", "Delta Artist", "1", "2022", "6", "2", "0", "0", "9500000000"}));
+        assertEquals("Even More Streamed", song(manager.topByStreams(1)[0]).trackName());
+        assertEquals(expectedStreams(LocalDate.MIN, LocalDate.MAX, 25), streams(manager.topByStreams(25)));
+    }
+
+    @org.junit.jupiter.api.Test
+    void tailDeltaFile() throws Exception {
+
+        Path delta = Files.createTempFile("songs-delta", ".csv");
+        try (DeltaTailer tailer = new DeltaTailer(manager, delta)) {
+            int songCount = manager.getSongCount();
+            Files.writeString(delta, SongCsvGenerator.HEADER + "\nTail Song 1,Tail Artist,1,2023,1,1,0,0,1\nTail So");
+            assertEquals(1, tailer.poll());
+            assertEquals(0, tailer.poll());
+            //finish the half-written row
+            Files.writeString(delta, SongCsvGenerator.HEADER + "\nTail Song 1,Tail Artist,1,2023,1,1,0,0,1\n"
+                    + "Tail Song 2,Tail Artist,1,2023,1,1,0,0,1\n");
+            assertEquals(1, tailer.poll());
+            assertEquals(songCount + 2, manager.getSongCount());
+            assertEquals(manager.findSongYear("Tail Song 1"), manager.findSongYear("Tail Song 2"));
+            assertSortedAndIndexed();
+        } finally {
+            Files.deleteIfExists(delta);
+        }
+    }
+
+    @org.junit.jupiter.api.Test
+    void tailerSkipsBadRowsAndStartsOverOnRotation() throws Exception {
+
+        Path delta = Files.createTempFile("songs-delta", ".csv");
+        Path rotated = Files.createTempFile("songs-delta", ".csv");
+        try (DeltaTailer tailer = new DeltaTailer(manager, delta)) {
+            int songCount = manager.getSongCount();
+            //no release year
+            Files.writeString(delta, SongCsvGenerator.HEADER + "\nBad Song,Tail Artist,1,,1,1,0,0,1\n"
+                    + "Good Song 1,Tail Artist,1,2023,1,1,0,0,1\n");
+            assertEquals(1, tailer.poll());
+            assertEquals(0, tailer.poll());
+            assertEquals(-1, manager.findSongYear("Bad Song"));
+
+            //truncated: shorter than what has been read
+            Files.writeString(delta, SongCsvGenerator.HEADER + "\nGood Song 2,Tail Artist,1,2023,1,1,0,0,1\n");
+            assertEquals(1, tailer.poll());
+
+            //replaced by a longer file
+            Files.writeString(rotated, SongCsvGenerator.HEADER + "\nGood Song 3,Tail Artist,1,2023,1,1,0,0,1\n"
+                    + "Good Song 4,Tail Artist,1,2023,1,1,0,0,1\n");
+            Files.move(rotated, delta, StandardCopyOption.REPLACE_EXISTING);
+            assertEquals(2, tailer.poll());
+            assertEquals(songCount + 4, manager.getSongCount());
+            assertSortedAndIndexed();
+        } finally {
+            Files.deleteIfExists(delta);
+            Files.deleteIfExists(rotated);
+        }
+    }
+
+    @org.junit.jupiter.api.Test
+    void appendLeavesOldCatalogUnchanged() {
+
+        SongCatalog before = manager.getCatalog();
+        int songCount = before.getSongCount();
+        Song first = before.getSong(0, 0);
+        manager.appendSongs(List.<String[]>of(
+                new String[]{"AAA Snapshot Song", "Delta Artist", "1", first.releasedYear(), "1", "1", "0", "0", "10"}));
+
+        assertEquals(songCount, before.getSongCount());
+        assertEquals(first, before.getSong(0, 0));
+        assertEquals(-1, before.findSongYear("AAA Snapshot Song"));
+        assertEquals(songCount + 1, manager.getSongCount());
+        assertEquals(1, manager.getSongNum("AAA Snapshot Song"));
+    }
+
+    @org.junit.jupiter.api.Test
+    void concurrentReadsSeeConsistentCatalogs() throws Exception {
+
+        int readers = Math.max(2, Runtime.getRuntime().availableProcessors());
+        ExecutorService pool = Executors.newFixedThreadPool(readers + 1);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        try {
+            List<Future<Integer>> reads = new ArrayList<>();
+            for (int i = 0; i < readers; i++) {
+                reads.add(pool.submit(() -> {
+                    int checks = 0;
+                    do {
+                        SongCatalog catalog = manager.getCatalog();
+                        int total = 0;
+                        for (int yearIndex = 0; yearIndex < catalog.getYearCount(); yearIndex++) {
+                            total += catalog.getSongCount(yearIndex);
+                        }
+                        assertEquals(catalog.getSongCount(), total);
+                        SongCursor cursor = catalog.cursor(catalog.getYearCount() - 1);
+                        String trackName = cursor.getTrackName();
+                        SongLocation location = catalog.findSongLocation(trackName);
+                        assertEquals(trackName, catalog.getSong(location.yearIndex(), location.songIndex()).trackName());
+                        assertTrue(location.ordinal() <= cursor.getOrdinal());
+                        checks++;
+                    } while (writing.get());
+                    return checks;
+                }));
+            }
+            Future<?> writes = pool.submit(() -> {
+                for (int round = 0; round < 20; round++) {
+                    manager.appendSongs(List.<String[]>of(new String[]{"Concurrent Song " + round, "Delta Artist",
+                            "1", String.valueOf(1990 + round % 40), "1", "1", "0", "0", "10"}));
+                    manager.sortSongs(round % 2 == 0 ? SortKey.STREAMS : SortKey.TRACK_NAME);
+                    if (round % 5 == 0) {
+                        manager.reload();
+                    }
+                }
+                return null;
+            });
+            writes.get(2, TimeUnit.MINUTES);
+            writing.set(false);
+            for (Future<Integer> read : reads) {
+                assertTrue(read.get(1, TimeUnit.MINUTES) > 0);
+            }
+        } finally {
+            writing.set(false);
+            pool.shutdownNow();
+        }
+        //the last reload dropped earlier appends; the later ones are still there
+        assertEquals(scanSongYear("Concurrent Song 19"), manager.findSongYear("Concurrent Song 19"));
+        assertEquals(-1, manager.findSongYear("Concurrent Song 15"));
+    }
+
+    private Song song(SongLocation location) {
+        return manager.getSong(location.yearIndex(), location.songIndex());
+    }
+
+    private List<Long> streams(SongLocation[] locations) {
+        List<Long> streams = new ArrayList<>();
+        for (SongLocation location : locations) {
+            streams.add(manager.getValue(SongColumn.STREAMS, location.yearIndex(), location.songIndex()));
+        }
+        return streams;
+    }
+
+    private static LocalDate releaseDate(Song song) {
+        return LocalDate.of(Integer.parseInt(song.releasedYear()), Integer.parseInt(song.releasedMonth()),
+                Integer.parseInt(song.releasedDay()));
+    }
+
+    /**
+     * the most streams of the songs released in a date range, by scanning and sorting every song
+     */
+    private List<Long> expectedStreams(LocalDate from, LocalDate to, int k) {
+        List<Long> streams = new ArrayList<>();
+        for (int yearIndex = 0; yearIndex < manager.getYearCount(); yearIndex++) {
+            for (int songIndex = 0; songIndex < manager.getSongCount(yearIndex); songIndex++) {
+                LocalDate released = releaseDate(manager.getSong(yearIndex, songIndex));
+                if (!released.isBefore(from) && !released.isAfter(to)) {
+                    streams.add(manager.getValue(SongColumn.STREAMS, yearIndex, songIndex));
+                }
+            }
+        }
+        streams.sort(Comparator.reverseOrder());
+        return streams.subList(0, Math.min(k, streams.size()));
+    }
+
+    private void assertSortedAndIndexed() {
+        for (int yearIndex = 0; yearIndex < manager.getYearCount(); yearIndex++) {
+            Song[] songs = manager.getSongs(yearIndex);
+            for (int songIndex = 0; songIndex < songs.length; songIndex++) {
+                if (songIndex > 0) {
+                    assertTrue(songs[songIndex - 1].compareTo(songs[songIndex]) <= 0);
+                }
+                assertEquals(manager.getYearName(yearIndex), songs[songIndex].releasedYear());
+                assertEquals(scanSongNum(songs[songIndex].trackName()),
+                        manager.getSongNum(songs[songIndex].trackName()));
+            }
+        }
+    }
+
+    /**
+     * the linear scan findSongYear used before TrackNameIndex
+     */
+    private int scanSongYear(String trackName) {
+        for (int row = 0; row < manager.getYearCount(); row++) {
+            for (int col = 0; col < manager.getSongCount(row); col++) {
+                if (trackName.equals(manager.getSong(row, col).trackName())) {
+                    return row;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * the linear scan getSongNum used before TrackNameIndex
+     */
+    private int scanSongNum(String trackName) {
+        int num = 0;
+        for (int row = 0; row < manager.getYearCount(); row++) {
+            for (int col = 0; col < manager.getSongCount(row); col++) {
+                num++;
+                if (trackName.equals(manager.getSong(row, col).trackName())) {
+                    return num;
+                }
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,397 @@
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * SongMetrics class that records where a SongManager spends its time: how long each stage of the last load took
+ * (with its rows per second), and a latency histogram for each query method.
+ * Load stages are always timed; they are a handful of clock reads per load.  Query latencies are only recorded while
+ * the metrics are enabled (with setEnabled(), or -Dsongs.metrics=true at startup): when they are disabled a query
+ * pays one field read, and nothing is timed or counted.  Queries slower than the slow query threshold are also
+ * reported to JDK Flight Recorder as SlowQueryEvents, and every load as a SongLoadEvent.
+ *
+ * @author Bennett Fife
+ * @version 10/17/26
+ */
+public class SongMetrics {
+
+    /**
+     * slow query threshold used until setSlowQueryNanos() is called: 10 ms
+     */
+    public static final long DEFAULT_SLOW_QUERY_NANOS = 10_000_000;
+
+    /**
+     * the stages of a load, in the order they run
+     */
+    public enum Phase {
+        /**
+         * opening and reading a current CatalogSnapshot (instead of PARSE, SORT and WRITE_SNAPSHOT)
+         */
+        OPEN_SNAPSHOT("openSnapshot"),
+        /**
+         * reading the song file and parsing its rows into columns
+         */
+        PARSE("parse"),
+        /**
+         * sorting every release year by track name
+         */
+        SORT("sort"),
+        /**
+         * saving the CatalogSnapshot
+         */
+        WRITE_SNAPSHOT("writeSnapshot"),
+        /**
+         * loading every song file of a partitioned catalog, each on its own task (instead of the stages above)
+         */
+        LOAD_PARTITIONS("loadPartitions"),
+        /**
+         * appending the partitions' rows into one set of columns and merging their release years
+         */
+        MERGE_PARTITIONS("mergePartitions"),
+        /**
+         * ranking the songs by streams, building the lookup indexes and moving the rows to their storage
+         */
+        BUILD_INDEXES("buildIndexes");
+
+        /**
+         * name the phase is reported under
+         */
+        private final String label;
+
+        /**
+         * Phase constructor
+         *
+         * @param label name the phase is reported under
+         */
+        Phase(String label) {
+            this.label = label;
+        }
+
+        /**
+         * Retrieves the name the phase is reported under
+         *
+         * @return label, such as "parse"
+         */
+        public String label() {
+            return label;
+        }
+    }
+
+    /**
+     * the timed query methods, named after the SongManager method (overloads share one histogram)
+     */
+    public enum Query {
+        /**
+         * getYearCount()
+         */
+        GET_YEAR_COUNT("getYearCount"),
+        /**
+         * getSongCount, of every year, of a year index or of a year name
+         */
+        GET_SONG_COUNT("getSongCount"),
+        /**
+         * getSongNum(trackName)
+         */
+        GET_SONG_NUM("getSongNum"),
+        /**
+         * getYearName(yearIndex)
+         */
+        GET_YEAR_NAME("getYearName"),
+        /**
+         * getSong(yearIndex, songIndex)
+         */
+        GET_SONG("getSong"),
+        /**
+         * getSongs(yearIndex)
+         */
+        GET_SONGS("getSongs"),
+        /**
+         * getValue(column, yearIndex, songIndex)
+         */
+        GET_VALUE("getValue"),
+        /**
+         * findSongYear(trackName)
+         */
+        FIND_SONG_YEAR("findSongYear"),
+        /**
+         * findSongLocation, findSongLocations and startingWith
+         */
+        FIND_SONG_LOCATIONS("findSongLocations"),
+        /**
+         * aggregate(groupBy, measures)
+         */
+        AGGREGATE("aggregate"),
+        /**
+         * topByStreams, over every song, one year or a release date range
+         */
+        TOP_BY_STREAMS("topByStreams"),
+        /**
+         * findArtistSongs and findSongsWithArtists
+         */
+        FIND_ARTIST_SONGS("findArtistSongs"),
+        /**
+         * getArtistSongCount and getArtistSongCounts
+         */
+        GET_ARTIST_SONG_COUNTS("getArtistSongCounts"),
+        /**
+         * search(query, limit)
+         */
+        SEARCH("search"),
+        /**
+         * filter and countMatching
+         */
+        FILTER("filter"),
+        /**
+         * resolve(trackNames, artists)
+         */
+        RESOLVE("resolve"),
+        /**
+         * similar and similarApproximate
+         */
+        SIMILAR("similar");
+
+        /**
+         * name of the query method
+         */
+        private final String label;
+
+        /**
+         * Query constructor
+         *
+         * @param label name the query is reported under
+         */
+        Query(String label) {
+            this.label = label;
+        }
+
+        /**
+         * Retrieves the name the query is reported under
+         *
+         * @return label, such as "getSong"
+         */
+        public String label() {
+            return label;
+        }
+    }
+
+    /**
+     * how long one load stage took
+     *
+     * @param phase load stage
+     * @param nanos time taken in nanoseconds
+     * @param rows  number of song rows the stage handled
+     */
+    public record PhaseTiming(Phase phase, long nanos, int rows) {
+
+        /**
+         * Retrieves the rate the stage handled rows at
+         *
+         * @return rows per second
+         */
+        public long rowsPerSecond() {
+            return nanos == 0 ? 0 : (long) (rows * 1e9 / nanos);
+        }
+    }
+
+    /**
+     * a summary of the recorded latencies of one query method
+     *
+     * @param query     query method
+     * @param count     number of calls recorded
+     * @param meanNanos mean latency
+     * @param p50Nanos  median latency
+     * @param p99Nanos  99th percentile latency
+     * @param maxNanos  largest latency
+     */
+    public record QueryLatency(Query query, long count, long meanNanos, long p50Nanos, long p99Nanos,
+                               long maxNanos) {
+    }
+
+    /**
+     * the metrics at one moment
+     *
+     * @param enabled true if query latencies were being recorded
+     * @param phases  timing of each stage of the last load, in order
+     * @param queries latency summary of each query method called since the metrics were enabled
+     */
+    public record Snapshot(boolean enabled, List<PhaseTiming> phases, List<QueryLatency> queries) {
+    }
+
+    /**
+     * every phase, by ordinal
+     */
+    private static final Phase[] PHASES = Phase.values();
+    /**
+     * every query, by ordinal
+     */
+    private static final Query[] QUERIES = Query.values();
+
+    /**
+     * whether query latencies are recorded
+     */
+    private volatile boolean enabled = Boolean.getBoolean("songs.metrics");
+    /**
+     * latency at or above which a query is reported as a SlowQueryEvent
+     */
+    private volatile long slowQueryNanos = DEFAULT_SLOW_QUERY_NANOS;
+    /**
+     * timing of each stage of the last load by Phase.ordinal(), or null if the stage did not run
+     */
+    private final PhaseTiming[] phases = new PhaseTiming[PHASES.length];
+    /**
+     * latencies of each query by Query.ordinal()
+     */
+    private final LatencyHistogram[] histograms = new LatencyHistogram[QUERIES.length];
+
+    /**
+     * SongMetrics constructor creates empty metrics, enabled if the songs.metrics system property is true
+     */
+    public SongMetrics() {
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i] = new LatencyHistogram();
+        }
+    }
+
+    /**
+     * Turns the recording of query latencies on or off
+     *
+     * @param enabled true to record query latencies
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Retrieves whether query latencies are recorded
+     *
+     * @return true if they are
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Sets how slow a query must be to be reported to JDK Flight Recorder
+     *
+     * @param nanos threshold in nanoseconds; must not be negative
+     */
+    public void setSlowQueryNanos(long nanos) {
+        if (nanos < 0) {
+            throw new IllegalArgumentException("the slow query threshold must not be negative");
+        }
+        slowQueryNanos = nanos;
+    }
+
+    /**
+     * Starts timing a query
+     *
+     * @return start time to pass to finish(), or 0 if the metrics are disabled
+     */
+    long start() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Finishes timing a query started with start()
+     *
+     * @param query query method
+     * @param start value returned by start()
+     */
+    void finish(Query query, long start) {
+        if (start == 0) {
+            return;
+        }
+        long nanos = System.nanoTime() - start;
+        histograms[query.ordinal()].record(nanos);
+        if (nanos >= slowQueryNanos) {
+            SlowQueryEvent event = new SlowQueryEvent();
+            if (event.shouldCommit()) {
+                event.query = query.label();
+                event.queryTime = nanos;
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * Clears the stage timings before a new load
+     */
+    synchronized void startLoad() {
+        for (int i = 0; i < phases.length; i++) {
+            phases[i] = null;
+        }
+    }
+
+    /**
+     * Records how long a load stage took
+     *
+     * @param phase load stage
+     * @param start System.nanoTime() when the stage started
+     * @param rows  number of song rows the stage handled
+     * @return time the stage took in nanoseconds
+     */
+    synchronized long recordPhase(Phase phase, long start, int rows) {
+        long nanos = System.nanoTime() - start;
+        phases[phase.ordinal()] = new PhaseTiming(phase, nanos, rows);
+        return nanos;
+    }
+
+    /**
+     * Retrieves the latency histogram of a query method
+     *
+     * @param query query method
+     * @return histogram (not a copy)
+     */
+    public LatencyHistogram getHistogram(Query query) {
+        return histograms[query.ordinal()];
+    }
+
+    /**
+     * Reads the metrics as they are now
+     *
+     * @return new snapshot
+     */
+    public Snapshot snapshot() {
+        List<PhaseTiming> timings = new ArrayList<>();
+        synchronized (this) {
+            for (PhaseTiming timing : phases) {
+                if (timing != null) {
+                    timings.add(timing);
+                }
+            }
+        }
+        List<QueryLatency> queries = new ArrayList<>();
+        for (Query query : QUERIES) {
+            LatencyHistogram histogram = histograms[query.ordinal()];
+            if (histogram.count() > 0) {
+                queries.add(new QueryLatency(query, histogram.count(), histogram.mean(), histogram.percentile(50),
+                        histogram.percentile(99), histogram.max()));
+            }
+        }
+        return new Snapshot(enabled, List.copyOf(timings), List.copyOf(queries));
+    }
+
+    /**
+     * Writes a snapshot of the metrics as one JSON object
+     *
+     * @param json writer positioned where a value may go
+     * @throws IOException if the JSON cannot be written
+     */
+    public void writeTo(JsonWriter json) throws IOException {
+        Snapshot snapshot = snapshot();
+        json.beginObject().name("enabled").value(snapshot.enabled()).name("phases").beginArray();
+        for (PhaseTiming timing : snapshot.phases()) {
+            json.beginObject().name("phase").value(timing.phase().label()).name("nanos").value(timing.nanos())
+                    .name("rows").value(timing.rows()).name("rowsPerSecond").value(timing.rowsPerSecond())
+                    .endObject();
+        }
+        json.endArray().name("queries").beginArray();
+        for (QueryLatency latency : snapshot.queries()) {
+            json.beginObject().name("query").value(latency.query().label()).name("count").value(latency.count())
+                    .name("meanNanos").value(latency.meanNanos()).name("p50Nanos").value(latency.p50Nanos())
+                    .name("p99Nanos").value(latency.p99Nanos()).name("maxNanos").value(latency.maxNanos())
+                    .endObject();
+        }
+        json.endArray().endObject();
+    }
+}
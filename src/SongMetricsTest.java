@@ -0,0 +1,140 @@
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Set;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SongMetricsTest {
+
+    @org.junit.jupiter.api.Test
+    void histogramPercentiles() {
+
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.percentile(99));
+        for (int micros = 1; micros <= 1000; micros++) {
+            histogram.record(micros * 1000L);
+        }
+        histogram.record(-5);
+        assertEquals(1001, histogram.count());
+        assertEquals(1_000_000, histogram.max());
+        assertEquals(500_000, histogram.mean(), 1_000);
+        //each bucket is at most 12.5% wide
+        assertEquals(500_000, histogram.percentile(50), 500_000 / 8.0);
+        assertEquals(990_000, histogram.percentile(99), 990_000 / 8.0);
+        assertEquals(1_000_000, histogram.percentile(100));
+        assertEquals(0, histogram.percentile(0));
+        assertThrows(IllegalArgumentException.class, () -> histogram.percentile(101));
+    }
+
+    @org.junit.jupiter.api.Test
+    void recordsLoadPhasesAndQueries() {
+
+        SongManager manager = new SongManager(SongManager.DEFAULT_SONGS_PATH, false);
+        SongMetrics metrics = manager.getMetrics();
+        SongMetrics.Snapshot loaded = metrics.snapshot();
+        assertEquals(3, loaded.phases().size(), loaded.toString());
+        assertEquals(SongMetrics.Phase.PARSE, loaded.phases().get(0).phase());
+        assertEquals(SongMetrics.Phase.SORT, loaded.phases().get(1).phase());
+        assertEquals(SongMetrics.Phase.BUILD_INDEXES, loaded.phases().get(2).phase());
+        for (SongMetrics.PhaseTiming timing : loaded.phases()) {
+            assertEquals(manager.getSongCount(), timing.rows());
+            assertTrue(timing.nanos() > 0 && timing.rowsPerSecond() > 0);
+        }
+
+        //disabled: nothing is recorded
+        metrics.setEnabled(false);
+        manager.getSong(0, 0);
+        assertTrue(metrics.snapshot().queries().isEmpty());
+
+        metrics.setEnabled(true);
+        for (int i = 0; i < 100; i++) {
+            manager.getSong(0, 0);
+        }
+        manager.findSongYear("not a song");
+        manager.getSongCount(0);
+        manager.getSongCount("2023");
+        SongMetrics.Snapshot queried = metrics.snapshot();
+        assertTrue(queried.enabled());
+        assertEquals(100, metrics.getHistogram(SongMetrics.Query.GET_SONG).count());
+        assertEquals(2, metrics.getHistogram(SongMetrics.Query.GET_SONG_COUNT).count());
+        assertEquals(3, queried.queries().size());
+        SongMetrics.QueryLatency getSong = queried.queries().get(1);
+        assertEquals(SongMetrics.Query.GET_SONG, getSong.query());
+        assertTrue(getSong.p50Nanos() <= getSong.p99Nanos() && getSong.p99Nanos() <= getSong.maxNanos());
+
+        //a reload replaces the stage timings
+        manager.reload();
+        assertEquals(3, metrics.snapshot().phases().size());
+    }
+
+    @org.junit.jupiter.api.Test
+    void flightRecorderEvents() throws Exception {
+
+        Path file = Files.createTempFile("songs", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("songs.Load");
+            recording.enable("songs.SlowQuery");
+            recording.start();
+            SongManager manager = new SongManager();
+            manager.getMetrics().setSlowQueryNanos(0);
+            manager.getMetrics().setEnabled(true);
+            manager.getSongs(0);
+            recording.stop();
+            recording.dump(file);
+        }
+        Set<String> seen = new HashSet<>();
+        for (RecordedEvent event : RecordingFile.readAllEvents(file)) {
+            String name = event.getEventType().getName();
+            seen.add(name);
+            if (name.equals("songs.Load")) {
+                assertEquals(SongManager.DEFAULT_SONGS_PATH, event.getString("path"));
+                assertTrue(event.getInt("rows") > 0);
+            } else if (name.equals("songs.SlowQuery")) {
+                assertEquals("getSongs", event.getString("query"));
+            }
+        }
+        assertTrue(seen.contains("songs.Load") && seen.contains("songs.SlowQuery"), seen.toString());
+        Files.deleteIfExists(file);
+    }
+
+    /**
+     * Measures what the instrumentation adds to a cheap query when it is disabled and when it is enabled
+     */
+    @org.junit.jupiter.api.Test
+    @org.junit.jupiter.api.condition.EnabledIfSystemProperty(named = "songs.benchmarks", matches = "true")
+    void overhead() {
+
+        SongManager manager = new SongManager();
+        SongCatalog catalog = manager.getCatalog();
+        int calls = 2_000_000;
+        long sink = 0;
+        double[] nanosPerCall = new double[3];
+        //each way is measured twice, and the second (warmed up) measurement is kept
+        for (int round = 0; round < 2; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < calls; i++) {
+                sink += catalog.getSongCount(i & 7);
+            }
+            nanosPerCall[0] = (System.nanoTime() - start) / (double) calls;
+            manager.getMetrics().setEnabled(false);
+            start = System.nanoTime();
+            for (int i = 0; i < calls; i++) {
+                sink += manager.getSongCount(i & 7);
+            }
+            nanosPerCall[1] = (System.nanoTime() - start) / (double) calls;
+            manager.getMetrics().setEnabled(true);
+            start = System.nanoTime();
+            for (int i = 0; i < calls; i++) {
+                sink += manager.getSongCount(i & 7);
+            }
+            nanosPerCall[2] = (System.nanoTime() - start) / (double) calls;
+        }
+        System.out.printf("getSongCount: catalog %.1f ns, metrics disabled %.1f ns, enabled %.1f ns (%d)%n",
+                nanosPerCall[0], nanosPerCall[1], nanosPerCall[2], sink % 10);
+    }
+}
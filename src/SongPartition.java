@@ -0,0 +1,26 @@
+/**
+ * SongPartition record that describes the rows of a catalog that came from one source file: where they sit in the
+ * columns and which release years they cover, so a query on a range of release years can skip the partitions
+ * outside it.
+ *
+ * @param source   path of the song file the rows were loaded from, or null for rows appended after the load
+ * @param firstRow first row of the partition in the catalog's columns
+ * @param rowCount number of rows in the partition
+ * @param minYear  earliest release year in the partition (Integer.MAX_VALUE if it has no rows)
+ * @param maxYear  latest release year in the partition (Integer.MIN_VALUE if it has no rows)
+ * @author Bennett Fife
+ * @version 10/17/26
+ */
+public record SongPartition(String source, int firstRow, int rowCount, int minYear, int maxYear) {
+
+    /**
+     * Checks whether the partition may hold songs released in a range of years
+     *
+     * @param fromYear earliest release year
+     * @param toYear   latest release year
+     * @return true if the partition's years overlap the range
+     */
+    public boolean overlaps(long fromYear, long toYear) {
+        return minYear <= toYear && maxYear >= fromYear;
+    }
+}
@@ -0,0 +1,179 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SongPartitionTest {
+
+    @org.junit.jupiter.api.Test
+    void loadsDirectoryAsPartitions() throws Exception {
+
+        Path directory = Files.createTempDirectory("songs-partitions");
+        try {
+            Path whole = writeByYear(directory, 3000);
+            SongManager partitioned = new SongManager(directory.resolve("charts").toString(), false);
+            SongManager single = new SongManager(whole.toString(), false);
+            assertEquals(single.getSongCount(), partitioned.getSongCount());
+            assertArrayEquals(single.getReleaseYears(), partitioned.getReleaseYears());
+            for (int yearIndex = 0; yearIndex < single.getYearCount(); yearIndex++) {
+                assertArrayEquals(single.getSongs(yearIndex), partitioned.getSongs(yearIndex));
+            }
+            String trackName = single.getSong(single.getYearCount() - 1, 0).trackName();
+            assertEquals(single.findSongYear(trackName), partitioned.findSongYear(trackName));
+
+            //one partition per file, in name order
+            SongCatalog catalog = partitioned.getCatalog();
+            SongPartition[] partitions = catalog.getPartitions();
+            assertEquals(3, partitions.length);
+            assertTrue(partitions[0].source().endsWith("a-old.csv"), partitions[0].source());
+            assertTrue(partitions[2].source().endsWith("c-new.csv"), partitions[2].source());
+            int rows = 0;
+            for (SongPartition partition : partitions) {
+                assertEquals(rows, partition.firstRow());
+                rows += partition.rowCount();
+            }
+            assertEquals(partitioned.getSongCount(), rows);
+            assertTrue(partitions[0].maxYear() < 2000 && partitions[1].minYear() >= 2000);
+            assertTrue(partitions[1].maxYear() < 2020 && partitions[2].minYear() >= 2020);
+            assertEquals(List.of(partitions[2]), List.of(catalog.getPartitions(2021, 2023)));
+            assertEquals(List.of(partitions[0], partitions[1]), List.of(catalog.getPartitions(1990, 2005)));
+            assertEquals(1, single.getCatalog().getPartitions().length);
+
+            //the scan skips partitions outside the filter's years but finds the same songs
+            SongFilter recent = SongFilter.and(SongFilter.range(SongColumn.RELEASED_YEAR, 2021, 2022),
+                    SongFilter.atLeast(SongColumn.ENERGY, 50));
+            assertArrayEquals(catalog.filter(recent), catalog.filterLinear(recent));
+            SongFilter either = SongFilter.or(SongFilter.range(SongColumn.RELEASED_YEAR, 1950, 1960),
+                    SongFilter.equalTo(SongColumn.RELEASED_YEAR, 2023));
+            assertArrayEquals(catalog.filter(either), catalog.filterLinear(either));
+
+            //appended rows get a partition of their own, which later appends extend
+            HeapSongColumns delta = new HeapSongColumns();
+            delta.add(new String[]{"Brand New", "Someone New", "1", "2031", "5", "6", "0", "0", "12345"});
+            partitioned.append(delta);
+            delta = new HeapSongColumns();
+            delta.add(new String[]{"Older News", "Someone New", "1", "1999", "5", "6", "0", "0", "12"});
+            partitioned.append(delta);
+            SongPartition appended = partitioned.getCatalog().getPartitions()[3];
+            assertEquals(new SongPartition(null, rows, 2, 1999, 2031), appended);
+            assertEquals(List.of(appended), List.of(partitioned.getCatalog().getPartitions(2030, 2040)));
+        } finally {
+            delete(directory);
+        }
+    }
+
+    @org.junit.jupiter.api.Test
+    void globsAndSnapshots() throws Exception {
+
+        Path directory = Files.createTempDirectory("songs-partitions");
+        try {
+            writeByYear(directory, 1000);
+            Path charts = directory.resolve("charts");
+            SongManager glob = new SongManager(charts.resolve("[ab]-*.csv").toString(), true);
+            assertEquals(2, glob.getCatalog().getPartitions().length);
+            assertEquals(SongMetrics.Phase.LOAD_PARTITIONS, glob.getMetrics().snapshot().phases().get(0).phase());
+            assertEquals(SongMetrics.Phase.MERGE_PARTITIONS, glob.getMetrics().snapshot().phases().get(1).phase());
+            assertTrue(Files.exists(CatalogSnapshot.snapshotPath(charts.resolve("a-old.csv"))));
+
+            //the snapshots next to the files are opened, not listed as song files
+            SongManager reopened = new SongManager(charts.toString(), true);
+            assertEquals(3, reopened.getCatalog().getPartitions().length);
+            SongManager parsed = new SongManager(charts.toString(), false);
+            for (int yearIndex = 0; yearIndex < parsed.getYearCount(); yearIndex++) {
+                assertArrayEquals(parsed.getSongs(yearIndex), reopened.getSongs(yearIndex));
+            }
+            assertEquals(1, SongSources.resolve(charts.resolve("c-new.csv").toString()).size());
+            assertThrows(IllegalArgumentException.class, () -> SongSources.resolve(charts.resolve("z*.csv")
+                    .toString()));
+        } finally {
+            delete(directory);
+        }
+    }
+
+    /**
+     * Compares loading several files as partitions with loading the largest of them and all of them one after
+     * another
+     */
+    @org.junit.jupiter.api.Test
+    @org.junit.jupiter.api.condition.EnabledIfSystemProperty(named = "songs.benchmarks", matches = "true")
+    void loadTime() throws Exception {
+
+        int rows = SongCsvGenerator.benchmarkRows("partition", 100_000);
+        Path directory = Files.createTempDirectory("songs-partitions");
+        try {
+            for (int i = 0; i < 4; i++) {
+                new SongCsvGenerator(i).write(directory.resolve("chart-" + i + ".csv"), rows);
+            }
+            double[] millis = new double[3];
+            //measured twice, and the second (warmed up) measurement is kept
+            for (int round = 0; round < 2; round++) {
+                long start = System.nanoTime();
+                new SongManager(directory.resolve("chart-0.csv").toString(), false);
+                millis[0] = (System.nanoTime() - start) / 1e6;
+                start = System.nanoTime();
+                for (int i = 0; i < 4; i++) {
+                    new SongManager(directory.resolve("chart-" + i + ".csv").toString(), false);
+                }
+                millis[1] = (System.nanoTime() - start) / 1e6;
+                start = System.nanoTime();
+                SongManager partitioned = new SongManager(directory.toString(), false);
+                millis[2] = (System.nanoTime() - start) / 1e6;
+                assertEquals(4 * rows, partitioned.getSongCount());
+            }
+            System.out.printf("4 x %,d rows: largest file %.0f ms, one after another %.0f ms, partitioned %.0f ms"
+                    + " (%d threads)%n", rows, millis[0], millis[1], millis[2], Runtime.getRuntime()
+                    .availableProcessors());
+        } finally {
+            delete(directory);
+        }
+    }
+
+    /**
+     * Helper method to write generated songs to three files of 'charts' split by release year, and to one file of
+     * the same rows, file by file
+     *
+     * @return path of the single file
+     */
+    private static Path writeByYear(Path directory, int rows) throws IOException {
+        Path generated = SongCsvGenerator.tempFile(7, rows);
+        List<String> lines;
+        try {
+            lines = Files.readAllLines(generated, StandardCharsets.UTF_8);
+        } finally {
+            Files.deleteIfExists(generated);
+        }
+        List<List<String>> parts = List.of(new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
+        for (String line : lines.subList(1, lines.size())) {
+            //the year is the 21st field from the end, since only names can be quoted
+            String[] fields = line.split(",");
+            int year = Integer.parseInt(fields[fields.length - 21]);
+            parts.get(year < 2000 ? 0 : year < 2020 ? 1 : 2).add(line);
+        }
+        Path charts = Files.createDirectory(directory.resolve("charts"));
+        String[] names = {"a-old.csv", "b-mid.csv", "c-new.csv"};
+        List<String> whole = new ArrayList<>(List.of(lines.get(0)));
+        for (int i = 0; i < names.length; i++) {
+            List<String> part = new ArrayList<>(List.of(lines.get(0)));
+            part.addAll(parts.get(i));
+            Files.write(charts.resolve(names[i]), part, StandardCharsets.UTF_8);
+            whole.addAll(parts.get(i));
+        }
+        Path single = directory.resolve("whole.csv");
+        Files.write(single, whole, StandardCharsets.UTF_8);
+        return single;
+    }
+
+    private static void delete(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toArray(Path[]::new)) {
+                Files.delete(path);
+            }
+        }
+    }
+}
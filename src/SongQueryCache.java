@@ -0,0 +1,373 @@
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * SongQueryCache class that answers repeated SongManagerInterface lookups from memory.
+ * Copies of a year's songs, single songs, song counts by year name and the release years of track names are kept,
+ * up to a maximum weight (one per Song held, and one per count or year index), in least recently used order.  The
+ * cache is split into stripes by key, each with its own lock and its own share of the weight, so threads looking up
+ * different keys rarely wait for each other.
+ * Every entry belongs to the catalog it was read from: once the manager publishes a new catalog (after a reload,
+ * an append or a sort) a stripe drops its entries the next time it is used, so answers are never older than the
+ * catalog.  The other lookups are cheap enough to be passed straight to the manager.
+ *
+ * @author Bennett Fife
+ * @version 10/17/26
+ */
+public class SongQueryCache implements SongManagerInterface {
+
+    /**
+     * maximum weight used by the one-argument constructor: 100,000 songs
+     */
+    public static final long DEFAULT_MAX_WEIGHT = 100_000;
+    /**
+     * number of stripes used by the one-argument constructor
+     */
+    public static final int DEFAULT_STRIPES = 16;
+
+    /**
+     * the cached lookups, with the query they are timed as
+     */
+    private enum Kind {
+        /**
+         * getSongs(yearIndex)
+         */
+        SONGS(SongMetrics.Query.GET_SONGS),
+        /**
+         * getSong(yearIndex, songIndex)
+         */
+        SONG(SongMetrics.Query.GET_SONG),
+        /**
+         * getSongCount(yearIndex)
+         */
+        SONG_COUNT(SongMetrics.Query.GET_SONG_COUNT),
+        /**
+         * findSongYear(trackName)
+         */
+        SONG_YEAR(SongMetrics.Query.FIND_SONG_YEAR);
+
+        /**
+         * query the lookup is timed as
+         */
+        private final SongMetrics.Query query;
+
+        /**
+         * Kind constructor
+         *
+         * @param query query the lookup is timed as
+         */
+        Kind(SongMetrics.Query query) {
+            this.query = query;
+        }
+    }
+
+    /**
+     * the counters of a cache at one moment
+     *
+     * @param hits          lookups answered from the cache
+     * @param misses        lookups read from the catalog
+     * @param evictions     entries dropped to stay within the maximum weight
+     * @param invalidations entries dropped because a new catalog was published
+     * @param entries       entries held
+     * @param weight        total weight of the entries held
+     */
+    public record Stats(long hits, long misses, long evictions, long invalidations, int entries, long weight) {
+
+        /**
+         * Retrieves the share of lookups answered from the cache
+         *
+         * @return hits / (hits + misses), or 0 before the first lookup
+         */
+        public double hitRate() {
+            long lookups = hits + misses;
+            return lookups == 0 ? 0 : (double) hits / lookups;
+        }
+    }
+
+    /**
+     * a cached lookup and its arguments; unused arguments are 0 or null
+     *
+     * @param kind      lookup
+     * @param yearIndex year index argument
+     * @param songIndex song index argument
+     * @param name      track name or release year argument
+     */
+    private record Key(Kind kind, int yearIndex, int songIndex, String name) {
+    }
+
+    /**
+     * a cached result
+     *
+     * @param value  result of the lookup
+     * @param weight number of songs the result holds, counted against the maximum weight
+     */
+    private record Entry(Object value, int weight) {
+    }
+
+    /**
+     * one lock's share of the entries, least recently used first
+     */
+    private static final class Stripe {
+        /**
+         * entries of the stripe in least recently used order
+         */
+        private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+        /**
+         * catalog every entry was read from
+         */
+        private SongCatalog catalog;
+        /**
+         * total weight of the entries
+         */
+        private long weight;
+    }
+
+    /**
+     * manager whose lookups are cached
+     */
+    private final SongManager manager;
+    /**
+     * metrics the lookups are timed in
+     */
+    private final SongMetrics metrics;
+    /**
+     * stripes by key hash; the count is a power of two
+     */
+    private final Stripe[] stripes;
+    /**
+     * maximum weight of each stripe
+     */
+    private final long stripeWeight;
+    /**
+     * lookups answered from the cache
+     */
+    private final LongAdder hits = new LongAdder();
+    /**
+     * lookups read from the catalog
+     */
+    private final LongAdder misses = new LongAdder();
+    /**
+     * entries dropped to stay within the maximum weight
+     */
+    private final LongAdder evictions = new LongAdder();
+    /**
+     * entries dropped because a new catalog was published
+     */
+    private final LongAdder invalidations = new LongAdder();
+
+    /**
+     * SongQueryCache constructor that holds up to DEFAULT_MAX_WEIGHT in DEFAULT_STRIPES stripes
+     *
+     * @param manager manager whose lookups are cached
+     */
+    public SongQueryCache(SongManager manager) {
+        this(manager, DEFAULT_MAX_WEIGHT, DEFAULT_STRIPES);
+    }
+
+    /**
+     * SongQueryCache constructor
+     *
+     * @param manager   manager whose lookups are cached
+     * @param maxWeight most songs (and counts) held; a year with more songs than one stripe's share is never held
+     * @param stripes   number of independently locked parts, rounded up to a power of two
+     */
+    public SongQueryCache(SongManager manager, long maxWeight, int stripes) {
+        if (maxWeight < 1 || stripes < 1) {
+            throw new IllegalArgumentException("the maximum weight and stripe count must be positive");
+        }
+        this.manager = manager;
+        this.metrics = manager.getMetrics();
+        int count = 1;
+        while (count < stripes) {
+            count <<= 1;
+        }
+        this.stripes = new Stripe[count];
+        for (int i = 0; i < this.stripes.length; i++) {
+            this.stripes[i] = new Stripe();
+        }
+        stripeWeight = Math.max(1, maxWeight / this.stripes.length);
+    }
+
+    /**
+     * Retrieves the manager whose lookups are cached
+     *
+     * @return manager
+     */
+    public SongManager getManager() {
+        return manager;
+    }
+
+    @Override
+    public int getYearCount() {
+        return manager.getYearCount();
+    }
+
+    @Override
+    public int getSongCount(int yearIndex) {
+        return manager.getSongCount(yearIndex);
+    }
+
+    @Override
+    public int getSongCount() {
+        return manager.getSongCount();
+    }
+
+    @Override
+    public String getYearName(int yearIndex) {
+        return manager.getYearName(yearIndex);
+    }
+
+    /**
+     * Retrieves the number of songs in the specified release year (by name), from the cache if it was asked before
+     *
+     * @param year the release year
+     * @return song count in that release year
+     */
+    @Override
+    public int getSongCount(String year) {
+        return (Integer) get(Kind.SONG_COUNT, 0, 0, year);
+    }
+
+    /**
+     * Retrieves the song at the specific release year and song index, from the cache if it was asked before
+     *
+     * @param yearIndex release year index
+     * @param songIndex song index
+     * @return song at that position
+     */
+    @Override
+    public Song getSong(int yearIndex, int songIndex) {
+        return (Song) get(Kind.SONG, yearIndex, songIndex, null);
+    }
+
+    /**
+     * Retrieves a copy of the song array for the release year at the specified index.  The songs are built once per
+     * catalog and the cached array is copied for every caller.
+     *
+     * @param yearIndex release year index
+     * @return new song array
+     */
+    @Override
+    public Song[] getSongs(int yearIndex) {
+        return ((Song[]) get(Kind.SONGS, yearIndex, 0, null)).clone();
+    }
+
+    /**
+     * Retrieves the first release year index of a track name, from the cache if it was asked before
+     *
+     * @param trackName the track name to search for
+     * @return the first release year index containing the song, or -1 if not found
+     */
+    @Override
+    public int findSongYear(String trackName) {
+        return (Integer) get(Kind.SONG_YEAR, 0, 0, trackName);
+    }
+
+    /**
+     * Drops every entry
+     */
+    public void invalidateAll() {
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                invalidations.add(stripe.entries.size());
+                stripe.entries.clear();
+                stripe.weight = 0;
+            }
+        }
+    }
+
+    /**
+     * Reads the counters as they are now
+     *
+     * @return new stats
+     */
+    public Stats getStats() {
+        int entries = 0;
+        long weight = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                entries += stripe.entries.size();
+                weight += stripe.weight;
+            }
+        }
+        return new Stats(hits.sum(), misses.sum(), evictions.sum(), invalidations.sum(), entries, weight);
+    }
+
+    /**
+     * Helper method to look up a key, reading it from the current catalog and caching it on a miss.  The catalog is
+     * read under the stripe's lock, so a stripe only ever moves on to newer catalogs, and an answer read from a
+     * catalog that has since been replaced is returned but not cached.
+     *
+     * @param kind      lookup
+     * @param yearIndex year index argument, or 0
+     * @param songIndex song index argument, or 0
+     * @param name      track name or release year argument, or null
+     * @return result of the lookup
+     */
+    private Object get(Kind kind, int yearIndex, int songIndex, String name) {
+        long start = metrics.start();
+        Key key = new Key(kind, yearIndex, songIndex, name);
+        int hash = key.hashCode();
+        Stripe stripe = stripes[(hash ^ (hash >>> 16)) & (stripes.length - 1)];
+        SongCatalog catalog;
+        synchronized (stripe) {
+            catalog = manager.getCatalog();
+            if (stripe.catalog != catalog) {
+                invalidations.add(stripe.entries.size());
+                stripe.entries.clear();
+                stripe.weight = 0;
+                stripe.catalog = catalog;
+            }
+            Entry entry = stripe.entries.get(key);
+            if (entry != null) {
+                hits.increment();
+                metrics.finish(kind.query, start);
+                return entry.value();
+            }
+        }
+        misses.increment();
+        //read outside the lock; a bad index throws here and nothing is cached
+        Object value = read(catalog, key);
+        int weight = value instanceof Song[] songs ? Math.max(1, songs.length) : 1;
+        if (weight <= stripeWeight) {
+            synchronized (stripe) {
+                if (stripe.catalog == catalog && !stripe.entries.containsKey(key)) {
+                    stripe.entries.put(key, new Entry(value, weight));
+                    stripe.weight += weight;
+                    Iterator<Map.Entry<Key, Entry>> eldest = stripe.entries.entrySet().iterator();
+                    while (stripe.weight > stripeWeight) {
+                        stripe.weight -= eldest.next().getValue().weight();
+                        eldest.remove();
+                        evictions.increment();
+                    }
+                }
+            }
+        }
+        metrics.finish(kind.query, start);
+        return value;
+    }
+
+    /**
+     * Helper method to read the answer to a key from a catalog
+     *
+     * @param catalog catalog read
+     * @param key     lookup and its arguments
+     * @return result of the lookup
+     */
+    private static Object read(SongCatalog catalog, Key key) {
+        switch (key.kind()) {
+            case SONGS:
+                return catalog.getSongs(key.yearIndex());
+            case SONG:
+                return catalog.getSong(key.yearIndex(), key.songIndex());
+            case SONG_COUNT:
+                return catalog.getSongCount(key.name());
+            case SONG_YEAR:
+                return catalog.findSongYear(key.name());
+            default:
+                throw new IllegalArgumentException("unknown lookup " + key.kind());
+        }
+    }
+}
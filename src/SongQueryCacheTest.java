@@ -0,0 +1,194 @@
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.ArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SongQueryCacheTest {
+
+    @org.junit.jupiter.api.Test
+    void answersLikeTheManager() {
+
+        SongManager manager = new SongManager();
+        SongQueryCache cache = new SongQueryCache(manager);
+        int yearIndex = manager.getYearCount() - 1;
+        Song[] songs = cache.getSongs(yearIndex);
+        assertArrayEquals(manager.getSongs(yearIndex), songs);
+        //every caller gets its own copy
+        songs[0] = null;
+        assertArrayEquals(manager.getSongs(yearIndex), cache.getSongs(yearIndex));
+        assertNotSame(cache.getSongs(yearIndex), cache.getSongs(yearIndex));
+
+        assertEquals(manager.getSong(yearIndex, 3), cache.getSong(yearIndex, 3));
+        assertEquals(manager.getSongCount("2022"), cache.getSongCount("2022"));
+        assertEquals(0, cache.getSongCount("1066"));
+        String trackName = manager.getSong(0, 0).trackName();
+        assertEquals(manager.findSongYear(trackName), cache.findSongYear(trackName));
+        assertEquals(-1, cache.findSongYear("No Such Song"));
+        assertEquals(manager.getYearCount(), cache.getYearCount());
+        assertEquals(manager.getYearName(yearIndex), cache.getYearName(yearIndex));
+        assertEquals(manager.getSongCount(), cache.getSongCount());
+
+        SongQueryCache.Stats stats = cache.getStats();
+        assertEquals(6, stats.misses());
+        assertEquals(3, stats.hits());
+        assertEquals(6, stats.entries());
+        assertEquals(manager.getSongCount(yearIndex) + 5, stats.weight());
+        assertEquals(1.0 / 3, stats.hitRate(), 1e-9);
+
+        //bad indexes throw like the manager's and are not cached
+        assertThrows(IllegalArgumentException.class, () -> cache.getSongs(-1));
+        assertThrows(IllegalArgumentException.class, () -> cache.getSong(0, manager.getSongCount(0)));
+        assertEquals(6, cache.getStats().entries());
+    }
+
+    @org.junit.jupiter.api.Test
+    void invalidatedByNewCatalogs() {
+
+        SongManager manager = new SongManager();
+        SongQueryCache cache = new SongQueryCache(manager);
+        int yearIndex = manager.getYearCount() - 1;
+        int count = cache.getSongCount("2023");
+        assertEquals(-1, cache.findSongYear("Cached Song"));
+        Song first = cache.getSong(yearIndex, 0);
+
+        manager.appendSongs(List.<String[]>of(new String[]{"Cached Song", "Someone", "1", "2023", "1", "1", "0", "0",
+                "5"}));
+        assertEquals(count + 1, cache.getSongCount("2023"));
+        assertEquals(yearIndex, cache.findSongYear("Cached Song"));
+        assertEquals(2, cache.getStats().invalidations());
+
+        manager.sortSongs(SortKey.STREAMS);
+        assertEquals(manager.getSong(yearIndex, 0), cache.getSong(yearIndex, 0));
+        assertArrayEquals(manager.getSongs(yearIndex), cache.getSongs(yearIndex));
+        manager.reload();
+        assertEquals(-1, cache.findSongYear("Cached Song"));
+        assertEquals(count, cache.getSongCount("2023"));
+        manager.sortSongs(SortKey.TRACK_NAME);
+        assertEquals(first, cache.getSong(yearIndex, 0));
+
+        cache.invalidateAll();
+        assertEquals(0, cache.getStats().entries());
+        assertEquals(0, cache.getStats().weight());
+    }
+
+    @org.junit.jupiter.api.Test
+    void evictsLeastRecentlyUsed() {
+
+        SongManager manager = new SongManager();
+        SongQueryCache cache = new SongQueryCache(manager, 8, 1);
+        int yearIndex = manager.getYearCount() - 1;
+        for (int songIndex = 0; songIndex < 8; songIndex++) {
+            cache.getSong(yearIndex, songIndex);
+        }
+        cache.getSong(yearIndex, 0);
+        cache.getSong(yearIndex, 8);
+        SongQueryCache.Stats stats = cache.getStats();
+        assertEquals(1, stats.evictions());
+        assertEquals(8, stats.entries());
+
+        //song 0 was used again, so song 1 went instead
+        cache.getSong(yearIndex, 0);
+        assertEquals(2, cache.getStats().hits());
+        cache.getSong(yearIndex, 1);
+        assertEquals(2, cache.getStats().hits());
+
+        //a year heavier than the whole cache is read but never held
+        int before = cache.getStats().entries();
+        assertArrayEquals(manager.getSongs(yearIndex), cache.getSongs(yearIndex));
+        assertEquals(before, cache.getStats().entries());
+        assertThrows(IllegalArgumentException.class, () -> new SongQueryCache(manager, 0, 4));
+    }
+
+    @org.junit.jupiter.api.Test
+    void concurrentLookupsAndWrites() throws Exception {
+
+        SongManager manager = new SongManager();
+        SongQueryCache cache = new SongQueryCache(manager, 2_000, 8);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        try {
+            List<Future<Integer>> reads = new ArrayList<>();
+            for (int thread = 0; thread < 3; thread++) {
+                int seed = thread;
+                reads.add(pool.submit(() -> {
+                    SplittableRandom random = new SplittableRandom(seed);
+                    int lookups = 0;
+                    do {
+                        int yearIndex = random.nextInt(cache.getYearCount());
+                        Song[] songs = cache.getSongs(yearIndex);
+                        assertTrue(songs.length > 0);
+                        cache.getSong(yearIndex, random.nextInt(songs.length));
+                        cache.findSongYear(songs[0].trackName());
+                        cache.getSongCount(songs[0].releasedYear());
+                        lookups++;
+                    } while (writing.get() || lookups < 100);
+                    return lookups;
+                }));
+            }
+            //writes only add songs to existing years, so the indexes a reader saw stay valid
+            Future<?> writes = pool.submit(() -> {
+                for (int round = 0; round < 20; round++) {
+                    manager.appendSongs(List.<String[]>of(new String[]{"Cached Song " + round, "Someone", "1",
+                            round % 2 == 0 ? "2022" : "2023", "1", "1", "0", "0", "10"}));
+                    manager.sortSongs(round % 2 == 0 ? SortKey.STREAMS : SortKey.TRACK_NAME);
+                }
+                return null;
+            });
+            writes.get(2, TimeUnit.MINUTES);
+            writing.set(false);
+            for (Future<Integer> read : reads) {
+                assertTrue(read.get(1, TimeUnit.MINUTES) > 0);
+            }
+        } finally {
+            writing.set(false);
+            pool.shutdownNow();
+        }
+        //once the writes stop, every answer is the last catalog's
+        for (int yearIndex = 0; yearIndex < manager.getYearCount(); yearIndex++) {
+            assertArrayEquals(manager.getSongs(yearIndex), cache.getSongs(yearIndex));
+            assertEquals(manager.getSongCount(manager.getYearName(yearIndex)),
+                    cache.getSongCount(manager.getYearName(yearIndex)));
+        }
+        assertEquals(manager.findSongYear("Cached Song 19"), cache.findSongYear("Cached Song 19"));
+        SongQueryCache.Stats stats = cache.getStats();
+        assertTrue(stats.weight() <= 2_000, stats.toString());
+        assertTrue(stats.hits() > 0 && stats.invalidations() > 0, stats.toString());
+    }
+
+    /**
+     * Measures a repeated getSongs() from the cache against building the songs again every time
+     */
+    @org.junit.jupiter.api.Test
+    @org.junit.jupiter.api.condition.EnabledIfSystemProperty(named = "songs.benchmarks", matches = "true")
+    void repeatedLookupSpeed() {
+
+        SongManager manager = new SongManager();
+        SongQueryCache cache = new SongQueryCache(manager);
+        int yearIndex = manager.getYearCount() - 1;
+        int calls = 20_000;
+        double[] nanos = new double[2];
+        long check = 0;
+        //measured twice, and the second (warmed up) measurement is kept
+        for (int round = 0; round < 2; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < calls; i++) {
+                check += manager.getSongs(yearIndex).length;
+            }
+            nanos[0] = (System.nanoTime() - start) / (double) calls;
+            start = System.nanoTime();
+            for (int i = 0; i < calls; i++) {
+                check += cache.getSongs(yearIndex).length;
+            }
+            nanos[1] = (System.nanoTime() - start) / (double) calls;
+        }
+        assertEquals(4L * calls * manager.getSongCount(yearIndex), check);
+        System.out.printf("getSongs (%d songs): manager %.0f ns, cache %.0f ns, hit rate %.1f%%%n",
+                manager.getSongCount(yearIndex), nanos[0], nanos[1], cache.getStats().hitRate() * 100);
+    }
+}
@@ -0,0 +1,1167 @@
+import java.util.Arrays;
+import java.util.function.IntFunction;
+
+/**
+ * SongSearchIndex class that finds songs by part of their track or artist name, for type-ahead search.
+ * Prefix search binary searches the track names, and every artist of each artist list, kept in case-insensitive
+ * order, and ranks the matching range from a parallel array of stream counts.  Substring search intersects the hashed
+ * posting lists of the query's three-character sequences (trigrams); the lists hold songs most streamed first, so it
+ * stops as soon as no later song could make the results.  Matches are ranked (exact track name, track prefix, artist
+ * prefix, track substring, artist substring, then most streams first) and only the best few are kept.
+ * Like TrackNameIndex, an index never changes: appended rows go into a new layer on top of it.
+ *
+ * @author Bennett Fife
+ * @version 10/17/26
+ */
+public final class SongSearchIndex {
+
+    /**
+     * how well a song matches a query, best first
+     */
+    public enum Match {
+        /**
+         * the track name is the query
+         */
+        EXACT_TRACK,
+        /**
+         * the track name starts with the query
+         */
+        TRACK_PREFIX,
+        /**
+         * one of the artists' names starts with the query
+         */
+        ARTIST_PREFIX,
+        /**
+         * the track name contains the query
+         */
+        TRACK_SUBSTRING,
+        /**
+         * the artist names contain the query
+         */
+        ARTIST_SUBSTRING,
+        /**
+         * neither name contains the query
+         */
+        NONE
+    }
+
+    /**
+     * most layers kept before the index is rebuilt as a single layer
+     */
+    private static final int MAX_LAYERS = 8;
+    /**
+     * length of the substrings listed in the posting lists
+     */
+    private static final int GRAM = 3;
+    /**
+     * text between the artists of an artist(s) name
+     */
+    private static final String ARTIST_SEPARATOR = ", ";
+
+    /**
+     * index of the rows before this layer, or null for the bottom layer
+     */
+    private final SongSearchIndex parent;
+    /**
+     * number of layers, this one included
+     */
+    private final int layers;
+    /**
+     * song columns the names are read from
+     */
+    private final SongColumns columns;
+    /**
+     * row after the last row of this layer
+     */
+    private final int toRow;
+    /**
+     * rows of this layer in rank order (most streams first, then file order), and their streams
+     */
+    private final int[] rankRows;
+    /**
+     * streams of each rank
+     */
+    private final long[] rankStreams;
+    /**
+     * ranks of the rows of this layer in case-insensitive track name order
+     */
+    private final int[] trackRanks;
+    /**
+     * range minimum over trackRanks
+     */
+    private final RankRange trackRange;
+    /**
+     * rank and start offset of every artist in the artist lists of this layer, in case-insensitive artist order
+     */
+    private final int[] artistRanks;
+    /**
+     * start offset of each artist of artistRanks in its artist list
+     */
+    private final int[] artistOffsets;
+    /**
+     * range minimum over artistRanks
+     */
+    private final RankRange artistRange;
+    /**
+     * trigram posting lists of the track names and of the artist lists
+     */
+    private final Postings trackGrams;
+    /**
+     * trigram posting lists of the artist lists
+     */
+    private final Postings artistGrams;
+
+    /**
+     * SongSearchIndex constructor indexes the first rows of the columns
+     *
+     * @param columns  song columns to index
+     * @param rowCount number of rows to index
+     */
+    public SongSearchIndex(SongColumns columns, int rowCount) {
+        this(null, columns, 0, rowCount);
+    }
+
+    /**
+     * SongSearchIndex constructor indexes the rows [fromRow, toRow) as a layer on top of a parent (null for the first
+     * layer)
+     *
+     * @param parent  index of the rows before fromRow, or null
+     * @param columns song columns to index
+     * @param fromRow first row of the layer
+     * @param toRow   row after the last row of the layer
+     */
+    private SongSearchIndex(SongSearchIndex parent, SongColumns columns, int fromRow, int toRow) {
+        this.parent = parent;
+        this.layers = parent == null ? 1 : parent.layers + 1;
+        this.columns = columns;
+        this.toRow = toRow;
+        SongSorter sorter = new SongSorter();
+        int rows = toRow - fromRow;
+
+        rankRows = new int[rows];
+        for (int i = 0; i < rows; i++) {
+            rankRows[i] = fromRow + i;
+        }
+        sorter.sort(rankRows, (a, b) -> Long.compare(columns.streams(b), columns.streams(a)));
+        rankStreams = new long[rows];
+        int[] rankOfRow = new int[rows];
+        for (int rank = 0; rank < rows; rank++) {
+            rankStreams[rank] = columns.streams(rankRows[rank]);
+            rankOfRow[rankRows[rank] - fromRow] = rank;
+        }
+
+        trackRanks = new int[rows];
+        for (int i = 0; i < rows; i++) {
+            trackRanks[i] = fromRow + i;
+        }
+        //folded once up front, so the sort compares plain strings (the same order as compareFolded)
+        String[] foldedNames = new String[rows];
+        for (int i = 0; i < rows; i++) {
+            foldedNames[i] = fold(columns.trackName(fromRow + i));
+        }
+        sorter.sort(trackRanks, (a, b) -> foldedNames[a - fromRow].compareTo(foldedNames[b - fromRow]));
+        for (int i = 0; i < rows; i++) {
+            trackRanks[i] = rankOfRow[trackRanks[i] - fromRow];
+        }
+        trackRange = new RankRange(trackRanks);
+
+        int artistCount = 0;
+        for (int row = fromRow; row < toRow; row++) {
+            artistCount += artistStarts(columns.artistName(row), null, 0);
+        }
+        int[] entryRows = new int[artistCount];
+        int[] entryOffsets = new int[artistCount];
+        int entry = 0;
+        for (int row = fromRow; row < toRow; row++) {
+            int added = artistStarts(columns.artistName(row), entryOffsets, entry);
+            Arrays.fill(entryRows, entry, entry + added, row);
+            entry += added;
+        }
+        int[] order = new int[artistCount];
+        String[] foldedArtists = new String[artistCount];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+            foldedArtists[i] = fold(columns.artistName(entryRows[i]).substring(entryOffsets[i]));
+        }
+        sorter.sort(order, (a, b) -> foldedArtists[a].compareTo(foldedArtists[b]));
+        artistRanks = new int[artistCount];
+        artistOffsets = new int[artistCount];
+        for (int i = 0; i < order.length; i++) {
+            artistRanks[i] = rankOfRow[entryRows[order[i]] - fromRow];
+            artistOffsets[i] = entryOffsets[order[i]];
+        }
+        artistRange = new RankRange(artistRanks);
+
+        trackGrams = new Postings(rankRows, columns::trackName);
+        artistGrams = new Postings(rankRows, columns::artistName);
+    }
+
+    /**
+     * Creates an index that also covers rows appended to the columns.  The rows are indexed in a new layer, or the
+     * whole index is rebuilt once the layers on top of the bottom one hold too many rows.
+     *
+     * @param columns  song columns holding the rows
+     * @param rowCount new number of rows to index
+     * @return new index; this index is unchanged
+     */
+    public SongSearchIndex withRows(SongColumns columns, int rowCount) {
+        if (rowCount == toRow) {
+            return this;
+        }
+        SongSearchIndex bottom = this;
+        while (bottom.parent != null) {
+            bottom = bottom.parent;
+        }
+        if (layers >= MAX_LAYERS || rowCount - bottom.toRow > bottom.toRow / 4) {
+            return new SongSearchIndex(columns, rowCount);
+        }
+        return new SongSearchIndex(this, columns, toRow, rowCount);
+    }
+
+    /**
+     * Retrieves the number of rows indexed
+     *
+     * @return row count
+     */
+    public int getRowCount() {
+        return toRow;
+    }
+
+    /**
+     * Finds the best matches of a query (case-insensitive) in the track and artist names.  Queries shorter than
+     * three characters match prefixes only.
+     *
+     * @param query text typed so far; leading and trailing spaces are ignored, and null matches nothing
+     * @param limit most rows returned (a limit past the row count returns every match)
+     * @return matching rows, best match first
+     */
+    public int[] search(String query, int limit) {
+        limit = Math.min(limit, toRow);
+        if (query == null || limit <= 0) {
+            return new int[0];
+        }
+        String folded = fold(query.strip());
+        if (folded.isEmpty()) {
+            return new int[0];
+        }
+        TopMatches top = new TopMatches(limit);
+        for (SongSearchIndex layer = this; layer != null; layer = layer.parent) {
+            layer.searchTracks(folded, top);
+        }
+        if (!top.isFullAbove(Match.ARTIST_PREFIX)) {
+            for (SongSearchIndex layer = this; layer != null; layer = layer.parent) {
+                layer.searchArtists(folded, top);
+            }
+        }
+        if (folded.length() >= GRAM && !top.isFullAbove(Match.TRACK_SUBSTRING)) {
+            for (SongSearchIndex layer = this; layer != null; layer = layer.parent) {
+                layer.searchGrams(folded, top, layer.trackGrams, Match.TRACK_SUBSTRING);
+            }
+        }
+        if (folded.length() >= GRAM && !top.isFullAbove(Match.ARTIST_SUBSTRING)) {
+            for (SongSearchIndex layer = this; layer != null; layer = layer.parent) {
+                layer.searchGrams(folded, top, layer.artistGrams, Match.ARTIST_SUBSTRING);
+            }
+        }
+        return top.toRows();
+    }
+
+    /**
+     * Finds the best matches of a query by checking every row, without an index
+     *
+     * @param columns  song columns
+     * @param rowCount number of rows to check
+     * @param query    text typed so far; leading and trailing spaces are ignored, and null matches nothing
+     * @param limit    most rows returned (a limit past the row count returns every match)
+     * @return matching rows, best match first (the same rows search() returns)
+     */
+    public static int[] linearSearch(SongColumns columns, int rowCount, String query, int limit) {
+        limit = Math.min(limit, rowCount);
+        if (query == null || limit <= 0) {
+            return new int[0];
+        }
+        String folded = fold(query.strip());
+        if (folded.isEmpty()) {
+            return new int[0];
+        }
+        TopMatches top = new TopMatches(limit);
+        for (int row = 0; row < rowCount; row++) {
+            Match match = match(columns, row, folded);
+            if (match.compareTo(Match.ARTIST_PREFIX) <= 0 || (match != Match.NONE && folded.length() >= GRAM)) {
+                long streams = columns.streams(row);
+                if (top.accepts(match, streams, row)) {
+                    top.offer(row, match, streams);
+                }
+            }
+        }
+        return top.toRows();
+    }
+
+    /**
+     * Retrieves how well a song matches a query
+     *
+     * @param columns song columns
+     * @param row     row number
+     * @param query   query, already folded with fold()
+     * @return best match, or NONE
+     */
+    static Match match(SongColumns columns, int row, String query) {
+        String trackName = columns.trackName(row);
+        if (startsWithFolded(trackName, 0, query)) {
+            return trackName.length() == query.length() ? Match.EXACT_TRACK : Match.TRACK_PREFIX;
+        }
+        String artistName = columns.artistName(row);
+        for (int offset = 0; offset >= 0; offset = nextArtist(artistName, offset)) {
+            if (startsWithFolded(artistName, offset, query)) {
+                return Match.ARTIST_PREFIX;
+            }
+        }
+        if (containsFolded(trackName, query)) {
+            return Match.TRACK_SUBSTRING;
+        }
+        return containsFolded(artistName, query) ? Match.ARTIST_SUBSTRING : Match.NONE;
+    }
+
+    /**
+     * Folds a string the same way String.CASE_INSENSITIVE_ORDER compares characters
+     *
+     * @param text text to fold
+     * @return folded text
+     */
+    static String fold(String text) {
+        char[] chars = text.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = fold(chars[i]);
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Helper method to fold one character the same way String.CASE_INSENSITIVE_ORDER does
+     *
+     * @param c character folded
+     * @return folded character
+     */
+    private static char fold(char c) {
+        if (c < 128) {
+            return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+        }
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+
+    /**
+     * Helper method to offer the track names starting with the query, most streamed first, until no later one
+     * could be kept
+     *
+     * @param query folded query
+     * @param top   matches kept so far
+     */
+    private void searchTracks(String query, TopMatches top) {
+        int from = lowerBound(trackRanks, null, query, false);
+        int to = lowerBound(trackRanks, null, query, true);
+        int exactTo = from;
+        //names equal to the query sort before the longer names it is a prefix of
+        while (exactTo < to && columns.trackName(rankRows[trackRanks[exactTo]]).length() == query.length()) {
+            exactTo++;
+        }
+        RankRange.Walk walk = trackRange.walk(from, exactTo);
+        for (int i = walk.next(); i >= 0; i = walk.next()) {
+            if (!offer(top, Match.EXACT_TRACK, trackRanks[i])) {
+                break;
+            }
+        }
+        walk = trackRange.walk(exactTo, to);
+        for (int i = walk.next(); i >= 0; i = walk.next()) {
+            if (!offer(top, Match.TRACK_PREFIX, trackRanks[i])) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Helper method to offer the artist lists with an artist starting with the query (once per row), most streamed
+     * first, until no later one could be kept
+     *
+     * @param query folded query
+     * @param top   matches kept so far
+     */
+    private void searchArtists(String query, TopMatches top) {
+        RankRange.Walk walk = artistRange.walk(lowerBound(artistRanks, artistOffsets, query, false),
+                lowerBound(artistRanks, artistOffsets, query, true));
+        for (int i = walk.next(); i >= 0; i = walk.next()) {
+            int rank = artistRanks[i];
+            int row = rankRows[rank];
+            if (!top.accepts(Match.ARTIST_PREFIX, rankStreams[rank], row)) {
+                break;
+            }
+            //a row is offered by its first matching artist only, and not at all if its track name matched
+            if (firstMatchingArtist(columns.artistName(row), query) == artistOffsets[i]
+                    && !startsWithFolded(columns.trackName(row), 0, query)) {
+                top.offer(row, Match.ARTIST_PREFIX, rankStreams[rank]);
+            }
+        }
+    }
+
+    /**
+     * Helper method to offer the row with a rank
+     *
+     * @param top   matches kept so far
+     * @param match how the row matches
+     * @param rank  rank of the row
+     * @return false if the row (and so every row with a later rank) would not be kept
+     */
+    private boolean offer(TopMatches top, Match match, int rank) {
+        if (!top.accepts(match, rankStreams[rank], rankRows[rank])) {
+            return false;
+        }
+        top.offer(rankRows[rank], match, rankStreams[rank]);
+        return true;
+    }
+
+    /**
+     * Helper method to offer the substring matches of one kind: the rows in every posting list of the query's
+     * trigrams, checked most streamed first until no later row could be kept
+     *
+     * @param query    folded query, at least GRAM characters long
+     * @param top      matches kept so far
+     * @param postings posting lists of the names searched
+     * @param kind     match offered for a row whose name contains the query
+     */
+    private void searchGrams(String query, TopMatches top, Postings postings, Match kind) {
+        //posting lists of the query's trigrams, shortest first; the shortest is walked and the others only probed
+        int[] buckets = new int[query.length() - GRAM + 1];
+        for (int i = 0; i < buckets.length; i++) {
+            int bucket = postings.bucket(query, i);
+            int j = i;
+            for (; j > 0 && postings.size(buckets[j - 1]) > postings.size(bucket); j--) {
+                buckets[j] = buckets[j - 1];
+            }
+            buckets[j] = bucket;
+        }
+        int[] positions = new int[buckets.length];
+        for (int i = 0; i < buckets.length; i++) {
+            positions[i] = postings.starts[buckets[i]];
+        }
+        candidates:
+        for (int i = positions[0]; i < postings.starts[buckets[0] + 1]; i++) {
+            int rank = postings.ranks[i];
+            int row = rankRows[rank];
+            if (!top.accepts(kind, rankStreams[rank], row)) {
+                return; //every later row has fewer streams
+            }
+            for (int list = 1; list < buckets.length; list++) {
+                int end = postings.starts[buckets[list] + 1];
+                positions[list] = postings.seek(positions[list], end, rank);
+                if (positions[list] == end || postings.ranks[positions[list]] != rank) {
+                    continue candidates;
+                }
+            }
+            //rows that also match better were already offered
+            if (match(columns, row, query) == kind) {
+                top.offer(row, kind, rankStreams[rank]);
+            }
+        }
+    }
+
+    /**
+     * Helper method to binary search names sorted case-insensitively
+     *
+     * @param ranks   ranks of the rows of the names, in name order
+     * @param offsets where each name starts in its artist list, or null for track names
+     * @param query   folded query
+     * @param after   false for the first name at or after the query, true for the first name after every name
+     *                starting with the query
+     * @return position in ranks
+     */
+    private int lowerBound(int[] ranks, int[] offsets, String query, boolean after) {
+        int low = 0;
+        int high = ranks.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            int row = rankRows[ranks[mid]];
+            String name = offsets == null ? columns.trackName(row) : columns.artistName(row);
+            int offset = offsets == null ? 0 : offsets[mid];
+            int compare = after ? comparePrefix(name, offset, query) : compareFolded(name, offset, query, 0);
+            if (compare < 0 || (after && compare == 0)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Helper method to list where each artist of an artist list starts
+     *
+     * @param artistName artist(s) name
+     * @param offsets    array the offsets are written to, or null to only count them
+     * @param next       position of the first offset written
+     * @return number of artists
+     */
+    private static int artistStarts(String artistName, int[] offsets, int next) {
+        int count = 0;
+        for (int offset = 0; offset >= 0; offset = nextArtist(artistName, offset)) {
+            if (offsets != null) {
+                offsets[next + count] = offset;
+            }
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Helper method to find where the next artist of an artist list starts
+     *
+     * @param artistName artist(s) name
+     * @param offset     offset of the current artist
+     * @return offset of the next artist, or -1 if this is the last one
+     */
+    private static int nextArtist(String artistName, int offset) {
+        int separator = artistName.indexOf(ARTIST_SEPARATOR, offset);
+        return separator < 0 ? -1 : separator + ARTIST_SEPARATOR.length();
+    }
+
+    /**
+     * Helper method to find the first artist in a list of artist names whose name starts with the query
+     *
+     * @param artistName artist(s) name
+     * @param query      folded query
+     * @return offset of the artist, or -1 if none starts with the query
+     */
+    private static int firstMatchingArtist(String artistName, String query) {
+        for (int offset = 0; offset >= 0; offset = nextArtist(artistName, offset)) {
+            if (startsWithFolded(artistName, offset, query)) {
+                return offset;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Helper method to compare two strings from an offset each, the same way as String.CASE_INSENSITIVE_ORDER
+     *
+     * @param a     first string
+     * @param aFrom offset compared from in a
+     * @param b     second string
+     * @param bFrom offset compared from in b
+     * @return a negative integer, zero, or a positive integer as a sorts before, with, or after b
+     */
+    private static int compareFolded(String a, int aFrom, String b, int bFrom) {
+        int aLength = a.length() - aFrom;
+        int bLength = b.length() - bFrom;
+        int length = Math.min(aLength, bLength);
+        for (int i = 0; i < length; i++) {
+            char x = a.charAt(aFrom + i);
+            char y = b.charAt(bFrom + i);
+            if (x != y) {
+                x = fold(x);
+                y = fold(y);
+                if (x != y) {
+                    return x - y;
+                }
+            }
+        }
+        return aLength - bLength;
+    }
+
+    /**
+     * Helper method to compare the start of a name with a folded query; 0 if the name starts with the query
+     *
+     * @param name  name compared
+     * @param from  offset compared from in name
+     * @param query folded query
+     * @return a negative integer, zero, or a positive integer as the start of the name sorts before, with, or after the
+     * query
+     */
+    private static int comparePrefix(String name, int from, String query) {
+        int length = Math.min(name.length() - from, query.length());
+        for (int i = 0; i < length; i++) {
+            char c = fold(name.charAt(from + i));
+            if (c != query.charAt(i)) {
+                return c - query.charAt(i);
+            }
+        }
+        return name.length() - from < query.length() ? -1 : 0;
+    }
+
+    /**
+     * Helper method to check whether text, folded, has the query at a position
+     *
+     * @param text  text checked
+     * @param from  position in the text
+     * @param query folded query
+     * @return true if the folded text has the query at the position
+     */
+    private static boolean startsWithFolded(String text, int from, String query) {
+        if (text.length() - from < query.length()) {
+            return false;
+        }
+        for (int i = 0; i < query.length(); i++) {
+            if (fold(text.charAt(from + i)) != query.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Helper method to check whether text, folded, contains the query
+     *
+     * @param text  text checked
+     * @param query folded query
+     * @return true if the folded text contains the query
+     */
+    private static boolean containsFolded(String text, String query) {
+        for (int from = 0; from + query.length() <= text.length(); from++) {
+            if (startsWithFolded(text, from, query)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The best matches offered so far, kept in a heap with the worst match at the root
+     */
+    private static final class TopMatches {
+        /**
+         * row of each match kept, in heap order
+         */
+        private final int[] rows;
+        /**
+         * how each match kept matches
+         */
+        private final Match[] matches;
+        /**
+         * streams of each match kept
+         */
+        private final long[] streams;
+        /**
+         * number of matches kept
+         */
+        private int size;
+
+        /**
+         * TopMatches constructor keeps at most limit matches
+         *
+         * @param limit most matches kept
+         */
+        private TopMatches(int limit) {
+            rows = new int[limit];
+            matches = new Match[limit];
+            streams = new long[limit];
+        }
+
+        /**
+         * Checks whether every kept match is better than a match type, so offering that type would change nothing
+         *
+         * @param match match type
+         * @return true if the heap is full of better matches
+         */
+        private boolean isFullAbove(Match match) {
+            return size == rows.length && matches[0].compareTo(match) < 0;
+        }
+
+        /**
+         * Checks whether a match would be kept if it were offered
+         *
+         * @param match      how the row matches
+         * @param rowStreams streams of the row
+         * @param row        row number
+         * @return true if the match would be kept
+         */
+        private boolean accepts(Match match, long rowStreams, int row) {
+            return size < rows.length || worse(0, row, match, rowStreams);
+        }
+
+        /**
+         * Helper method to add a match, in place of the worst one kept if the heap is full
+         *
+         * @param row        row number
+         * @param match      how the row matches
+         * @param rowStreams streams of the row
+         */
+        private void offer(int row, Match match, long rowStreams) {
+            if (size < rows.length) {
+                set(size, row, match, rowStreams);
+                siftUp(size++);
+            } else {
+                set(0, row, match, rowStreams);
+                siftDown(0);
+            }
+        }
+
+        /**
+         * Helper method to check whether the kept match at an index ranks below a match
+         *
+         * @param index      heap index
+         * @param row        row number
+         * @param match      how the row matches
+         * @param rowStreams streams of the row
+         * @return true if the kept match ranks below
+         */
+        private boolean worse(int index, int row, Match match, long rowStreams) {
+            if (matches[index] != match) {
+                return matches[index].compareTo(match) > 0;
+            }
+            if (streams[index] != rowStreams) {
+                return streams[index] < rowStreams;
+            }
+            return rows[index] > row;
+        }
+
+        /**
+         * Helper method to move an entry up the heap while it is worse than its parent
+         *
+         * @param index heap index of the entry
+         */
+        private void siftUp(int index) {
+            while (index > 0) {
+                int parent = (index - 1) / 2;
+                if (!worse(index, rows[parent], matches[parent], streams[parent])) {
+                    return;
+                }
+                swap(index, parent);
+                index = parent;
+            }
+        }
+
+        /**
+         * Helper method to move an entry down the heap while a child is worse than it
+         *
+         * @param index heap index of the entry
+         */
+        private void siftDown(int index) {
+            while (true) {
+                int worst = index;
+                for (int child = 2 * index + 1; child <= 2 * index + 2 && child < size; child++) {
+                    if (worse(child, rows[worst], matches[worst], streams[worst])) {
+                        worst = child;
+                    }
+                }
+                if (worst == index) {
+                    return;
+                }
+                swap(index, worst);
+                index = worst;
+            }
+        }
+
+        /**
+         * Helper method to store an entry at a heap index
+         *
+         * @param index      heap index
+         * @param row        row number
+         * @param match      how the row matches
+         * @param rowStreams streams of the row
+         */
+        private void set(int index, int row, Match match, long rowStreams) {
+            rows[index] = row;
+            matches[index] = match;
+            streams[index] = rowStreams;
+        }
+
+        /**
+         * Helper method to swap two heap entries
+         *
+         * @param a first heap index
+         * @param b second heap index
+         */
+        private void swap(int a, int b) {
+            int row = rows[a];
+            Match match = matches[a];
+            long rowStreams = streams[a];
+            set(a, rows[b], matches[b], streams[b]);
+            set(b, row, match, rowStreams);
+        }
+
+        /**
+         * Empties the heap into an array, best match first
+         *
+         * @return rows of the matches, best first
+         */
+        private int[] toRows() {
+            int[] result = new int[size];
+            while (size > 0) {
+                result[size - 1] = rows[0];
+                size--;
+                set(0, rows[size], matches[size], streams[size]);
+                siftDown(0);
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Trigram posting lists over one kind of name.  The folded trigrams are hashed into a fixed number of buckets
+     * (collisions only add candidates, which are checked anyway), and each bucket lists the ranks of its rows once,
+     * in ascending order.
+     */
+    private static final class Postings {
+        /**
+         * the ranks of bucket b are ranks[starts[b], starts[b + 1])
+         */
+        private final int[] starts;
+        /**
+         * ranks listed in each bucket, one bucket after another
+         */
+        private final int[] ranks;
+
+        /**
+         * Postings constructor lists, for every trigram bucket, the ranks of the names that hold a trigram in it
+         *
+         * @param rankRows row of each rank
+         * @param names    name of each row
+         */
+        private Postings(int[] rankRows, IntFunction<String> names) {
+            int buckets = Math.max(1 << 10, Math.min(1 << 16, Integer.highestOneBit(Math.max(1, rankRows.length))));
+            starts = new int[buckets + 1];
+            //two passes over the names: count each row once per bucket, then fill the lists in rank order
+            int[] lastRank = new int[buckets];
+            Arrays.fill(lastRank, -1);
+            char[] folded = new char[64];
+            for (int rank = 0; rank < rankRows.length; rank++) {
+                String name = names.apply(rankRows[rank]);
+                folded = foldInto(name, folded);
+                for (int i = 0; i + GRAM <= name.length(); i++) {
+                    int bucket = bucket(folded[i], folded[i + 1], folded[i + 2]);
+                    if (lastRank[bucket] != rank) {
+                        lastRank[bucket] = rank;
+                        starts[bucket + 1]++;
+                    }
+                }
+            }
+            for (int bucket = 0; bucket < buckets; bucket++) {
+                starts[bucket + 1] += starts[bucket];
+            }
+            ranks = new int[starts[buckets]];
+            int[] next = Arrays.copyOf(starts, buckets);
+            Arrays.fill(lastRank, -1);
+            for (int rank = 0; rank < rankRows.length; rank++) {
+                String name = names.apply(rankRows[rank]);
+                folded = foldInto(name, folded);
+                for (int i = 0; i + GRAM <= name.length(); i++) {
+                    int bucket = bucket(folded[i], folded[i + 1], folded[i + 2]);
+                    if (lastRank[bucket] != rank) {
+                        lastRank[bucket] = rank;
+                        ranks[next[bucket]++] = rank;
+                    }
+                }
+            }
+        }
+
+        /**
+         * Helper method to fold a name into a buffer, growing the buffer if the name does not fit
+         *
+         * @param name   name folded
+         * @param buffer buffer to reuse
+         * @return buffer holding the folded name
+         */
+        private static char[] foldInto(String name, char[] buffer) {
+            if (buffer.length < name.length()) {
+                buffer = new char[name.length()];
+            }
+            for (int i = 0; i < name.length(); i++) {
+                buffer[i] = SongSearchIndex.fold(name.charAt(i));
+            }
+            return buffer;
+        }
+
+        /**
+         * Helper method to count the ranks listed in a bucket
+         *
+         * @param bucket bucket index
+         * @return number of ranks
+         */
+        private int size(int bucket) {
+            return starts[bucket + 1] - starts[bucket];
+        }
+
+        /**
+         * Hashes the folded trigram at an index of a string to a bucket
+         *
+         * @param text  text hashed
+         * @param index index of the first character of the trigram
+         * @return bucket index
+         */
+        private int bucket(String text, int index) {
+            return bucket(SongSearchIndex.fold(text.charAt(index)), SongSearchIndex.fold(text.charAt(index + 1)),
+                    SongSearchIndex.fold(text.charAt(index + 2)));
+        }
+
+        /**
+         * Helper method to hash a folded trigram to a bucket
+         *
+         * @param first  first folded character
+         * @param second second folded character
+         * @param third  third folded character
+         * @return bucket index
+         */
+        private int bucket(char first, char second, char third) {
+            int hash = (first * 31 + second) * 31 + third;
+            hash *= 0x9E3779B9;
+            return (hash ^ (hash >>> 16)) & (starts.length - 2);
+        }
+
+        /**
+         * Finds the first position in [from, to) whose rank is at least the target (galloping from the start)
+         *
+         * @param from   first position searched
+         * @param to     position after the last one searched
+         * @param target rank searched for
+         * @return position, or to if every rank is below the target
+         */
+        private int seek(int from, int to, int target) {
+            int step = 1;
+            int low = from;
+            int high = from;
+            while (high < to && ranks[high] < target) {
+                low = high + 1;
+                high += step;
+                step <<= 1;
+            }
+            high = Math.min(high, to);
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (ranks[mid] < target) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+
+    /**
+     * Range minimum over an array of ranks: the position of the smallest rank in any range, from a scan of at most
+     * two blocks and two lookups in a sparse table over the block minimums
+     */
+    private static final class RankRange {
+        /**
+         * ranks per block
+         */
+        private static final int BLOCK = 32;
+
+        /**
+         * ranks the minimum is found over
+         */
+        private final int[] ranks;
+        /**
+         * level k holds the position of the smallest rank in blocks [b, b + 2^k) for each block b
+         */
+        private final int[][] levels;
+
+        /**
+         * RankRange constructor builds the sparse table of block minimums
+         *
+         * @param ranks ranks the minimum is found over
+         */
+        private RankRange(int[] ranks) {
+            this.ranks = ranks;
+            int blocks = (ranks.length + BLOCK - 1) / BLOCK;
+            levels = new int[blocks == 0 ? 0 : 32 - Integer.numberOfLeadingZeros(blocks)][];
+            if (blocks == 0) {
+                return;
+            }
+            levels[0] = new int[blocks];
+            for (int block = 0; block < blocks; block++) {
+                levels[0][block] = scan(block * BLOCK, Math.min(ranks.length, (block + 1) * BLOCK));
+            }
+            for (int level = 1; level < levels.length; level++) {
+                int span = 1 << (level - 1);
+                int[] previous = levels[level - 1];
+                int[] current = new int[blocks - (1 << level) + 1];
+                for (int block = 0; block < current.length; block++) {
+                    current[block] = smaller(previous[block], previous[block + span]);
+                }
+                levels[level] = current;
+            }
+        }
+
+        /**
+         * Retrieves the position of the smallest rank in [from, to)
+         *
+         * @param from first position
+         * @param to   position after the last one; above from
+         * @return position of the smallest rank
+         */
+        private int minPosition(int from, int to) {
+            int firstBlock = from / BLOCK;
+            int lastBlock = (to - 1) / BLOCK;
+            if (lastBlock - firstBlock < 2) {
+                return scan(from, to);
+            }
+            int position = smaller(scan(from, (firstBlock + 1) * BLOCK), scan(lastBlock * BLOCK, to));
+            int level = 31 - Integer.numberOfLeadingZeros(lastBlock - firstBlock - 1);
+            position = smaller(position, levels[level][firstBlock + 1]);
+            return smaller(position, levels[level][lastBlock - (1 << level)]);
+        }
+
+        /**
+         * Helper method to find the position of the smallest rank in [from, to) by looking at each one
+         *
+         * @param from first position
+         * @param to   position after the last one; above from
+         * @return position of the smallest rank
+         */
+        private int scan(int from, int to) {
+            int position = from;
+            for (int i = from + 1; i < to; i++) {
+                if (ranks[i] < ranks[position]) {
+                    position = i;
+                }
+            }
+            return position;
+        }
+
+        /**
+         * Helper method to choose the position with the smaller rank
+         *
+         * @param a first position
+         * @param b second position
+         * @return position with the smaller rank
+         */
+        private int smaller(int a, int b) {
+            return ranks[b] < ranks[a] ? b : a;
+        }
+
+        /**
+         * Starts visiting the positions of a range in rank order
+         *
+         * @param from first position
+         * @param to   position after the last one
+         * @return walk of the range
+         */
+        private Walk walk(int from, int to) {
+            return new Walk(from, to);
+        }
+
+        /**
+         * Positions of a range in rank order: the position with the smallest rank is visited and its range is split
+         * around it into two ranges, which wait in a heap ordered by their smallest rank
+         */
+        private final class Walk {
+            /**
+             * start of each range waiting in the heap
+             */
+            private int[] froms = new int[16];
+            /**
+             * end of each range waiting in the heap
+             */
+            private int[] tos = new int[16];
+            /**
+             * position of the smallest rank of each range waiting in the heap
+             */
+            private int[] mins = new int[16];
+            /**
+             * number of ranges in the heap
+             */
+            private int size;
+
+            /**
+             * Walk constructor starts with the whole range
+             *
+             * @param from first position
+             * @param to   position after the last one
+             */
+            private Walk(int from, int to) {
+                push(from, to);
+            }
+
+            /**
+             * Retrieves the position with the next smallest rank
+             *
+             * @return position, or -1 once the range is used up
+             */
+            private int next() {
+                if (size == 0) {
+                    return -1;
+                }
+                int from = froms[0];
+                int to = tos[0];
+                int position = mins[0];
+                size--;
+                move(size, 0);
+                siftDown();
+                push(from, position);
+                push(position + 1, to);
+                return position;
+            }
+
+            /**
+             * Helper method to add a range to the heap of ranges, keyed by its smallest rank
+             *
+             * @param from first position
+             * @param to   position after the last one; an empty range is not added
+             */
+            private void push(int from, int to) {
+                if (from >= to) {
+                    return;
+                }
+                if (size == froms.length) {
+                    froms = Arrays.copyOf(froms, size * 2);
+                    tos = Arrays.copyOf(tos, size * 2);
+                    mins = Arrays.copyOf(mins, size * 2);
+                }
+                int index = size++;
+                froms[index] = from;
+                tos[index] = to;
+                mins[index] = minPosition(from, to);
+                while (index > 0 && ranks[mins[(index - 1) / 2]] > ranks[mins[index]]) {
+                    swap(index, (index - 1) / 2);
+                    index = (index - 1) / 2;
+                }
+            }
+
+            /**
+             * Helper method to move the root range down the heap while a child has a smaller rank
+             */
+            private void siftDown() {
+                int index = 0;
+                while (true) {
+                    int smallest = index;
+                    for (int child = 2 * index + 1; child <= 2 * index + 2 && child < size; child++) {
+                        if (ranks[mins[child]] < ranks[mins[smallest]]) {
+                            smallest = child;
+                        }
+                    }
+                    if (smallest == index) {
+                        return;
+                    }
+                    swap(index, smallest);
+                    index = smallest;
+                }
+            }
+
+            /**
+             * Helper method to copy a range from one heap index to another
+             *
+             * @param from heap index copied from
+             * @param to   heap index copied to
+             */
+            private void move(int from, int to) {
+                froms[to] = froms[from];
+                tos[to] = tos[from];
+                mins[to] = mins[from];
+            }
+
+            /**
+             * Helper method to swap two heap ranges
+             *
+             * @param a first heap index
+             * @param b second heap index
+             */
+            private void swap(int a, int b) {
+                int from = froms[a];
+                int to = tos[a];
+                int min = mins[a];
+                move(b, a);
+                froms[b] = from;
+                tos[b] = to;
+                mins[b] = min;
+            }
+        }
+    }
+}
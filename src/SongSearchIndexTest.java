@@ -0,0 +1,136 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SongSearchIndexTest {
+
+    private static final String[] QUERIES = {"d", "Die", "die for you", "TAYLOR", "swift", "the we", "ove", "night",
+            "a", "z", "nat king", "Love Night", "ummer", "1234", "no such song"};
+
+    @org.junit.jupiter.api.Test
+    void matchesLinearScan() throws Exception {
+
+        SongColumns columns = SongCsvGenerator.columns(7, 20_000);
+        SongSearchIndex index = new SongSearchIndex(columns, columns.getRowCount());
+        for (String query : QUERIES) {
+            for (int limit : new int[]{1, 10, 500}) {
+                int[] expected = scan(columns, columns.getRowCount(), query, limit);
+                assertArrayEquals(expected, index.search(query, limit), query + " limit " + limit);
+                assertArrayEquals(expected, SongSearchIndex.linearSearch(columns, columns.getRowCount(), query, limit),
+                        query + " limit " + limit);
+            }
+        }
+        assertEquals(0, index.search("   ", 10).length);
+        assertEquals(0, index.search("love", 0).length);
+        assertEquals(0, index.search(null, 10).length);
+        assertEquals(0, SongSearchIndex.linearSearch(columns, columns.getRowCount(), null, 10).length);
+        //a limit past the row count returns every match instead of sizing the heap for the limit
+        int[] every = scan(columns, columns.getRowCount(), "a", columns.getRowCount());
+        assertArrayEquals(every, index.search("a", Integer.MAX_VALUE));
+        assertArrayEquals(every, SongSearchIndex.linearSearch(columns, columns.getRowCount(), "a", Integer.MAX_VALUE));
+    }
+
+    @org.junit.jupiter.api.Test
+    void realCatalog() {
+
+        SongManager manager = new SongManager();
+        //exact titles first, then longer titles starting with the query
+        SongLocation[] locations = manager.search("die for you", 5);
+        assertEquals(3, locations.length);
+        assertEquals("Die For You", manager.getSong(locations[0].yearIndex(), locations[0].songIndex()).trackName());
+        assertEquals("Die For You", manager.getSong(locations[1].yearIndex(), locations[1].songIndex()).trackName());
+        assertEquals("Die For You - Remix",
+                manager.getSong(locations[2].yearIndex(), locations[2].songIndex()).trackName());
+        //later artists of a list are found by prefix too
+        SongLocation[] featuring = manager.search("utku", 5);
+        assertTrue(manager.getSong(featuring[0].yearIndex(), featuring[0].songIndex()).artistName().contains("utku"));
+        assertEquals(0, manager.search(null, 5).length);
+        assertTrue(manager.search("a", Integer.MAX_VALUE).length <= manager.getSongCount());
+    }
+
+    @org.junit.jupiter.api.Test
+    void layersMatchRebuild() throws Exception {
+
+        SongColumns columns = SongCsvGenerator.columns(7, 20_000);
+        SongSearchIndex index = new SongSearchIndex(columns, 16_000);
+        for (int rowCount = 17_000; rowCount <= 20_000; rowCount += 1_000) {
+            index = index.withRows(columns, rowCount);
+            for (String query : QUERIES) {
+                assertArrayEquals(scan(columns, rowCount, query, 25), index.search(query, 25), query);
+            }
+        }
+        assertEquals(20_000, index.getRowCount());
+    }
+
+    @org.junit.jupiter.api.Test
+    @org.junit.jupiter.api.condition.EnabledIfSystemProperty(named = "songs.benchmarks", matches = "true")
+    void searchLatency() throws Exception {
+
+        int rows = SongCsvGenerator.benchmarkRows("search", 1_000_000);
+        SongColumns columns = SongCsvGenerator.columns(7, rows);
+        long start = System.nanoTime();
+        SongSearchIndex index = new SongSearchIndex(columns, rows);
+        System.out.printf("%,d rows: index built in %.2f s%n", rows, (System.nanoTime() - start) / 1e9);
+
+        //type-ahead queries: every prefix of some track and artist names, plus substrings
+        SplittableRandom random = new SplittableRandom(11);
+        List<String> queries = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            int row = random.nextInt(rows);
+            String name = i % 3 == 0 ? columns.artistName(row) : columns.trackName(row);
+            int from = i % 4 == 0 ? name.length() / 2 : 0;
+            for (int end = from + 1; end <= name.length(); end++) {
+                queries.add(name.substring(from, end));
+            }
+        }
+        for (int warmup = 0; warmup < 3; warmup++) {
+            for (String query : queries) {
+                index.search(query, 10);
+            }
+        }
+        long[] nanos = new long[queries.size()];
+        for (int i = 0; i < nanos.length; i++) {
+            long queryStart = System.nanoTime();
+            index.search(queries.get(i), 10);
+            nanos[i] = System.nanoTime() - queryStart;
+        }
+        Arrays.sort(nanos);
+
+        long scanStart = System.nanoTime();
+        int scans = 20;
+        for (int i = 0; i < scans; i++) {
+            scan(columns, rows, queries.get(i * 37 % queries.size()), 10);
+        }
+        double scanMillis = (System.nanoTime() - scanStart) / 1e6 / scans;
+        System.out.printf("%,d queries: median %.3f ms, p99 %.3f ms, max %.3f ms; linear scan %.1f ms%n",
+                nanos.length, nanos[nanos.length / 2] / 1e6, nanos[nanos.length * 99 / 100] / 1e6,
+                nanos[nanos.length - 1] / 1e6, scanMillis);
+    }
+
+    /**
+     * Helper method to find the best matches of a query by ranking every row, without an index
+     */
+    private static int[] scan(SongColumns columns, int rowCount, String query, int limit) {
+        String folded = SongSearchIndex.fold(query.strip());
+        if (folded.isEmpty()) {
+            return new int[0];
+        }
+        List<int[]> matches = new ArrayList<>();
+        for (int row = 0; row < rowCount; row++) {
+            SongSearchIndex.Match match = SongSearchIndex.match(columns, row, folded);
+            boolean substring = match == SongSearchIndex.Match.TRACK_SUBSTRING
+                    || match == SongSearchIndex.Match.ARTIST_SUBSTRING;
+            if (match != SongSearchIndex.Match.NONE && (!substring || folded.length() >= 3)) {
+                matches.add(new int[]{match.ordinal(), row});
+            }
+        }
+        matches.sort(Comparator.<int[]>comparingInt(match -> match[0])
+                .thenComparingLong(match -> -columns.streams(match[1]))
+                .thenComparingInt(match -> match[1]));
+        return matches.stream().limit(limit).mapToInt(match -> match[1]).toArray();
+    }
+}
@@ -0,0 +1,474 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * SongServer class that serves the SongManagerInterface operations of a SongManager as JSON over HTTP, using the
+ * JDK's built-in HTTP server, so other services can read the songs without parsing the song file themselves.
+ * Each request runs on its own virtual thread when the JVM has them (Java 21 and later) and on a cached thread pool
+ * otherwise.  Results are written to the response as they are produced, so a whole year of songs is never built as
+ * one string.
+ * <p>
+ * Endpoints (GET, parameters in the query string):
+ * <ul>
+ *     <li>{@code /yearCount} &rarr; {@code {"yearCount":n}}</li>
+ *     <li>{@code /songCount}, {@code /songCount?yearIndex=i} or {@code /songCount?year=2023}
+ *     &rarr; {@code {"songCount":n}}</li>
+ *     <li>{@code /yearName?yearIndex=i} &rarr; {@code {"yearName":"2023"}}</li>
+ *     <li>{@code /song?yearIndex=i&songIndex=j} &rarr; a song object</li>
+ *     <li>{@code /songs?yearIndex=i} &rarr; an array of song objects</li>
+ *     <li>{@code /findSongYear?trackName=name} &rarr; {@code {"yearIndex":i}} (-1 if not found)</li>
+ *     <li>{@code /metrics} &rarr; the manager's SongMetrics: load stage timings and query latency summaries</li>
+ * </ul>
+ * While the manager's metrics are enabled, the time to answer each endpoint (including writing the response) is
+ * recorded under the matching query method.
+ * {@code POST /batch} takes one endpoint per line of the body (such as {@code /song?yearIndex=0&songIndex=3}) and
+ * answers with an array of their results in the same order, all read from the same catalog; a line that fails gives
+ * {@code {"error":"..."}} in its place.  The body is read a line at a time, and a batch of more than MAX_BATCH
+ * lines or with a line over MAX_BATCH_LINE characters gives status 400 as soon as the limit is passed.
+ * A bad parameter gives status 400 and an unknown endpoint 404, each with an error object.
+ *
+ * @author Bennett Fife
+ * @version 10/17/26
+ */
+public class SongServer implements AutoCloseable {
+
+    /**
+     * most lookups in one batch request
+     */
+    static final int MAX_BATCH = 10_000;
+    /**
+     * most characters in one line of a batch request
+     */
+    static final int MAX_BATCH_LINE = 4096;
+    /**
+     * most bytes of a rejected batch body read and dropped, so the client still gets the error response
+     */
+    private static final long MAX_SKIPPED = 1 << 24;
+    /**
+     * connections waiting to be accepted
+     */
+    private static final int BACKLOG = 1024;
+
+    /**
+     * manager whose catalog is served
+     */
+    private final SongManager manager;
+    /**
+     * metrics the endpoints are timed in
+     */
+    private final SongMetrics metrics;
+    /**
+     * HTTP server the endpoints are served by
+     */
+    private final HttpServer server;
+    /**
+     * executor the requests are handled on
+     */
+    private final ExecutorService executor;
+
+    /**
+     * SongServer constructor binds the server to a port; call start() to begin serving
+     *
+     * @param manager SongManager whose songs are served
+     * @param port    port to listen on, or 0 for any free port
+     * @throws IOException if the port cannot be bound
+     */
+    public SongServer(SongManager manager, int port) throws IOException {
+        this.manager = manager;
+        this.metrics = manager.getMetrics();
+        server = HttpServer.create(new InetSocketAddress(port), BACKLOG);
+        executor = newRequestExecutor();
+        server.setExecutor(executor);
+        server.createContext("/", exchange -> {
+            try {
+                handle(exchange);
+            } finally {
+                exchange.close();
+            }
+        });
+    }
+
+    /**
+     * Starts serving requests on a background thread
+     */
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Retrieves the port the server listens on
+     *
+     * @return port number
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Stops the server, abandoning requests that are still running
+     */
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    /**
+     * Creates the executor requests run on: a virtual thread per request if the JVM has virtual threads, otherwise a
+     * cached pool of daemon threads.  The virtual thread executor is looked up by reflection so the server still
+     * compiles and runs on Java 17.
+     *
+     * @return new executor
+     */
+    static ExecutorService newRequestExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger threads = new AtomicInteger();
+            return Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "song-server-" + threads.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * Writes one endpoint's result; everything that can fail because of the request has been checked before it is
+     * created, so the status can be sent before anything is written
+     */
+    private interface Answer {
+        /**
+         * Writes the result
+         *
+         * @param json writer of the response body
+         * @throws IOException if the response cannot be written
+         */
+        void write(JsonWriter json) throws IOException;
+    }
+
+    /**
+     * Helper method to answer one request
+     *
+     * @param exchange request and its response
+     * @throws IOException if the response cannot be sent
+     */
+    private void handle(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        String method = exchange.getRequestMethod();
+        //one catalog per request, so every value in a response (or a batch) comes from the same songs
+        SongCatalog catalog = manager.getCatalog();
+        if (path.equals("/batch")) {
+            if (!method.equals("POST")) {
+                sendError(exchange, 405, "use POST for /batch");
+                return;
+            }
+            List<String> lines = batchLines(exchange.getRequestBody());
+            if (lines == null) {
+                skipRest(exchange.getRequestBody());
+                sendError(exchange, 400, "a batch may have at most " + MAX_BATCH + " lookups of at most "
+                        + MAX_BATCH_LINE + " characters");
+                return;
+            }
+            JsonWriter json = startResponse(exchange, 200);
+            json.beginArray();
+            for (String line : lines) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                int query = line.indexOf('?');
+                String linePath = query < 0 ? line.trim() : line.substring(0, query).trim();
+                try {
+                    long start = metrics.start();
+                    Answer answer = prepare(linePath, parameters(query < 0 ? null : line.substring(query + 1)),
+                            catalog);
+                    if (answer == null) {
+                        error(json, "unknown endpoint " + line.trim());
+                    } else {
+                        answer.write(json);
+                        finish(linePath, start);
+                    }
+                } catch (IllegalArgumentException e) {
+                    error(json, e.getMessage());
+                }
+            }
+            json.endArray().flush();
+            return;
+        }
+        if (!method.equals("GET")) {
+            sendError(exchange, 405, "use GET for " + path);
+            return;
+        }
+        long start = metrics.start();
+        Answer answer;
+        try {
+            answer = prepare(path, parameters(exchange.getRequestURI().getRawQuery()), catalog);
+        } catch (IllegalArgumentException e) {
+            sendError(exchange, 400, e.getMessage());
+            return;
+        }
+        if (answer == null) {
+            sendError(exchange, 404, "unknown endpoint " + path);
+            return;
+        }
+        JsonWriter json = startResponse(exchange, 200);
+        answer.write(json);
+        json.flush();
+        finish(path, start);
+    }
+
+    /**
+     * Helper method to record how long an endpoint took under the query method it answers
+     *
+     * @param path  endpoint path
+     * @param start SongMetrics.start() taken when the request arrived
+     */
+    private void finish(String path, long start) {
+        SongMetrics.Query query;
+        switch (path) {
+            case "/yearCount":
+                query = SongMetrics.Query.GET_YEAR_COUNT;
+                break;
+            case "/songCount":
+                query = SongMetrics.Query.GET_SONG_COUNT;
+                break;
+            case "/yearName":
+                query = SongMetrics.Query.GET_YEAR_NAME;
+                break;
+            case "/song":
+                query = SongMetrics.Query.GET_SONG;
+                break;
+            case "/songs":
+                query = SongMetrics.Query.GET_SONGS;
+                break;
+            case "/findSongYear":
+                query = SongMetrics.Query.FIND_SONG_YEAR;
+                break;
+            default:
+                return;
+        }
+        metrics.finish(query, start);
+    }
+
+    /**
+     * Helper method to check an endpoint's parameters and create what writes its result
+     *
+     * @param path       endpoint path
+     * @param parameters decoded query parameters
+     * @param catalog    catalog the answer is read from
+     * @return answer, or null for an unknown endpoint
+     * @throws IllegalArgumentException if a parameter is missing or out of range
+     */
+    private Answer prepare(String path, Map<String, String> parameters, SongCatalog catalog) {
+        switch (path) {
+            case "/yearCount":
+                int yearCount = catalog.getYearCount();
+                return json -> json.beginObject().name("yearCount").value(yearCount).endObject();
+            case "/songCount":
+                int songCount;
+                if (parameters.containsKey("yearIndex")) {
+                    songCount = catalog.getSongCount(intParameter(parameters, "yearIndex"));
+                } else if (parameters.containsKey("year")) {
+                    //like getSongCount(String), an unknown year has no songs
+                    int yearIndex = catalog.getYearIndex(parameters.get("year"));
+                    songCount = yearIndex < 0 ? 0 : catalog.getSongCount(yearIndex);
+                } else {
+                    songCount = catalog.getSongCount();
+                }
+                return json -> json.beginObject().name("songCount").value(songCount).endObject();
+            case "/yearName":
+                String yearName = catalog.getYearName(intParameter(parameters, "yearIndex"));
+                return json -> json.beginObject().name("yearName").value(yearName).endObject();
+            case "/song":
+                Song song = catalog.getSong(intParameter(parameters, "yearIndex"),
+                        intParameter(parameters, "songIndex"));
+                return json -> json.song(song);
+            case "/songs":
+                int songsYear = intParameter(parameters, "yearIndex");
+                int count = catalog.getSongCount(songsYear);
+                return json -> {
+                    json.beginArray();
+                    for (int songIndex = 0; songIndex < count; songIndex++) {
+                        json.song(catalog.getSong(songsYear, songIndex));
+                    }
+                    json.endArray();
+                };
+            case "/findSongYear":
+                int foundYear = catalog.findSongYear(parameter(parameters, "trackName"));
+                return json -> json.beginObject().name("yearIndex").value(foundYear).endObject();
+            case "/metrics":
+                return metrics::writeTo;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Helper method to retrieve a required query parameter
+     *
+     * @param parameters decoded query parameters
+     * @param name       parameter name
+     * @return parameter value
+     * @throws IllegalArgumentException if the parameter is missing
+     */
+    private static String parameter(Map<String, String> parameters, String name) {
+        String value = parameters.get(name);
+        if (value == null) {
+            throw new IllegalArgumentException("missing parameter " + name);
+        }
+        return value;
+    }
+
+    /**
+     * Helper method to retrieve a required whole number query parameter
+     *
+     * @param parameters decoded query parameters
+     * @param name       parameter name
+     * @return parameter value
+     * @throws IllegalArgumentException if the parameter is missing or not a whole number
+     */
+    private static int intParameter(Map<String, String> parameters, String name) {
+        String value = parameter(parameters, name);
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("parameter " + name + " must be a whole number, not " + value);
+        }
+    }
+
+    /**
+     * Helper method to read the lines of a batch body.  It stops as soon as there is one line too many or a line is
+     * too long, so the size of the body held is bounded whatever the client sends.
+     *
+     * @param body request body
+     * @return the lines without their line breaks, or null if the batch is too big
+     * @throws IOException if the body cannot be read
+     */
+    private static List<String> batchLines(InputStream body) throws IOException {
+        Reader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        List<String> lines = new ArrayList<>();
+        StringBuilder line = new StringBuilder();
+        for (int c = reader.read(); c != -1; c = reader.read()) {
+            //carriage returns are dropped, so \r\n line breaks work too
+            if (c == '\n') {
+                if (lines.size() == MAX_BATCH) {
+                    return null;
+                }
+                lines.add(line.toString());
+                line.setLength(0);
+            } else if (c != '\r') {
+                if (line.length() == MAX_BATCH_LINE) {
+                    return null;
+                }
+                line.append((char) c);
+            }
+        }
+        if (line.length() > 0) {
+            if (lines.size() == MAX_BATCH) {
+                return null;
+            }
+            lines.add(line.toString());
+        }
+        return lines;
+    }
+
+    /**
+     * Helper method to read and drop what is left of a request body, up to MAX_SKIPPED bytes.  Closing a connection
+     * with much of the body unread resets it, which loses the response, so a rejected body is drained when it can be.
+     *
+     * @param body request body
+     * @throws IOException if the body cannot be read
+     */
+    private static void skipRest(InputStream body) throws IOException {
+        byte[] scratch = new byte[8192];
+        long skipped = 0;
+        int read;
+        while (skipped < MAX_SKIPPED && (read = body.read(scratch)) != -1) {
+            skipped += read;
+        }
+    }
+
+    /**
+     * Helper method to decode a query string into parameter names and values
+     *
+     * @param rawQuery raw query string of the request URI, or null
+     * @return parameter values by name
+     */
+    private static Map<String, String> parameters(String rawQuery) {
+        Map<String, String> parameters = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return parameters;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int equals = pair.indexOf('=');
+            String name = equals < 0 ? pair : pair.substring(0, equals);
+            String value = equals < 0 ? "" : pair.substring(equals + 1);
+            parameters.put(URLDecoder.decode(name, StandardCharsets.UTF_8),
+                    URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return parameters;
+    }
+
+    /**
+     * Helper method to send the status and headers of a streamed (chunked) JSON response
+     *
+     * @param exchange request answered
+     * @param status   HTTP status code
+     * @return writer of the response body
+     * @throws IOException if the headers cannot be sent
+     */
+    private static JsonWriter startResponse(HttpExchange exchange, int status) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, 0);
+        Writer out = new BufferedWriter(new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8));
+        return new JsonWriter(out);
+    }
+
+    /**
+     * Helper method to send an error status with a JSON body holding the message
+     *
+     * @param exchange request answered
+     * @param status   HTTP status code
+     * @param message  error message
+     * @throws IOException if the response cannot be sent
+     */
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        StringWriter text = new StringWriter();
+        error(new JsonWriter(text), message);
+        byte[] body = text.toString().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        exchange.getResponseBody().write(body);
+    }
+
+    /**
+     * Helper method to write an error object
+     *
+     * @param json    writer the object is written to
+     * @param message error message
+     * @throws IOException if the writer fails
+     */
+    private static void error(JsonWriter json, String message) throws IOException {
+        json.beginObject().name("error").value(message).endObject();
+    }
+}
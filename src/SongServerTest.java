@@ -0,0 +1,212 @@
+import java.io.StringWriter;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SongServerTest {
+
+    /**
+     * clients sending requests at the same time in the load test
+     */
+    private static final int CONCURRENCY = 200;
+    private static final int REQUESTS = 20_000;
+
+    private static final HttpClient CLIENT = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+    @org.junit.jupiter.api.Test
+    void jsonWriter() throws Exception {
+
+        StringWriter text = new StringWriter();
+        new JsonWriter(text).beginObject()
+                .name("name").value("say \"hi\"\\\n\u0001")
+                .name("list").beginArray().value(1).value(true).value((String) null).beginObject().endObject()
+                .endArray()
+                .name("empty").beginArray().endArray()
+                .endObject().flush();
+        assertEquals("{\"name\":\"say \\\"hi\\\"\\\\\\n\\u0001\",\"list\":[1,true,null,{}],\"empty\":[]}",
+                text.toString());
+    }
+
+    @org.junit.jupiter.api.Test
+    void endpoints() throws Exception {
+
+        SongManager manager = new SongManager();
+        try (SongServer server = new SongServer(manager, 0)) {
+            server.start();
+            String base = "http://localhost:" + server.getPort();
+            assertEquals("{\"yearCount\":" + manager.getYearCount() + "}", get(base + "/yearCount", 200));
+            assertEquals("{\"songCount\":" + manager.getSongCount() + "}", get(base + "/songCount", 200));
+            assertEquals("{\"songCount\":" + manager.getSongCount(3) + "}", get(base + "/songCount?yearIndex=3", 200));
+            assertEquals("{\"songCount\":" + manager.getSongCount("2023") + "}", get(base + "/songCount?year=2023",
+                    200));
+            assertEquals("{\"songCount\":0}", get(base + "/songCount?year=1492", 200));
+            assertEquals("{\"yearName\":\"" + manager.getYearName(0) + "\"}", get(base + "/yearName?yearIndex=0", 200));
+
+            int yearIndex = manager.getYearCount() - 1;
+            Song song = manager.getSong(yearIndex, 1);
+            assertEquals(json(song), get(base + "/song?yearIndex=" + yearIndex + "&songIndex=1", 200));
+            StringBuilder songs = new StringBuilder("[");
+            for (Song each : manager.getSongs(yearIndex)) {
+                songs.append(songs.length() == 1 ? "" : ",").append(json(each));
+            }
+            assertEquals(songs.append(']').toString(), get(base + "/songs?yearIndex=" + yearIndex, 200));
+
+            String trackName = manager.getSong(4, 0).trackName();
+            assertEquals("{\"yearIndex\":" + manager.findSongYear(trackName) + "}",
+                    get(base + "/findSongYear?trackName=" + URLEncoder.encode(trackName, StandardCharsets.UTF_8),
+                            200));
+            assertEquals("{\"yearIndex\":-1}", get(base + "/findSongYear?trackName=not+a+song", 200));
+
+            //bad parameters and unknown endpoints
+            assertTrue(get(base + "/song?yearIndex=0&songIndex=-1", 400).startsWith("{\"error\":"));
+            assertTrue(get(base + "/song?yearIndex=zero&songIndex=1", 400).contains("whole number"));
+            assertTrue(get(base + "/yearName", 400).contains("missing parameter yearIndex"));
+            assertTrue(get(base + "/nothing", 404).startsWith("{\"error\":"));
+        }
+    }
+
+    @org.junit.jupiter.api.Test
+    void batch() throws Exception {
+
+        SongManager manager = new SongManager();
+        try (SongServer server = new SongServer(manager, 0)) {
+            server.start();
+            String body = "/song?yearIndex=0&songIndex=0\n/yearCount\n\n/song?yearIndex=0&songIndex=100000\n"
+                    + "/nothing\r\n/yearName?yearIndex=1";
+            HttpResponse<String> response = CLIENT.send(HttpRequest.newBuilder(URI.create("http://localhost:"
+                    + server.getPort() + "/batch")).POST(HttpRequest.BodyPublishers.ofString(body)).build(),
+                    HttpResponse.BodyHandlers.ofString());
+            assertEquals(200, response.statusCode());
+            String expected = "[" + json(manager.getSong(0, 0)) + ",{\"yearCount\":" + manager.getYearCount() + "},";
+            assertTrue(response.body().startsWith(expected), response.body());
+            assertTrue(response.body().endsWith(",{\"error\":\"unknown endpoint /nothing\"},{\"yearName\":\""
+                    + manager.getYearName(1) + "\"}]"), response.body());
+
+            String tooMany = "/yearCount\n".repeat(SongServer.MAX_BATCH + 1);
+            assertEquals(400, CLIENT.send(HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort()
+                    + "/batch")).POST(HttpRequest.BodyPublishers.ofString(tooMany)).build(),
+                    HttpResponse.BodyHandlers.ofString()).statusCode());
+            //a body far over the limits is rejected as soon as a limit is passed; the rest is read and dropped
+            String tooLong = "/yearCount?" + "x".repeat(SongServer.MAX_BATCH_LINE);
+            String huge = "/yearCount\n".repeat(SongServer.MAX_BATCH * 50);
+            for (String tooBig : new String[]{tooLong, huge}) {
+                assertEquals(400, CLIENT.send(HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort()
+                        + "/batch")).POST(HttpRequest.BodyPublishers.ofString(tooBig)).build(),
+                        HttpResponse.BodyHandlers.ofString()).statusCode());
+            }
+            String full = "/yearCount\r\n".repeat(SongServer.MAX_BATCH);
+            assertEquals(200, CLIENT.send(HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort()
+                    + "/batch")).POST(HttpRequest.BodyPublishers.ofString(full)).build(),
+                    HttpResponse.BodyHandlers.ofString()).statusCode());
+            assertEquals(405, CLIENT.send(HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort()
+                    + "/batch")).build(), HttpResponse.BodyHandlers.ofString()).statusCode());
+        }
+    }
+
+    @org.junit.jupiter.api.Test
+    void metrics() throws Exception {
+
+        SongManager manager = new SongManager();
+        manager.getMetrics().setEnabled(true);
+        try (SongServer server = new SongServer(manager, 0)) {
+            server.start();
+            String base = "http://localhost:" + server.getPort();
+            get(base + "/song?yearIndex=0&songIndex=0", 200);
+            get(base + "/song?yearIndex=" + (manager.getYearCount() - 1) + "&songIndex=1", 200);
+            String metrics = get(base + "/metrics", 200);
+            assertTrue(metrics.startsWith("{\"enabled\":true,\"phases\":[{\"phase\":"), metrics);
+            assertTrue(metrics.contains("{\"query\":\"getSong\",\"count\":2,"), metrics);
+            assertEquals(2, manager.getMetrics().getHistogram(SongMetrics.Query.GET_SONG).count());
+        }
+    }
+
+    /**
+     * Load test: many clients at once ask for random songs and track names; reports latency percentiles and
+     * throughput
+     */
+    @org.junit.jupiter.api.Test
+    @org.junit.jupiter.api.condition.EnabledIfSystemProperty(named = "songs.benchmarks", matches = "true")
+    void loadTest() throws Exception {
+
+        SongManager manager = new SongManager();
+        SongCatalog catalog = manager.getCatalog();
+        List<String> paths = new ArrayList<>();
+        SplittableRandom random = new SplittableRandom(16);
+        for (int i = 0; i < 1_000; i++) {
+            int yearIndex = random.nextInt(catalog.getYearCount());
+            int songIndex = random.nextInt(catalog.getSongCount(yearIndex));
+            paths.add(i % 2 == 0 ? "/song?yearIndex=" + yearIndex + "&songIndex=" + songIndex
+                    : "/findSongYear?trackName=" + URLEncoder.encode(catalog.getSong(yearIndex, songIndex)
+                    .trackName(), StandardCharsets.UTF_8));
+        }
+        try (SongServer server = new SongServer(manager, 0)) {
+            server.start();
+            String base = "http://localhost:" + server.getPort();
+            long[] latencies = new long[REQUESTS];
+            ExecutorService clients = Executors.newFixedThreadPool(CONCURRENCY);
+            try {
+                //warm up the server and the connections first
+                runClients(clients, base, paths, new long[CONCURRENCY * 10]);
+                long start = System.nanoTime();
+                runClients(clients, base, paths, latencies);
+                double seconds = (System.nanoTime() - start) / 1e9;
+                Arrays.sort(latencies);
+                System.out.printf("%,d requests from %d clients: p50 %.3f ms, p99 %.3f ms, %,.0f requests/sec%n",
+                        REQUESTS, CONCURRENCY, latencies[REQUESTS / 2] / 1e6, latencies[REQUESTS * 99 / 100] / 1e6,
+                        REQUESTS / seconds);
+            } finally {
+                clients.shutdownNow();
+            }
+        }
+    }
+
+    /**
+     * Helper method to send one request per latency slot, spread over CONCURRENCY clients, and record each latency
+     */
+    private static void runClients(ExecutorService clients, String base, List<String> paths, long[] latencies)
+            throws Exception {
+        List<Future<?>> running = new ArrayList<>();
+        for (int c = 0; c < CONCURRENCY; c++) {
+            int client = c;
+            running.add(clients.submit(() -> {
+                for (int i = client; i < latencies.length; i += CONCURRENCY) {
+                    HttpRequest request = HttpRequest.newBuilder(URI.create(base + paths.get(i % paths.size())))
+                            .build();
+                    long start = System.nanoTime();
+                    HttpResponse<String> response = CLIENT.send(request, HttpResponse.BodyHandlers.ofString());
+                    latencies[i] = System.nanoTime() - start;
+                    assertEquals(200, response.statusCode(), response.body());
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : running) {
+            future.get();
+        }
+    }
+
+    private static String get(String url, int status) throws Exception {
+        HttpResponse<String> response = CLIENT.send(HttpRequest.newBuilder(URI.create(url)).build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertEquals(status, response.statusCode(), response.body());
+        return response.body();
+    }
+
+    private static String json(Song song) throws Exception {
+        StringWriter text = new StringWriter();
+        new JsonWriter(text).song(song).flush();
+        return text.toString();
+    }
+}
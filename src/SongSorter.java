@@ -0,0 +1,489 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * SongSorter class that sorts the rows of every release year on a fork/join pool.
+ * Each year is sorted as its own task, and large years are split further with a parallel merge sort,
+ * so one very large year does not keep the other threads idle.  The sort is stable.
+ *
+ * @author Bennett Fife
+ * @version 10/17/26
+ */
+public class SongSorter {
+
+    /**
+     * ranges at or below this size are sorted on the current thread
+     */
+    private static final int SEQUENTIAL_THRESHOLD = 8192;
+    /**
+     * ranges at or below this size are insertion sorted
+     */
+    private static final int INSERTION_THRESHOLD = 32;
+
+    /**
+     * fork/join pool the large sorts run on
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * SongSorter constructor that sorts on the common fork/join pool
+     */
+    public SongSorter() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * SongSorter constructor that sorts on the specified pool
+     *
+     * @param pool fork/join pool used for sorting
+     */
+    public SongSorter(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Sorts the rows of every release year in place
+     *
+     * @param columns  song columns the row numbers point into
+     * @param yearRows row numbers of each release year
+     * @param key      order to sort in
+     */
+    public void sort(SongColumns columns, int[][] yearRows, SortKey key) {
+        sort(columns, yearRows, key, null);
+    }
+
+    /**
+     * Sorts the rows of every release year in place
+     *
+     * @param columns       song columns the row numbers point into
+     * @param yearRows      row numbers of each release year
+     * @param key           order to sort in
+     * @param collationKeys keys of the rows' track names, needed to sort by COLLATED_TRACK_NAME (otherwise may be
+     *                      null)
+     */
+    public void sort(SongColumns columns, int[][] yearRows, SortKey key, CollationKeys collationKeys) {
+        RowComparator comparator = comparator(columns, key, collationKeys);
+        pool.invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                RecursiveAction[] years = new RecursiveAction[yearRows.length];
+                for (int i = 0; i < yearRows.length; i++) {
+                    int[] rows = yearRows[i];
+                    years[i] = new SortTask(rows, new int[rows.length], 0, rows.length, comparator);
+                }
+                invokeAll(years);
+            }
+        });
+    }
+
+    /**
+     * Sorts one array of rows in place (stable), in parallel when it is large
+     *
+     * @param rows       row numbers to sort
+     * @param comparator order to sort in
+     */
+    public void sort(int[] rows, RowComparator comparator) {
+        pool.invoke(new SortTask(rows, new int[rows.length], 0, rows.length, comparator));
+    }
+
+    /**
+     * Sorts a small array of rows on the current thread (stable)
+     *
+     * @param rows       row numbers to sort in place
+     * @param comparator order to sort in
+     */
+    public static void sortSequential(int[] rows, RowComparator comparator) {
+        sequentialSort(rows, new int[rows.length], 0, rows.length, comparator);
+    }
+
+    /**
+     * Merges two sorted runs of rows into a new sorted array.  Rows that compare equal are taken from the first
+     * run first, so appending a run of newer rows keeps the sort stable.
+     *
+     * @param first      sorted run of older rows
+     * @param second     sorted run of newer rows
+     * @param comparator order both runs are sorted in
+     * @return new array holding both runs in order
+     */
+    public static int[] mergeRuns(int[] first, int[] second, RowComparator comparator) {
+        int[] merged = new int[first.length + second.length];
+        int left = 0;
+        int right = 0;
+        int out = 0;
+        while (left < first.length && right < second.length) {
+            if (comparator.compare(second[right], first[left]) < 0) {
+                merged[out++] = second[right++];
+            } else {
+                merged[out++] = first[left++];
+            }
+        }
+        System.arraycopy(first, left, merged, out, first.length - left);
+        out += first.length - left;
+        System.arraycopy(second, right, merged, out, second.length - right);
+        return merged;
+    }
+
+    /**
+     * Creates a comparator of row numbers for a sort key.  Rows with equal keys are ordered by row number (file
+     * order), so every key gives a total order and a sorted year can be binary searched for a row.
+     *
+     * @param columns song columns the row numbers point into
+     * @param key     order to compare in
+     * @return row comparator
+     */
+    public static RowComparator comparator(SongColumns columns, SortKey key) {
+        return comparator(columns, key, null);
+    }
+
+    /**
+     * Creates a comparator of row numbers for a sort key, ordering rows with equal keys by row number
+     *
+     * @param columns       song columns the row numbers point into
+     * @param key           order to compare in
+     * @param collationKeys keys of the rows' track names, needed for COLLATED_TRACK_NAME (otherwise may be null)
+     * @return row comparator
+     */
+    public static RowComparator comparator(SongColumns columns, SortKey key, CollationKeys collationKeys) {
+        RowComparator byKey = keyComparator(columns, key, collationKeys);
+        return (a, b) -> {
+            int order = byKey.compare(a, b);
+            return order != 0 ? order : Integer.compare(a, b);
+        };
+    }
+
+    /**
+     * Creates a comparator of row numbers that compares only the sort key, so rows with equal keys compare as equal
+     * and only a stable sort keeps them in their original order
+     *
+     * @param columns       song columns the row numbers point into
+     * @param key           order to compare in
+     * @param collationKeys keys of the rows' track names, needed for COLLATED_TRACK_NAME (otherwise may be null)
+     * @return row comparator
+     */
+    static RowComparator keyComparator(SongColumns columns, SortKey key, CollationKeys collationKeys) {
+        RowComparator byKey;
+        switch (key) {
+            case TRACK_NAME:
+                byKey = (a, b) -> columns.trackName(a).compareTo(columns.trackName(b));
+                break;
+            case COLLATED_TRACK_NAME:
+                if (collationKeys == null) {
+                    throw new IllegalArgumentException("sorting by collated track name needs collation keys");
+                }
+                byKey = collationKeys::compare;
+                break;
+            case STREAMS:
+                byKey = (a, b) -> Long.compare(columns.streams(b), columns.streams(a));
+                break;
+            case RELEASE_DATE:
+                byKey = (a, b) -> Integer.compare(releaseDate(columns, a), releaseDate(columns, b));
+                break;
+            default:
+                throw new IllegalArgumentException("unknown sort key " + key);
+        }
+        return byKey;
+    }
+
+    /**
+     * Helper method to pack a release date into one comparable int
+     *
+     * @param columns song columns
+     * @param row     row number
+     * @return release date as year * 512 + month * 32 + day
+     */
+    private static int releaseDate(SongColumns columns, int row) {
+        return releaseDate(columns.releasedYear(row), columns.releasedMonth(row), columns.releasedDay(row));
+    }
+
+    /**
+     * Packs a release date into one int that compares in date order
+     *
+     * @param year  release year
+     * @param month release month
+     * @param day   release day
+     * @return release date as year * 512 + month * 32 + day
+     */
+    static int releaseDate(int year, int month, int day) {
+        return year << 9 | month << 5 | day;
+    }
+
+    /**
+     * Comparator of two row numbers that does not box them
+     */
+    @FunctionalInterface
+    public interface RowComparator {
+        /**
+         * Compares two rows
+         *
+         * @param a first row number
+         * @param b second row number
+         * @return a negative integer, zero, or a positive integer as row a sorts before, with, or after row b
+         */
+        int compare(int a, int b);
+    }
+
+    /**
+     * Stable merge sort of rows[from, to) that forks both halves and merges them in parallel when the range is large
+     */
+    private static final class SortTask extends RecursiveAction {
+        /**
+         * rows sorted in place
+         */
+        private final int[] rows;
+        /**
+         * scratch array as long as rows
+         */
+        private final int[] buffer;
+        /**
+         * first position sorted
+         */
+        private final int from;
+        /**
+         * position after the last one sorted
+         */
+        private final int to;
+        /**
+         * order the rows are sorted in
+         */
+        private final RowComparator comparator;
+
+        /**
+         * SortTask constructor sorts rows[from, to), using the same range of buffer as scratch
+         *
+         * @param rows       rows sorted in place
+         * @param buffer     scratch array as long as rows
+         * @param from       first position sorted
+         * @param to         position after the last one sorted
+         * @param comparator order the rows are sorted in
+         */
+        private SortTask(int[] rows, int[] buffer, int from, int to, RowComparator comparator) {
+            this.rows = rows;
+            this.buffer = buffer;
+            this.from = from;
+            this.to = to;
+            this.comparator = comparator;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SEQUENTIAL_THRESHOLD) {
+                sequentialSort(rows, buffer, from, to, comparator);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new SortTask(rows, buffer, from, mid, comparator),
+                    new SortTask(rows, buffer, mid, to, comparator));
+            if (comparator.compare(rows[mid - 1], rows[mid]) <= 0) {
+                return; //halves are already in order
+            }
+            new MergeTask(rows, from, mid, mid, to, buffer, from, comparator).invoke();
+            System.arraycopy(buffer, from, rows, from, to - from);
+        }
+    }
+
+    /**
+     * Stable merge of two sorted runs into a destination array that splits the larger run in half and
+     * merges both halves in parallel when the runs are large
+     */
+    private static final class MergeTask extends RecursiveAction {
+        /**
+         * array holding both runs
+         */
+        private final int[] source;
+        /**
+         * first position of the left run
+         */
+        private final int leftFrom;
+        /**
+         * position after the left run
+         */
+        private final int leftTo;
+        /**
+         * first position of the right run
+         */
+        private final int rightFrom;
+        /**
+         * position after the right run
+         */
+        private final int rightTo;
+        /**
+         * array the merged rows are written to
+         */
+        private final int[] destination;
+        /**
+         * position of the first merged row in destination
+         */
+        private final int destinationFrom;
+        /**
+         * order of the runs
+         */
+        private final RowComparator comparator;
+
+        /**
+         * MergeTask constructor merges two sorted runs of source into destination from destinationFrom
+         *
+         * @param source          array holding both runs
+         * @param leftFrom        first position of the left run
+         * @param leftTo          position after the left run
+         * @param rightFrom       first position of the right run
+         * @param rightTo         position after the right run
+         * @param destination     array the merged rows are written to
+         * @param destinationFrom position of the first merged row in destination
+         * @param comparator      order of the runs
+         */
+        private MergeTask(int[] source, int leftFrom, int leftTo, int rightFrom, int rightTo,
+                          int[] destination, int destinationFrom, RowComparator comparator) {
+            this.source = source;
+            this.leftFrom = leftFrom;
+            this.leftTo = leftTo;
+            this.rightFrom = rightFrom;
+            this.rightTo = rightTo;
+            this.destination = destination;
+            this.destinationFrom = destinationFrom;
+            this.comparator = comparator;
+        }
+
+        @Override
+        protected void compute() {
+            int leftSize = leftTo - leftFrom;
+            int rightSize = rightTo - rightFrom;
+            if (leftSize + rightSize <= SEQUENTIAL_THRESHOLD) {
+                merge(source, leftFrom, leftTo, rightFrom, rightTo, destination, destinationFrom, comparator);
+                return;
+            }
+            int leftSplit;
+            int rightSplit;
+            if (leftSize >= rightSize) {
+                //right rows equal to the split row must stay after it, so take the lower bound in the right run
+                leftSplit = (leftFrom + leftTo) >>> 1;
+                rightSplit = lowerBound(source, rightFrom, rightTo, source[leftSplit], comparator);
+            } else {
+                //left rows equal to the split row must stay before it, so take the upper bound in the left run
+                rightSplit = (rightFrom + rightTo) >>> 1;
+                leftSplit = upperBound(source, leftFrom, leftTo, source[rightSplit], comparator);
+            }
+            int secondFrom = destinationFrom + (leftSplit - leftFrom) + (rightSplit - rightFrom);
+            invokeAll(new MergeTask(source, leftFrom, leftSplit, rightFrom, rightSplit,
+                            destination, destinationFrom, comparator),
+                    new MergeTask(source, leftSplit, leftTo, rightSplit, rightTo,
+                            destination, secondFrom, comparator));
+        }
+    }
+
+    /**
+     * Helper method for a stable merge sort of rows[from, to) on the current thread
+     *
+     * @param rows       rows sorted in place
+     * @param buffer     scratch array as long as rows
+     * @param from       first position sorted
+     * @param to         position after the last one sorted
+     * @param comparator order the rows are sorted in
+     */
+    private static void sequentialSort(int[] rows, int[] buffer, int from, int to, RowComparator comparator) {
+        if (to - from <= INSERTION_THRESHOLD) {
+            insertionSort(rows, from, to, comparator);
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        sequentialSort(rows, buffer, from, mid, comparator);
+        sequentialSort(rows, buffer, mid, to, comparator);
+        if (comparator.compare(rows[mid - 1], rows[mid]) <= 0) {
+            return;
+        }
+        merge(rows, from, mid, mid, to, buffer, from, comparator);
+        System.arraycopy(buffer, from, rows, from, to - from);
+    }
+
+    /**
+     * Helper method for an insertion sort of a small range (adapted from the original sortSongs)
+     *
+     * @param rows       rows sorted in place
+     * @param from       first position sorted
+     * @param to         position after the last one sorted
+     * @param comparator order the rows are sorted in
+     */
+    private static void insertionSort(int[] rows, int from, int to, RowComparator comparator) {
+        for (int pass = from + 1; pass < to; pass++) {
+            int temp = rows[pass];
+            int checkPos = pass - 1;
+            while (checkPos >= from && comparator.compare(temp, rows[checkPos]) < 0) {
+                rows[checkPos + 1] = rows[checkPos];
+                checkPos--;
+            }
+            rows[checkPos + 1] = temp;
+        }
+    }
+
+    /**
+     * Helper method for a stable sequential merge; ties are taken from the left run first
+     *
+     * @param source          array holding both runs
+     * @param leftFrom        first position of the left run
+     * @param leftTo          position after the left run
+     * @param rightFrom       first position of the right run
+     * @param rightTo         position after the right run
+     * @param destination     array the merged rows are written to
+     * @param destinationFrom position of the first merged row in destination
+     * @param comparator      order of the runs
+     */
+    private static void merge(int[] source, int leftFrom, int leftTo, int rightFrom, int rightTo,
+                              int[] destination, int destinationFrom, RowComparator comparator) {
+        int left = leftFrom;
+        int right = rightFrom;
+        int out = destinationFrom;
+        while (left < leftTo && right < rightTo) {
+            if (comparator.compare(source[right], source[left]) < 0) {
+                destination[out++] = source[right++];
+            } else {
+                destination[out++] = source[left++];
+            }
+        }
+        System.arraycopy(source, left, destination, out, leftTo - left);
+        out += leftTo - left;
+        System.arraycopy(source, right, destination, out, rightTo - right);
+    }
+
+    /**
+     * Helper method to find the first position in a sorted range whose row does not sort before the key row
+     *
+     * @param rows       sorted rows
+     * @param from       first position searched
+     * @param to         position after the last one searched
+     * @param key        row searched for
+     * @param comparator order of the rows
+     * @return position, from to to
+     */
+    private static int lowerBound(int[] rows, int from, int to, int key, RowComparator comparator) {
+        while (from < to) {
+            int mid = (from + to) >>> 1;
+            if (comparator.compare(rows[mid], key) < 0) {
+                from = mid + 1;
+            } else {
+                to = mid;
+            }
+        }
+        return from;
+    }
+
+    /**
+     * Helper method to find the first position in a sorted range whose row sorts after the key row
+     *
+     * @param rows       sorted rows
+     * @param from       first position searched
+     * @param to         position after the last one searched
+     * @param key        row searched for
+     * @param comparator order of the rows
+     * @return position, from to to
+     */
+    private static int upperBound(int[] rows, int from, int to, int key, RowComparator comparator) {
+        while (from < to) {
+            int mid = (from + to) >>> 1;
+            if (comparator.compare(rows[mid], key) <= 0) {
+                from = mid + 1;
+            } else {
+                to = mid;
+            }
+        }
+        return from;
+    }
+}
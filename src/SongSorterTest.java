@@ -0,0 +1,122 @@
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SongSorterTest {
+
+    @org.junit.jupiter.api.Test
+    void matchesSongCompareTo() {
+
+        SongManager manager = new SongManager();
+        for (int yearIndex = 0; yearIndex < manager.getYearCount(); yearIndex++) {
+            Song[] songs = manager.getSongs(yearIndex);
+            Song[] expected = songs.clone();
+            Arrays.sort(expected);
+            assertArrayEquals(expected, songs, "year " + manager.getYearName(yearIndex));
+        }
+    }
+
+    @org.junit.jupiter.api.Test
+    void stableOnEveryKey() {
+
+        //enough rows with repeated names/streams/dates to go through the parallel split and merge
+        SongColumns columns = randomColumns(100_000, 50);
+        CollationKeys collationKeys = new CollationKeys(columns, columns.getRowCount(), TrackNameCollation.DEFAULT);
+        SplittableRandom random = new SplittableRandom(3);
+        for (SortKey key : SortKey.values()) {
+            //compares only the key, so the order of equal keys is left to the sort
+            SongSorter.RowComparator byKey = SongSorter.keyComparator(columns, key, collationKeys);
+
+            //shuffled, so a stable sort has to keep a different order of equal keys than row order
+            int[] shuffled = IntStream.range(0, columns.getRowCount()).toArray();
+            for (int i = shuffled.length - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int temp = shuffled[i];
+                shuffled[i] = shuffled[j];
+                shuffled[j] = temp;
+            }
+            //reference: the JDK's object sort, which is stable
+            Integer[] expected = Arrays.stream(shuffled).boxed().toArray(Integer[]::new);
+            Arrays.sort(expected, (Comparator<Integer>) byKey::compare);
+            int[] rows = shuffled.clone();
+            new SongSorter().sort(rows, byKey);
+            assertArrayEquals(Arrays.stream(expected).mapToInt(Integer::intValue).toArray(), rows, key.name());
+
+            //a year sorted from file order keeps equal keys in file order
+            int[][] yearRows = {IntStream.range(0, columns.getRowCount()).toArray()};
+            new SongSorter().sort(columns, yearRows, key, collationKeys);
+            int ties = 0;
+            for (int i = 1; i < yearRows[0].length; i++) {
+                int order = byKey.compare(yearRows[0][i - 1], yearRows[0][i]);
+                assertTrue(order < 0 || order == 0 && yearRows[0][i - 1] < yearRows[0][i], key + " at " + i);
+                ties += order == 0 ? 1 : 0;
+            }
+            assertTrue(ties > columns.getRowCount() / 2, key.name());
+        }
+    }
+
+    @org.junit.jupiter.api.Test
+    @org.junit.jupiter.api.condition.EnabledIfSystemProperty(named = "songs.benchmarks", matches = "true")
+    void sortSpeedup() {
+
+        //the insertion sort baseline is quadratic, so it is only timed up to -Dsongs.sortBenchmark.maxBaseline rows
+        //and estimated from the largest timed size beyond that
+        int maxBaseline = Integer.getInteger("songs.sortBenchmark.maxBaseline", 100_000);
+        double baselineNanosPerPair = 0;
+        for (int rows : new int[]{10_000, 100_000, 1_000_000}) {
+            SongColumns columns = randomColumns(rows, rows);
+            int[] original = IntStream.range(0, rows).toArray();
+
+            double baselineSeconds;
+            String baselineNote = "";
+            if (rows <= maxBaseline) {
+                int[] baselineRows = original.clone();
+                long start = System.nanoTime();
+                insertionSort(columns, baselineRows);
+                long nanos = System.nanoTime() - start;
+                baselineSeconds = nanos / 1e9;
+                baselineNanosPerPair = nanos / ((double) rows * rows);
+            } else {
+                baselineSeconds = baselineNanosPerPair * rows * rows / 1e9;
+                baselineNote = " (estimated)";
+            }
+
+            int[][] yearRows = {original.clone()};
+            long start = System.nanoTime();
+            new SongSorter().sort(columns, yearRows, SortKey.TRACK_NAME);
+            double sorterSeconds = (System.nanoTime() - start) / 1e9;
+
+            System.out.printf("%,9d rows/year: insertion %.3f s%s, SongSorter %.3f s, speed-up %.0fx%n",
+                    rows, baselineSeconds, baselineNote, sorterSeconds, baselineSeconds / sorterSeconds);
+        }
+    }
+
+    /**
+     * the insertion sort SongManager.sortSongs used before SongSorter
+     */
+    private static void insertionSort(SongColumns columns, int[] rows) {
+        for (int pass = 1; pass < rows.length; pass++) {
+            int temp = rows[pass];
+            int checkPos = pass - 1;
+            while (checkPos >= 0 && columns.trackName(temp).compareTo(columns.trackName(rows[checkPos])) < 0) {
+                rows[checkPos + 1] = rows[checkPos];
+                checkPos--;
+            }
+            rows[checkPos + 1] = temp;
+        }
+    }
+
+    private static SongColumns randomColumns(int rows, int distinctValues) {
+        SplittableRandom random = new SplittableRandom(7);
+        HeapSongColumns columns = new HeapSongColumns(rows);
+        for (int i = 0; i < rows; i++) {
+            int value = random.nextInt(distinctValues);
+            columns.add(new String[]{"Track " + value, "Artist", "1", String.valueOf(2000 + value % 20),
+                    String.valueOf(1 + value % 12), String.valueOf(1 + value % 28), "0", "0", String.valueOf(value)});
+        }
+        return columns;
+    }
+}
@@ -0,0 +1,98 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * SongSources class that turns the song path given to a SongManager into the song files to load.  The path may be
+ * one song file, a directory (every .csv file in it), or a glob in the file name, such as 'charts/spotify-*.csv'.
+ * The files are listed in name order, so the partitions of a catalog are always in the same order.
+ *
+ * @author Bennett Fife
+ * @version 10/17/26
+ */
+public final class SongSources {
+
+    /**
+     * pattern of the song files in a directory
+     */
+    private static final String CSV_FILES = "*.csv";
+
+    /**
+     * SongSources has only static methods
+     */
+    private SongSources() {
+    }
+
+    /**
+     * Lists the song files a song path names
+     *
+     * @param songsPath song file, directory, or glob in the file name
+     * @return song files in name order; a single file is returned as it is, whether or not it exists
+     * @throws IllegalArgumentException if a directory or glob names no song files
+     */
+    public static List<Path> resolve(String songsPath) {
+        Path path = Path.of(songsPath);
+        Path fileName = path.getFileName();
+        if (Files.isDirectory(path)) {
+            return list(path, CSV_FILES, songsPath);
+        }
+        if (fileName != null && isGlob(fileName.toString())) {
+            Path directory = path.getParent() == null ? Path.of("") : path.getParent();
+            return list(directory, fileName.toString(), songsPath);
+        }
+        return List.of(path);
+    }
+
+    /**
+     * Helper method to list the files of a directory that match a glob, in name order
+     *
+     * @param directory directory listed; empty for the working directory
+     * @param glob      pattern the file names match
+     * @param songsPath song path being resolved, for the error message
+     * @return matching files in name order
+     * @throws IllegalArgumentException if no files match
+     */
+    private static List<Path> list(Path directory, String glob, String songsPath) {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory.toString().isEmpty() ? Path.of(".")
+                : directory, glob)) {
+            for (Path file : stream) {
+                if (Files.isRegularFile(file)) {
+                    files.add(directory.resolve(file.getFileName()));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (files.isEmpty()) {
+            throw new IllegalArgumentException("no song files match " + songsPath);
+        }
+        files.sort(null);
+        return files;
+    }
+
+    /**
+     * Helper method to check whether a file name holds glob characters
+     *
+     * @param fileName file name checked
+     * @return true if the file name holds any of the characters * ? [ {
+     */
+    private static boolean isGlob(String fileName) {
+        for (int i = 0; i < fileName.length(); i++) {
+            switch (fileName.charAt(i)) {
+                case '*':
+                case '?':
+                case '[':
+                case '{':
+                    return true;
+                default:
+                    break;
+            }
+        }
+        return false;
+    }
+}
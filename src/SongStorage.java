@@ -0,0 +1,17 @@
+/**
+ * SongStorage enum of where a catalog keeps its song rows.
+ *
+ * @author Bennett Fife
+ * @version 10/17/26
+ */
+public enum SongStorage {
+    /**
+     * in primitive arrays on the Java heap (HeapSongColumns); the fastest to read and to append to
+     */
+    HEAP,
+    /**
+     * in direct buffers outside the Java heap (OffHeapSongColumns), so the garbage collector never has to trace or
+     * copy the rows; for very large catalogs that are mostly read
+     */
+    OFF_HEAP
+}
@@ -0,0 +1,215 @@
+import javax.swing.table.AbstractTableModel;
+
+/**
+ * SongTableModel class that shows every song of a catalog in a JTable without copying them.
+ * A cell is read from the catalog's columns when the table asks for it, and a JTable only asks for the rows it
+ * paints, so a table over millions of songs costs no more to show than one over a few.
+ * The rows start in the catalog's year and song order.  Sorting by a column sorts an array of row numbers (in
+ * parallel for large catalogs), which is all the memory a sort takes; it is meant to be done off the event thread,
+ * with the result handed to setOrder().
+ *
+ * @author Bennett Fife
+ * @version 10/17/26
+ */
+public class SongTableModel extends AbstractTableModel {
+
+    /**
+     * the columns of the table, in order
+     */
+    public enum Column {
+        /**
+         * track name
+         */
+        TRACK_NAME("Track Name"),
+        /**
+         * artist names
+         */
+        ARTIST_NAME("Artist(s)"),
+        /**
+         * release date as year-month-day
+         */
+        RELEASE_DATE("Release Date"),
+        /**
+         * total streams with a comma every three digits
+         */
+        STREAMS("Total Streams");
+
+        /**
+         * column header
+         */
+        private final String title;
+
+        /**
+         * Column constructor
+         *
+         * @param title column header text
+         */
+        Column(String title) {
+            this.title = title;
+        }
+
+        /**
+         * Retrieves the column header text
+         *
+         * @return title
+         */
+        public String title() {
+            return title;
+        }
+    }
+
+    /**
+     * columns in display order
+     */
+    private static final Column[] COLUMNS = Column.values();
+
+    /**
+     * catalog whose songs are shown
+     */
+    private final SongCatalog catalog;
+    /**
+     * row number of each table row, or null for the catalog's year and song order
+     */
+    private int[] order;
+
+    /**
+     * SongTableModel constructor
+     *
+     * @param catalog catalog whose songs are shown; it never changes, so the table stays consistent
+     */
+    public SongTableModel(SongCatalog catalog) {
+        this.catalog = catalog;
+    }
+
+    /**
+     * Retrieves the catalog the songs are shown from
+     *
+     * @return catalog
+     */
+    public SongCatalog getCatalog() {
+        return catalog;
+    }
+
+    @Override
+    public int getRowCount() {
+        return catalog.getSongCount();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMNS[column].title();
+    }
+
+    @Override
+    public Class<?> getColumnClass(int column) {
+        return String.class;
+    }
+
+    @Override
+    public Object getValueAt(int tableRow, int column) {
+        SongColumns columns = catalog.columns();
+        int row = row(tableRow);
+        switch (COLUMNS[column]) {
+            case TRACK_NAME:
+                return columns.trackName(row);
+            case ARTIST_NAME:
+                return columns.artistName(row);
+            case RELEASE_DATE:
+                return SongFormat.date(columns.releasedYear(row), columns.releasedMonth(row), columns.releasedDay(row));
+            case STREAMS:
+                return SongFormat.grouped(columns.streams(row));
+            default:
+                throw new IllegalArgumentException("unknown column " + column);
+        }
+    }
+
+    /**
+     * Retrieves the location in the catalog of the song shown in a table row
+     *
+     * @param tableRow table row, in model order
+     * @return location of the song
+     */
+    public SongLocation getLocation(int tableRow) {
+        return order == null ? catalog.locateRow(catalog.rowAt(tableRow)) : catalog.locateRow(order[tableRow]);
+    }
+
+    /**
+     * Sorts the songs of the catalog by a column.  This can take a while for a large catalog, so it should run off
+     * the event thread; the table is unchanged until the result is given to setOrder().
+     *
+     * @param column    column to sort by
+     * @param ascending true for smallest (or alphabetically first) first, false for largest first
+     * @return row number of each table row in the new order
+     */
+    public int[] sortedOrder(Column column, boolean ascending) {
+        SongColumns columns = catalog.columns();
+        SongSorter.RowComparator byKey;
+        switch (column) {
+            case TRACK_NAME:
+                byKey = (a, b) -> columns.trackName(a).compareTo(columns.trackName(b));
+                break;
+            case ARTIST_NAME:
+                //equal names share a code, so comparing the ranks of the codes needs no strings
+                int[] ranks = columns.getArtistPool().ranks();
+                byKey = (a, b) -> Integer.compare(ranks[columns.artistCode(a)], ranks[columns.artistCode(b)]);
+                break;
+            case RELEASE_DATE:
+                byKey = (a, b) -> Integer.compare(releaseDate(columns, a), releaseDate(columns, b));
+                break;
+            case STREAMS:
+                byKey = (a, b) -> Long.compare(columns.streams(a), columns.streams(b));
+                break;
+            default:
+                throw new IllegalArgumentException("unknown column " + column);
+        }
+        int[] rows = new int[catalog.getSongCount()];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = catalog.rowAt(i);
+        }
+        //songs that compare equal stay in file order either way
+        new SongSorter().sort(rows, (a, b) -> {
+            int compare = ascending ? byKey.compare(a, b) : byKey.compare(b, a);
+            return compare != 0 ? compare : Integer.compare(a, b);
+        });
+        return rows;
+    }
+
+    /**
+     * Shows the songs in a new order; call on the event thread
+     *
+     * @param rows row number of each table row, from sortedOrder(), or null for the catalog's year and song order
+     */
+    public void setOrder(int[] rows) {
+        if (rows != null && rows.length != catalog.getSongCount()) {
+            throw new IllegalArgumentException("the order must have one row per song");
+        }
+        order = rows;
+        fireTableDataChanged();
+    }
+
+    /**
+     * Helper method to find the catalog row shown at a table row
+     *
+     * @param tableRow table row, in the model's order
+     * @return catalog row shown there
+     */
+    private int row(int tableRow) {
+        return order == null ? catalog.rowAt(tableRow) : order[tableRow];
+    }
+
+    /**
+     * Helper method to read a row's release date as one sortable number
+     *
+     * @param columns columns the row is read from
+     * @param row     catalog row
+     * @return release date packed into an int that compares in date order
+     */
+    private static int releaseDate(SongColumns columns, int row) {
+        return SongSorter.releaseDate(columns.releasedYear(row), columns.releasedMonth(row), columns.releasedDay(row));
+    }
+}
@@ -0,0 +1,76 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SongTableModelTest {
+
+    @org.junit.jupiter.api.Test
+    void rowsFollowCatalogOrder() {
+
+        SongManager manager = new SongManager();
+        SongTableModel model = new SongTableModel(manager.getCatalog());
+        assertEquals(manager.getSongCount(), model.getRowCount());
+        assertEquals(4, model.getColumnCount());
+        assertEquals("Track Name", model.getColumnName(0));
+        int tableRow = 0;
+        for (int yearIndex = 0; yearIndex < manager.getYearCount(); yearIndex++) {
+            for (int songIndex = 0; songIndex < manager.getSongCount(yearIndex); songIndex++, tableRow++) {
+                Song song = manager.getSong(yearIndex, songIndex);
+                assertEquals(song.trackName(), model.getValueAt(tableRow, 0));
+                assertEquals(song.artistName(), model.getValueAt(tableRow, 1));
+                assertEquals(String.format("%d-%02d-%02d", Integer.parseInt(song.releasedYear()),
+                        Integer.parseInt(song.releasedMonth()), Integer.parseInt(song.releasedDay())),
+                        model.getValueAt(tableRow, 2));
+                assertEquals(SongViewer.numberCommas(song.totalNumberOfStreamsOnSpotify()),
+                        model.getValueAt(tableRow, 3));
+                assertEquals(new SongLocation(yearIndex, songIndex, tableRow), model.getLocation(tableRow));
+            }
+        }
+    }
+
+    @org.junit.jupiter.api.Test
+    void sortsWithoutChangingCatalog() {
+
+        SongManager manager = new SongManager();
+        SongTableModel model = new SongTableModel(manager.getCatalog());
+        model.setOrder(model.sortedOrder(SongTableModel.Column.STREAMS, false));
+        long previous = Long.MAX_VALUE;
+        for (int tableRow = 0; tableRow < model.getRowCount(); tableRow++) {
+            SongLocation location = model.getLocation(tableRow);
+            long streams = manager.getValue(SongColumn.STREAMS, location.yearIndex(), location.songIndex());
+            assertTrue(streams <= previous);
+            assertEquals(SongViewer.numberCommas(streams), model.getValueAt(tableRow, 3));
+            previous = streams;
+        }
+        //the most streamed song overall is the first of the all-years ranking
+        assertEquals(manager.topByStreams(1)[0], model.getLocation(0));
+
+        model.setOrder(model.sortedOrder(SongTableModel.Column.TRACK_NAME, true));
+        for (int tableRow = 1; tableRow < model.getRowCount(); tableRow++) {
+            assertTrue(model.getValueAt(tableRow - 1, 0).toString().compareTo(model.getValueAt(tableRow, 0)
+                    .toString()) <= 0);
+        }
+        model.setOrder(model.sortedOrder(SongTableModel.Column.RELEASE_DATE, true));
+        for (int tableRow = 1; tableRow < model.getRowCount(); tableRow++) {
+            assertTrue(model.getValueAt(tableRow - 1, 2).toString().compareTo(model.getValueAt(tableRow, 2)
+                    .toString()) <= 0);
+        }
+        model.setOrder(null);
+        assertEquals(manager.getSong(0, 0).trackName(), model.getValueAt(0, 0));
+        assertThrows(IllegalArgumentException.class, () -> model.setOrder(new int[1]));
+    }
+
+    @org.junit.jupiter.api.Test
+    void loadReportsProgress() {
+
+        List<Integer> reported = Collections.synchronizedList(new ArrayList<>());
+        new SongManager(SongManager.DEFAULT_SONGS_PATH, false, reported::add);
+        assertEquals(0, (int) reported.get(0));
+        assertEquals(100, (int) reported.get(reported.size() - 1));
+        for (int i = 1; i < reported.size(); i++) {
+            assertTrue(reported.get(i - 1) <= reported.get(i), reported.toString());
+        }
+    }
+}
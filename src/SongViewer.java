@@ -4,8 +4,15 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.ItemEvent;
 import java.awt.event.ItemListener;
-import java.text.NumberFormat;
-import java.util.Locale;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.event.PopupMenuEvent;
+import javax.swing.event.PopupMenuListener;
+import javax.swing.table.TableColumn;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 
 /**
  * SongViewer class that creates a GUI for SongManager data to be displayed to user.
@@ -17,9 +24,73 @@ import java.util.Locale;
 public class SongViewer extends JFrame {
 
     /**
-     * used for button iteration (starts on first song index 0)
+     * SongManager whose songs are displayed; null until the songs are loaded.  Only used on the event thread.
      */
-    private int songIteration = 0;
+    private SongManager manager;
+
+    /**
+     * completed with the SongManager once the songs are loaded
+     */
+    private final CompletableFuture<SongManager> loaded = new CompletableFuture<>();
+
+    /**
+     * model of the table of every song; null until the songs are loaded
+     */
+    private SongTableModel tableModel;
+
+    /**
+     * column the table is sorted by (-1 for year and song order) and its direction
+     */
+    private int sortColumn = -1;
+    /**
+     * whether the table is sorted in ascending order
+     */
+    private boolean sortAscending;
+
+    /**
+     * position of the displayed song (starts on the first song of the selected year)
+     */
+    private SongCursor cursor;
+
+    /**
+     * most songs listed under the search field
+     */
+    private static final int SEARCH_RESULTS = 10;
+
+    /**
+     * most songs listed in the similar songs panel, and the largest catalog they are found exactly for (larger ones
+     * use the approximate search)
+     */
+    private static final int SIMILAR_SONGS = 8;
+    /**
+     * largest catalog the similar songs are found exactly for
+     */
+    private static final int EXACT_SIMILAR_LIMIT = 100_000;
+
+    /**
+     * songs listed in the similar songs panel and their locations in the catalog of the cursor that found them
+     */
+    private final DefaultListModel<String> similarSongs = new DefaultListModel<>();
+    /**
+     * location of each song listed in the similar songs panel
+     */
+    private SongLocation[] similarLocations = new SongLocation[0];
+    /**
+     * catalog the similar songs were found in
+     */
+    private SongCatalog similarCatalog;
+    /**
+     * builder the labels of the shown song are formatted in, reused for every song.  Only used on the event thread.
+     */
+    private final StringBuilder label = new StringBuilder(64);
+
+    /**
+     * Class used to put together all JFrame pieces and display SongManager data.  The window opens at once; the
+     * songs are loaded from 'spotify-2023.csv' on a background thread when Load Data is pressed.
+     */
+    public SongViewer() {
+        this(null, SongManager.DEFAULT_SONGS_PATH);
+    }
 
     /**
      * Class used to put together all JFrame pieces and display SongManager data
@@ -27,10 +98,30 @@ public class SongViewer extends JFrame {
      * @param manager SongManager object that compiles all song data
      */
     public SongViewer(SongManager manager){
+        this(manager, null);
+    }
+
+    /**
+     * Class used to put together all JFrame pieces and display SongManager data.  The window opens at once; the
+     * songs are loaded on a background thread when Load Data is pressed.
+     *
+     * @param spotifySongsPath song file, or a directory or glob of them, loaded when Load Data is pressed
+     */
+    public SongViewer(String spotifySongsPath) {
+        this(null, spotifySongsPath);
+    }
+
+    /**
+     * Class used to put together all JFrame pieces and display SongManager data
+     *
+     * @param preloaded        SongManager whose songs are already loaded, or null to load them
+     * @param spotifySongsPath song file loaded when there is no preloaded SongManager
+     */
+    private SongViewer(SongManager preloaded, String spotifySongsPath) {
 
         //create the GUI frame that will hold frame elements
         Frame frame = new JFrame("Popular Songs of 2023");
-        frame.setSize(400, 400);
+        frame.setSize(1000, 440);
 
         //create, setBounds, and add buttons to the frame
         JButton loadData = new JButton("Load Data");
@@ -97,6 +188,38 @@ public class SongViewer extends JFrame {
         dataTextFields.add(Box.createRigidArea(dataPadding));
         dataTextFields.add(streamsData);
 
+        //type-ahead search over track and artist names; enabled once the search index has been built
+        JTextField searchField = new JTextField();
+        searchField.setBounds(20, 340, 340, 25);
+        searchField.setToolTipText("Search track and artist names");
+        searchField.setEnabled(false);
+        JPopupMenu searchResults = new JPopupMenu();
+        searchResults.setFocusable(false);
+
+        //progress of the background load, shown while it runs
+        JProgressBar loadProgress = new JProgressBar(0, 100);
+        loadProgress.setBounds(20, 375, 340, 15);
+        loadProgress.setVisible(false);
+
+        //table of every song; it only reads the rows it paints, and a header click sorts it off the event thread
+        JTable songTable = new JTable();
+        songTable.setFillsViewportHeight(true);
+        songTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        songTable.getTableHeader().setReorderingAllowed(false);
+        JScrollPane tablePane = new JScrollPane(songTable);
+        tablePane.setBounds(380, 25, 590, 245);
+
+        //songs whose audio features are nearest the displayed song's; a double click shows one
+        JList<String> similarList = new JList<>(similarSongs);
+        similarList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        JScrollPane similarPane = new JScrollPane(similarList);
+        similarPane.setBorder(BorderFactory.createTitledBorder("Similar songs"));
+        similarPane.setBounds(380, 275, 590, 115);
+
+        frame.add(loadProgress);
+        frame.add(tablePane);
+        frame.add(similarPane);
+        frame.add(searchField);
         frame.add(yearsData);
         frame.add(yearsComboBox);
         frame.add(dataLabels);
@@ -106,15 +229,170 @@ public class SongViewer extends JFrame {
         frame.setVisible(true);
 
 
-        //load button (enables Next/Prev buttons and adds combo box choices)
+        //load button (loads the songs in the background, then enables Next/Prev buttons and adds combo box choices)
         loadData.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
-                prevSong.setEnabled(true);
-                nextSong.setEnabled(true);
                 loadData.setEnabled(false);
-                ComboBoxModel<String> years = new DefaultComboBoxModel<>(manager.getReleaseYears());
-                yearsComboBox.setModel(years);
+                loadProgress.setValue(0);
+                loadProgress.setVisible(true);
+                SwingWorker<SongManager, Void> loader = new SwingWorker<>() {
+                    @Override
+                    protected SongManager doInBackground() {
+                        return preloaded != null ? preloaded
+                                : new SongManager(spotifySongsPath, true, this::setProgress);
+                    }
+
+                    @Override
+                    protected void done() {
+                        loadProgress.setVisible(false);
+                        try {
+                            manager = get();
+                        } catch (InterruptedException | ExecutionException ex) {
+                            JOptionPane.showMessageDialog(frame, "Could not load the songs: "
+                                    + (ex.getCause() != null ? ex.getCause().getMessage() : ex.getMessage()));
+                            loadData.setEnabled(true);
+                            return;
+                        }
+                        prevSong.setEnabled(true);
+                        nextSong.setEnabled(true);
+                        //the years, the cursor and the table come from one catalog so their positions agree
+                        SongCatalog catalog = manager.getCatalog();
+                        ComboBoxModel<String> years = new DefaultComboBoxModel<>(catalog.getReleaseYears());
+                        yearsComboBox.setModel(years);
+                        //setModel fires no ItemEvent, so start the cursor on the first year, which the model selects
+                        if (catalog.getYearCount() > 0) {
+                            cursor = catalog.cursor(0);
+                            showSong(cursor, frame, yearsData, trackNameData, artistData, releaseYearData,
+                                    streamsData);
+                        }
+                        tableModel = new SongTableModel(catalog);
+                        songTable.setModel(tableModel);
+                        //build the search index off the event thread so the first keystroke does not wait for it
+                        CompletableFuture.runAsync(catalog::getSearchIndex)
+                                .thenRun(() -> SwingUtilities.invokeLater(() -> searchField.setEnabled(true)));
+                        loaded.complete(manager);
+                    }
+                };
+                loader.addPropertyChangeListener(event -> {
+                    if (event.getPropertyName().equals("progress")) {
+                        loadProgress.setValue((Integer) event.getNewValue());
+                    }
+                });
+                loader.execute();
+            }
+        });
+
+        //table header logic: sort by the clicked column, flipping the direction on a second click
+        songTable.getTableHeader().addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                int column = songTable.convertColumnIndexToModel(songTable.columnAtPoint(e.getPoint()));
+                SongTableModel model = tableModel;
+                if (model == null || column < 0) {
+                    return;
+                }
+                boolean ascending = column != sortColumn || !sortAscending;
+                new SwingWorker<int[], Void>() {
+                    @Override
+                    protected int[] doInBackground() {
+                        return model.sortedOrder(SongTableModel.Column.values()[column], ascending);
+                    }
+
+                    @Override
+                    protected void done() {
+                        if (model != tableModel) {
+                            return;
+                        }
+                        try {
+                            model.setOrder(get());
+                        } catch (InterruptedException | ExecutionException ex) {
+                            return;
+                        }
+                        sortColumn = column;
+                        sortAscending = ascending;
+                        for (int i = 0; i < songTable.getColumnCount(); i++) {
+                            TableColumn tableColumn = songTable.getColumnModel().getColumn(i);
+                            int modelColumn = tableColumn.getModelIndex();
+                            tableColumn.setHeaderValue(model.getColumnName(modelColumn) + (modelColumn != column ? ""
+                                    : ascending ? " \u25B2" : " \u25BC"));
+                        }
+                        songTable.getTableHeader().repaint();
+                    }
+                }.execute();
+            }
+        });
+
+        //table selection logic: show the selected song
+        songTable.getSelectionModel().addListSelectionListener(e -> {
+            int viewRow = songTable.getSelectedRow();
+            if (e.getValueIsAdjusting() || viewRow < 0) {
+                return;
+            }
+            SongLocation location = tableModel.getLocation(songTable.convertRowIndexToModel(viewRow));
+            SongCatalog catalog = tableModel.getCatalog();
+            //selecting the year moves the cursor to its first song, so seek afterwards
+            selectYear(yearsComboBox, catalog, location.yearIndex());
+            cursor = catalog.cursor(location.yearIndex());
+            cursor.seek(location.yearIndex(), location.songIndex());
+            showSong(cursor, frame, yearsData, trackNameData, artistData, releaseYearData, streamsData);
+        });
+
+        //similar songs logic: a double click shows the song
+        similarList.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                int index = similarList.locationToIndex(e.getPoint());
+                if (e.getClickCount() < 2 || index < 0 || index >= similarLocations.length) {
+                    return;
+                }
+                SongLocation location = similarLocations[index];
+                SongCatalog catalog = similarCatalog;
+                selectYear(yearsComboBox, catalog, location.yearIndex());
+                cursor = catalog.cursor(location.yearIndex());
+                cursor.seek(location.yearIndex(), location.songIndex());
+                showSong(cursor, frame, yearsData, trackNameData, artistData, releaseYearData, streamsData);
+            }
+        });
+
+        //search field logic: list the best matches for the text typed so far
+        searchField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                showResults();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                showResults();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                showResults();
+            }
+
+            private void showResults() {
+                searchResults.setVisible(false);
+                searchResults.removeAll();
+                //results and the cursor come from one catalog so their positions agree
+                SongCatalog catalog = manager.getCatalog();
+                for (SongLocation location : catalog.search(searchField.getText(), SEARCH_RESULTS)) {
+                    Song song = catalog.getSong(location.yearIndex(), location.songIndex());
+                    JMenuItem item = new JMenuItem(song.trackName() + " \u2014 " + song.artistName()
+                            + " (" + song.releasedYear() + ")");
+                    item.addActionListener(event -> {
+                        //selecting the year moves the cursor to its first song, so seek afterwards
+                        selectYear(yearsComboBox, catalog, location.yearIndex());
+                        cursor = catalog.cursor(location.yearIndex());
+                        cursor.seek(location.yearIndex(), location.songIndex());
+                        showSong(cursor, frame, yearsData, trackNameData, artistData, releaseYearData, streamsData);
+                    });
+                    searchResults.add(item);
+                }
+                if (searchResults.getComponentCount() > 0) {
+                    searchResults.show(searchField, 0, searchField.getHeight());
+                }
             }
         });
 
@@ -123,58 +401,46 @@ public class SongViewer extends JFrame {
             @Override
             public void itemStateChanged(ItemEvent e) {
                 if (e.getStateChange() == ItemEvent.SELECTED) {
-                    //always reset to 0 when a new year is chosen
-                    songIteration = 0;
-                    //year selected from the combo box
-                    String selectedYear = (String) yearsComboBox.getSelectedItem();
-                    //grab the index of the current year selected
-                    int yearIndex = manager.findStringIndex(manager.getReleaseYears(), selectedYear);
-                    //grab an array of song objects from that specific index
-                    Song[] songsInCurrentYear = manager.getSongs(yearIndex);
-                    //set the text fields using the specified get methods
-                    trackNameData.setText(songsInCurrentYear[songIteration].trackName());
-                    artistData.setText(songsInCurrentYear[songIteration].artistName());
-                    releaseYearData.setText(songsInCurrentYear[songIteration].releasedYear());
-                    streamsData.setText(numberCommas(songsInCurrentYear[songIteration].totalNumberOfStreamsOnSpotify()));
-                    trackNameData.setCaretPosition(0);
-                    artistData.setCaretPosition(0);
-                    releaseYearData.setCaretPosition(0);
-                    streamsData.setCaretPosition(0);
-                    //songNum of all songs
-                    double songNum = manager.getSongNum(songsInCurrentYear[songIteration].trackName());
-                    //total number of songs in all years
-                    double totalSongs = manager.getSongCount();
-                    double songNumPercent = (songNum / totalSongs) * 100.0;
-                    //set yearsData text label and the frame title
-                    yearsData.setText(String.format("%.2f", songNumPercent) + "% | " + (int) songNum + " of " + manager.getSongCount() + " total songs.");
-                    frame.setTitle("Songs | " + (songIteration + 1) + " of " + songsInCurrentYear.length + " songs");
+                    //looked up by name: a year added by an append moves the index of every later year;
+                    //always reset to the first song when a new year is chosen
+                    SongCatalog catalog = manager.getCatalog();
+                    int yearIndex = catalog.getYearIndex((String) yearsComboBox.getSelectedItem());
+                    if (yearIndex >= 0) {
+                        cursor = catalog.cursor(yearIndex);
+                        showSong(cursor, frame, yearsData, trackNameData, artistData, releaseYearData, streamsData);
+                    }
                 }
             }
         });
 
+        //list the years added since the combo box was filled before it opens
+        yearsComboBox.addPopupMenuListener(new PopupMenuListener() {
+            @Override
+            public void popupMenuWillBecomeVisible(PopupMenuEvent e) {
+                if (manager != null) {
+                    refreshYears(yearsComboBox, manager.getCatalog());
+                }
+            }
+
+            @Override
+            public void popupMenuWillBecomeInvisible(PopupMenuEvent e) {
+            }
+
+            @Override
+            public void popupMenuCanceled(PopupMenuEvent e) {
+            }
+        });
+
         prevSong.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
-                String selectedYear = (String) yearsComboBox.getSelectedItem();
-                int yearIndex = manager.findStringIndex(manager.getReleaseYears(), selectedYear);
-                Song[] songsInCurrentYear = manager.getSongs(yearIndex);
-                if (songIteration == 0){
+                if (cursor == null) {
+                    return;
+                }
+                if (!cursor.previous()) {
                     JOptionPane.showMessageDialog(frame, "This is the first song for this year.");
                 } else {
-                    songIteration--;
-                    trackNameData.setText(songsInCurrentYear[songIteration].trackName());
-                    artistData.setText(songsInCurrentYear[songIteration].artistName());
-                    releaseYearData.setText(songsInCurrentYear[songIteration].releasedYear());
-                    streamsData.setText(numberCommas(songsInCurrentYear[songIteration].totalNumberOfStreamsOnSpotify()));
-                    trackNameData.setCaretPosition(0);
-                    artistData.setCaretPosition(0);
-                    releaseYearData.setCaretPosition(0);
-                    streamsData.setCaretPosition(0);
-                    double songNum = manager.getSongNum(songsInCurrentYear[songIteration].trackName());
-                    double totalSongs = manager.getSongCount();
-                    double songNumPercent = (songNum / totalSongs) * 100.0;
-                    yearsData.setText(String.format("%.2f", songNumPercent) + "% | " + (int) songNum + " of " + manager.getSongCount() + " total songs");
-                    frame.setTitle("Songs | " + (songIteration + 1) + " of " + songsInCurrentYear.length + " songs");
+                    showSong(cursor, frame, yearsData, trackNameData, artistData, releaseYearData, streamsData);
                 }
             }
         });
@@ -182,44 +448,157 @@ public class SongViewer extends JFrame {
         nextSong.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
-                String selectedYear = (String) yearsComboBox.getSelectedItem();
-                int yearIndex = manager.findStringIndex(manager.getReleaseYears(), selectedYear);
-                Song[] songsInCurrentYear = manager.getSongs(yearIndex);
-                if (songIteration == songsInCurrentYear.length - 1){
+                if (cursor == null) {
+                    return;
+                }
+                if (!cursor.next()) {
                     JOptionPane.showMessageDialog(frame, "This is the last song for this year.");
                 } else {
-                    songIteration++;
-                    trackNameData.setText(songsInCurrentYear[songIteration].trackName());
-                    artistData.setText(songsInCurrentYear[songIteration].artistName());
-                    releaseYearData.setText(songsInCurrentYear[songIteration].releasedYear());
-                    streamsData.setText(numberCommas(songsInCurrentYear[songIteration].totalNumberOfStreamsOnSpotify()));
-                    trackNameData.setCaretPosition(0);
-                    artistData.setCaretPosition(0);
-                    releaseYearData.setCaretPosition(0);
-                    streamsData.setCaretPosition(0);
-                    int songNum = manager.getSongNum(songsInCurrentYear[songIteration].trackName());
-                    double totalSongs = manager.getSongCount();
-                    double songNumPercent = (songNum / totalSongs) * 100.0;
-                    yearsData.setText(String.format("%.2f", songNumPercent) + "% | " + songNum + " of " + manager.getSongCount() + " total songs");
-                    frame.setTitle("Songs | " + (songIteration + 1) + " of " + songsInCurrentYear.length + " songs");
-
+                    showSong(cursor, frame, yearsData, trackNameData, artistData, releaseYearData, streamsData);
                 }
             }
         });
     }
 
+    /**
+     * Retrieves the SongManager once the songs are loaded
+     *
+     * @return future completed, on the event thread, with the SongManager whose songs are displayed
+     */
+    public CompletableFuture<SongManager> whenLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Helper method to select a year of a catalog in the combo box by its name, listing the catalog's years first if
+     * the combo box does not have them all yet
+     *
+     * @param yearsComboBox combo box listing the release years
+     * @param catalog       catalog the year belongs to
+     * @param yearIndex     index of the year selected
+     */
+    private static void selectYear(JComboBox<String> yearsComboBox, SongCatalog catalog, int yearIndex) {
+        refreshYears(yearsComboBox, catalog);
+        yearsComboBox.setSelectedItem(catalog.getYearName(yearIndex));
+    }
+
+    /**
+     * Helper method to refill the combo box with a catalog's years if it holds fewer (years are only ever added),
+     * keeping the selected year
+     *
+     * @param yearsComboBox combo box listing the release years
+     * @param catalog       catalog whose years are listed
+     */
+    private static void refreshYears(JComboBox<String> yearsComboBox, SongCatalog catalog) {
+        if (yearsComboBox.getItemCount() < catalog.getYearCount()) {
+            DefaultComboBoxModel<String> years = new DefaultComboBoxModel<>(catalog.getReleaseYears());
+            years.setSelectedItem(yearsComboBox.getSelectedItem());
+            yearsComboBox.setModel(years);
+        }
+    }
+
+    /**
+     * Helper method to fill the text fields, the position label and the frame title from the cursor's song
+     *
+     * @param cursor          cursor on the song shown
+     * @param frame           frame whose title is set
+     * @param yearsData       label showing the song's position among all songs
+     * @param trackNameData   text field showing the track name
+     * @param artistData      text field showing the artist(s) name
+     * @param releaseYearData text field showing the release year
+     * @param streamsData     text field showing the number of streams
+     */
+    private void showSong(SongCursor cursor, Frame frame, JLabel yearsData, JTextField trackNameData,
+                          JTextField artistData, JTextField releaseYearData, JTextField streamsData) {
+        trackNameData.setText(cursor.getTrackName());
+        artistData.setText(cursor.getArtistName());
+        releaseYearData.setText(String.valueOf(cursor.getReleasedYear()));
+        streamsData.setText(numberCommas(cursor.getStreams()));
+        trackNameData.setCaretPosition(0);
+        artistData.setCaretPosition(0);
+        releaseYearData.setCaretPosition(0);
+        streamsData.setCaretPosition(0);
+        //songNum of all songs
+        int songNum = cursor.getOrdinal() + 1;
+        //total number of songs in all years of the catalog the ordinal comes from
+        int totalSongs = cursor.getCatalog().getSongCount();
+        //set yearsData text label and the frame title
+        label.setLength(0);
+        SongFormat.appendPercent(label, songNum, totalSongs, 2).append("% | ").append(songNum).append(" of ")
+                .append(totalSongs).append(" total songs");
+        yearsData.setText(label.toString());
+        label.setLength(0);
+        label.append("Songs | ").append(cursor.getSongIndex() + 1).append(" of ").append(cursor.getYearSongCount())
+                .append(" songs");
+        frame.setTitle(label.toString());
+        showSimilar(cursor);
+    }
+
+    /**
+     * Helper method to list the songs most similar to the cursor's song, found off the event thread.  A result that
+     * arrives after another song is shown is dropped.
+     *
+     * @param cursor cursor on the song shown
+     */
+    private void showSimilar(SongCursor cursor) {
+        SongCatalog catalog = cursor.getCatalog();
+        int yearIndex = cursor.getYearIndex();
+        int songIndex = cursor.getSongIndex();
+        similarCatalog = catalog;
+        similarLocations = new SongLocation[0];
+        similarSongs.clear();
+        new SwingWorker<SongLocation[], Void>() {
+            @Override
+            protected SongLocation[] doInBackground() {
+                return catalog.getSongCount() <= EXACT_SIMILAR_LIMIT
+                        ? catalog.similar(yearIndex, songIndex, SIMILAR_SONGS, null)
+                        : catalog.similarApproximate(yearIndex, songIndex, SIMILAR_SONGS, null);
+            }
+
+            @Override
+            protected void done() {
+                if (SongViewer.this.cursor == null || SongViewer.this.cursor.getCatalog() != catalog
+                        || SongViewer.this.cursor.getYearIndex() != yearIndex
+                        || SongViewer.this.cursor.getSongIndex() != songIndex) {
+                    return;
+                }
+                try {
+                    similarLocations = get();
+                } catch (InterruptedException | ExecutionException ex) {
+                    return;
+                }
+                similarSongs.clear();
+                for (SongLocation location : similarLocations) {
+                    Song song = catalog.getSong(location.yearIndex(), location.songIndex());
+                    similarSongs.addElement(song.trackName() + " \u2014 " + song.artistName()
+                            + " (" + song.releasedYear() + ")");
+                }
+            }
+        }.execute();
+    }
+
     /**
      * Helper method to format the number of streams for a song
      * @param streams String number of streams pulled from song data
      * @return String of the streams but formatted to have a comma every 3rd number from the right
      */
-    public String numberCommas(String streams){
-        for (char c : streams.toCharArray()) {
-            if (!Character.isDigit(c)) {
+    public static String numberCommas(String streams){
+        for (int i = 0; i < streams.length(); i++) {
+            if (!Character.isDigit(streams.charAt(i))) {
                 throw new NumberFormatException("Input string contains non-numeric characters.");
             }
         }
 
-        return NumberFormat.getNumberInstance(Locale.US).format(Integer.parseInt(streams));
+        //parsed as a long: the top tracks have more than 2^31 streams
+        return numberCommas(Long.parseLong(streams));
+    }
+
+    /**
+     * Helper method to format the number of streams for a song
+     * @param streams number of streams
+     * @return String of the streams but formatted to have a comma every 3rd number from the right
+     */
+    public static String numberCommas(long streams){
+        return SongFormat.grouped(streams);
     }
 }
@@ -0,0 +1,77 @@
+import javax.swing.AbstractButton;
+import javax.swing.SwingUtilities;
+import java.awt.Component;
+import java.awt.Container;
+import java.awt.Frame;
+import java.awt.GraphicsEnvironment;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+
+class SongViewerTest {
+
+    @org.junit.jupiter.api.Test
+    void numberCommas() {
+
+        assertEquals("0", SongViewer.numberCommas("0"));
+        assertEquals("987,654,321", SongViewer.numberCommas("987654321"));
+        //past Integer.MAX_VALUE, like the most streamed tracks
+        assertEquals("3,703,895,074", SongViewer.numberCommas("3703895074"));
+        assertEquals("3,703,895,074", SongViewer.numberCommas(3_703_895_074L));
+        assertThrows(NumberFormatException.class, () -> SongViewer.numberCommas("12a4"));
+    }
+
+    @org.junit.jupiter.api.Test
+    void nextAfterLoad() throws Exception {
+
+        assumeFalse(GraphicsEnvironment.isHeadless(), "the viewer needs a display");
+        Path source = Files.createTempFile("songs-viewer", ".csv");
+        List<Frame> before = Arrays.asList(Frame.getFrames());
+        try {
+            Files.writeString(source, SongCsvGenerator.HEADER + "\nFirst Song,First Artist,1,2000,1,1,0,0,2\n"
+                    + "Second Song,Second Artist,1,2000,1,1,0,0,1\n");
+            SongViewer[] viewer = new SongViewer[1];
+            SwingUtilities.invokeAndWait(() -> viewer[0] = new SongViewer(source.toString()));
+            Frame frame = Arrays.stream(Frame.getFrames())
+                    .filter(f -> !before.contains(f) && button(f, "Next") != null)
+                    .findFirst().orElseThrow();
+
+            SwingUtilities.invokeAndWait(button(frame, "Load Data")::doClick);
+            viewer[0].whenLoaded().get(30, TimeUnit.SECONDS);
+            //the year model is installed without an ItemEvent, so the cursor must already be on the first song
+            SwingUtilities.invokeAndWait(button(frame, "Next")::doClick);
+            assertEquals("Songs | 2 of 2 songs", frame.getTitle());
+        } finally {
+            for (Frame frame : Frame.getFrames()) {
+                if (!before.contains(frame)) {
+                    SwingUtilities.invokeAndWait(frame::dispose);
+                }
+            }
+            Files.deleteIfExists(CatalogSnapshot.snapshotPath(source));
+            Files.deleteIfExists(source);
+        }
+    }
+
+    /**
+     * Helper method to find the button with the specified text among a container's components
+     */
+    private static AbstractButton button(Container container, String text) {
+        for (Component component : container.getComponents()) {
+            if (component instanceof AbstractButton button && text.equals(button.getText())) {
+                return button;
+            }
+            if (component instanceof Container child) {
+                AbstractButton button = button(child, text);
+                if (button != null) {
+                    return button;
+                }
+            }
+        }
+        return null;
+    }
+}
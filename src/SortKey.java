@@ -0,0 +1,26 @@
+/**
+ * SortKey enum of the orders songs can be sorted in within each release year.
+ * Every order is stable: songs that compare equal keep their file order.
+ *
+ * @author Bennett Fife
+ * @version 10/17/26
+ */
+public enum SortKey {
+    /**
+     * alphabetical (case-sensitive) by track name, the same order as Song.compareTo
+     */
+    TRACK_NAME,
+    /**
+     * alphabetical by track name in the catalog's TrackNameCollation (locale-correct, with case and accents folded
+     * as configured), compared by precomputed CollationKeys
+     */
+    COLLATED_TRACK_NAME,
+    /**
+     * most streamed first
+     */
+    STREAMS,
+    /**
+     * oldest release date first
+     */
+    RELEASE_DATE
+}
@@ -0,0 +1,359 @@
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * StringPool class that gives each distinct string an int code.  The distinct values are stored once, as UTF-8
+ * bytes in one array, so a column of repeated strings costs an int per row plus each value once.  A String is only
+ * decoded when it is asked for, and recently decoded values are kept in a small cache, so showing a page of songs
+ * does not decode the same artist again and again.
+ * Two rows of a column hold equal strings exactly when they hold the same code, so equality checks and grouping can
+ * compare codes without looking at the strings.
+ * Codes are only ever added.  One thread may add values while others read the values of codes they already know,
+ * the same way SongColumns is appended while older catalogs are still read.
+ *
+ * @author Bennett Fife
+ * @version 10/17/26
+ */
+public final class StringPool {
+
+    /**
+     * number of values that fit before the arrays are first resized
+     */
+    private static final int INITIAL_CODES = 64;
+    /**
+     * number of decoded values kept (a power of two)
+     */
+    private static final int CACHE_SIZE = 1 << 12;
+
+    /**
+     * UTF-8 bytes of every value, one after another
+     */
+    private volatile byte[] bytes;
+    /**
+     * number of bytes of bytes in use
+     */
+    private int byteCount;
+    /**
+     * value code is bytes[offsets[code]] up to bytes[offsets[code + 1]]
+     */
+    private volatile int[] offsets;
+    /**
+     * hash of each value by code
+     */
+    private volatile int[] hashes;
+    /**
+     * open addressing hash table of code + 1 (0 for an empty slot); its length is a power of two
+     */
+    private volatile int[] slots;
+    /**
+     * number of codes; written after a new value is complete, so a reader that sees a code below it sees the value
+     */
+    private volatile int size;
+    /**
+     * recently decoded values, by code modulo CACHE_SIZE
+     */
+    private final Decoded[] decoded = new Decoded[CACHE_SIZE];
+
+    /**
+     * a decoded value; immutable, so it can be shared through the cache without locking
+     *
+     * @param code  code of the value
+     * @param value decoded value
+     */
+    private record Decoded(int code, String value) {
+    }
+
+    /**
+     * StringPool constructor creates an empty pool
+     */
+    public StringPool() {
+        bytes = new byte[INITIAL_CODES * 16];
+        offsets = new int[INITIAL_CODES + 1];
+        hashes = new int[INITIAL_CODES];
+        slots = new int[INITIAL_CODES * 2];
+    }
+
+    /**
+     * Retrieves the code of a value, adding the value if it is not in the pool yet.  Only one thread may add values
+     * at a time.
+     *
+     * @param value string to add; must not be null
+     * @return code of the value
+     */
+    public int intern(String value) {
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        return intern(utf8, 0, utf8.length);
+    }
+
+    /**
+     * Retrieves the code in this pool of a value of another pool, adding the value if it is not in this pool yet.
+     * The value's bytes are copied, so it is never decoded.
+     *
+     * @param other pool the code belongs to
+     * @param code  code of the value in the other pool
+     * @return code of the value in this pool
+     */
+    int intern(StringPool other, int code) {
+        if (other == this) {
+            return code;
+        }
+        int[] otherOffsets = other.offsets;
+        return intern(other.bytes, otherOffsets[code], otherOffsets[code + 1] - otherOffsets[code]);
+    }
+
+    /**
+     * Retrieves the code of a value without adding it
+     *
+     * @param value string to look up
+     * @return code of the value, or -1 if it is not in the pool
+     */
+    public int code(String value) {
+        if (value == null) {
+            return -1;
+        }
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        return find(utf8, 0, utf8.length, hash(utf8, 0, utf8.length), size);
+    }
+
+    /**
+     * Retrieves the value of a code
+     *
+     * @param code code from intern() or code()
+     * @return value
+     */
+    public String value(int code) {
+        Decoded cached = decoded[code & (CACHE_SIZE - 1)];
+        if (cached != null && cached.code() == code) {
+            return cached.value();
+        }
+        if (code < 0 || code >= size) {
+            throw new IllegalArgumentException("code must be in the range 0 to size - 1");
+        }
+        int[] valueOffsets = offsets;
+        String value = new String(bytes, valueOffsets[code], valueOffsets[code + 1] - valueOffsets[code],
+                StandardCharsets.UTF_8);
+        decoded[code & (CACHE_SIZE - 1)] = new Decoded(code, value);
+        return value;
+    }
+
+    /**
+     * Retrieves the number of UTF-8 bytes of a value
+     *
+     * @param code code from intern() or code()
+     * @return byte count
+     */
+    int utf8Length(int code) {
+        if (code < 0 || code >= size) {
+            throw new IllegalArgumentException("code must be in the range 0 to size - 1");
+        }
+        int[] valueOffsets = offsets;
+        return valueOffsets[code + 1] - valueOffsets[code];
+    }
+
+    /**
+     * Copies the UTF-8 bytes of a value into an array, so it can be written out without being decoded
+     *
+     * @param code   code from intern() or code()
+     * @param target array copied to, with utf8Length(code) bytes free from offset
+     * @param offset index the first byte is copied to
+     * @return index after the last byte copied
+     */
+    int copyUtf8(int code, byte[] target, int offset) {
+        if (code < 0 || code >= size) {
+            throw new IllegalArgumentException("code must be in the range 0 to size - 1");
+        }
+        int[] valueOffsets = offsets;
+        int length = valueOffsets[code + 1] - valueOffsets[code];
+        System.arraycopy(bytes, valueOffsets[code], target, offset, length);
+        return offset + length;
+    }
+
+    /**
+     * Retrieves the number of distinct values
+     *
+     * @return number of codes
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Retrieves the number of UTF-8 bytes the values take up
+     *
+     * @return total encoded length of every value
+     */
+    public int byteCount() {
+        int count = size;
+        return offsets[count];
+    }
+
+    /**
+     * Ranks the values in String.compareTo() order, so values can be sorted by comparing ranks instead of strings.
+     * Every value is decoded once.
+     *
+     * @return rank of each code: codes of values that come first have smaller ranks, equal values never occur
+     */
+    public int[] ranks() {
+        int count = size;
+        String[] values = new String[count];
+        Integer[] codes = new Integer[count];
+        for (int code = 0; code < count; code++) {
+            values[code] = value(code);
+            codes[code] = code;
+        }
+        Arrays.sort(codes, (a, b) -> values[a].compareTo(values[b]));
+        int[] ranks = new int[count];
+        for (int rank = 0; rank < count; rank++) {
+            ranks[codes[rank]] = rank;
+        }
+        return ranks;
+    }
+
+    /**
+     * Writes every value to a snapshot stream: the value count, the value offsets and one UTF-8 block
+     *
+     * @param out snapshot stream
+     * @throws IOException if the stream cannot be written
+     */
+    void writeTo(DataOutputStream out) throws IOException {
+        int count = size;
+        out.writeInt(count);
+        for (int code = 0; code <= count; code++) {
+            out.writeInt(offsets[code]);
+        }
+        out.write(bytes, 0, offsets[count]);
+    }
+
+    /**
+     * Reads values written by writeTo.  The codes are kept, so columns of codes can be read back as they are.
+     *
+     * @param in buffer positioned at the start of the pool; left positioned after it
+     * @return new pool
+     */
+    static StringPool readFrom(ByteBuffer in) {
+        int count = in.getInt();
+        StringPool pool = new StringPool();
+        int[] readOffsets = new int[Math.max(INITIAL_CODES, count) + 1];
+        in.asIntBuffer().get(readOffsets, 0, count + 1);
+        in.position(in.position() + (count + 1) * Integer.BYTES);
+        byte[] utf8 = new byte[Math.max(INITIAL_CODES * 16, readOffsets[count])];
+        in.get(utf8, 0, readOffsets[count]);
+        int[] readHashes = new int[readOffsets.length - 1];
+        int[] table = new int[Integer.highestOneBit(Math.max(INITIAL_CODES, count)) * 4];
+        for (int code = 0; code < count; code++) {
+            readHashes[code] = hash(utf8, readOffsets[code], readOffsets[code + 1] - readOffsets[code]);
+            insert(table, readHashes[code], code);
+        }
+        pool.bytes = utf8;
+        pool.byteCount = readOffsets[count];
+        pool.offsets = readOffsets;
+        pool.hashes = readHashes;
+        pool.slots = table;
+        pool.size = count;
+        return pool;
+    }
+
+    /**
+     * Helper method to find or add the value held in part of a byte array
+     *
+     * @param utf8   array holding the UTF-8 bytes of the value
+     * @param from   offset of the first byte
+     * @param length number of bytes
+     * @return code of the value
+     */
+    private int intern(byte[] utf8, int from, int length) {
+        int hash = hash(utf8, from, length);
+        int code = find(utf8, from, length, hash, size);
+        if (code >= 0) {
+            return code;
+        }
+        code = size;
+        if (byteCount + length > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(byteCount + length, bytes.length * 2));
+        }
+        System.arraycopy(utf8, from, bytes, byteCount, length);
+        byteCount += length;
+        if (code == hashes.length) {
+            offsets = Arrays.copyOf(offsets, code * 2 + 1);
+            hashes = Arrays.copyOf(hashes, code * 2);
+        }
+        offsets[code + 1] = byteCount;
+        hashes[code] = hash;
+        size = code + 1;
+        //the table is kept at most half full
+        if ((code + 1) * 2 > slots.length) {
+            int[] table = new int[slots.length * 2];
+            for (int c = 0; c < code; c++) {
+                insert(table, hashes[c], c);
+            }
+            insert(table, hash, code);
+            slots = table;
+        } else {
+            insert(slots, hash, code);
+        }
+        return code;
+    }
+
+    /**
+     * Helper method to look up the value held in part of a byte array.  count is read from size before the arrays,
+     * so every code below it is complete; codes added since are skipped.
+     *
+     * @param utf8   array holding the UTF-8 bytes of the value
+     * @param from   offset of the first byte
+     * @param length number of bytes
+     * @param hash   hash of the bytes
+     * @param count  number of codes searched
+     * @return code of the value, or -1 if it is not in the pool
+     */
+    private int find(byte[] utf8, int from, int length, int hash, int count) {
+        int[] table = slots;
+        int[] valueOffsets = offsets;
+        int[] valueHashes = hashes;
+        byte[] valueBytes = bytes;
+        int mask = table.length - 1;
+        for (int slot = hash & mask; table[slot] != 0; slot = (slot + 1) & mask) {
+            int code = table[slot] - 1;
+            if (code < count && valueHashes[code] == hash
+                    && Arrays.equals(valueBytes, valueOffsets[code], valueOffsets[code + 1], utf8, from,
+                    from + length)) {
+                return code;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Helper method to add a code to an open addressing table at the first free slot for its hash
+     *
+     * @param table open addressing table, its length a power of two
+     * @param hash  hash of the value
+     * @param code  code added
+     */
+    private static void insert(int[] table, int hash, int code) {
+        int mask = table.length - 1;
+        int slot = hash & mask;
+        while (table[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = code + 1;
+    }
+
+    /**
+     * Helper method to hash the UTF-8 bytes of a value
+     *
+     * @param utf8   array holding the UTF-8 bytes
+     * @param from   offset of the first byte
+     * @param length number of bytes
+     * @return hash of the bytes
+     */
+    private static int hash(byte[] utf8, int from, int length) {
+        int hash = 1;
+        for (int i = from; i < from + length; i++) {
+            hash = 31 * hash + utf8[i];
+        }
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,79 @@
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StringPoolTest {
+
+    @org.junit.jupiter.api.Test
+    void internsEachValueOnce() {
+
+        StringPool pool = new StringPool();
+        int sade = pool.intern("Sade");
+        assertEquals(0, sade);
+        assertEquals(sade, pool.intern(new String("Sade")));
+        int beyonce = pool.intern("Beyonc\u00e9");
+        assertTrue(sade != beyonce);
+        assertEquals(2, pool.size());
+        assertEquals("SadeBeyonc\u00e9".getBytes(StandardCharsets.UTF_8).length, pool.byteCount());
+        assertEquals("Beyonc\u00e9", pool.value(beyonce));
+        assertEquals(beyonce, pool.code("Beyonc\u00e9"));
+        assertEquals(-1, pool.code("Bad Bunny"));
+        assertEquals(-1, pool.code(null));
+        assertThrows(IllegalArgumentException.class, () -> pool.value(2));
+
+        //enough values to resize the arrays and the hash table several times
+        for (int i = 0; i < 10_000; i++) {
+            assertEquals(i + 2, pool.intern("artist " + i));
+        }
+        for (int i = 0; i < 10_000; i++) {
+            assertEquals(i + 2, pool.code("artist " + i));
+            assertEquals("artist " + i, pool.value(i + 2));
+        }
+        assertEquals("", pool.value(pool.intern("")));
+    }
+
+    @org.junit.jupiter.api.Test
+    void ranksFollowStringOrder() {
+
+        StringPool pool = new StringPool();
+        String[] values = {"Taylor Swift", "Bad Bunny", "SZA", "Drake", "a lower case name"};
+        for (String value : values) {
+            pool.intern(value);
+        }
+        int[] ranks = pool.ranks();
+        String[] sorted = values.clone();
+        Arrays.sort(sorted);
+        for (int code = 0; code < values.length; code++) {
+            assertEquals(sorted[ranks[code]], values[code]);
+        }
+    }
+
+    @org.junit.jupiter.api.Test
+    void columnsShareCodes() {
+
+        HeapSongColumns first = new HeapSongColumns(1);
+        first.add(new String[]{"One", "Sade", "1", "1994", "2", "16", "0", "0", "1"});
+        first.add(new String[]{"Two", "Drake", "1", "2020", "1", "1", "0", "0", "2"});
+        first.add(new String[]{"Three", "Sade", "1", "1985", "7", "16", "0", "0", "3"});
+        assertEquals(first.artistCode(0), first.artistCode(2));
+        assertTrue(first.artistCode(0) != first.artistCode(1));
+        assertEquals(2, first.getArtistPool().size());
+        //songs share the text of their dates
+        assertSame(first.toSong(0).releasedDay(), first.toSong(2).releasedDay());
+
+        //rows from columns with another pool are given this pool's codes
+        HeapSongColumns second = new HeapSongColumns(1);
+        second.add(new String[]{"Four", "Drake", "1", "2021", "1", "1", "0", "0", "4"});
+        second.add(new String[]{"Five", "SZA", "1", "2022", "1", "1", "0", "0", "5"});
+        first.addAll(second);
+        assertEquals(first.artistCode(1), first.artistCode(3));
+        assertEquals("SZA", first.artistName(4));
+        assertEquals(3, first.getArtistPool().size());
+
+        HeapSongColumns copy = first.copy(10);
+        assertSame(first.getArtistPool(), copy.getArtistPool());
+        copy.add(new String[]{"Six", "Sade", "1", "2023", "1", "1", "0", "0", "6"});
+        assertEquals(first.artistCode(0), copy.artistCode(5));
+    }
+}
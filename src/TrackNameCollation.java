@@ -0,0 +1,76 @@
+import java.text.Collator;
+import java.util.Locale;
+
+/**
+ * TrackNameCollation record that describes a locale-correct order of track names: the locale's alphabet, with
+ * Unicode canonical equivalents (such as a precomposed and a combining accent) always equal and case and accents
+ * folded as configured.
+ *
+ * @param locale  locale whose alphabetical order is used
+ * @param folding differences ignored when comparing
+ * @author Bennett Fife
+ * @version 10/17/26
+ */
+public record TrackNameCollation(Locale locale, Folding folding) {
+
+    /**
+     * the root locale's order, with nothing folded
+     */
+    public static final TrackNameCollation DEFAULT = new TrackNameCollation(Locale.ROOT, Folding.NONE);
+
+    /**
+     * the differences a collation ignores
+     */
+    public enum Folding {
+        /**
+         * none: names that differ only in case or accents still have a fixed order ("apple" before "Apple")
+         */
+        NONE(Collator.TERTIARY),
+        /**
+         * case: "apple" and "Apple" are equal, "eclair" and "\u00e9clair" are not
+         */
+        CASE(Collator.SECONDARY),
+        /**
+         * case and accents: "eclair", "Eclair" and "\u00e9clair" are all equal
+         */
+        CASE_AND_ACCENTS(Collator.PRIMARY);
+
+        /**
+         * Collator strength that ignores these differences
+         */
+        private final int strength;
+
+        /**
+         * Folding constructor
+         *
+         * @param strength Collator strength that ignores these differences
+         */
+        Folding(int strength) {
+            this.strength = strength;
+        }
+    }
+
+    /**
+     * TrackNameCollation constructor
+     *
+     * @param locale  locale whose alphabetical order is used
+     * @param folding differences ignored when comparing
+     */
+    public TrackNameCollation {
+        if (locale == null || folding == null) {
+            throw new IllegalArgumentException("the locale and folding must not be null");
+        }
+    }
+
+    /**
+     * Creates a Collator for this collation.  Collators are not thread safe, so each thread needs its own.
+     *
+     * @return new collator
+     */
+    public Collator collator() {
+        Collator collator = Collator.getInstance(locale);
+        collator.setStrength(folding.strength);
+        collator.setDecomposition(Collator.CANONICAL_DECOMPOSITION);
+        return collator;
+    }
+}
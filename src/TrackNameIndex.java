@@ -0,0 +1,208 @@
+import java.util.Arrays;
+
+/**
+ * TrackNameIndex class that maps exact track names to the rows holding them.
+ * Each name maps to its first row, and rows with the same name are chained in file order,
+ * so a lookup is one hash probe per layer and titles that appear more than once cost no extra objects.
+ * The hash table holds only row numbers and name hashes, never the names: a probe whose hash matches reads the name
+ * back from the columns it is given.  So the index holds no String or column objects, and the columns can be
+ * moved (for example off the heap) without it keeping the old ones alive.
+ * The index stores row numbers, not positions, so it stays valid when the songs are re-sorted.
+ * An index is never changed after it is built: appended rows go into a new layer on top of the existing index,
+ * and the layers are folded into one again once there are too many of them.
+ *
+ * @author Bennett Fife
+ * @version 10/17/26
+ */
+public final class TrackNameIndex {
+
+    /**
+     * most layers kept before the index is rebuilt as a single layer
+     */
+    private static final int MAX_LAYERS = 8;
+
+    /**
+     * index of the rows before fromRow, or null for the bottom layer
+     */
+    private final TrackNameIndex parent;
+    /**
+     * number of layers, this one included
+     */
+    private final int layers;
+    /**
+     * first row of this layer
+     */
+    private final int fromRow;
+    /**
+     * row after the last row of this layer
+     */
+    private final int toRow;
+    /**
+     * open addressing hash table of the first row + 1 of each track name (0 for an empty slot); its length is a power
+     * of two at least twice the rows of the layer
+     */
+    private final int[] firstRows;
+    /**
+     * hash of the track name of each slot of firstRows
+     */
+    private final int[] hashes;
+    /**
+     * next row with the same track name for each row of this layer (indexed by row - fromRow), or -1
+     */
+    private final int[] nextRows;
+
+    /**
+     * TrackNameIndex constructor indexes the first rows of the columns
+     *
+     * @param columns  song columns to index
+     * @param rowCount number of rows to index
+     */
+    public TrackNameIndex(SongColumns columns, int rowCount) {
+        this(null, columns, 0, rowCount);
+    }
+
+    /**
+     * TrackNameIndex constructor indexes the rows [fromRow, toRow) as a layer on top of a parent (null for the first
+     * layer)
+     *
+     * @param parent  index of the rows before fromRow, or null
+     * @param columns song columns to index
+     * @param fromRow first row of the layer
+     * @param toRow   row after the last row of the layer
+     */
+    private TrackNameIndex(TrackNameIndex parent, SongColumns columns, int fromRow, int toRow) {
+        this.parent = parent;
+        this.layers = parent == null ? 1 : parent.layers + 1;
+        this.fromRow = fromRow;
+        this.toRow = toRow;
+        firstRows = new int[Integer.highestOneBit(Math.max(8, toRow - fromRow)) * 4];
+        hashes = new int[firstRows.length];
+        nextRows = new int[toRow - fromRow];
+        Arrays.fill(nextRows, -1);
+        //rows are added back to front so each name ends up mapped to its first row
+        for (int row = toRow - 1; row >= fromRow; row--) {
+            String trackName = columns.trackName(row);
+            int hash = hash(trackName);
+            int slot = slot(columns, trackName, hash);
+            if (firstRows[slot] != 0) {
+                nextRows[row - fromRow] = firstRows[slot] - 1;
+            }
+            firstRows[slot] = row + 1;
+            hashes[slot] = hash;
+        }
+    }
+
+    /**
+     * Creates an index that also covers rows appended to the columns.  The rows are indexed in a new layer, or the
+     * whole index is rebuilt once the layers on top of the bottom one hold too many rows.
+     *
+     * @param columns  song columns holding the rows
+     * @param rowCount new number of rows to index (rows from getRowCount() up to it are added)
+     * @return new index; this index is unchanged
+     */
+    public TrackNameIndex withRows(SongColumns columns, int rowCount) {
+        if (rowCount == toRow) {
+            return this;
+        }
+        TrackNameIndex bottom = this;
+        while (bottom.parent != null) {
+            bottom = bottom.parent;
+        }
+        int layeredRows = rowCount - bottom.toRow;
+        if (layers >= MAX_LAYERS || layeredRows > bottom.toRow / 4) {
+            return new TrackNameIndex(columns, rowCount);
+        }
+        return new TrackNameIndex(this, columns, toRow, rowCount);
+    }
+
+    /**
+     * Retrieves the number of rows indexed
+     *
+     * @return row count
+     */
+    public int getRowCount() {
+        return toRow;
+    }
+
+    /**
+     * Retrieves every row with the specified track name
+     *
+     * @param columns   song columns holding the indexed rows (the ones indexed, or any later copy of them)
+     * @param trackName the track name to search for
+     * @return row numbers in file order (empty if not found)
+     */
+    public int[] rows(SongColumns columns, String trackName) {
+        if (trackName == null) {
+            return new int[0];
+        }
+        int hash = hash(trackName);
+        int[] rows = new int[count(columns, trackName, hash)];
+        fill(columns, trackName, hash, rows, 0);
+        return rows;
+    }
+
+    /**
+     * Helper method to count the rows with a track name in this layer and the layers below it
+     *
+     * @param columns   song columns the index was built from
+     * @param trackName exact track name
+     * @param hash      hash of the track name
+     * @return number of rows
+     */
+    private int count(SongColumns columns, String trackName, int hash) {
+        int count = parent == null ? 0 : parent.count(columns, trackName, hash);
+        for (int row = firstRows[slot(columns, trackName, hash)] - 1; row != -1; row = nextRows[row - fromRow]) {
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Helper method to copy the rows with a track name, oldest layer first
+     *
+     * @param columns   song columns the index was built from
+     * @param trackName exact track name
+     * @param hash      hash of the track name
+     * @param rows      array the rows are copied to
+     * @param next      position of the first row copied
+     * @return position after the copied rows
+     */
+    private int fill(SongColumns columns, String trackName, int hash, int[] rows, int next) {
+        if (parent != null) {
+            next = parent.fill(columns, trackName, hash, rows, next);
+        }
+        for (int row = firstRows[slot(columns, trackName, hash)] - 1; row != -1; row = nextRows[row - fromRow]) {
+            rows[next++] = row;
+        }
+        return next;
+    }
+
+    /**
+     * Helper method to find the slot of a track name: the slot holding its first row, or the empty slot it would go in
+     *
+     * @param columns   song columns the index was built from
+     * @param trackName exact track name
+     * @param hash      hash of the track name
+     * @return slot index
+     */
+    private int slot(SongColumns columns, String trackName, int hash) {
+        int mask = firstRows.length - 1;
+        int slot = hash & mask;
+        while (firstRows[slot] != 0
+                && (hashes[slot] != hash || !columns.trackName(firstRows[slot] - 1).equals(trackName))) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Helper method to hash a track name, spreading its high bits into the low ones
+     *
+     * @param trackName track name hashed
+     * @return hash of the track name
+     */
+    private static int hash(String trackName) {
+        int hash = trackName.hashCode();
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,75 @@
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+import java.util.Arrays;
+
+/**
+ * VectorDistanceKernel class that works out the squared distances of a block of SimilarityIndex feature vectors with
+ * the JDK's Vector API, a whole register of rows per instruction.  HotSpot on JDK 17 does not vectorize the scalar
+ * loop (the bytes are widened to ints before they are subtracted), so this is what makes an exact search fast.
+ * It is kept in its own module because jdk.incubator.vector is only resolved with --add-modules
+ * jdk.incubator.vector; SimilarityIndex looks it up when the module is present and uses its own loop otherwise.
+ *
+ * @author Bennett Fife
+ * @version 10/17/26
+ */
+public final class VectorDistanceKernel {
+
+    /**
+     * ints summed per instruction: the widest the hardware has
+     */
+    private static final VectorSpecies<Integer> INTS = IntVector.SPECIES_PREFERRED;
+    /**
+     * bytes loaded at a time: a lane per int lane, but at least 64 bits, the narrowest byte vector there is
+     */
+    private static final VectorSpecies<Byte> BYTES = VectorSpecies.of(byte.class,
+            VectorShape.forBitSize(Math.max(64, INTS.length() * Byte.SIZE)));
+    /**
+     * int vectors each byte vector is widened into
+     */
+    private static final int PARTS = BYTES.length() / INTS.length();
+
+    /**
+     * VectorDistanceKernel has only static methods
+     */
+    private VectorDistanceKernel() {
+    }
+
+    /**
+     * Works out the squared Euclidean distance between a query and rows [start, start + count) of a packed feature
+     * array, feature d of position p being packed[d * stride + p]
+     *
+     * @param packed    feature array, one column per dimension
+     * @param stride    length of each column
+     * @param start     first position compared
+     * @param count     number of positions compared
+     * @param query     feature vector compared with, one int per dimension
+     * @param distances receives the distance of position start + i at index i
+     */
+    public static void distances(byte[] packed, int stride, int start, int count, int[] query, int[] distances) {
+        int bound = count - count % BYTES.length();
+        Arrays.fill(distances, 0, count, 0);
+        for (int d = 0; d < query.length; d++) {
+            int base = d * stride + start;
+            int value = query[d];
+            int i = 0;
+            for (; i < bound; i += BYTES.length()) {
+                ByteVector bytes = ByteVector.fromArray(BYTES, packed, base + i);
+                for (int part = 0; part < PARTS; part++) {
+                    IntVector difference = ((IntVector) bytes.convertShape(VectorOperators.B2I, INTS, part))
+                            .sub(value);
+                    int offset = i + part * INTS.length();
+                    IntVector.fromArray(INTS, distances, offset).add(difference.mul(difference))
+                            .intoArray(distances, offset);
+                }
+            }
+            for (; i < count; i++) {
+                int difference = packed[base + i] - value;
+                distances[i] += difference * difference;
+            }
+        }
+    }
+}